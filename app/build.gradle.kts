@@ -1,3 +1,7 @@
+import groovy.json.JsonSlurper
+import java.net.URL
+import java.sql.DriverManager
+
 plugins {
     alias(libs.plugins.android.application)
     id("com.google.gms.google-services")
@@ -15,10 +19,22 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Room сохраняет JSON схемы каждой версии БД - по ним собирается seed база
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
+        // Минимальный уровень AppLog; для подробного лога: ./gradlew -PlogLevel=VERBOSE
+        debug {
+            buildConfigField("int", "LOG_LEVEL", "android.util.Log.${findProperty("logLevel") ?: "DEBUG"}")
+        }
         release {
+            buildConfigField("int", "LOG_LEVEL", "android.util.Log.WARN")
             isMinifyEnabled = false
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
@@ -34,6 +50,17 @@ android {
     // Добавляем поддержку загрузки шрифтов из Google Fonts
     buildFeatures {
         viewBinding = true
+        buildConfig = true
+    }
+
+    // JVM-тесты сетевого и кодекового кода: android.util.Log и прочие заглушки возвращают значения по умолчанию
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
+
+    // MigrationTestHelper читает экспортированные схемы из assets тестового APK
+    sourceSets {
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
     }
 }
 
@@ -49,8 +76,10 @@ dependencies {
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
     implementation(libs.preference)
     testImplementation(libs.junit)
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation("androidx.room:room-testing:2.6.1")
     implementation("io.socket:socket.io-client:2.0.0")
     implementation("androidx.coordinatorlayout:coordinatorlayout:1.2.0")
     implementation ("com.google.android.material:material:1.9.0")
@@ -59,6 +88,12 @@ dependencies {
     implementation("com.squareup.retrofit2:converter-scalars:2.9.0")
     implementation("com.google.code.gson:gson:2.9.0")
     implementation("com.github.bumptech.glide:glide:4.16.0")
+    implementation("com.github.bumptech.glide:okhttp3-integration:4.16.0")
+    implementation("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        // RecyclerView уже приходит с AndroidX, версию не навязываем
+        isTransitive = false
+    }
+    annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
     implementation(platform("com.google.firebase:firebase-bom:33.11.0"))
     implementation("com.google.firebase:firebase-analytics")
     implementation("com.google.firebase:firebase-auth")
@@ -78,4 +113,220 @@ dependencies {
     // implementation("androidx.navigation:navigation-ui-ktx:$nav_version") // Используем ktx для Kotlin - ЗАМЕНЯЕТСЯ
     implementation("androidx.navigation:navigation-fragment:$nav_version") // Java версия
     implementation("androidx.navigation:navigation-ui:$nav_version") // Java версия
-}
\ No newline at end of file
+}
+
+/**
+ * Собирает предзаполненную базу recipes_database для Room.createFromAsset.
+ * Таблицы и индексы создаются по экспортированной схеме Room последней версии
+ * (включая identity hash в room_master_table), затем в recipes загружается
+ * снимок каталога seed/catalog.json в формате ответа GET /recipes.
+ * Снимок в репозитории не хранится: без него (до ./gradlew :app:updateSeedCatalog)
+ * собирается пустая база с актуальной схемой, и лента при первом запуске
+ * заполняется только из сети.
+ * Списки кодируются своей копией RecipeListCodec; перед сборкой она сверяется
+ * с эталонными значениями, которые проверяет и RecipeListCodecVectorsTest.
+ */
+abstract class BuildSeedDatabaseTask : DefaultTask() {
+    @get:InputDirectory
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val schemaDir: DirectoryProperty
+
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val catalog: ConfigurableFileCollection
+
+    @get:InputFile
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val codecVectors: RegularFileProperty
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @Suppress("UNCHECKED_CAST")
+    @TaskAction
+    fun build() {
+        checkCodecVectors()
+        val schemaFile = schemaDir.get().asFile
+            .listFiles { file -> file.extension == "json" }
+            ?.maxByOrNull { it.nameWithoutExtension.toInt() }
+            ?: throw GradleException("Нет экспортированной схемы Room в ${schemaDir.get().asFile}")
+        val database = (JsonSlurper().parse(schemaFile) as Map<String, Any?>)["database"] as Map<String, Any?>
+        val version = database["version"] as Int
+
+        val dbFile = outputDir.file("database/recipes_database.db").get().asFile
+        dbFile.parentFile.mkdirs()
+        dbFile.delete()
+
+        var recipeCount = 0
+        DriverManager.getConnection("jdbc:sqlite:${dbFile.absolutePath}").use { connection ->
+            connection.autoCommit = false
+            connection.createStatement().use { statement ->
+                for (entity in database["entities"] as List<Map<String, Any?>>) {
+                    val table = entity["tableName"] as String
+                    statement.execute((entity["createSql"] as String).replace("\${TABLE_NAME}", table))
+                    for (index in (entity["indices"] as List<Map<String, Any?>>?).orEmpty()) {
+                        statement.execute((index["createSql"] as String).replace("\${TABLE_NAME}", table))
+                    }
+                }
+                for (query in database["setupQueries"] as List<String>) {
+                    statement.execute(query)
+                }
+            }
+            catalog.files.firstOrNull()?.let { recipeCount = insertCatalog(connection, it) }
+            connection.commit()
+            connection.autoCommit = true
+            connection.createStatement().use { statement ->
+                statement.execute("PRAGMA user_version = $version")
+                statement.execute("VACUUM")
+            }
+        }
+        logger.lifecycle("Seed база v$version: $recipeCount рецептов, ${dbFile.length()} байт")
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun insertCatalog(connection: java.sql.Connection, file: File): Int {
+        val root = JsonSlurper().parse(file)
+        val recipes = (if (root is Map<*, *>) root["recipes"] else root) as List<Map<String, Any?>>? ?: return 0
+        // Имена JSON полей как в Recipe.GsonAdapter
+        val sql = "INSERT OR REPLACE INTO `recipes` (`id`, `title`, `ingredients`, `instructions`, `created_at`, " +
+                "`userId`, `mealType`, `foodType`, `photo_url`, `placeholderColor`, `isLiked`) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)"
+        connection.prepareStatement(sql).use { insert ->
+            for (recipe in recipes) {
+                insert.setInt(1, (recipe["id"] as Number).toInt())
+                insert.setString(2, recipe["title"]?.toString())
+                insert.setBytes(3, listColumn(recipe["ingredients"], INGREDIENT_FIELDS))
+                insert.setBytes(4, listColumn(recipe["instructions"], STEP_FIELDS))
+                insert.setString(5, recipe["created_at"]?.toString())
+                insert.setString(6, recipe["userId"]?.toString())
+                insert.setString(7, recipe["meal_type"]?.toString())
+                insert.setString(8, recipe["food_type"]?.toString())
+                insert.setString(9, recipe["photo"]?.toString())
+                insert.setObject(10, placeholderColor(recipe["placeholder_color"]), java.sql.Types.INTEGER)
+                insert.addBatch()
+            }
+            insert.executeBatch()
+        }
+        return recipes.size
+    }
+
+    /**
+     * Сверить кодировщик с эталонными значениями RecipeListCodec: расхождение
+     * останавливает сборку, а не попадает в seed базу
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun checkCodecVectors() {
+        val vectors = JsonSlurper().parse(codecVectors.get().asFile) as List<Map<String, Any?>>
+        for ((i, vector) in vectors.withIndex()) {
+            val fields = if (vector["kind"] == "steps") STEP_FIELDS else INGREDIENT_FIELDS
+            val actual = listColumn(vector["value"], fields)
+                ?.joinToString("") { String.format("%02x", it.toInt() and 0xFF) }
+            if (actual != vector["hex"]) {
+                throw GradleException("Кодировщик seed базы расходится с RecipeListCodec в примере $i " +
+                        "(${codecVectors.get().asFile.name}): $actual")
+            }
+        }
+    }
+
+    /**
+     * "#RRGGBB" из API в непрозрачный ARGB, как DominantColor.parse
+     */
+    private fun placeholderColor(value: Any?): Int? {
+        val text = value?.toString() ?: return null
+        if (!text.startsWith("#") || (text.length != 7 && text.length != 9)) return null
+        val rgb = text.substring(1).toLongOrNull(16) ?: return null
+        return (0xFF000000L or (rgb and 0xFFFFFF)).toInt()
+    }
+
+    /**
+     * Список в формате RecipeListCodec. Сервер отдает списки и массивом, и JSON-строкой.
+     * Поля перечислены в порядке записи; true - целое (zigzag varint), false - строка.
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun listColumn(value: Any?, fields: List<Pair<String, Boolean>>): ByteArray? {
+        val items = when (value) {
+            null -> return null
+            is String -> if (value.isBlank()) return null else JsonSlurper().parseText(value)
+            else -> value
+        } as? List<Map<String, Any?>> ?: return null
+
+        val raw = java.io.ByteArrayOutputStream()
+        raw.writeVarint(items.size)
+        for ((index, item) in items.withIndex()) {
+            for ((name, isInt) in fields) {
+                val field = item[name]
+                if (isInt) {
+                    var number = (field as? Number)?.toInt() ?: field?.toString()?.toDoubleOrNull()?.toInt() ?: 0
+                    // Шагам без номера - порядковый, как RecipeListCodec.stepsFromJson
+                    if (name == "number" && number <= 0) number = index + 1
+                    raw.writeVarint((number shl 1) xor (number shr 31))
+                } else if (field == null) {
+                    raw.writeVarint(0)
+                } else {
+                    val bytes = field.toString().toByteArray(Charsets.UTF_8)
+                    raw.writeVarint(bytes.size + 1)
+                    raw.write(bytes)
+                }
+            }
+        }
+        val payload = raw.toByteArray()
+
+        if (payload.size >= DEFLATE_THRESHOLD) {
+            val deflater = java.util.zip.Deflater(java.util.zip.Deflater.DEFAULT_COMPRESSION, true)
+            val packed = java.io.ByteArrayOutputStream()
+            packed.write(FORMAT_VERSION or FLAG_DEFLATE)
+            packed.writeVarint(payload.size)
+            java.util.zip.DeflaterOutputStream(packed, deflater).use { it.write(payload) }
+            deflater.end()
+            if (packed.size() < payload.size + 1) {
+                return packed.toByteArray()
+            }
+        }
+        return byteArrayOf(FORMAT_VERSION.toByte()) + payload
+    }
+
+    private fun java.io.ByteArrayOutputStream.writeVarint(value: Int) {
+        var v = value
+        while (v and 0x7F.inv() != 0) {
+            write((v and 0x7F) or 0x80)
+            v = v ushr 7
+        }
+        write(v)
+    }
+
+    private companion object {
+        // Должно совпадать с RecipeListCodec
+        const val FORMAT_VERSION = 1
+        const val FLAG_DEFLATE = 0x80
+        const val DEFLATE_THRESHOLD = 256
+        val INGREDIENT_FIELDS = listOf("name" to false, "count" to true, "type" to false)
+        val STEP_FIELDS = listOf("number" to true, "instruction" to false, "url" to false)
+    }
+}
+
+val seedCatalogFile = layout.projectDirectory.file("seed/catalog.json")
+
+androidComponents {
+    onVariants { variant ->
+        val variantName = variant.name.replaceFirstChar { it.uppercase() }
+        val seedTask = tasks.register<BuildSeedDatabaseTask>("build${variantName}SeedDatabase") {
+            // Схема экспортируется при компиляции Java (room.schemaLocation)
+            dependsOn("compile${variantName}JavaWithJavac")
+            schemaDir.set(layout.projectDirectory.dir("schemas/com.example.cooking.data.database.AppDatabase"))
+            catalog.from(files(seedCatalogFile).filter { it.exists() })
+            codecVectors.set(layout.projectDirectory.file("src/test/resources/seed/list_column_vectors.json"))
+        }
+        variant.sources.assets?.addGeneratedSourceDirectory(seedTask, BuildSeedDatabaseTask::outputDir)
+    }
+}
+
+// Обновить снимок каталога: ./gradlew :app:updateSeedCatalog
+tasks.register("updateSeedCatalog") {
+    val url = providers.gradleProperty("seedCatalogUrl")
+    val target = seedCatalogFile.asFile
+    doLast {
+        target.parentFile.mkdirs()
+        URL(url.get()).openStream().use { input -> target.outputStream().use { input.copyTo(it) } }
+        logger.lifecycle("Снимок каталога сохранен в $target (${target.length()} байт)")
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.cooking.data.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Step;
+import com.example.cooking.data.database.converters.RecipeListCodec;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Миграции AppDatabase по экспортированным схемам app/schemas.
+ * Каждый шаг проверяется отдельно: база создается по схеме исходной версии,
+ * заполняется, мигрирует, и Room сверяет результат со схемой целевой версии.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+
+    private static final String INGREDIENTS_JSON =
+            "[{\"name\":\"Мука\",\"count\":200,\"type\":\"г\"},{\"name\":\"Яйцо\",\"count\":2,\"type\":\"шт\"}]";
+    private static final String STEPS_JSON =
+            "[{\"number\":1,\"instruction\":\"Смешать\"},{\"instruction\":\"Выпекать 20 минут\"}]";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrate4To5() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 4)) {
+            insertJsonRecipe(db, 1);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 5, true,
+                Migrations.MIGRATION_4_5)) {
+            assertRecipeKept(db, 1);
+        }
+    }
+
+    @Test
+    public void migrate5To6() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 5)) {
+            insertJsonRecipe(db, 1);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 6, true,
+                Migrations.MIGRATION_5_6)) {
+            assertRecipeKept(db, 1);
+            assertEquals(0, count(db, "pending_recipe_uploads"));
+        }
+    }
+
+    @Test
+    public void migrate6To7() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 6)) {
+            insertJsonRecipe(db, -1);
+            insertPendingRecipe(db, -1);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 7, true,
+                Migrations.MIGRATION_6_7)) {
+            assertRecipeKept(db, -1);
+            assertEquals(1, count(db, "pending_recipe_uploads"));
+            assertEquals(0, count(db, "pending_likes"));
+        }
+    }
+
+    @Test
+    public void migrate7To8() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 7)) {
+            insertJsonRecipe(db, 1);
+            // Рецепт без списков: NULL должен остаться NULL, а не пустым BLOB
+            ContentValues values = new ContentValues();
+            values.put("id", 2);
+            values.put("title", "Без списков");
+            values.put("isLiked", 1);
+            db.insert("recipes", SQLiteDatabase.CONFLICT_FAIL, values);
+            insertPendingLike(db);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 8, true,
+                Migrations.MIGRATION_7_8)) {
+            assertRecipeKept(db, 1);
+            try (Cursor cursor = db.query("SELECT `ingredients`, `instructions` FROM `recipes` WHERE `id` = 1")) {
+                assertTrue(cursor.moveToFirst());
+                List<Ingredient> ingredients = RecipeListCodec.decodeIngredients(cursor.getBlob(0));
+                assertEquals(2, ingredients.size());
+                assertEquals("Мука", ingredients.get(0).getName());
+                assertEquals(200, ingredients.get(0).getCount());
+                assertEquals("шт", ingredients.get(1).getType());
+
+                List<Step> steps = RecipeListCodec.decodeSteps(cursor.getBlob(1));
+                assertEquals(2, steps.size());
+                assertEquals("Смешать", steps.get(0).getInstruction());
+                // Номер шага без номера проставляется при переносе
+                assertEquals(2, steps.get(1).getNumber());
+            }
+            try (Cursor cursor = db.query("SELECT `ingredients`, `instructions`, `isLiked` FROM `recipes` WHERE `id` = 2")) {
+                assertTrue(cursor.moveToFirst());
+                assertTrue(cursor.isNull(0));
+                assertTrue(cursor.isNull(1));
+                assertEquals(1, cursor.getInt(2));
+            }
+            assertEquals(1, count(db, "pending_likes"));
+        }
+    }
+
+    @Test
+    public void migrate8To9() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 8)) {
+            ContentValues values = new ContentValues();
+            values.put("id", 1);
+            values.put("title", "Блины");
+            values.put("ingredients", RecipeListCodec.encodeIngredients(
+                    RecipeListCodec.ingredientsFromJson(INGREDIENTS_JSON)));
+            values.put("isLiked", 0);
+            db.insert("recipes", SQLiteDatabase.CONFLICT_FAIL, values);
+            insertPendingRecipe(db, -1);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 9, true,
+                Migrations.MIGRATION_8_9)) {
+            try (Cursor cursor = db.query("SELECT `title`, `ingredients`, `placeholderColor` FROM `recipes`")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals("Блины", cursor.getString(0));
+                assertEquals(2, RecipeListCodec.decodeIngredients(cursor.getBlob(1)).size());
+                assertTrue(cursor.isNull(2));
+            }
+            try (Cursor cursor = db.query("SELECT `placeholderColor` FROM `pending_recipe_uploads`")) {
+                assertTrue(cursor.moveToFirst());
+                assertTrue(cursor.isNull(0));
+            }
+        }
+    }
+
+    @Test
+    public void migrate9To10() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 9)) {
+            insertJsonRecipe(db, 1);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 10, true,
+                Migrations.MIGRATION_9_10)) {
+            assertTypesSwapped(db, 1);
+        }
+    }
+
+    /**
+     * Вся цепочка Migrations.ALL от baseline до текущей версии, открытие через Room:
+     * сгенерированный код AppDatabase сам сверяет схему и identity hash
+     */
+    @Test
+    public void migrateAllFromBaseline() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 4)) {
+            insertJsonRecipe(db, 1);
+            ContentValues liked = new ContentValues();
+            liked.put("recipeId", 1);
+            liked.put("userId", "42");
+            db.insert("liked_recipes", SQLiteDatabase.CONFLICT_FAIL, liked);
+        }
+
+        AppDatabase database = Room.databaseBuilder(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        AppDatabase.class, TEST_DB)
+                .addMigrations(Migrations.ALL)
+                .build();
+        try {
+            SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+            assertEquals(10, db.getVersion());
+            assertTypesSwapped(db, 1);
+            assertEquals(1, count(db, "liked_recipes"));
+            try (Cursor cursor = db.query("SELECT `ingredients` FROM `recipes` WHERE `id` = 1")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals(2, RecipeListCodec.decodeIngredients(cursor.getBlob(0)).size());
+            }
+        } finally {
+            database.close();
+        }
+    }
+
+    private static void insertJsonRecipe(SupportSQLiteDatabase db, int id) {
+        ContentValues values = new ContentValues();
+        values.put("id", id);
+        values.put("title", "Блины");
+        values.put("ingredients", INGREDIENTS_JSON);
+        values.put("instructions", STEPS_JSON);
+        values.put("created_at", "2024-05-01 12:00:00");
+        values.put("userId", "42");
+        values.put("mealType", "Завтрак");
+        values.put("foodType", "Выпечка");
+        values.put("photo_url", "http://example.com/1.jpg");
+        values.put("isLiked", 0);
+        db.insert("recipes", SQLiteDatabase.CONFLICT_FAIL, values);
+    }
+
+    private static void insertPendingRecipe(SupportSQLiteDatabase db, int localId) {
+        ContentValues values = new ContentValues();
+        values.put("localId", localId);
+        values.put("idempotencyKey", "key-" + localId);
+        values.put("title", "Блины");
+        values.put("ingredientsJson", INGREDIENTS_JSON);
+        values.put("stepsJson", STEPS_JSON);
+        values.put("userId", "42");
+        values.put("createdAt", 1714550400000L);
+        values.put("attempts", 0);
+        values.put("failed", 0);
+        db.insert("pending_recipe_uploads", SQLiteDatabase.CONFLICT_FAIL, values);
+    }
+
+    private static void insertPendingLike(SupportSQLiteDatabase db) {
+        ContentValues values = new ContentValues();
+        values.put("userId", "42");
+        values.put("recipeId", 1);
+        values.put("liked", 1);
+        values.put("serverLiked", 0);
+        values.put("updatedAt", 1714550400000L);
+        values.put("attempts", 0);
+        db.insert("pending_likes", SQLiteDatabase.CONFLICT_FAIL, values);
+    }
+
+    private static void assertRecipeKept(SupportSQLiteDatabase db, int id) {
+        try (Cursor cursor = db.query("SELECT `title`, `userId`, `mealType`, `foodType`, `photo_url`, `isLiked` "
+                + "FROM `recipes` WHERE `id` = ?", new Object[]{id})) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("Блины", cursor.getString(0));
+            assertEquals("42", cursor.getString(1));
+            assertEquals("Завтрак", cursor.getString(2));
+            assertEquals("Выпечка", cursor.getString(3));
+            assertNotNull(cursor.getString(4));
+            assertEquals(0, cursor.getInt(5));
+            assertFalse(cursor.moveToNext());
+        }
+    }
+
+    /**
+     * mealType и foodType поменялись местами относительно insertJsonRecipe
+     */
+    private static void assertTypesSwapped(SupportSQLiteDatabase db, int id) {
+        try (Cursor cursor = db.query("SELECT `title`, `mealType`, `foodType` FROM `recipes` WHERE `id` = ?",
+                new Object[]{id})) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("Блины", cursor.getString(0));
+            assertEquals("Выпечка", cursor.getString(1));
+            assertEquals("Завтрак", cursor.getString(2));
+        }
+    }
+
+    private static int count(SupportSQLiteDatabase db, String table) {
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM `" + table + "`")) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
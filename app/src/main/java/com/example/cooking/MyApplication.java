@@ -1,11 +1,12 @@
 package com.example.cooking;
 
 import android.app.Application;
-import androidx.preference.PreferenceManager;
-import android.content.SharedPreferences;
-import com.example.cooking.utils.ThemeUtils;
-import com.example.cooking.ltr.LTRClient;
-import com.example.cooking.ltr.config.LTRServerConfig;
+import com.example.cooking.network.services.NetworkUsageMonitor;
+import com.example.cooking.startup.AppStartup;
+import com.example.cooking.startup.LtrClientInitializer;
+import com.example.cooking.startup.ThemeInitializer;
+import com.example.cooking.startup.TokenStorageInitializer;
+import com.example.cooking.utils.AppExecutors;
 import com.example.cooking.auth.TokenStorage;
 
 /**
@@ -15,40 +16,27 @@ public class MyApplication extends Application {
 
     @Override
     public void onCreate() {
-        // Инициализация TokenStorage
+        // TokenStorage только запоминает контекст, хранилище откроется позже
         TokenStorage.init(this);
         super.onCreate();
 
-        // Инициализация темы приложения при запуске
-        initializeTheme();
-
-        // Инициализация LTR клиента
-        initializeLTRClient();
-    }
-
-    /**
-     * Инициализирует тему приложения согласно сохраненным настройкам
-     */
-    private void initializeTheme() {
-        // Получаем доступ к SharedPreferences
-        SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
-
-        // Читаем сохраненное значение темы (по умолчанию - "system")
-        String themeValue = sharedPreferences.getString("theme", "system");
-
-        // Применяем сохраненную тему
-        ThemeUtils.applyTheme(themeValue);
+        // До первого кадра выполняется только тема, остальное - после него в фоне.
+        // Время шагов: AppStartup.getInstance().getReport()
+        AppStartup.getInstance()
+                .register(
+                        new ThemeInitializer(),
+                        new TokenStorageInitializer(),
+                        new LtrClientInitializer())
+                .start(this);
     }
 
-    /**
-     * Инициализирует клиент для Learning to Rank
-     */
-    private void initializeLTRClient() {
-        // Инициализация LTR клиента с использованием настроек из конфигурации
-        LTRClient.getInstance(this)
-                .setServerUrl(LTRServerConfig.BASE_URL)
-                .setApiKey(LTRServerConfig.API_KEY)
-                .enablePersonalization(true)
-                .initialize();
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Приложение уходит в фон - фиксируем в логе состояние пулов потоков и трафик
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            AppExecutors.getInstance().logStats();
+            NetworkUsageMonitor.getInstance().logStats();
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,18 @@ package com.example.cooking.Recipe;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+
+import com.example.cooking.network.json.JsonValues;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Objects;
 
+@JsonAdapter(Ingredient.GsonAdapter.class)
 public class Ingredient implements Parcelable {
     private String name;
     private int count;
@@ -109,4 +119,49 @@ public class Ingredient implements Parcelable {
                 ", type='" + type + '\'' +
                 '}';
     }
+
+    /**
+     * Потоковый адаптер без рефлексии; формат совпадает с полями класса
+     */
+    public static final class GsonAdapter extends TypeAdapter<Ingredient> {
+        @Override
+        public void write(JsonWriter out, Ingredient value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("name").value(value.name);
+            out.name("count").value(value.count);
+            out.name("type").value(value.type);
+            out.endObject();
+        }
+
+        @Override
+        public Ingredient read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Ingredient value = new Ingredient();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        value.name = JsonValues.nextString(in);
+                        break;
+                    case "count":
+                        value.count = JsonValues.nextInt(in, 0);
+                        break;
+                    case "type":
+                        value.type = JsonValues.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
 }
@@ -2,17 +2,18 @@ package com.example.cooking.Recipe;
 
 import android.os.Parcel;
 import android.os.Parcelable;
-import com.google.gson.Gson;
+import com.example.cooking.network.json.Json;
+import com.example.cooking.network.json.JsonLists;
+import com.example.cooking.network.json.JsonValues;
+import com.example.cooking.utils.DominantColor;
 import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
-import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -22,6 +23,7 @@ import java.util.List;
  * Содержит всю информацию о рецепте, необходимую для отображения
  *
  */
+@JsonAdapter(Recipe.GsonAdapter.class)
 public class Recipe implements Parcelable {
     private int id;
     private String title;
@@ -30,125 +32,98 @@ public class Recipe implements Parcelable {
     private boolean isLiked;
 
     @SerializedName("ingredients")
-    @JsonAdapter(IngredientsAdapter.class)
     private ArrayList<Ingredient> ingredients = new ArrayList<>();
 
     @SerializedName("instructions")
-    @JsonAdapter(StepsAdapter.class)
     private ArrayList<Step> steps = new ArrayList<>();
-    @SerializedName("food_type")
-    private String mealType;
     @SerializedName("meal_type")
+    private String mealType;
+    @SerializedName("food_type")
     private String foodType;
 
     /**
-     * Адаптер для десериализации поля ingredients, которое может прийти как строка JSON или как массив
+     * Потоковый адаптер рецепта. Читает поля по имени без рефлексии; ingredients
+     * и instructions могут прийти массивом или строкой с JSON (см. JsonLists).
+     * Запись совпадает с тем, что давал рефлексивный адаптер Gson.
      */
-    public static class IngredientsAdapter extends TypeAdapter<ArrayList<Ingredient>> {
-        private final Gson gson = new Gson();
-        private final Type ingredientListType = new TypeToken<ArrayList<Ingredient>>() {}.getType();
+    public static final class GsonAdapter extends TypeAdapter<Recipe> {
+        private final Ingredient.GsonAdapter ingredientAdapter = new Ingredient.GsonAdapter();
+        private final Step.GsonAdapter stepAdapter = new Step.GsonAdapter();
 
         @Override
-        public void write(JsonWriter out, ArrayList<Ingredient> value) throws IOException {
-            if (value == null) {
+        public void write(JsonWriter out, Recipe recipe) throws IOException {
+            if (recipe == null) {
                 out.nullValue();
                 return;
             }
-            gson.toJson(value, ingredientListType, out);
-        }
-
-        @Override
-        public ArrayList<Ingredient> read(JsonReader in) throws IOException {
-            if (in.peek() == JsonToken.NULL) {
-                in.nextNull();
-                return new ArrayList<>();
-            }
-
-            if (in.peek() == JsonToken.STRING) {
-                String jsonString = in.nextString();
-                if (jsonString.isEmpty()) {
-                    return new ArrayList<>();
-                }
-                try {
-                    ArrayList<Ingredient> parsedIngredients = gson.fromJson(jsonString, ingredientListType);
-                    return parsedIngredients != null ? parsedIngredients : new ArrayList<>();
-                } catch (Exception e) {
-                    android.util.Log.e("Recipe", "Ошибка преобразования JSON-строки ингредиентов: " + jsonString, e);
-                    return new ArrayList<>();
-                }
-            } else if (in.peek() == JsonToken.BEGIN_ARRAY) {
-                try {
-                    ArrayList<Ingredient> parsedIngredients = gson.fromJson(in, ingredientListType);
-                    return parsedIngredients != null ? parsedIngredients : new ArrayList<>();
-                } catch (Exception e) {
-                    android.util.Log.e("Recipe", "Ошибка парсинга массива ингредиентов", e);
-                    return new ArrayList<>();
-                }
-            } else {
-                android.util.Log.w("Recipe", "Неожиданный JSON токен для ingredients: " + in.peek());
-                in.skipValue();
-                return new ArrayList<>();
+            out.beginObject();
+            out.name("id").value(recipe.id);
+            out.name("title").value(recipe.title);
+            out.name("created_at").value(recipe.created_at);
+            out.name("userId").value(recipe.userId);
+            out.name("isLiked").value(recipe.isLiked);
+            out.name("ingredients");
+            JsonLists.writeArray(out, recipe.ingredients, ingredientAdapter);
+            out.name("instructions");
+            JsonLists.writeArray(out, recipe.steps, stepAdapter);
+            out.name("meal_type").value(recipe.mealType);
+            out.name("food_type").value(recipe.foodType);
+            out.name("photo").value(recipe.photo_url);
+            if (recipe.placeholderColor != null) {
+                out.name("placeholder_color").value(DominantColor.toHex(recipe.placeholderColor));
             }
-        }
-    }
-
-    /**
-     * Адаптер для десериализации поля steps, которое может прийти как строка JSON или как массив
-     */
-    public static class StepsAdapter extends TypeAdapter<ArrayList<Step>> {
-        private final Gson gson = new Gson();
-        private final Type stepListType = new TypeToken<ArrayList<Step>>() {}.getType();
-
-        @Override
-        public void write(JsonWriter out, ArrayList<Step> value) throws IOException {
-            if (value == null) {
-                out.nullValue();
-                return;
-            }
-            gson.toJson(value, stepListType, out);
+            out.endObject();
         }
 
         @Override
-        public ArrayList<Step> read(JsonReader in) throws IOException {
+        public Recipe read(JsonReader in) throws IOException {
             if (in.peek() == JsonToken.NULL) {
                 in.nextNull();
-                android.util.Log.d("StepsAdapter", "Read null, returning empty list.");
-                return new ArrayList<>();
+                return null;
             }
-
-            if (in.peek() == JsonToken.STRING) {
-                String jsonString = in.nextString();
-                android.util.Log.d("StepsAdapter", "Read string: " + jsonString);
-                if (jsonString.isEmpty()) {
-                    android.util.Log.d("StepsAdapter", "String is empty, returning empty list.");
-                    return new ArrayList<>();
+            Recipe recipe = new Recipe();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        recipe.id = JsonValues.nextInt(in, 0);
+                        break;
+                    case "title":
+                        recipe.title = JsonValues.nextString(in);
+                        break;
+                    case "created_at":
+                        recipe.created_at = JsonValues.nextString(in);
+                        break;
+                    case "userId":
+                        recipe.userId = JsonValues.nextString(in);
+                        break;
+                    case "isLiked":
+                        recipe.isLiked = JsonValues.nextBoolean(in, false);
+                        break;
+                    case "ingredients":
+                        recipe.ingredients = JsonLists.readEmbeddedArray(in, ingredientAdapter, "ingredients");
+                        break;
+                    case "instructions":
+                        recipe.steps = JsonLists.readEmbeddedArray(in, stepAdapter, "instructions");
+                        break;
+                    case "meal_type":
+                        recipe.mealType = JsonValues.nextString(in);
+                        break;
+                    case "food_type":
+                        recipe.foodType = JsonValues.nextString(in);
+                        break;
+                    case "photo":
+                        recipe.photo_url = JsonValues.nextString(in);
+                        break;
+                    case "placeholder_color":
+                        recipe.placeholderColor = DominantColor.parse(JsonValues.nextString(in));
+                        break;
+                    default:
+                        in.skipValue();
                 }
-                try {
-                    ArrayList<Step> parsedSteps = gson.fromJson(jsonString, stepListType);
-                    int size = (parsedSteps != null) ? parsedSteps.size() : 0;
-                    android.util.Log.d("StepsAdapter", "Parsed string to list, size: " + size);
-                    return parsedSteps != null ? parsedSteps : new ArrayList<>();
-                } catch (Exception e) {
-                    android.util.Log.e("StepsAdapter", "Error parsing string: " + jsonString, e);
-                    return new ArrayList<>();
-                }
-            } else if (in.peek() == JsonToken.BEGIN_ARRAY) {
-                android.util.Log.d("StepsAdapter", "Reading as array.");
-                try {
-                    ArrayList<Step> parsedSteps = gson.fromJson(in, stepListType);
-                    int size = (parsedSteps != null) ? parsedSteps.size() : 0;
-                    android.util.Log.d("StepsAdapter", "Parsed array to list, size: " + size);
-                    return parsedSteps != null ? parsedSteps : new ArrayList<>();
-                } catch (Exception e) {
-                    android.util.Log.e("StepsAdapter", "Error parsing array", e);
-                    return new ArrayList<>();
-                }
-            } else {
-                JsonToken token = in.peek();
-                android.util.Log.w("StepsAdapter", "Unexpected JSON token: " + token);
-                in.skipValue();
-                return new ArrayList<>();
             }
+            in.endObject();
+            return recipe;
         }
     }
 
@@ -175,6 +150,18 @@ public class Recipe implements Parcelable {
         this.photo_url = photo_url;
     }
 
+    // Преобладающий цвет фото (ARGB) - заглушка карточки, пока фото грузится
+    @SerializedName("placeholder_color")
+    private Integer placeholderColor;
+
+    public Integer getPlaceholderColor() {
+        return placeholderColor;
+    }
+
+    public void setPlaceholderColor(Integer placeholderColor) {
+        this.placeholderColor = placeholderColor;
+    }
+
     public String getUserId() {
         return userId;
     }
@@ -250,10 +237,10 @@ public class Recipe implements Parcelable {
         sb.append(", photo_url='").append(photo_url).append(' ');
 
         sb.append(", ingredients=");
-        sb.append(new Gson().toJson(ingredients));
+        sb.append(Json.gson().toJson(ingredients));
 
         sb.append(", steps=");
-        sb.append(new Gson().toJson(steps));
+        sb.append(Json.gson().toJson(steps));
 
         sb.append('}');
         return sb.toString();
@@ -298,8 +285,7 @@ public class Recipe implements Parcelable {
      * @return JSON-строка списка ингредиентов
      */
     public String getIngredientsJson() {
-        Gson gson = new Gson();
-        return gson.toJson(ingredients);
+        return Json.gson().toJson(ingredients);
     }
 
     /**
@@ -307,8 +293,7 @@ public class Recipe implements Parcelable {
      * @return JSON-строка списка шагов
      */
     public String getStepsJson() {
-        Gson gson = new Gson();
-        return gson.toJson(steps);
+        return Json.gson().toJson(steps);
     }
 
     // --- Parcelable Implementation --- 
@@ -322,6 +307,7 @@ public class Recipe implements Parcelable {
         foodType = in.readString();
         isLiked = in.readByte() != 0; // isLiked == true if byte != 0
         photo_url = in.readString();
+        placeholderColor = in.readByte() != 0 ? in.readInt() : null;
         // Читаем списки
         ingredients = in.createTypedArrayList(Ingredient.CREATOR);
         steps = in.createTypedArrayList(Step.CREATOR);
@@ -337,6 +323,10 @@ public class Recipe implements Parcelable {
         dest.writeString(foodType);
         dest.writeByte((byte) (isLiked ? 1 : 0)); // if isLiked == true, byte == 1
         dest.writeString(photo_url);
+        dest.writeByte((byte) (placeholderColor != null ? 1 : 0));
+        if (placeholderColor != null) {
+            dest.writeInt(placeholderColor);
+        }
         // Записываем списки
         dest.writeTypedList(ingredients);
         dest.writeTypedList(steps);
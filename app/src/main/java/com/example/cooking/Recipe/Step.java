@@ -2,8 +2,18 @@ package com.example.cooking.Recipe;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+
+import com.example.cooking.network.json.JsonValues;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Objects;
 
+@JsonAdapter(Step.GsonAdapter.class)
 public class Step implements Parcelable {
     private int number;
     private String instruction;
@@ -88,4 +98,49 @@ public class Step implements Parcelable {
                 ", url='" + url + '\'' +
                 '}';
     }
+
+    /**
+     * Потоковый адаптер без рефлексии; формат совпадает с полями класса
+     */
+    public static final class GsonAdapter extends TypeAdapter<Step> {
+        @Override
+        public void write(JsonWriter out, Step value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("number").value(value.number);
+            out.name("instruction").value(value.instruction);
+            out.name("url").value(value.url);
+            out.endObject();
+        }
+
+        @Override
+        public Step read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Step value = new Step();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "number":
+                        value.number = JsonValues.nextInt(in, 0);
+                        break;
+                    case "instruction":
+                        value.instruction = JsonValues.nextString(in);
+                        break;
+                    case "url":
+                        value.url = JsonValues.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
 }
@@ -19,6 +19,16 @@ public class TokenAuthenticator implements Authenticator {
     private static final String TAG = "TokenAuthenticator";
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
+    private final OkHttpClient refreshClient;
+
+    /**
+     * @param refreshClient клиент для запроса обновления: без перехватчика авторизации
+     *                      (он заменил бы refresh токен на access) и без этого Authenticator
+     */
+    public TokenAuthenticator(OkHttpClient refreshClient) {
+        this.refreshClient = refreshClient;
+    }
+
     @Override
     public Request authenticate(Route route, Response response) throws IOException {
         // Предотвращаем бесконечный цикл: если уже пытались обновить, выходим
@@ -32,14 +42,13 @@ public class TokenAuthenticator implements Authenticator {
             return null;
         }
         try {
-            OkHttpClient client = new OkHttpClient();
             Request refreshRequest = new Request.Builder()
                     .url(ServerConfig.BASE_API_URL + "auth/refresh")
                     .post(RequestBody.create("{}", JSON))
                     .header("Authorization", "Bearer " + refreshToken)
                     .build();
 
-            Response refreshResponse = client.newCall(refreshRequest).execute();
+            Response refreshResponse = refreshClient.newCall(refreshRequest).execute();
             if (!refreshResponse.isSuccessful() || refreshResponse.body() == null) {
                 Log.e(TAG, "Ошибка обновления токена: " + refreshResponse.code());
                 TokenStorage.clear();
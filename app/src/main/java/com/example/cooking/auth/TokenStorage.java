@@ -11,51 +11,71 @@ import androidx.security.crypto.MasterKeys;
  */
 public class TokenStorage {
     private static final String PREFS_FILE = "token_prefs";
+    private static Context appContext;
     private static SharedPreferences sharedPreferences;
 
     private static final String KEY_ACCESS = "access_token";
     private static final String KEY_REFRESH = "refresh_token";
 
     /**
-     * Инициализирует EncryptedSharedPreferences. Вызывать один раз в
-     * Application.onCreate().
+     * Запоминает контекст приложения. Вызывать один раз в Application.onCreate().
+     * Само хранилище (Android Keystore + EncryptedSharedPreferences) создается
+     * при первом обращении или заранее через {@link #preload()}, чтобы не
+     * тормозить отрисовку первого экрана.
      */
-    public static void init(Context context) {
-        try {
-            String masterKeyAlias = MasterKeys.getOrCreate(MasterKeys.AES256_GCM_SPEC);
-            sharedPreferences = EncryptedSharedPreferences.create(
-                    PREFS_FILE,
-                    masterKeyAlias,
-                    context,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM);
-        } catch (Exception e) {
-            throw new RuntimeException("Не удалось инициализировать TokenStorage", e);
+    public static synchronized void init(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    /**
+     * Создает хранилище заранее, в фоновом потоке после первого кадра
+     */
+    public static void preload() {
+        prefs();
+    }
+
+    private static synchronized SharedPreferences prefs() {
+        if (sharedPreferences == null) {
+            if (appContext == null) {
+                throw new IllegalStateException("TokenStorage.init() не вызван");
+            }
+            try {
+                String masterKeyAlias = MasterKeys.getOrCreate(MasterKeys.AES256_GCM_SPEC);
+                sharedPreferences = EncryptedSharedPreferences.create(
+                        PREFS_FILE,
+                        masterKeyAlias,
+                        appContext,
+                        EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
+                        EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM);
+            } catch (Exception e) {
+                throw new RuntimeException("Не удалось инициализировать TokenStorage", e);
+            }
         }
+        return sharedPreferences;
     }
 
     /** Сохраняет access токен */
     public static void saveAccess(String token) {
-        sharedPreferences.edit().putString(KEY_ACCESS, token).apply();
+        prefs().edit().putString(KEY_ACCESS, token).apply();
     }
 
     /** Сохраняет refresh токен */
     public static void saveRefresh(String token) {
-        sharedPreferences.edit().putString(KEY_REFRESH, token).apply();
+        prefs().edit().putString(KEY_REFRESH, token).apply();
     }
 
     /** Возвращает сохраненный access токен или null */
     public static String getAccess() {
-        return sharedPreferences.getString(KEY_ACCESS, null);
+        return prefs().getString(KEY_ACCESS, null);
     }
 
     /** Возвращает сохраненный refresh токен или null */
     public static String getRefresh() {
-        return sharedPreferences.getString(KEY_REFRESH, null);
+        return prefs().getString(KEY_REFRESH, null);
     }
 
     /** Очищает все токены */
     public static void clear() {
-        sharedPreferences.edit().clear().apply();
+        prefs().edit().clear().apply();
     }
 }
\ No newline at end of file
@@ -9,10 +9,14 @@ import androidx.room.RoomDatabase;
 /**
  * Класс базы данных приложения
  */
-@Database(entities = {RecipeEntity.class, LikedRecipeEntity.class}, version = 4, exportSchema = false)
+@Database(entities = {RecipeEntity.class, LikedRecipeEntity.class, PendingRecipeEntity.class, PendingLikeEntity.class}, version = 10, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
     
     private static final String DATABASE_NAME = "recipes_database";
+    // Предзаполненный каталог, собирается задачей buildSeedDatabase из app/seed/catalog.json
+    private static final String SEED_ASSET = "database/recipes_database.db";
+    // Схемы до baseline (версия 4) не сохранились - такие базы пересоздаются
+    private static final int[] UNSUPPORTED_VERSIONS = {1, 2, 3};
     private static volatile AppDatabase INSTANCE;
     
     /**
@@ -27,6 +31,18 @@ public abstract class AppDatabase extends RoomDatabase {
      */
     public abstract LikedRecipeDao likedRecipeDao();
     
+    /**
+     * Получить DAO очереди неотправленных рецептов
+     * @return PendingRecipeDao
+     */
+    public abstract PendingRecipeDao pendingRecipeDao();
+    
+    /**
+     * Получить DAO очереди неотправленных лайков
+     * @return PendingLikeDao
+     */
+    public abstract PendingLikeDao pendingLikeDao();
+    
     /**
      * Получить инстанс базы данных (Singleton pattern)
      * @param context контекст приложения
@@ -40,7 +56,11 @@ public abstract class AppDatabase extends RoomDatabase {
                             context.getApplicationContext(),
                             AppDatabase.class,
                             DATABASE_NAME)
-                            .fallbackToDestructiveMigration() // Если схема базы изменилась, пересоздать её
+                            // При первой установке база копируется из assets - лента не пустая до ответа сервера
+                            .createFromAsset(SEED_ASSET)
+                            // Обновление приложения не должно стирать кэш и очереди неотправленных изменений
+                            .addMigrations(Migrations.ALL)
+                            .fallbackToDestructiveMigrationFrom(UNSUPPORTED_VERSIONS)
                             .build();
                 }
             }
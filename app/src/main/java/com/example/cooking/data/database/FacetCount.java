@@ -0,0 +1,18 @@
+package com.example.cooking.data.database;
+
+/**
+ * Значение фасета и количество рецептов с ним.
+ * Заполняется Room из запросов с GROUP BY.
+ */
+public class FacetCount {
+    public String value;
+    public int count;
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -34,4 +34,10 @@ public interface LikedRecipeDao {
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<LikedRecipeEntity> likedRecipes);
-}
\ No newline at end of file
+
+    /**
+     * Заменить временный ID рецепта на выданный сервером
+     */
+    @Query("UPDATE OR REPLACE liked_recipes SET recipeId = :newId WHERE recipeId = :oldId")
+    void replaceRecipeId(int oldId, int newId);
+}
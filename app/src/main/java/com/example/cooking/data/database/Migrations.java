@@ -0,0 +1,166 @@
+package com.example.cooking.data.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Step;
+import com.example.cooking.data.database.converters.RecipeListCodec;
+
+import java.util.List;
+
+/**
+ * Миграции схемы AppDatabase.
+ * Локальный каталог и очереди неотправленных изменений должны переживать
+ * обновление приложения, поэтому каждое изменение схемы сопровождается
+ * миграцией, а не пересозданием базы. SQL совпадает с тем, что генерирует
+ * Room (см. app/schemas), иначе проверка схемы при открытии не пройдет.
+ */
+public final class Migrations {
+    private Migrations() {
+    }
+
+    /**
+     * 4 -> 5: индексы для фасетной фильтрации ленты
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recipes_mealType_foodType` ON `recipes` (`mealType`, `foodType`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recipes_foodType` ON `recipes` (`foodType`)");
+        }
+    };
+
+    /**
+     * 5 -> 6: очередь рецептов, созданных без сети
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `pending_recipe_uploads` ("
+                    + "`localId` INTEGER NOT NULL, "
+                    + "`idempotencyKey` TEXT NOT NULL, "
+                    + "`title` TEXT, "
+                    + "`ingredientsJson` TEXT, "
+                    + "`stepsJson` TEXT, "
+                    + "`userId` TEXT, "
+                    + "`photoPath` TEXT, "
+                    + "`createdAt` INTEGER NOT NULL, "
+                    + "`attempts` INTEGER NOT NULL, "
+                    + "`lastError` TEXT, "
+                    + "`failed` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`localId`))");
+        }
+    };
+
+    /**
+     * 6 -> 7: очередь неотправленных лайков
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `pending_likes` ("
+                    + "`userId` TEXT NOT NULL, "
+                    + "`recipeId` INTEGER NOT NULL, "
+                    + "`liked` INTEGER NOT NULL, "
+                    + "`serverLiked` INTEGER NOT NULL, "
+                    + "`updatedAt` INTEGER NOT NULL, "
+                    + "`attempts` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`userId`, `recipeId`))");
+        }
+    };
+
+    /**
+     * 7 -> 8: ingredients и instructions из JSON-текста в бинарный BLOB
+     * (RecipeListCodec). SQLite не меняет тип колонки, поэтому таблица
+     * пересоздается, а строки перекодируются. Выигрыш в размере и времени
+     * разбора замеряет RecipeListCodecBenchmark.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `recipes_new` ("
+                    + "`id` INTEGER NOT NULL, "
+                    + "`title` TEXT, "
+                    + "`ingredients` BLOB, "
+                    + "`instructions` BLOB, "
+                    + "`created_at` TEXT, "
+                    + "`userId` TEXT, "
+                    + "`mealType` TEXT, "
+                    + "`foodType` TEXT, "
+                    + "`photo_url` TEXT, "
+                    + "`isLiked` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`id`))");
+
+            try (Cursor cursor = db.query("SELECT `id`, `title`, `ingredients`, `instructions`, `created_at`, "
+                    + "`userId`, `mealType`, `foodType`, `photo_url`, `isLiked` FROM `recipes`")) {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext()) {
+                    values.clear();
+                    values.put("id", cursor.getInt(0));
+                    values.put("title", cursor.getString(1));
+                    values.put("created_at", cursor.getString(4));
+                    values.put("userId", cursor.getString(5));
+                    values.put("mealType", cursor.getString(6));
+                    values.put("foodType", cursor.getString(7));
+                    values.put("photo_url", cursor.getString(8));
+                    values.put("isLiked", cursor.getInt(9));
+
+                    String ingredientsJson = cursor.getString(2);
+                    String stepsJson = cursor.getString(3);
+                    List<Ingredient> ingredients = ingredientsJson != null
+                            ? RecipeListCodec.ingredientsFromJson(ingredientsJson) : null;
+                    List<Step> steps = stepsJson != null ? RecipeListCodec.stepsFromJson(stepsJson) : null;
+                    values.put("ingredients", ingredients != null ? RecipeListCodec.encodeIngredients(ingredients) : null);
+                    values.put("instructions", steps != null ? RecipeListCodec.encodeSteps(steps) : null);
+                    db.insert("recipes_new", SQLiteDatabase.CONFLICT_REPLACE, values);
+                }
+            }
+
+            db.execSQL("DROP TABLE `recipes`");
+            db.execSQL("ALTER TABLE `recipes_new` RENAME TO `recipes`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recipes_mealType_foodType` ON `recipes` (`mealType`, `foodType`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recipes_foodType` ON `recipes` (`foodType`)");
+        }
+    };
+
+    /**
+     * 8 -> 9: цвет заглушки фото у рецептов и у рецептов в очереди отправки
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `recipes` ADD COLUMN `placeholderColor` INTEGER");
+            db.execSQL("ALTER TABLE `pending_recipe_uploads` ADD COLUMN `placeholderColor` INTEGER");
+        }
+    };
+
+    /**
+     * 9 -> 10: mealType и foodType кэша были записаны из перекрещенных ключей
+     * JSON (food_type в mealType). Схема не меняется, значения меняются местами;
+     * SQLite вычисляет правую часть SET по старой строке.
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("UPDATE `recipes` SET `mealType` = `foodType`, `foodType` = `mealType`");
+        }
+    };
+
+    /**
+     * Все миграции по порядку; новую миграцию нужно добавить и сюда
+     */
+    public static final Migration[] ALL = {
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10
+    };
+}
@@ -0,0 +1,50 @@
+package com.example.cooking.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import java.util.List;
+
+/**
+ * DAO очереди неотправленных лайков
+ */
+@Dao
+public interface PendingLikeDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(PendingLikeEntity pending);
+
+    @Update
+    void update(PendingLikeEntity pending);
+
+    @Query("SELECT * FROM pending_likes WHERE userId = :userId AND recipeId = :recipeId")
+    PendingLikeEntity get(String userId, int recipeId);
+
+    /**
+     * Пачка самых старых изменений для отправки. Лайки рецептов с временным ID
+     * ждут, пока рецепт будет создан на сервере.
+     */
+    @Query("SELECT * FROM pending_likes WHERE recipeId >= 0 ORDER BY updatedAt LIMIT :limit")
+    List<PendingLikeEntity> getOldestSendable(int limit);
+
+    @Query("SELECT * FROM pending_likes WHERE userId = :userId")
+    List<PendingLikeEntity> getForUser(String userId);
+
+    /**
+     * Учесть неудачную попытку, не трогая состояние лайка
+     */
+    @Query("UPDATE pending_likes SET attempts = attempts + 1 WHERE userId = :userId AND recipeId = :recipeId")
+    void incrementAttempts(String userId, int recipeId);
+
+    @Query("DELETE FROM pending_likes WHERE userId = :userId AND recipeId = :recipeId")
+    void delete(String userId, int recipeId);
+
+    /**
+     * Заменить временный ID рецепта на выданный сервером
+     */
+    @Query("UPDATE OR REPLACE pending_likes SET recipeId = :newId WHERE recipeId = :oldId")
+    void replaceRecipeId(int oldId, int newId);
+}
@@ -0,0 +1,71 @@
+package com.example.cooking.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * Неотправленное изменение лайка (outbox).
+ * На каждую пару пользователь/рецепт хранится одна строка с итоговым
+ * состоянием, поэтому серия нажатий сворачивается в один запрос.
+ */
+@Entity(tableName = "pending_likes", primaryKeys = {"userId", "recipeId"})
+public class PendingLikeEntity {
+    @NonNull
+    private String userId = "";
+    private int recipeId;
+    // Состояние, которое нужно получить на сервере
+    private boolean liked;
+    // Состояние на сервере до первого неотправленного изменения
+    private boolean serverLiked;
+    private long updatedAt;
+    private int attempts;
+
+    @NonNull
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(@NonNull String userId) {
+        this.userId = userId;
+    }
+
+    public int getRecipeId() {
+        return recipeId;
+    }
+
+    public void setRecipeId(int recipeId) {
+        this.recipeId = recipeId;
+    }
+
+    public boolean isLiked() {
+        return liked;
+    }
+
+    public void setLiked(boolean liked) {
+        this.liked = liked;
+    }
+
+    public boolean isServerLiked() {
+        return serverLiked;
+    }
+
+    public void setServerLiked(boolean serverLiked) {
+        this.serverLiked = serverLiked;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
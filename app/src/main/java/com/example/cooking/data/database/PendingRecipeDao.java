@@ -0,0 +1,41 @@
+package com.example.cooking.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import java.util.List;
+
+/**
+ * DAO очереди рецептов, ожидающих отправки на сервер
+ */
+@Dao
+public interface PendingRecipeDao {
+
+    // Временные ID не повторяются; совпадение - ошибка, а не замена чужой записи
+    @Insert(onConflict = OnConflictStrategy.ABORT)
+    void insert(PendingRecipeEntity pending);
+
+    @Update
+    void update(PendingRecipeEntity pending);
+
+    @Query("SELECT * FROM pending_recipe_uploads WHERE localId = :localId")
+    PendingRecipeEntity getById(int localId);
+
+    /**
+     * Все неотправленные рецепты, кроме окончательно отклоненных
+     */
+    @Query("SELECT * FROM pending_recipe_uploads WHERE failed = 0 ORDER BY createdAt")
+    List<PendingRecipeEntity> getActive();
+
+    /**
+     * Минимальный временный ID в очереди, включая отклоненные рецепты
+     */
+    @Query("SELECT MIN(localId) FROM pending_recipe_uploads")
+    Integer getMinLocalId();
+
+    @Query("DELETE FROM pending_recipe_uploads WHERE localId = :localId")
+    void deleteById(int localId);
+}
@@ -0,0 +1,128 @@
+package com.example.cooking.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Рецепт, созданный локально и ожидающий отправки на сервер (outbox).
+ * localId совпадает с временным отрицательным ID рецепта в таблице recipes.
+ */
+@Entity(tableName = "pending_recipe_uploads")
+public class PendingRecipeEntity {
+    @PrimaryKey
+    private int localId;
+    // Ключ идемпотентности: повторная отправка не создаст дубликат на сервере
+    @NonNull
+    private String idempotencyKey = "";
+    private String title;
+    private String ingredientsJson;
+    private String stepsJson;
+    private String userId;
+    // Путь к подготовленному фото во внутреннем хранилище, может быть null
+    private String photoPath;
+    // Преобладающий цвет фото (ARGB), отправляется вместе с рецептом
+    private Integer placeholderColor;
+    private long createdAt;
+    private int attempts;
+    private String lastError;
+    // Сервер окончательно отклонил рецепт, повторять не нужно
+    private boolean failed;
+
+    public int getLocalId() {
+        return localId;
+    }
+
+    public void setLocalId(int localId) {
+        this.localId = localId;
+    }
+
+    @NonNull
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(@NonNull String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getIngredientsJson() {
+        return ingredientsJson;
+    }
+
+    public void setIngredientsJson(String ingredientsJson) {
+        this.ingredientsJson = ingredientsJson;
+    }
+
+    public String getStepsJson() {
+        return stepsJson;
+    }
+
+    public void setStepsJson(String stepsJson) {
+        this.stepsJson = stepsJson;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getPhotoPath() {
+        return photoPath;
+    }
+
+    public void setPhotoPath(String photoPath) {
+        this.photoPath = photoPath;
+    }
+
+    public Integer getPlaceholderColor() {
+        return placeholderColor;
+    }
+
+    public void setPlaceholderColor(Integer placeholderColor) {
+        this.placeholderColor = placeholderColor;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+}
@@ -30,6 +30,14 @@ public interface RecipeDao {
     @Query("SELECT * FROM recipes")
     List<RecipeEntity> getAllRecipesList();
     
+    /**
+     * Первые рецепты в порядке ленты. Лента читает таблицу без сортировки,
+     * то есть по rowid, а rowid здесь - это id
+     * @param limit сколько рецептов вернуть
+     */
+    @Query("SELECT * FROM recipes ORDER BY id LIMIT :limit")
+    List<RecipeEntity> getFirstRecipes(int limit);
+    
     /**
      * Получить рецепт по ID
      * @param id идентификатор рецепта
@@ -38,6 +46,79 @@ public interface RecipeDao {
     @Query("SELECT * FROM recipes WHERE id = :id")
     RecipeEntity getRecipeById(int id);
     
+    /**
+     * Получить только названия всех рецептов (для подсказок поиска)
+     * @return список названий
+     */
+    @Query("SELECT title FROM recipes")
+    List<String> getAllTitles();
+    
+    /**
+     * Получить рецепты по списку ID
+     * @param ids идентификаторы рецептов
+     * @return найденные рецепты (порядок не гарантируется)
+     */
+    @Query("SELECT * FROM recipes WHERE id IN (:ids)")
+    List<RecipeEntity> getRecipesByIds(List<Integer> ids);
+    
+    /**
+     * Рецепты с одним из выбранных типов приема пищи
+     * @param mealTypes выбранные значения фасета
+     */
+    @Query("SELECT * FROM recipes WHERE mealType IN (:mealTypes)")
+    LiveData<List<RecipeEntity>> getRecipesByMealTypes(List<String> mealTypes);
+    
+    /**
+     * Рецепты с одним из выбранных типов блюд
+     * @param foodTypes выбранные значения фасета
+     */
+    @Query("SELECT * FROM recipes WHERE foodType IN (:foodTypes)")
+    LiveData<List<RecipeEntity>> getRecipesByFoodTypes(List<String> foodTypes);
+    
+    /**
+     * Рецепты, подходящие под оба фасета одновременно
+     */
+    @Query("SELECT * FROM recipes WHERE mealType IN (:mealTypes) AND foodType IN (:foodTypes)")
+    LiveData<List<RecipeEntity>> getRecipesByMealAndFoodTypes(List<String> mealTypes, List<String> foodTypes);
+    
+    /**
+     * Количество рецептов по каждому типу приема пищи
+     */
+    @Query("SELECT mealType AS value, COUNT(*) AS count FROM recipes " +
+            "WHERE mealType IS NOT NULL AND mealType != '' " +
+            "GROUP BY mealType ORDER BY count DESC, mealType")
+    LiveData<List<FacetCount>> getMealTypeCounts();
+    
+    /**
+     * Количество рецептов по типам приема пищи среди выбранных типов блюд
+     */
+    @Query("SELECT mealType AS value, COUNT(*) AS count FROM recipes " +
+            "WHERE mealType IS NOT NULL AND mealType != '' AND foodType IN (:foodTypes) " +
+            "GROUP BY mealType ORDER BY count DESC, mealType")
+    LiveData<List<FacetCount>> getMealTypeCounts(List<String> foodTypes);
+    
+    /**
+     * Количество рецептов по каждому типу блюда
+     */
+    @Query("SELECT foodType AS value, COUNT(*) AS count FROM recipes " +
+            "WHERE foodType IS NOT NULL AND foodType != '' " +
+            "GROUP BY foodType ORDER BY count DESC, foodType")
+    LiveData<List<FacetCount>> getFoodTypeCounts();
+    
+    /**
+     * Количество рецептов по типам блюд среди выбранных типов приема пищи
+     */
+    @Query("SELECT foodType AS value, COUNT(*) AS count FROM recipes " +
+            "WHERE foodType IS NOT NULL AND foodType != '' AND mealType IN (:mealTypes) " +
+            "GROUP BY foodType ORDER BY count DESC, foodType")
+    LiveData<List<FacetCount>> getFoodTypeCounts(List<String> mealTypes);
+    
+    /**
+     * Минимальный ID рецепта (для выдачи временных отрицательных ID)
+     */
+    @Query("SELECT MIN(id) FROM recipes")
+    Integer getMinRecipeId();
+    
     /**
      * Вставить новые рецепты, заменить существующие при конфликте
      * @param recipes список рецептов для вставки
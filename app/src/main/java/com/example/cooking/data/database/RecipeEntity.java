@@ -2,6 +2,7 @@ package com.example.cooking.data.database;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
@@ -16,7 +17,12 @@ import java.util.List;
 /**
  * Entity класс для хранения рецептов в Room Database
  */
-@Entity(tableName = "recipes")
+@Entity(tableName = "recipes",
+        indices = {
+                // Индексы для фасетной фильтрации ленты
+                @Index(value = {"mealType", "foodType"}),
+                @Index(value = {"foodType"})
+        })
 @TypeConverters(DataConverters.class)
 public class RecipeEntity {
     @PrimaryKey
@@ -29,6 +35,8 @@ public class RecipeEntity {
     private String mealType;
     private String foodType;
     private String photo_url;
+    // Цвет заглушки карточки до загрузки фото (ARGB), может быть null
+    private Integer placeholderColor;
     private boolean isLiked;
 
     // Конструкторы
@@ -48,6 +56,7 @@ public class RecipeEntity {
         this.created_at = recipe.getCreated_at();
         this.userId = recipe.getUserId();
         this.photo_url = recipe.getPhoto_url();
+        this.placeholderColor = recipe.getPlaceholderColor();
         this.isLiked = recipe.isLiked();
     }
 
@@ -65,6 +74,7 @@ public class RecipeEntity {
         recipe.setCreated_at(created_at);
         recipe.setUserId(userId);
         recipe.setPhoto_url(photo_url);
+        recipe.setPlaceholderColor(placeholderColor);
         recipe.setLiked(isLiked);
         return recipe;
     }
@@ -140,6 +150,14 @@ public class RecipeEntity {
         this.photo_url = photo_url;
     }
 
+    public Integer getPlaceholderColor() {
+        return placeholderColor;
+    }
+
+    public void setPlaceholderColor(Integer placeholderColor) {
+        this.placeholderColor = placeholderColor;
+    }
+
     public boolean isLiked() {
         return isLiked;
     }
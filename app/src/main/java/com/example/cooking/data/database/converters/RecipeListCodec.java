@@ -0,0 +1,301 @@
+package com.example.cooking.data.database.converters;
+
+import android.util.Log;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Step;
+import com.example.cooking.network.json.JsonLists;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Компактный бинарный формат колонок ingredients и instructions таблицы recipes.
+ *
+ * <pre>
+ * byte    заголовок: FORMAT_VERSION | FLAG_DEFLATE
+ * varint  длина несжатых данных (только при FLAG_DEFLATE)
+ * данные (raw deflate при FLAG_DEFLATE):
+ *   varint  количество элементов
+ *   Ingredient: str name, zigzag count, str type
+ *   Step:       zigzag number, str instruction, str url
+ * str = varint (длина UTF-8 + 1, 0 = null) + байты
+ * </pre>
+ *
+ * Сжимаются только длинные списки (обычно шаги с подробным текстом) и только
+ * если это дает выигрыш. Тот же формат пишет задача сборки seed базы
+ * (app/build.gradle.kts) - при изменении формата поднимать FORMAT_VERSION в обоих местах
+ * и обновлять эталоны src/test/resources/seed/list_column_vectors.json: по ним
+ * сверяются и задача, и RecipeListCodecVectorsTest.
+ * Значения, начинающиеся не с заголовка, считаются JSON прежних версий базы.
+ */
+public final class RecipeListCodec {
+    private static final String TAG = "RecipeListCodec";
+
+    static final int FORMAT_VERSION = 1;
+    private static final int FLAG_DEFLATE = 0x80;
+    // Меньше этого сжатие не окупает распаковку
+    private static final int DEFLATE_THRESHOLD = 256;
+    // Защита от поврежденного заголовка: рецепт такого размера не бывает
+    private static final int MAX_RAW_LENGTH = 4 * 1024 * 1024;
+
+    private RecipeListCodec() {
+    }
+
+    public static byte[] encodeIngredients(List<Ingredient> ingredients) {
+        Writer out = new Writer(ingredients.size() * 24);
+        out.varint(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            out.string(ingredient.getName());
+            out.zigzag(ingredient.getCount());
+            out.string(ingredient.getType());
+        }
+        return finish(out);
+    }
+
+    public static byte[] encodeSteps(List<Step> steps) {
+        Writer out = new Writer(steps.size() * 96);
+        out.varint(steps.size());
+        for (Step step : steps) {
+            out.zigzag(step.getNumber());
+            out.string(step.getInstruction());
+            out.string(step.getUrl());
+        }
+        return finish(out);
+    }
+
+    /**
+     * @return список ингредиентов; пустой при поврежденном значении
+     */
+    public static List<Ingredient> decodeIngredients(byte[] value) {
+        if (value == null || value.length == 0) {
+            return Collections.emptyList();
+        }
+        if (!isBinary(value)) {
+            return ingredientsFromJson(new String(value, StandardCharsets.UTF_8));
+        }
+        try {
+            Reader in = payload(value);
+            int count = in.count();
+            List<Ingredient> ingredients = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Ingredient ingredient = new Ingredient();
+                ingredient.setName(in.string());
+                ingredient.setCount(in.zigzag());
+                ingredient.setType(in.string());
+                ingredients.add(ingredient);
+            }
+            return ingredients;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            Log.w(TAG, "Поврежденный список ингредиентов (" + value.length + " байт)", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * @return список шагов; пустой при поврежденном значении
+     */
+    public static List<Step> decodeSteps(byte[] value) {
+        if (value == null || value.length == 0) {
+            return Collections.emptyList();
+        }
+        if (!isBinary(value)) {
+            return stepsFromJson(new String(value, StandardCharsets.UTF_8));
+        }
+        try {
+            Reader in = payload(value);
+            int count = in.count();
+            List<Step> steps = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Step step = new Step();
+                int number = in.zigzag();
+                // Как и для JSON: шагам без номера - порядковый
+                step.setNumber(number > 0 ? number : i + 1);
+                step.setInstruction(in.string());
+                step.setUrl(in.string());
+                steps.add(step);
+            }
+            return steps;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            Log.w(TAG, "Поврежденный список шагов (" + value.length + " байт)", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Разобрать JSON прежнего формата колонки (до версии базы 8)
+     */
+    public static List<Ingredient> ingredientsFromJson(String json) {
+        return JsonLists.readArrayFromString(json, new Ingredient.GsonAdapter(), "ingredients", true);
+    }
+
+    /**
+     * Разобрать JSON прежнего формата колонки; шагам без номера проставляется порядковый
+     */
+    public static List<Step> stepsFromJson(String json) {
+        List<Step> steps = JsonLists.readArrayFromString(json, new Step.GsonAdapter(), "instructions", true);
+        for (int i = 0; i < steps.size(); i++) {
+            if (steps.get(i).getNumber() <= 0) {
+                steps.get(i).setNumber(i + 1);
+            }
+        }
+        return steps;
+    }
+
+    private static boolean isBinary(byte[] value) {
+        return (value[0] & 0xFF & ~FLAG_DEFLATE) == FORMAT_VERSION;
+    }
+
+    private static byte[] finish(Writer out) {
+        byte[] raw = out.toByteArray();
+        if (raw.length >= DEFLATE_THRESHOLD) {
+            byte[] packed = deflate(raw);
+            if (packed != null) {
+                return packed;
+            }
+        }
+        byte[] value = new byte[raw.length + 1];
+        value[0] = FORMAT_VERSION;
+        System.arraycopy(raw, 0, value, 1, raw.length);
+        return value;
+    }
+
+    /**
+     * @return сжатое значение с заголовком или null, если сжатие не дало выигрыша
+     */
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            Writer out = new Writer(raw.length / 2 + 8);
+            out.write(FORMAT_VERSION | FLAG_DEFLATE);
+            out.varint(raw.length);
+            byte[] chunk = new byte[512];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.size() < raw.length + 1 ? out.toByteArray() : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static Reader payload(byte[] value) {
+        Reader header = new Reader(value, 1);
+        if ((value[0] & FLAG_DEFLATE) == 0) {
+            return header;
+        }
+        int rawLength = header.varint();
+        if (rawLength < 0 || rawLength > MAX_RAW_LENGTH) {
+            throw new IllegalArgumentException("Некорректная длина несжатых данных: " + rawLength);
+        }
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(value, header.pos, value.length - header.pos);
+            int total = 0;
+            while (total < rawLength) {
+                int n = inflater.inflate(raw, total, rawLength - total);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                total += n;
+            }
+            if (total != rawLength) {
+                throw new IllegalArgumentException("Сжатые данные обрываются: " + total + " из " + rawLength);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Поврежденные сжатые данные", e);
+        } finally {
+            inflater.end();
+        }
+        return new Reader(raw, 0);
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+        Writer(int size) {
+            super(Math.max(size, 16));
+        }
+
+        void varint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void zigzag(int value) {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        int varint() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = data[pos++];
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Слишком длинный varint");
+        }
+
+        /**
+         * Количество элементов: каждый занимает хотя бы байт, больше остатка быть не может
+         */
+        int count() {
+            int count = varint();
+            if (count < 0 || count > data.length - pos) {
+                throw new IllegalArgumentException("Некорректное количество элементов: " + count);
+            }
+            return count;
+        }
+
+        int zigzag() {
+            int value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String string() {
+            int length = varint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > data.length - pos) {
+                throw new IllegalArgumentException("Строка выходит за границы значения");
+            }
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+}
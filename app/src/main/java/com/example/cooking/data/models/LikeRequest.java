@@ -0,0 +1,35 @@
+package com.example.cooking.data.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Тело запроса на изменение лайка рецепта
+ */
+public class LikeRequest {
+    @SerializedName("recipeId")
+    private int recipeId;
+
+    @SerializedName("userId")
+    private String userId;
+
+    @SerializedName("isLiked")
+    private boolean liked;
+
+    public LikeRequest(int recipeId, String userId, boolean liked) {
+        this.recipeId = recipeId;
+        this.userId = userId;
+        this.liked = liked;
+    }
+
+    public int getRecipeId() {
+        return recipeId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public boolean isLiked() {
+        return liked;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.cooking.data.outbox;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+
+import com.example.cooking.data.database.AppDatabase;
+import com.example.cooking.data.database.PendingLikeDao;
+import com.example.cooking.data.database.PendingLikeEntity;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Очередь изменений лайков (outbox) - единственная точка отправки лайков на сервер.
+ * Изменение сначала записывается в таблицу pending_likes (LikeStore делает это
+ * в той же транзакции, что и локальные таблицы лайков), где для каждой пары
+ * пользователь/рецепт хранится только итоговое состояние: лайк и снятие лайка
+ * взаимно уничтожаются и не доходят до сети. Отправку выполняет LikeSyncWorker
+ * пачками при появлении сети, с экспоненциальной задержкой при ошибках.
+ * Строка, которая сейчас отправляется, не удаляется до ответа сервера: иначе
+ * ответ на устаревший запрос нечем было бы исправить.
+ */
+public class LikeOutbox {
+    private static final String TAG = "LikeOutbox";
+    private static final String WORK_NAME = "like_sync";
+    private static final long INITIAL_BACKOFF_SECONDS = 30;
+
+    private static volatile LikeOutbox instance;
+
+    private final AppDatabase database;
+    private final PendingLikeDao pendingLikeDao;
+    private final WorkManager workManager;
+    // Пары пользователь/рецепт, запрос по которым сейчас в пути
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public static LikeOutbox getInstance(Context context) {
+        if (instance == null) {
+            synchronized (LikeOutbox.class) {
+                if (instance == null) {
+                    instance = new LikeOutbox(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private LikeOutbox(Context context) {
+        this.database = AppDatabase.getInstance(context);
+        this.pendingLikeDao = database.pendingLikeDao();
+        this.workManager = WorkManager.getInstance(context);
+    }
+
+    /**
+     * Запомнить новое состояние лайка. Вызывается внутри транзакции, в которой
+     * меняются локальные таблицы лайков (см. LikeStore); после транзакции нужно
+     * вызвать scheduleFlush().
+     * @param userId ID пользователя
+     * @param recipeId ID рецепта
+     * @param liked новое состояние лайка
+     */
+    public void recordInTransaction(String userId, int recipeId, boolean liked) {
+        PendingLikeEntity pending = pendingLikeDao.get(userId, recipeId);
+        if (pending == null) {
+            pending = new PendingLikeEntity();
+            pending.setUserId(userId);
+            pending.setRecipeId(recipeId);
+            pending.setServerLiked(!liked);
+            pending.setLiked(liked);
+            pending.setUpdatedAt(System.currentTimeMillis());
+            pendingLikeDao.insert(pending);
+            return;
+        }
+        if (pending.isServerLiked() == liked && !inFlight.contains(key(userId, recipeId))) {
+            // Пользователь вернул исходное состояние - отправлять нечего
+            pendingLikeDao.delete(userId, recipeId);
+            Log.d(TAG, "Лайк рецепта " + recipeId + " вернулся в исходное состояние, запрос отменен");
+            return;
+        }
+        pending.setLiked(liked);
+        pending.setUpdatedAt(System.currentTimeMillis());
+        pendingLikeDao.update(pending);
+    }
+
+    /**
+     * Запланировать отправку очереди. Если отправка уже ждет запуска, новая не
+     * создается: она заберет и это изменение. Если отправка идет прямо сейчас,
+     * следующая ставится за ней, чтобы изменение не потерялось.
+     */
+    public void scheduleFlush() {
+        try {
+            for (WorkInfo info : workManager.getWorkInfosForUniqueWork(WORK_NAME).get()) {
+                if (info.getState() == WorkInfo.State.ENQUEUED || info.getState() == WorkInfo.State.BLOCKED) {
+                    return;
+                }
+            }
+        } catch (ExecutionException e) {
+            Log.w(TAG, "Не удалось получить состояние отправки лайков: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(LikeSyncWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, INITIAL_BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        workManager.enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    /**
+     * Взять строку в отправку. Строка перечитывается в транзакции, чтобы
+     * отправить последнее состояние, и до markSent/markAttempt/drop не удаляется
+     * из-за возврата лайка в исходное состояние.
+     * @return актуальная строка или null, если отправлять уже нечего
+     */
+    @Nullable
+    PendingLikeEntity beginSend(String userId, int recipeId) {
+        return database.runInTransaction(() -> {
+            PendingLikeEntity pending = pendingLikeDao.get(userId, recipeId);
+            if (pending != null) {
+                inFlight.add(key(userId, recipeId));
+            }
+            return pending;
+        });
+    }
+
+    /**
+     * Сервер подтвердил состояние sentLiked. Если за время запроса пользователь
+     * снова переключил лайк, строка остается в очереди с новым исходным состоянием.
+     */
+    void markSent(String userId, int recipeId, boolean sentLiked) {
+        database.runInTransaction(() -> {
+            inFlight.remove(key(userId, recipeId));
+            PendingLikeEntity pending = pendingLikeDao.get(userId, recipeId);
+            if (pending == null) {
+                return;
+            }
+            if (pending.isLiked() == sentLiked) {
+                pendingLikeDao.delete(userId, recipeId);
+            } else {
+                pending.setServerLiked(sentLiked);
+                pendingLikeDao.update(pending);
+            }
+        });
+    }
+
+    /**
+     * Сервер отклонил изменение (например, рецепт удален) - повторять бессмысленно
+     */
+    void drop(String userId, int recipeId) {
+        database.runInTransaction(() -> {
+            inFlight.remove(key(userId, recipeId));
+            pendingLikeDao.delete(userId, recipeId);
+        });
+    }
+
+    /**
+     * Попытка не удалась. Меняется только счетчик: переключения, сделанные
+     * за время запроса, остаются в строке. Строка остается в очереди, даже если
+     * лайк вернулся в исходное состояние - запрос мог дойти до сервера.
+     */
+    void markAttempt(String userId, int recipeId) {
+        database.runInTransaction(() -> {
+            inFlight.remove(key(userId, recipeId));
+            pendingLikeDao.incrementAttempts(userId, recipeId);
+        });
+    }
+
+    private static String key(String userId, int recipeId) {
+        return userId + '/' + recipeId;
+    }
+}
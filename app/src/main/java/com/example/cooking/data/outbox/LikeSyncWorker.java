@@ -0,0 +1,132 @@
+package com.example.cooking.data.outbox;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.data.database.AppDatabase;
+import com.example.cooking.data.database.PendingLikeDao;
+import com.example.cooking.data.database.PendingLikeEntity;
+import com.example.cooking.data.models.ApiResponse;
+import com.example.cooking.data.models.LikeRequest;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.network.api.ApiService;
+import com.example.cooking.network.responses.RecipesResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import retrofit2.Response;
+
+/**
+ * Отправляет накопленные в LikeOutbox изменения лайков пачками.
+ * Все запросы одного запуска идут через одно соединение; при сетевой или
+ * серверной ошибке работа завершается с повтором, и WorkManager перезапускает
+ * ее с экспоненциальной задержкой.
+ * Состояние отправляется идемпотентным PUT, поэтому повтор после потерянного
+ * ответа безопасен. Если сервер PUT не поддерживает, лайк переключается POST,
+ * а перед повтором такой отправки состояние сверяется со списком лайков на сервере.
+ */
+public class LikeSyncWorker extends Worker {
+    private static final String TAG = "LikeSyncWorker";
+    // Сколько изменений читается из очереди за один проход
+    private static final int BATCH_SIZE = 20;
+    private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    // Сервер ответил 405 на PUT - до конца процесса отправляем переключением
+    private static volatile boolean setLikeUnsupported;
+
+    public LikeSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        PendingLikeDao dao = AppDatabase.getInstance(getApplicationContext()).pendingLikeDao();
+        LikeOutbox outbox = LikeOutbox.getInstance(getApplicationContext());
+        ApiService api = AppContainer.getInstance(getApplicationContext()).outboxApiService();
+        int sent = 0;
+
+        List<PendingLikeEntity> batch;
+        while (!(batch = dao.getOldestSendable(BATCH_SIZE)).isEmpty()) {
+            for (PendingLikeEntity queued : batch) {
+                if (isStopped()) {
+                    return Result.retry();
+                }
+                PendingLikeEntity pending = outbox.beginSend(queued.getUserId(), queued.getRecipeId());
+                if (pending == null) {
+                    continue;
+                }
+                int recipeId = pending.getRecipeId();
+                boolean liked = pending.isLiked();
+                try {
+                    Response<ApiResponse> response = send(api, pending);
+                    if (response == null || response.isSuccessful()) {
+                        outbox.markSent(pending.getUserId(), recipeId, liked);
+                        sent++;
+                        continue;
+                    }
+                    int code = response.code();
+                    if (code >= 500 || code == HTTP_TOO_MANY_REQUESTS) {
+                        Log.w(TAG, "HTTP " + code + " при отправке лайка рецепта " + recipeId + ", повтор позже");
+                        outbox.markAttempt(pending.getUserId(), recipeId);
+                        return Result.retry();
+                    }
+                    Log.e(TAG, "Сервер отклонил лайк рецепта " + recipeId + ": HTTP " + code);
+                    outbox.drop(pending.getUserId(), recipeId);
+                } catch (IOException e) {
+                    Log.w(TAG, "Сетевая ошибка при отправке лайка рецепта " + recipeId + ": " + e.getMessage());
+                    outbox.markAttempt(pending.getUserId(), recipeId);
+                    return Result.retry();
+                }
+            }
+        }
+        Log.d(TAG, "Отправлено изменений лайков: " + sent);
+        return Result.success();
+    }
+
+    /**
+     * Отправить итоговое состояние лайка
+     * @return ответ сервера или null, если на сервере уже нужное состояние
+     */
+    @Nullable
+    private static Response<ApiResponse> send(ApiService api, PendingLikeEntity pending) throws IOException {
+        int recipeId = pending.getRecipeId();
+        LikeRequest request = new LikeRequest(recipeId, pending.getUserId(), pending.isLiked());
+        if (!setLikeUnsupported) {
+            Response<ApiResponse> response = api.setLike(recipeId, request).execute();
+            if (response.code() != HTTP_METHOD_NOT_ALLOWED) {
+                return response;
+            }
+            Log.w(TAG, "Сервер не поддерживает установку лайка, отправляем переключением");
+            setLikeUnsupported = true;
+        }
+        // Прошлая попытка могла дойти до сервера, потеряв ответ: повторное
+        // переключение вернуло бы лайк назад
+        if (pending.getAttempts() > 0 && isLikedOnServer(api, pending) == pending.isLiked()) {
+            return null;
+        }
+        return api.toggleLike(recipeId, request).execute();
+    }
+
+    private static boolean isLikedOnServer(ApiService api, PendingLikeEntity pending) throws IOException {
+        Response<RecipesResponse> response = api.getLikedRecipes(pending.getUserId()).execute();
+        RecipesResponse body = response.body();
+        if (!response.isSuccessful() || body == null || body.getRecipes() == null) {
+            throw new IOException("Не удалось проверить лайк на сервере: HTTP " + response.code());
+        }
+        for (Recipe recipe : body.getRecipes()) {
+            if (recipe.getId() == pending.getRecipeId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
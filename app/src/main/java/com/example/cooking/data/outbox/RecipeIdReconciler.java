@@ -0,0 +1,96 @@
+package com.example.cooking.data.outbox;
+
+import android.os.SystemClock;
+
+import androidx.core.util.Pair;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Соответствие временных (отрицательных) ID рецептов и ID, выданных сервером.
+ * Открытые экраны подписываются на getIdChanges(), чтобы подменить ID
+ * рецепта после подтверждения сервером.
+ * Соответствие нужно только экранам, открытым до замены ID, поэтому оно
+ * хранится RETENTION_MS и затем удаляется. Временные ID не повторяются
+ * (см. RecipeOutbox), так что устаревших соответствий не бывает.
+ */
+public class RecipeIdReconciler {
+
+    // Сколько помнить замену: за это время открытые экраны получают новый ID из Room или getIdChanges()
+    private static final long RETENTION_MS = 30 * 60 * 1000;
+
+    private static volatile RecipeIdReconciler instance;
+
+    private final Map<Integer, Resolved> resolvedIds = new ConcurrentHashMap<>();
+    private final MutableLiveData<Pair<Integer, Integer>> idChanges = new MutableLiveData<>();
+
+    public static RecipeIdReconciler getInstance() {
+        if (instance == null) {
+            synchronized (RecipeIdReconciler.class) {
+                if (instance == null) {
+                    instance = new RecipeIdReconciler();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Временные ID начинаются с -2: значение -1 в приложении означает "ID не передан"
+     */
+    public static boolean isTemporaryId(int recipeId) {
+        return recipeId < -1;
+    }
+
+    /**
+     * @return серверный ID, если временный уже подтвержден, иначе переданный ID
+     */
+    public int resolve(int recipeId) {
+        Resolved resolved = resolvedIds.get(recipeId);
+        if (resolved == null) {
+            return recipeId;
+        }
+        if (resolved.isExpired(SystemClock.elapsedRealtime())) {
+            resolvedIds.remove(recipeId);
+            return recipeId;
+        }
+        return resolved.serverId;
+    }
+
+    /**
+     * События замены ID: first - временный, second - серверный
+     */
+    public LiveData<Pair<Integer, Integer>> getIdChanges() {
+        return idChanges;
+    }
+
+    void publish(int temporaryId, int serverId) {
+        long now = SystemClock.elapsedRealtime();
+        Iterator<Resolved> iterator = resolvedIds.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+            }
+        }
+        resolvedIds.put(temporaryId, new Resolved(serverId, now));
+        idChanges.postValue(Pair.create(temporaryId, serverId));
+    }
+
+    private static final class Resolved {
+        final int serverId;
+        final long publishedAt;
+
+        Resolved(int serverId, long publishedAt) {
+            this.serverId = serverId;
+            this.publishedAt = publishedAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - publishedAt > RETENTION_MS;
+        }
+    }
+}
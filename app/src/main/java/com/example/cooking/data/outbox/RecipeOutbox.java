@@ -0,0 +1,253 @@
+package com.example.cooking.data.outbox;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.Recipe.Step;
+import com.example.cooking.data.database.AppDatabase;
+import com.example.cooking.data.database.PendingRecipeEntity;
+import com.example.cooking.data.database.RecipeEntity;
+import com.example.cooking.data.search.IngredientIndex;
+import com.example.cooking.data.search.SuggestionIndex;
+import com.example.cooking.network.json.Json;
+import com.example.cooking.network.services.RecipeManager;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Очередь создания рецептов (outbox).
+ * Рецепт сразу сохраняется в локальную БД с временным отрицательным ID и
+ * появляется в ленте, а отправка на сервер выполняется WorkManager при наличии
+ * сети. Каждый рецепт отправляется с ключом идемпотентности, поэтому повторы
+ * не создают дубликатов. После ответа сервера временный ID заменяется
+ * настоящим в рецептах, лайках и открытых экранах.
+ */
+public class RecipeOutbox {
+    private static final String TAG = "RecipeOutbox";
+    private static final String WORK_NAME_PREFIX = "recipe_upload_";
+    public static final String WORK_TAG = "recipe_upload";
+    private static final String PHOTO_DIR = "outbox";
+    private static final long INITIAL_BACKOFF_SECONDS = 10;
+    private static final String PREFS_NAME = "recipe_outbox";
+    private static final String KEY_LAST_TEMPORARY_ID = "last_temporary_id";
+
+    private static volatile RecipeOutbox instance;
+    private static final Gson gson = Json.gson();
+
+    private final Context context;
+    private final AppDatabase database;
+    private final SharedPreferences preferences;
+
+    public static RecipeOutbox getInstance(Context context) {
+        if (instance == null) {
+            synchronized (RecipeOutbox.class) {
+                if (instance == null) {
+                    instance = new RecipeOutbox(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private RecipeOutbox(Context context) {
+        this.context = context;
+        this.database = AppDatabase.getInstance(context);
+        this.preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Сохранить рецепт локально и поставить его в очередь на отправку.
+     * Блокирующий метод - вызывать из фонового потока.
+     * @param photoFile подготовленное фото, переносится во внутреннее хранилище очереди
+     * @param placeholderColor преобладающий цвет фото для заглушки карточки, может быть null
+     * @return временный ID рецепта
+     */
+    public int enqueue(String title, List<Ingredient> ingredients, List<Step> steps,
+                       String userId, @Nullable File photoFile,
+                       @Nullable Integer placeholderColor) throws IOException {
+        String idempotencyKey = UUID.randomUUID().toString();
+        File storedPhoto = photoFile != null ? storePhoto(photoFile, idempotencyKey) : null;
+
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setIngredients(new ArrayList<>(ingredients));
+        recipe.setSteps(new ArrayList<>(steps));
+        recipe.setUserId(userId);
+        // До ответа сервера карточка показывает локальный файл
+        recipe.setPhoto_url(storedPhoto != null ? Uri.fromFile(storedPhoto).toString() : null);
+        recipe.setPlaceholderColor(placeholderColor);
+
+        PendingRecipeEntity pending = new PendingRecipeEntity();
+        pending.setIdempotencyKey(idempotencyKey);
+        pending.setTitle(title);
+        pending.setIngredientsJson(gson.toJson(ingredients));
+        pending.setStepsJson(gson.toJson(steps));
+        pending.setUserId(userId);
+        pending.setPhotoPath(storedPhoto != null ? storedPhoto.getAbsolutePath() : null);
+        pending.setPlaceholderColor(placeholderColor);
+        pending.setCreatedAt(System.currentTimeMillis());
+
+        int[] temporaryId = new int[1];
+        database.runInTransaction(() -> {
+            temporaryId[0] = nextTemporaryId();
+            recipe.setId(temporaryId[0]);
+            pending.setLocalId(temporaryId[0]);
+            database.recipeDao().insert(new RecipeEntity(recipe));
+            database.pendingRecipeDao().insert(pending);
+        });
+
+        List<Recipe> inserted = Collections.singletonList(recipe);
+        IngredientIndex.getInstance().update(inserted);
+        SuggestionIndex.getInstance(context).addTitles(inserted);
+
+        schedule(temporaryId[0]);
+        Log.d(TAG, "Рецепт '" + title + "' сохранен локально с временным ID " + temporaryId[0]);
+        return temporaryId[0];
+    }
+
+    /**
+     * Выдать следующий временный ID. Счетчик хранится в настройках и только убывает,
+     * поэтому ID не повторяется после замены или отклонения прежних временных рецептов
+     * (иначе старое соответствие в RecipeIdReconciler указало бы на чужой рецепт).
+     * Минимумы таблиц учитываются для рецептов, созданных до появления счетчика.
+     * Вызывается внутри транзакции enqueue.
+     */
+    private int nextTemporaryId() {
+        int floor = preferences.getInt(KEY_LAST_TEMPORARY_ID, -1);
+        Integer minRecipeId = database.recipeDao().getMinRecipeId();
+        if (minRecipeId != null) {
+            floor = Math.min(floor, minRecipeId);
+        }
+        Integer minPendingId = database.pendingRecipeDao().getMinLocalId();
+        if (minPendingId != null) {
+            floor = Math.min(floor, minPendingId);
+        }
+        int next = floor - 1;
+        preferences.edit().putInt(KEY_LAST_TEMPORARY_ID, next).commit();
+        return next;
+    }
+
+    /**
+     * Поставить отправку рецепта в WorkManager (повторный вызов для того же ID игнорируется)
+     */
+    public void schedule(int localId) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(RecipeUploadWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, INITIAL_BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .setInputData(new Data.Builder().putInt(RecipeUploadWorker.KEY_LOCAL_ID, localId).build())
+                .addTag(WORK_TAG)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME_PREFIX + localId, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Заменить временный ID на серверный во всех таблицах и уведомить открытые экраны
+     */
+    void reconcile(int temporaryId, RecipeManager.CreatedRecipe created) {
+        PendingRecipeEntity pending = database.pendingRecipeDao().getById(temporaryId);
+        RecipeEntity[] reconciled = new RecipeEntity[1];
+        database.runInTransaction(() -> {
+            RecipeEntity entity = database.recipeDao().getRecipeById(temporaryId);
+            if (entity != null) {
+                database.recipeDao().deleteById(temporaryId);
+                entity.setId(created.recipeId);
+                if (created.photoUrl != null) {
+                    entity.setPhoto_url(created.photoUrl);
+                }
+                database.recipeDao().insert(entity);
+                reconciled[0] = entity;
+            }
+            database.likedRecipeDao().replaceRecipeId(temporaryId, created.recipeId);
+            database.pendingLikeDao().replaceRecipeId(temporaryId, created.recipeId);
+            database.pendingRecipeDao().deleteById(temporaryId);
+        });
+
+        IngredientIndex.getInstance().remove(temporaryId);
+        if (reconciled[0] != null) {
+            IngredientIndex.getInstance().update(Collections.singletonList(reconciled[0].toRecipe()));
+        }
+        deletePhoto(pending);
+        RecipeIdReconciler.getInstance().publish(temporaryId, created.recipeId);
+        // Лайки, поставленные до создания рецепта на сервере, теперь можно отправить
+        LikeOutbox.getInstance(context).scheduleFlush();
+        Log.d(TAG, "Временный ID " + temporaryId + " заменен на " + created.recipeId);
+    }
+
+    /**
+     * Сервер окончательно отклонил рецепт: убираем его из ленты, но сохраняем в очереди с ошибкой
+     */
+    void markFailed(int localId, String error) {
+        String[] title = new String[1];
+        database.runInTransaction(() -> {
+            PendingRecipeEntity pending = database.pendingRecipeDao().getById(localId);
+            if (pending != null) {
+                title[0] = pending.getTitle();
+                pending.setFailed(true);
+                pending.setLastError(error);
+                database.pendingRecipeDao().update(pending);
+            }
+            database.recipeDao().deleteById(localId);
+        });
+        IngredientIndex.getInstance().remove(localId);
+        SuggestionIndex.getInstance(context).removeTitle(title[0]);
+        Log.e(TAG, "Рецепт с временным ID " + localId + " отклонен сервером: " + error);
+    }
+
+    private File storePhoto(File source, String key) throws IOException {
+        File dir = new File(context.getFilesDir(), PHOTO_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Не удалось создать папку " + dir);
+        }
+        File target = new File(dir, key + source.getName().substring(source.getName().lastIndexOf('.')));
+        // Файл из кэша может быть удален системой, поэтому переносим его
+        if (source.renameTo(target)) {
+            return target;
+        }
+        try (InputStream in = new FileInputStream(source); OutputStream out = new FileOutputStream(target)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return target;
+    }
+
+    private void deletePhoto(@Nullable PendingRecipeEntity pending) {
+        if (pending == null || pending.getPhotoPath() == null) {
+            return;
+        }
+        File photo = new File(pending.getPhotoPath());
+        if (photo.exists() && !photo.delete()) {
+            Log.w(TAG, "Не удалось удалить файл " + photo);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.cooking.data.outbox;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.cooking.data.database.AppDatabase;
+import com.example.cooking.data.database.PendingRecipeDao;
+import com.example.cooking.data.database.PendingRecipeEntity;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.network.services.RecipeManager;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Отправляет на сервер один рецепт из очереди RecipeOutbox.
+ * Сетевые ошибки приводят к повтору с экспоненциальной задержкой,
+ * отказ сервера - к окончательной ошибке.
+ */
+public class RecipeUploadWorker extends Worker {
+    private static final String TAG = "RecipeUploadWorker";
+    static final String KEY_LOCAL_ID = "local_id";
+    public static final String KEY_PROGRESS = "progress";
+
+    public RecipeUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        int localId = getInputData().getInt(KEY_LOCAL_ID, 0);
+        PendingRecipeDao dao = AppDatabase.getInstance(getApplicationContext()).pendingRecipeDao();
+        PendingRecipeEntity pending = dao.getById(localId);
+        if (pending == null || pending.isFailed()) {
+            Log.d(TAG, "Рецепт " + localId + " уже отправлен или отклонен");
+            return Result.success();
+        }
+
+        pending.setAttempts(pending.getAttempts() + 1);
+        dao.update(pending);
+
+        RecipeOutbox outbox = RecipeOutbox.getInstance(getApplicationContext());
+        File photo = pending.getPhotoPath() != null ? new File(pending.getPhotoPath()) : null;
+        RecipeManager recipeManager = AppContainer.getInstance(getApplicationContext()).recipeManager();
+        int[] lastPercent = {-1};
+        try {
+            RecipeManager.CreatedRecipe created = recipeManager.createRecipe(
+                    pending.getTitle(),
+                    pending.getIngredientsJson(),
+                    pending.getStepsJson(),
+                    pending.getUserId(),
+                    photo != null && photo.exists() ? photo : null,
+                    pending.getPlaceholderColor(),
+                    pending.getIdempotencyKey(),
+                    (sent, total) -> {
+                        int percent = total > 0 ? (int) (sent * 100 / total) : 0;
+                        if (percent != lastPercent[0]) {
+                            lastPercent[0] = percent;
+                            setProgressAsync(new Data.Builder().putInt(KEY_PROGRESS, percent).build());
+                        }
+                    });
+            // Рецепт создан - загрузка фото больше не нужна. До reconcile: он удаляет
+            // файл, а ключ сессии считается по его размеру и времени изменения
+            recipeManager.forgetUpload(photo);
+            outbox.reconcile(localId, created);
+            return Result.success();
+        } catch (RecipeManager.RejectedException e) {
+            recipeManager.forgetUpload(photo);
+            outbox.markFailed(localId, e.getMessage());
+            return Result.failure();
+        } catch (IOException e) {
+            Log.w(TAG, "Попытка " + pending.getAttempts() + " отправить рецепт " + localId
+                    + " не удалась: " + e.getMessage());
+            pending.setLastError(e.getMessage());
+            dao.update(pending);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.cooking.data.repositories;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.cooking.data.database.AppDatabase;
+import com.example.cooking.data.database.LikedRecipeDao;
+import com.example.cooking.data.database.LikedRecipeEntity;
+import com.example.cooking.data.database.RecipeDao;
+import com.example.cooking.data.outbox.LikeOutbox;
+import com.example.cooking.data.outbox.RecipeIdReconciler;
+import com.example.cooking.utils.AppExecutors;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Единая точка изменения лайка.
+ * recipes.isLiked, liked_recipes и очередь отправки на сервер обновляются
+ * в одной транзакции Room: наблюдатели получают одну инвалидацию и никогда
+ * не видят таблицы в рассогласованном состоянии.
+ */
+public class LikeStore {
+    private static final String TAG = "LikeStore";
+
+    private static volatile LikeStore instance;
+
+    private final AppDatabase database;
+    private final RecipeDao recipeDao;
+    private final LikedRecipeDao likedRecipeDao;
+    private final LikeOutbox likeOutbox;
+    // Однопоточный пул записи сохраняет порядок нажатий
+    private final Executor executor = AppExecutors.getInstance().diskWrite();
+    // Растет с каждым нажатием; по нему экраны узнают, что isLiked в их кэшах устарел
+    private final AtomicInteger changeCount = new AtomicInteger();
+
+    public static LikeStore getInstance(Context context) {
+        if (instance == null) {
+            synchronized (LikeStore.class) {
+                if (instance == null) {
+                    instance = new LikeStore(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private LikeStore(Context context) {
+        database = AppDatabase.getInstance(context);
+        recipeDao = database.recipeDao();
+        likedRecipeDao = database.likedRecipeDao();
+        likeOutbox = LikeOutbox.getInstance(context);
+    }
+
+    /**
+     * Изменить состояние лайка локально и поставить его в очередь отправки
+     * @param userId ID пользователя
+     * @param recipeId ID рецепта (временный ID заменяется серверным, если он уже известен)
+     * @param liked новое состояние лайка
+     */
+    public void setLiked(String userId, int recipeId, boolean liked) {
+        int resolvedId = RecipeIdReconciler.getInstance().resolve(recipeId);
+        changeCount.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                database.runInTransaction(() -> {
+                    recipeDao.updateLikeStatus(resolvedId, liked);
+                    if (liked) {
+                        likedRecipeDao.insert(new LikedRecipeEntity(resolvedId, userId));
+                    } else {
+                        likedRecipeDao.deleteById(resolvedId, userId);
+                    }
+                    likeOutbox.recordInTransaction(userId, resolvedId, liked);
+                });
+                Log.d(TAG, "Лайк рецепта " + resolvedId + " сохранен: " + liked);
+            } catch (Exception e) {
+                Log.e(TAG, "Ошибка сохранения лайка рецепта " + resolvedId, e);
+                return;
+            }
+            likeOutbox.scheduleFlush();
+        });
+    }
+
+    /**
+     * Количество изменений лайков за время жизни процесса
+     */
+    public int getChangeCount() {
+        return changeCount.get();
+    }
+}
@@ -5,6 +5,7 @@ import android.util.Log;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.Transformations;
 import androidx.lifecycle.MediatorLiveData;
@@ -14,19 +15,30 @@ import com.example.cooking.config.ServerConfig;
 import com.example.cooking.data.database.AppDatabase;
 import com.example.cooking.data.database.LikedRecipeDao;
 import com.example.cooking.data.database.LikedRecipeEntity;
+import com.example.cooking.data.database.PendingLikeDao;
+import com.example.cooking.data.database.PendingLikeEntity;
 import com.example.cooking.data.database.RecipeDao;
 import com.example.cooking.data.database.RecipeEntity;
+import com.example.cooking.data.search.IngredientIndex;
+import com.example.cooking.di.AppContainer;
 import com.example.cooking.network.api.ApiService;
 import com.example.cooking.network.responses.RecipesResponse;
-import com.example.cooking.network.services.RetrofitClient;
+import com.example.cooking.network.services.CallScope;
+import com.example.cooking.utils.AppExecutors;
+import com.example.cooking.utils.Futures;
 
 // Импортируем RecipeLocalRepository
 import com.example.cooking.data.repositories.RecipeLocalRepository;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class LikedRecipesRepository {
     private static final String TAG = "LikedRecipesRepository";
@@ -34,8 +46,9 @@ public class LikedRecipesRepository {
     private final Context context; // Добавляем Context для проверки сети
     private final LikedRecipeDao likedRecipeDao;
     private final RecipeDao recipeDao;
+    private final PendingLikeDao pendingLikeDao;
     private final ApiService apiService;
-    private final ExecutorService executor;
+    private final Executor executor;
     private final RecipeLocalRepository recipeLocalRepository; // Добавляем зависимость
 
     public interface LikedRecipesCallback {
@@ -44,17 +57,20 @@ public class LikedRecipesRepository {
         void onDataNotAvailable(String error);
     }
 
+    /**
+     * Не создавать напрямую - экземпляр принадлежит AppContainer
+     */
     public LikedRecipesRepository(Context context) {
         this.context = context.getApplicationContext(); // Сохраняем Application Context
         AppDatabase db = AppDatabase.getInstance(this.context);
         likedRecipeDao = db.likedRecipeDao();
         recipeDao = db.recipeDao();
-        executor = Executors.newSingleThreadExecutor();
-        // Создаем экземпляр RecipeLocalRepository
-        recipeLocalRepository = new RecipeLocalRepository(this.context);
-
-        // Получаем ApiService из общего RetrofitClient
-        apiService = RetrofitClient.getApiService();
+        pendingLikeDao = db.pendingLikeDao();
+        executor = AppExecutors.getInstance().diskWrite();
+        // Общие экземпляры из контейнера приложения
+        AppContainer container = AppContainer.getInstance(this.context);
+        recipeLocalRepository = container.recipeLocalRepository();
+        apiService = container.apiService();
     }
 
     /**
@@ -62,14 +78,19 @@ public class LikedRecipesRepository {
      * Загружает ID лайков, затем по этим ID получает полные данные из
      * RecipeLocalRepository.
      * Это основной метод для получения данных в UI.
+     * @param scope если задан, фоновая синхронизация с сервером отменяется вместе с ним
      */
-    public LiveData<List<Recipe>> getLikedRecipes(String userId) {
+    public LiveData<List<Recipe>> getLikedRecipes(String userId, @Nullable CallScope scope) {
         // Проверяем чтение internalUserId из SharedPreferences
         com.example.cooking.utils.MySharedPreferences prefs = new com.example.cooking.utils.MySharedPreferences(
                 context);
         String internalUserId = prefs.getString("userId", "0");
         Log.d(TAG, "getLikedRecipes: parameter userId=" + userId + ", SharedPreferences userId=" + internalUserId);
-        syncLikedRecipesFromServerIfNeeded(internalUserId); // Запускаем фоновую синхронизацию лайков
+        // Запускаем фоновую синхронизацию лайков
+        CompletableFuture<Void> sync = syncLikedRecipesFromServerIfNeeded(internalUserId);
+        if (scope != null) {
+            scope.track(sync);
+        }
 
         // Получаем LiveData списка ID лайкнутых рецептов (LikedRecipeEntity) для
         // internalUserId
@@ -124,136 +145,128 @@ public class LikedRecipesRepository {
 
     /**
      * Запускает синхронизацию с сервером, если необходимо (например, есть сеть).
-     * Можно добавить логику проверки времени последнего обновления.
+     * Ошибка только логируется; возвращенный future можно отменить.
      */
-    public void syncLikedRecipesFromServerIfNeeded(final String userId) {
+    public CompletableFuture<Void> syncLikedRecipesFromServerIfNeeded(final String userId) {
+        CompletableFuture<Void> sync = syncLikedRecipesFromServer(userId);
+        sync.whenComplete((ignored, error) -> {
+            Throwable cause = error != null ? Futures.unwrap(error) : null;
+            if (cause != null && !(cause instanceof CancellationException)) {
+                Log.e(TAG, "[fetchAndStore] Ошибка синхронизации лайкнутых рецептов для userId: " + userId, cause);
+            }
+        });
+        return sync;
+    }
+
+    /**
+     * Загружает лайкнутые рецепты с сервера и сохраняет их в БД.
+     * Если userId неверный или нет сети, future сразу завершается успешно без запроса.
+     * Отмена future отменяет HTTP запрос.
+     */
+    public CompletableFuture<Void> syncLikedRecipesFromServer(final String userId) {
         if (userId == null || userId.equals("0") || userId.isEmpty()) {
             Log.w(TAG, "Пропуск синхронизации лайков: неверный userId=" + userId);
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         if (!isNetworkAvailable()) {
             Log.d(TAG, "Нет сети, синхронизация лайкнутых рецептов не выполняется.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        Log.d(TAG, "Запуск синхронизации лайкнутых рецептов с сервером для userId: " + userId);
-        executor.execute(() -> fetchAndStoreLikedRecipes(userId));
+        Log.d(TAG, "[fetchAndStore] Выполнение запроса к apiService.getLikedRecipes для userId: " + userId);
+        CompletableFuture<RecipesResponse> call = Futures.fromCall(apiService.getLikedRecipes(userId));
+        CompletableFuture<Void> result = call.thenAcceptAsync(recipesResponse -> {
+            if (!recipesResponse.isSuccess()) {
+                // Сервер вернул success=false
+                throw new CompletionException(new IOException(
+                        "Ошибка при синхронизации лайкнутых рецептов (success=false): "
+                                + recipesResponse.getMessage()));
+            }
+            List<Recipe> recipes = recipesResponse.getRecipes();
+            if (recipes == null) {
+                Log.w(TAG, "[fetchAndStore] Сервер вернул success=true, но null список лайкнутых рецептов для userId: "
+                        + userId);
+                // Очищаем локальные лайки, раз сервер говорит, что их нет
+                recipes = new ArrayList<>();
+            } else {
+                Log.i(TAG, "[fetchAndStore] Успешно загружено " + recipes.size()
+                        + " лайкнутых рецептов с сервера для userId: " + userId);
+            }
+            storeServerLikedRecipes(userId, recipes);
+        }, executor);
+        return Futures.cancelling(result, call);
     }
 
     /**
-     * Выполняет сетевой запрос и сохраняет результат в БД.
-     * Исправлено: использует общий apiService и обрабатывает RecipesResponse.
+     * ID лайкнутых рецептов пользователя из локальной базы.
+     * Чтение идет в пуле чтения БД и может выполняться параллельно с сетевыми запросами.
      */
-    private void fetchAndStoreLikedRecipes(String userId) {
-        Log.d(TAG, "[fetchAndStore] Выполнение запроса к apiService.getLikedRecipes для userId: " + userId);
-        // Используем общий ApiService
-        retrofit2.Call<RecipesResponse> call = apiService.getLikedRecipes(userId);
-        try {
-            // Используем execute() для синхронного выполнения в фоновом потоке Executor'a
-            retrofit2.Response<RecipesResponse> response = call.execute();
-            Log.d(TAG, "[fetchAndStore] Получен ответ от сервера: Code=" + response.code() + ", isSuccessful="
-                    + response.isSuccessful());
-
-            if (response.isSuccessful() && response.body() != null) {
-                RecipesResponse recipesResponse = response.body();
-                if (recipesResponse.isSuccess()) {
-                    List<Recipe> recipes = recipesResponse.getRecipes();
-                    if (recipes != null) {
-                        Log.i(TAG, "[fetchAndStore] Успешно загружено " + recipes.size()
-                                + " лайкнутых рецептов с сервера для userId: " + userId);
-                        // Конвертируем и сохраняем
-                        storeServerLikedRecipes(userId, recipes);
-                    } else {
-                        Log.w(TAG,
-                                "[fetchAndStore] Сервер вернул success=true, но null список лайкнутых рецептов для userId: "
-                                        + userId);
-                        // Очищаем локальные лайки, раз сервер говорит, что их нет
-                        storeServerLikedRecipes(userId, new ArrayList<>());
-                    }
-                } else {
-                    // Сервер вернул success=false
-                    Log.e(TAG, "[fetchAndStore] Ошибка при синхронизации лайкнутых рецептов (success=false): " +
-                            "Code: " + response.code() + ", Message: " + recipesResponse.getMessage());
-                }
-            } else {
-                // Неуспешный HTTP ответ
-                Log.e(TAG, "[fetchAndStore] Ошибка при синхронизации лайкнутых рецептов (HTTP неудача): " +
-                        "Code: " + response.code() + ", Message: " + response.message()); // Логируем код и стандартное
-                                                                                          // сообщение
-            }
-        } catch (Exception e) {
-            // Исключение при выполнении запроса или обработке ответа
-            Log.e(TAG, "[fetchAndStore] Исключение при синхронизации лайкнутых рецептов для userId: " + userId,
-                    e); // Логируем полный стектрейс
-        }
+    public CompletableFuture<Set<Integer>> getLikedRecipeIds(String userId) {
+        return Futures.supply(AppExecutors.getInstance().diskRead(),
+                () -> new HashSet<>(getLikedRecipeIdsSync(userId)));
     }
 
     /**
      * Конвертирует и сохраняет лайкнутые рецепты, полученные с сервера.
-     * Перезаписывает старые данные для пользователя.
+     * Перезаписывает старые данные для пользователя. Вызывать в потоке записи БД.
      */
     private void storeServerLikedRecipes(String userId, List<Recipe> serverRecipes) {
-        executor.execute(() -> {
-            List<LikedRecipeEntity> likedEntitiesToInsert = new ArrayList<>();
-            List<RecipeEntity> recipeEntitiesToInsert = new ArrayList<>();
+        List<LikedRecipeEntity> likedEntitiesToInsert = new ArrayList<>();
+        List<RecipeEntity> recipeEntitiesToInsert = new ArrayList<>();
 
-            for (Recipe recipe : serverRecipes) {
-                if (recipe != null) { // Проверка на null
-                    // Создаем сущность для таблицы лайков
-                    likedEntitiesToInsert.add(new LikedRecipeEntity(recipe.getId(), userId));
-                    // Создаем сущность для основной таблицы рецептов (для обновления/вставки)
-                    recipeEntitiesToInsert.add(new RecipeEntity(recipe));
-                }
+        for (Recipe recipe : serverRecipes) {
+            if (recipe != null) { // Проверка на null
+                // Создаем сущность для таблицы лайков
+                likedEntitiesToInsert.add(new LikedRecipeEntity(recipe.getId(), userId));
+                // Создаем сущность для основной таблицы рецептов (для обновления/вставки)
+                recipeEntitiesToInsert.add(new RecipeEntity(recipe));
             }
+        }
 
-            // Выполняем операции в транзакции для атомарности
-            try {
-                Log.d(TAG, "[DB Sync] Запуск транзакции для обновления лайков userId: " + userId);
-                AppDatabase.getInstance(context).runInTransaction(() -> {
-                    // 1. Очистить старые лайки для этого пользователя
-                    Log.d(TAG, "[DB Sync] Удаление старых записей из liked_recipes для userId: " + userId);
-                    likedRecipeDao.deleteAllForUser(userId);
-                    // 2. Вставить новые лайки, если они есть
-                    if (!likedEntitiesToInsert.isEmpty()) {
-                        Log.d(TAG, "[DB Sync] Вставка " + likedEntitiesToInsert.size()
-                                + " новых записей в liked_recipes для userId: " + userId);
-                        likedRecipeDao.insertAll(likedEntitiesToInsert);
-                    }
-                    // 3. Вставить/Обновить полные данные рецептов в основную таблицу recipes
-                    if (!recipeEntitiesToInsert.isEmpty()) {
-                        Log.d(TAG, "[DB Sync] Вставка/Обновление " + recipeEntitiesToInsert.size()
-                                + " записей в recipes.");
-                        recipeDao.insertAll(recipeEntitiesToInsert); // Используем RecipeDao
+        // Выполняем операции в транзакции для атомарности
+        try {
+            Log.d(TAG, "[DB Sync] Запуск транзакции для обновления лайков userId: " + userId);
+            AppDatabase.getInstance(context).runInTransaction(() -> {
+                // 1. Очистить старые лайки для этого пользователя
+                Log.d(TAG, "[DB Sync] Удаление старых записей из liked_recipes для userId: " + userId);
+                likedRecipeDao.deleteAllForUser(userId);
+                // 2. Вставить новые лайки, если они есть
+                if (!likedEntitiesToInsert.isEmpty()) {
+                    Log.d(TAG, "[DB Sync] Вставка " + likedEntitiesToInsert.size()
+                            + " новых записей в liked_recipes для userId: " + userId);
+                    likedRecipeDao.insertAll(likedEntitiesToInsert);
+                }
+                // 3. Вставить/Обновить полные данные рецептов в основную таблицу recipes
+                if (!recipeEntitiesToInsert.isEmpty()) {
+                    Log.d(TAG, "[DB Sync] Вставка/Обновление " + recipeEntitiesToInsert.size()
+                            + " записей в recipes.");
+                    recipeDao.insertAll(recipeEntitiesToInsert); // Используем RecipeDao
+                }
+                // 4. Поверх данных сервера применяем еще не отправленные изменения лайков
+                for (PendingLikeEntity pending : pendingLikeDao.getForUser(userId)) {
+                    if (pending.isLiked()) {
+                        likedRecipeDao.insert(new LikedRecipeEntity(pending.getRecipeId(), userId));
+                    } else {
+                        likedRecipeDao.deleteById(pending.getRecipeId(), userId);
                     }
-                });
-                Log.i(TAG, "[DB Sync] Транзакция обновления лайков для userId " + userId + " успешно завершена.");
-            } catch (Exception e) {
-                Log.e(TAG, "[DB Sync] Ошибка во время транзакции обновления лайков для userId: " + userId, e);
-            }
-        });
-    }
-
-    /**
-     * Добавить лайкнутый рецепт в локальную базу.
-     * Используется при действии пользователя "лайкнуть".
-     */
-    public void insertLikedRecipeLocal(int recipeId, String userId) {
-        executor.execute(() -> {
-            Log.d(TAG, "Добавление лайка в локальную базу: recipeId=" + recipeId + ", userId=" + userId);
-            likedRecipeDao.insert(new LikedRecipeEntity(recipeId, userId));
-        });
-        // TODO: Добавить вызов API для синхронизации лайка с сервером
+                    recipeDao.updateLikeStatus(pending.getRecipeId(), pending.isLiked());
+                }
+            });
+            IngredientIndex.getInstance().update(serverRecipes);
+            Log.i(TAG, "[DB Sync] Транзакция обновления лайков для userId " + userId + " успешно завершена.");
+        } catch (Exception e) {
+            Log.e(TAG, "[DB Sync] Ошибка во время транзакции обновления лайков для userId: " + userId, e);
+        }
     }
 
     /**
      * Удалить лайкнутый рецепт из локальной базы.
-     * Используется при действии пользователя "снять лайк" или при удалении рецепта.
+     * Используется при удалении рецепта; действия пользователя идут через LikeStore.
      */
     public void deleteLikedRecipeLocal(int recipeId, String userId) {
         executor.execute(() -> {
             Log.d(TAG, "Удаление лайка из локальной базы: recipeId=" + recipeId + ", userId=" + userId);
             likedRecipeDao.deleteById(recipeId, userId);
         });
-        // TODO: Добавить вызов API для синхронизации снятия лайка с сервером
     }
 
     /**
@@ -277,25 +290,6 @@ public class LikedRecipesRepository {
         return false; // Безопасное значение по умолчанию
     }
 
-    /**
-     * Обновить статус лайка (локально).
-     * Сетевой вызов для синхронизации должен быть в отдельном методе или сервисе.
-     */
-    public void updateLikeStatusLocal(int recipeId, String userId, boolean isLiked) {
-        executor.execute(() -> {
-            if (isLiked) {
-                Log.d(TAG,
-                        "Обновление статуса лайка (локально): добавление recipeId=" + recipeId + ", userId=" + userId);
-                likedRecipeDao.insert(new LikedRecipeEntity(recipeId, userId));
-            } else {
-                Log.d(TAG, "Обновление статуса лайка (локально): удаление recipeId=" + recipeId + ", userId=" + userId);
-                likedRecipeDao.deleteById(recipeId, userId);
-            }
-        });
-        // Сетевой вызов должен быть инициирован отдельно, например, из ViewModel
-        // updateLikeStatusOnServer(recipeId, userId, isLiked);
-    }
-
     // --- Удаленные методы SharedPreferences ---
     /*
      * public List<Recipe> loadLikedRecipesFromCache(Context context, String userId)
@@ -8,13 +8,28 @@ import androidx.lifecycle.Transformations;
 
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.data.database.AppDatabase;
+import com.example.cooking.data.database.FacetCount;
 import com.example.cooking.data.database.RecipeDao;
 import com.example.cooking.data.database.RecipeEntity;
+import com.example.cooking.data.search.FacetFilter;
+import com.example.cooking.data.search.IngredientIndex;
+import com.example.cooking.data.search.SuggestionIndex;
+import com.example.cooking.data.snapshot.HomeSnapshotStore;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.utils.AppExecutors;
+import com.example.cooking.utils.AppLog;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Репозиторий для работы с локальной базой данных рецептов
@@ -22,13 +37,21 @@ import java.util.concurrent.Executors;
 public class RecipeLocalRepository {
     
     private static final String TAG = "RecipeLocalRepository";
+    private final AppDatabase database;
     private final RecipeDao recipeDao;
-    private final ExecutorService executor;
+    // Общий поток записи в БД
+    private final Executor executor;
+    private final SuggestionIndex suggestionIndex;
+    private final HomeSnapshotStore snapshotStore;
+    // Растет с каждым локальным удалением; по нему экраны сбрасывают кэши выдачи
+    private final AtomicInteger deleteCount = new AtomicInteger();
     
     public RecipeLocalRepository(Context context) {
-        AppDatabase database = AppDatabase.getInstance(context);
+        database = AppDatabase.getInstance(context);
+        suggestionIndex = SuggestionIndex.getInstance(context);
         recipeDao = database.recipeDao();
-        executor = Executors.newSingleThreadExecutor();
+        executor = AppExecutors.getInstance().diskWrite();
+        snapshotStore = AppContainer.getInstance(context).homeSnapshotStore();
     }
     
     /**
@@ -40,21 +63,64 @@ public class RecipeLocalRepository {
         return Transformations.map(
             recipeDao.getAllRecipes(),
             entities -> {
-                Log.d(TAG, "Transforming RecipeEntities to Recipes. Count: " + (entities != null ? entities.size() : 0));
-                List<Recipe> recipes = new ArrayList<>();
-                if (entities != null) {
-                     for (RecipeEntity entity : entities) {
-                         // Логируем состояние isLiked ПЕРЕД конвертацией
-                         Log.d(TAG, "  Entity ID: " + entity.getId() + ", isLiked: " + entity.isLiked());
-                         recipes.add(entity.toRecipe());
-                     }
-                }
-                Log.d(TAG, "Transformation complete. Returning Recipes count: " + recipes.size());
+                List<Recipe> recipes = toRecipes(entities);
+                AppLog.d(TAG, () -> "Рецептов из БД: " + recipes.size());
                 return recipes;
             }
         );
     }
     
+    /**
+     * Получить рецепты, подходящие под выбранные фасеты.
+     * Фильтрация выполняется в SQL по индексированным колонкам.
+     * @param filter выбранные фасеты; пустой фильтр возвращает все рецепты
+     */
+    public LiveData<List<Recipe>> getRecipesByFacets(FacetFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return getAllRecipes();
+        }
+        LiveData<List<RecipeEntity>> source;
+        if (filter.getFoodTypes().isEmpty()) {
+            source = recipeDao.getRecipesByMealTypes(filter.getMealTypeList());
+        } else if (filter.getMealTypes().isEmpty()) {
+            source = recipeDao.getRecipesByFoodTypes(filter.getFoodTypeList());
+        } else {
+            source = recipeDao.getRecipesByMealAndFoodTypes(
+                    filter.getMealTypeList(), filter.getFoodTypeList());
+        }
+        return Transformations.map(source, this::toRecipes);
+    }
+    
+    /**
+     * Количество рецептов по типам приема пищи с учетом выбранных типов блюд
+     */
+    public LiveData<List<FacetCount>> getMealTypeFacets(FacetFilter filter) {
+        if (filter == null || filter.getFoodTypes().isEmpty()) {
+            return recipeDao.getMealTypeCounts();
+        }
+        return recipeDao.getMealTypeCounts(filter.getFoodTypeList());
+    }
+    
+    /**
+     * Количество рецептов по типам блюд с учетом выбранных типов приема пищи
+     */
+    public LiveData<List<FacetCount>> getFoodTypeFacets(FacetFilter filter) {
+        if (filter == null || filter.getMealTypes().isEmpty()) {
+            return recipeDao.getFoodTypeCounts();
+        }
+        return recipeDao.getFoodTypeCounts(filter.getMealTypeList());
+    }
+    
+    private List<Recipe> toRecipes(List<RecipeEntity> entities) {
+        List<Recipe> recipes = new ArrayList<>();
+        if (entities != null) {
+            for (RecipeEntity entity : entities) {
+                recipes.add(entity.toRecipe());
+            }
+        }
+        return recipes;
+    }
+    
     /**
      * Вставить список рецептов в базу данных
      * @param recipes список рецептов
@@ -64,29 +130,186 @@ public class RecipeLocalRepository {
         for (Recipe recipe : recipes) {
             entities.add(new RecipeEntity(recipe));
         }
-        executor.execute(() -> recipeDao.insertAll(entities));
+        executor.execute(() -> {
+            recipeDao.insertAll(entities);
+            // Инкрементально обновляем индекс ингредиентов
+            IngredientIndex.getInstance().update(recipes);
+            suggestionIndex.addTitles(recipes);
+        });
     }
-    
+
     /**
-     * Обновить рецепт в базе данных
-     * @param recipe рецепт для обновления
+     * Создать приемник для потоковой загрузки каталога.
+     * Весь каталог пишется одной транзакцией: до {@link CatalogInserter#finish()}
+     * изменения не видны, а прерванная загрузка откатывается целиком.
      */
-    public void update(Recipe recipe) {
-        executor.execute(() -> recipeDao.update(new RecipeEntity(recipe)));
+    public CatalogInserter newCatalogInserter() {
+        return new CatalogInserter();
     }
-    
+
     /**
-     * Обновить состояние лайка рецепта
-     * @param recipeId идентификатор рецепта
-     * @param isLiked новое состояние лайка
+     * Запись рецептов по мере разбора ответа сервера.
+     * Пачки по {@link #BATCH_SIZE} передаются в поток записи, где одна транзакция
+     * живет от первой пачки до {@link #finish()} или {@link #abort()}. Пока пачка
+     * пишется, следующая собирается в потоке разбора; в памяти одновременно не
+     * больше двух пачек. Если запись отстает, {@link #accept} ждет ее, притормаживая
+     * чтение из сети.
+     * Пока транзакция открыта, остальные записи в БД ждут ее завершения, а чтение
+     * видит прежний каталог. Индексы поиска обновляются только после фиксации.
+     * accept и finish вызываются из одного потока (не одновременно), abort - из любого.
      */
-    public void updateLikeStatus(int recipeId, boolean isLiked) {
-        try {
-            recipeDao.updateLikeStatus(recipeId, isLiked);
-            Log.d(TAG, "Статус лайка обновлен в локальной базе: recipeId=" + recipeId + ", isLiked=" + isLiked);
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка обновления статуса лайка: " + e.getMessage(), e);
+    public final class CatalogInserter implements Consumer<Recipe> {
+        public static final int BATCH_SIZE = 100;
+        // Загрузка, не передавшая ни одной пачки за это время, считается брошенной
+        private static final long IDLE_TIMEOUT_MS = 120_000;
+        private static final long POLL_MS = 200;
+        private final List<Recipe> end = new ArrayList<>(0);
+
+        private final SynchronousQueue<List<Recipe>> handoff = new SynchronousQueue<>();
+        private List<Recipe> batch = new ArrayList<>(BATCH_SIZE);
+        private CompletableFuture<Void> writer;
+        private volatile boolean aborted;
+        private int count;
+
+        private CatalogInserter() {
+        }
+
+        @Override
+        public void accept(Recipe recipe) {
+            batch.add(recipe);
+            count++;
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Дописать остаток, зафиксировать транзакцию и обновить индексы поиска.
+         * @return количество переданных рецептов
+         */
+        public int finish() {
+            flush();
+            if (writer != null) {
+                hand(end);
+                writer.join();
+            }
+            return count;
         }
+
+        /**
+         * Откатить все записанное. Безопасно вызывать повторно и после finish
+         */
+        public void abort() {
+            aborted = true;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (writer == null) {
+                writer = CompletableFuture.runAsync(this::writeAll, executor);
+            }
+            List<Recipe> recipes = batch;
+            batch = new ArrayList<>(BATCH_SIZE);
+            hand(recipes);
+        }
+
+        /**
+         * Передать пачку потоку записи. Ошибка записи или отмена прерывают загрузку
+         */
+        private void hand(List<Recipe> recipes) {
+            try {
+                while (!handoff.offer(recipes, POLL_MS, TimeUnit.MILLISECONDS)) {
+                    if (writer.isDone()) {
+                        writer.join();
+                        throw new CancellationException("Запись каталога прервана");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                aborted = true;
+                throw new CancellationException("Загрузка каталога прервана");
+            }
+        }
+
+        /**
+         * Поток записи: одна транзакция на весь каталог
+         */
+        private void writeAll() {
+            List<String> titles = new ArrayList<>();
+            try {
+                database.runInTransaction(() -> {
+                    long idleSince = System.currentTimeMillis();
+                    while (true) {
+                        List<Recipe> recipes = takeBatch();
+                        if (recipes == end) {
+                            return;
+                        }
+                        if (recipes == null) {
+                            if (System.currentTimeMillis() - idleSince > IDLE_TIMEOUT_MS) {
+                                throw new CatalogAbortedException("нет данных " + IDLE_TIMEOUT_MS + " мс");
+                            }
+                            continue;
+                        }
+                        writeBatch(recipes, titles);
+                        idleSince = System.currentTimeMillis();
+                    }
+                });
+            } catch (CatalogAbortedException e) {
+                Log.w(TAG, "Загрузка каталога отменена, транзакция откачена: " + e.getMessage());
+                throw e;
+            }
+            // Индекс ингредиентов перестроится по БД при следующем запросе
+            IngredientIndex.getInstance().clear();
+            suggestionIndex.addTitleTexts(titles);
+        }
+
+        private List<Recipe> takeBatch() {
+            if (aborted) {
+                throw new CatalogAbortedException("загрузка прервана");
+            }
+            try {
+                return handoff.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CatalogAbortedException("поток записи прерван");
+            }
+        }
+    }
+
+    /**
+     * Откат транзакции каталога: runInTransaction откатывает ее на исключении
+     */
+    private static final class CatalogAbortedException extends CancellationException {
+        CatalogAbortedException(String message) {
+            super(message);
+        }
+    }
+
+    private void writeBatch(List<Recipe> recipes, List<String> titles) {
+        List<RecipeEntity> entities = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            entities.add(new RecipeEntity(recipe));
+            if (recipe.getTitle() != null) {
+                titles.add(recipe.getTitle());
+            }
+        }
+        recipeDao.insertAll(entities);
+    }
+
+    /**
+     * Обновить рецепт в базе данных
+     * @param recipe рецепт для обновления
+     */
+    public void update(Recipe recipe) {
+        executor.execute(() -> {
+            RecipeEntity previous = recipeDao.getRecipeById(recipe.getId());
+            recipeDao.update(new RecipeEntity(recipe));
+            if (previous != null) {
+                suggestionIndex.updateTitle(previous.getTitle(), recipe.getTitle());
+            }
+        });
     }
     
     /**
@@ -116,11 +339,75 @@ public class RecipeLocalRepository {
         return entity != null ? entity.toRecipe() : null;
     }
     
+    /**
+     * Синхронно получить все рецепты.
+     * ВНИМАНИЕ: выполняет запрос к БД в вызывающем потоке.
+     */
+    public List<Recipe> getAllRecipesSync() {
+        List<Recipe> recipes = new ArrayList<>();
+        for (RecipeEntity entity : recipeDao.getAllRecipesList()) {
+            recipes.add(entity.toRecipe());
+        }
+        return recipes;
+    }
+    
+    /**
+     * Синхронно получить рецепты по списку ID, сохраняя порядок списка.
+     * ВНИМАНИЕ: выполняет запрос к БД в вызывающем потоке.
+     * @param ids идентификаторы рецептов
+     * @return рецепты в порядке ids (отсутствующие в БД пропускаются)
+     */
+    public List<Recipe> getRecipesByIdsSync(List<Integer> ids) {
+        Map<Integer, Recipe> byId = new HashMap<>();
+        for (RecipeEntity entity : recipeDao.getRecipesByIds(ids)) {
+            byId.put(entity.getId(), entity.toRecipe());
+        }
+        List<Recipe> ordered = new ArrayList<>();
+        for (Integer id : ids) {
+            Recipe recipe = byId.get(id);
+            if (recipe != null) {
+                ordered.add(recipe);
+            }
+        }
+        return ordered;
+    }
+    
+    /**
+     * Получить индекс ингредиентов, построив его по локальной БД при первом обращении.
+     * ВНИМАНИЕ: при первом вызове читает всю таблицу в вызывающем потоке.
+     */
+    public IngredientIndex getIngredientIndexSync() {
+        return IngredientIndex.getInstance().ensureBuilt(() -> {
+            List<Recipe> recipes = getAllRecipesSync();
+            Log.d(TAG, "Индекс ингредиентов строится по локальной БД: " + recipes.size());
+            return recipes;
+        });
+    }
+    
+    /**
+     * Обновить бинарный снимок первых карточек ленты после синхронизации.
+     * Ставится в поток записи после уже поставленных вставок, поэтому видит их результат.
+     */
+    public void refreshHomeSnapshot() {
+        executor.execute(() -> {
+            List<Recipe> cards = new ArrayList<>();
+            for (RecipeEntity entity : recipeDao.getFirstRecipes(HomeSnapshotStore.CARD_LIMIT)) {
+                cards.add(entity.toRecipe());
+            }
+            snapshotStore.write(cards);
+        });
+    }
+    
     /**
      * Очистить все рецепты из базы данных
      */
     public void clearAll() {
-        executor.execute(recipeDao::deleteAll);
+        executor.execute(() -> {
+            recipeDao.deleteAll();
+            IngredientIndex.getInstance().clear();
+            suggestionIndex.clear();
+            snapshotStore.clear();
+        });
     }
     
     /**
@@ -129,6 +416,9 @@ public class RecipeLocalRepository {
     public void clearAllSync() {
         try {
             recipeDao.deleteAll();
+            IngredientIndex.getInstance().clear();
+            suggestionIndex.clear();
+            snapshotStore.clear();
             Log.d(TAG, "База данных рецептов очищена синхронно");
         } catch (Exception e) {
             Log.e(TAG, "Ошибка при очистке базы данных синхронно", e);
@@ -140,12 +430,15 @@ public class RecipeLocalRepository {
      * @param recipeId идентификатор рецепта для удаления
      */
     public void deleteRecipe(int recipeId) {
+        deleteCount.incrementAndGet();
         try {
             executor.execute(() -> {
                 try {
                     RecipeEntity recipe = recipeDao.getRecipeById(recipeId);
                     if (recipe != null) {
                         recipeDao.delete(recipe);
+                        IngredientIndex.getInstance().remove(recipeId);
+                        suggestionIndex.removeTitle(recipe.getTitle());
                         Log.d(TAG, "Рецепт успешно удален из базы данных: " + recipeId);
                     } else {
                         Log.w(TAG, "Попытка удалить несуществующий рецепт: " + recipeId);
@@ -158,4 +451,11 @@ public class RecipeLocalRepository {
             Log.e(TAG, "Ошибка при запуске задачи удаления рецепта: " + recipeId, e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Количество локальных удалений рецептов за время жизни процесса
+     */
+    public int getDeleteCount() {
+        return deleteCount.get();
+    }
+}
@@ -9,38 +9,27 @@ import android.util.Log;
 import com.example.cooking.Recipe.Ingredient;
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.Recipe.Step;
-import com.example.cooking.config.ServerConfig;
 import com.example.cooking.network.api.RecipeApi;
+import com.example.cooking.network.json.Json;
 import com.example.cooking.network.responses.RecipesResponse;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.Cache;
-import okhttp3.CacheControl;
-import okhttp3.Interceptor;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Callback;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
-import com.example.cooking.network.interceptors.AuthInterceptor;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.utils.AppExecutors;
 import com.example.cooking.utils.MySharedPreferences;
 import com.example.cooking.data.repositories.RecipeLocalRepository;
 
@@ -50,13 +39,6 @@ import com.example.cooking.data.repositories.RecipeLocalRepository;
  */
 public class RecipeRepository {
     private static final String TAG = "RecipeRepository";
-    private static final String API_URL = ServerConfig.BASE_API_URL;
-
-    // Настройки кэша
-    private static final long CACHE_SIZE = 10 * 1024 * 1024; // 10 МБ
-    private static final String CACHE_CONTROL_HEADER = "Cache-Control";
-    private static final int MAX_AGE = 60 * 4; // 4 минуты для онлайн кэша
-    private static final int MAX_STALE = 60 * 60 * 24 * 7; // 7 дней для оффлайн кэша
 
     // Настройки кэша в SharedPreferences
     private static final String RECIPES_CACHE_KEY = "cached_recipes";
@@ -68,8 +50,9 @@ public class RecipeRepository {
     private final RecipeApi recipeApi;
     private final MySharedPreferences preferences;
     private final RecipeLocalRepository localRepository;
+    private final Cache httpCache;
 
-    private static final Gson gson = new Gson(); // Экземпляр Gson
+    private static final Gson gson = Json.gson(); // Экземпляр Gson
 
     public interface RecipesCallback {
         void onRecipesLoaded(List<Recipe> recipes);
@@ -82,104 +65,23 @@ public class RecipeRepository {
         void onDataNotAvailable(String error);
     }
 
+    /**
+     * Не создавать напрямую - экземпляр принадлежит AppContainer
+     */
     public RecipeRepository(Context context) {
-        this.context = context;
+        this.context = context.getApplicationContext();
         this.preferences = new MySharedPreferences(context);
-        this.localRepository = new RecipeLocalRepository(context);
-
-        // Создаем HTTP кэш
-        File cacheDir = new File(context.getCacheDir(), "http-cache");
-        Cache cache = new Cache(cacheDir, CACHE_SIZE);
-
-        // логирование для отладки
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-        // интерцептор для добавления заголовков кэширования
-        Interceptor cacheInterceptor = chain -> {
-            Request request = chain.request();
-
-            // Всегда сначала пробуем загрузить свежие данные с сервера
-            if (isNetworkAvailable()) {
-                // Запрос к серверу с указанием не использовать кэш
-                request = request.newBuilder()
-                        .cacheControl(CacheControl.FORCE_NETWORK)
-                        .build();
-
-                Log.d(TAG, "Загрузка данных с сервера");
-            } else {
-                // Если сети нет, пробуем использовать кэш
-                CacheControl cacheControl = new CacheControl.Builder()
-                        .maxStale(MAX_STALE, TimeUnit.SECONDS)
-                        .build();
-
-                request = request.newBuilder()
-                        .cacheControl(cacheControl)
-                        .build();
-
-                Log.d(TAG, "Нет сети, используем оффлайн кэш");
-            }
-
-            Response response = chain.proceed(request);
-
-            // Кэшируем ответ для будущего использования в оффлайн режиме
-            return response.newBuilder()
-                    .removeHeader("Pragma")
-                    .header(CACHE_CONTROL_HEADER, "public, max-age=" + MAX_AGE)
-                    .build();
-        };
-
-        // интерцептор для перехвата всех запросов
-        Interceptor requestInterceptor = chain -> {
-            Request original = chain.request();
-
-            // Добавляем общие заголовки к запросу
-            Request request = original.newBuilder()
-                    .header("Accept", "application/json")
-                    .method(original.method(), original.body())
-                    .build();
-
-            return chain.proceed(request);
-        };
-
-        // Настраиваем OkHttpClient с кэшем и интерцепторами
-        // =======================================================================
-        // TODO: Использовать общий OkHttpClient для всех репозиториев!
-        // В идеале настроить Dependency Injection (Hilt/Dagger)
-        // или передавать единственный экземпляр OkHttpClient в конструкторы.
-        // Текущая конфигурация может привести к разным кэшам и поведению сети.
-        // =======================================================================
-        OkHttpClient httpClient = new OkHttpClient.Builder()
-                .cache(cache)
-                .addInterceptor(new AuthInterceptor())
-                .addInterceptor(requestInterceptor)
-                .addNetworkInterceptor(cacheInterceptor)
-                .addInterceptor(loggingInterceptor)
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
-
-        // Настраиваем Gson для более безопасного парсинга JSON
-        Gson gsonConverter = new GsonBuilder()
-                .setLenient()
-                .create();
-
-        // Retrofit с настроенным клиентом и конвертером
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(API_URL + "/")
-                .client(httpClient)
-                .addConverterFactory(GsonConverterFactory.create(gsonConverter))
-                .build();
-
-        // имплементацию API
-        recipeApi = retrofit.create(RecipeApi.class);
+        AppContainer container = AppContainer.getInstance(context);
+        this.localRepository = container.recipeLocalRepository();
+        this.httpCache = container.httpCache();
+        this.recipeApi = container.recipeApi();
     }
 
     /**
      * Получает рецепты с сервера.
+     * @return запущенный запрос для отмены или null, если данные отданы из кэша
      */
-    public void getRecipes(final RecipesCallback callback) {
+    public Call<RecipesResponse> getRecipes(final RecipesCallback callback) {
         // Если нет сети, сразу пробуем загрузить из кэша
         if (!isNetworkAvailable()) {
             Log.d(TAG, "Нет подключения к интернету, пробуем загрузить из кэша");
@@ -188,11 +90,11 @@ public class RecipeRepository {
                 List<Recipe> recipes = ((Result.Success<List<Recipe>>) cachedResult).getData();
                 Log.d(TAG, "Загружено из кэша рецептов: " + recipes.size());
                 callback.onRecipesLoaded(recipes);
-                return;
+                return null;
             } else {
                 Log.e(TAG, "Кэш недоступен: " + ((Result.Error<List<Recipe>>) cachedResult).getErrorMessage());
                 callback.onDataNotAvailable("Нет подключения к интернету и нет данных в кэше");
-                return;
+                return null;
             }
         }
 
@@ -202,7 +104,7 @@ public class RecipeRepository {
             Log.e(TAG, "Внутренний userId не найден в SharedPreferences. Пользователь не авторизован?");
             // В случае ошибки ID, пробуем загрузить из кэша (для оффлайн режима)
             tryLoadFromCache("Ошибка: Пользователь не авторизован (внутренний ID не найден).", callback);
-            return;
+            return null;
         }
         Log.d(TAG, "Отправляем запрос getRecipes с внутренним userId: " + userId);
 
@@ -250,6 +152,11 @@ public class RecipeRepository {
 
             @Override
             public void onFailure(Call<RecipesResponse> call, Throwable t) {
+                if (call.isCanceled()) {
+                    // Экран, запросивший данные, закрыт - ни кэш, ни колбэк не нужны
+                    Log.d(TAG, "Запрос рецептов отменен");
+                    return;
+                }
                 Log.e(TAG, "Ошибка сети: " + t.getMessage(), t);
 
                 String errorMsg;
@@ -264,6 +171,7 @@ public class RecipeRepository {
                 tryLoadFromCache(errorMsg, callback);
             }
         });
+        return call;
     }
 
     /**
@@ -294,14 +202,16 @@ public class RecipeRepository {
             editor.remove(LAST_UPDATE_TIME_KEY);
             editor.apply();
 
-            // Очищаем HTTP кэш
-            try {
-                File cacheDir = new File(context.getCacheDir(), "http-cache");
-                deleteDir(cacheDir);
-                Log.d(TAG, "HTTP кэш очищен");
-            } catch (Exception e) {
-                Log.e(TAG, "Ошибка при очистке HTTP кэша", e);
-            }
+            // Очищаем HTTP кэш через сам Cache, а не удалением папки из-под него.
+            // Метод вызывается и из колбэков Retrofit, поэтому диск - в фоне
+            AppExecutors.getInstance().diskWrite().execute(() -> {
+                try {
+                    httpCache.evictAll();
+                    Log.d(TAG, "HTTP кэш очищен");
+                } catch (Exception e) {
+                    Log.e(TAG, "Ошибка при очистке HTTP кэша", e);
+                }
+            });
 
             Log.d(TAG, "Кэш успешно очищен");
         } catch (Exception e) {
@@ -309,21 +219,6 @@ public class RecipeRepository {
         }
     }
 
-    private boolean deleteDir(File dir) {
-        if (dir != null && dir.isDirectory()) {
-            String[] children = dir.list();
-            if (children != null) {
-                for (String child : children) {
-                    boolean success = deleteDir(new File(dir, child));
-                    if (!success) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return dir != null && dir.delete();
-    }
-
     /**
      * Сохраняет список рецептов в кэш SharedPreferences.
      * Используется для RecipeSearchService.
@@ -487,9 +382,10 @@ public class RecipeRepository {
 
     /**
      * Загружает один рецепт с сервера по id (обходит отсутствие отдельного эндпоинта)
+     * @return запущенный запрос для отмены или null, если данные отданы из кэша
      */
-    public void loadRecipeFromServer(int recipeId, final RecipeCallback callback) {
-        getRecipes(new RecipesCallback() {
+    public Call<RecipesResponse> loadRecipeFromServer(int recipeId, final RecipeCallback callback) {
+        return getRecipes(new RecipesCallback() {
             @Override
             public void onRecipesLoaded(List<Recipe> recipes) {
                 Recipe found = null;
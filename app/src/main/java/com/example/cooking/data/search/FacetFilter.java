@@ -0,0 +1,81 @@
+package com.example.cooking.data.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Выбранные фасеты ленты: типы приема пищи и типы блюд.
+ * Значения внутри одного фасета объединяются через ИЛИ, разные фасеты - через И.
+ * Объект неизменяемый, каждое переключение возвращает новый фильтр.
+ */
+public final class FacetFilter {
+
+    public static final FacetFilter EMPTY = new FacetFilter(
+            Collections.emptySet(), Collections.emptySet());
+
+    private final Set<String> mealTypes;
+    private final Set<String> foodTypes;
+
+    private FacetFilter(Set<String> mealTypes, Set<String> foodTypes) {
+        this.mealTypes = Collections.unmodifiableSet(mealTypes);
+        this.foodTypes = Collections.unmodifiableSet(foodTypes);
+    }
+
+    public Set<String> getMealTypes() {
+        return mealTypes;
+    }
+
+    public Set<String> getFoodTypes() {
+        return foodTypes;
+    }
+
+    public List<String> getMealTypeList() {
+        return new ArrayList<>(mealTypes);
+    }
+
+    public List<String> getFoodTypeList() {
+        return new ArrayList<>(foodTypes);
+    }
+
+    public boolean isEmpty() {
+        return mealTypes.isEmpty() && foodTypes.isEmpty();
+    }
+
+    /**
+     * Добавить или убрать значение фасета "тип приема пищи"
+     */
+    public FacetFilter toggleMealType(String value) {
+        return new FacetFilter(toggle(mealTypes, value), new LinkedHashSet<>(foodTypes));
+    }
+
+    /**
+     * Добавить или убрать значение фасета "тип блюда"
+     */
+    public FacetFilter toggleFoodType(String value) {
+        return new FacetFilter(new LinkedHashSet<>(mealTypes), toggle(foodTypes, value));
+    }
+
+    private static Set<String> toggle(Set<String> source, String value) {
+        Set<String> result = new LinkedHashSet<>(source);
+        if (value != null && !result.remove(value)) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FacetFilter)) return false;
+        FacetFilter that = (FacetFilter) o;
+        return mealTypes.equals(that.mealTypes) && foodTypes.equals(that.foodTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mealTypes.hashCode() + foodTypes.hashCode();
+    }
+}
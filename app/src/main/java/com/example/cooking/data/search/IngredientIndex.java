@@ -0,0 +1,371 @@
+package com.example.cooking.data.search;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Recipe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Индекс ингредиентов для поиска "что можно приготовить".
+ * Все названия ингредиентов из локального каталога нормализуются и собираются
+ * в словарь, а набор ингредиентов каждого рецепта хранится как битовая маска
+ * (long[]). Совпадение считается пересечением масок и подсчетом бит, без
+ * вложенных циклов по строкам.
+ * Индекс общий для процесса и обновляется инкрементально при синхронизации.
+ */
+public class IngredientIndex {
+
+    private static volatile IngredientIndex instance;
+
+    // Нормализованное название -> номер бита
+    private final Map<String, Integer> vocabulary = new HashMap<>();
+    // Номер бита -> нормализованное название
+    private final List<String> terms = new ArrayList<>();
+    // ID рецепта -> маска его ингредиентов
+    private final Map<Integer, long[]> recipeBits = new HashMap<>();
+    // ID рецепта -> количество различных ингредиентов (кэш popcount)
+    private final Map<Integer, Integer> recipeSizes = new HashMap<>();
+    private boolean isBuilt = false;
+    // Построение идет: изменения копятся и применяются поверх загруженного снимка
+    private boolean isBuilding = false;
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    // Растет при clear(), чтобы построение по устаревшему снимку не объявило индекс готовым
+    private int generation = 0;
+    // Сериализует построения, не блокируя match/update на время чтения БД
+    private final Object buildLock = new Object();
+
+    /**
+     * Результат сопоставления одного рецепта с имеющимися ингредиентами
+     */
+    public static class Match {
+        private final int recipeId;
+        private final int matchedCount;
+        private final int totalCount;
+
+        Match(int recipeId, int matchedCount, int totalCount) {
+            this.recipeId = recipeId;
+            this.matchedCount = matchedCount;
+            this.totalCount = totalCount;
+        }
+
+        public int getRecipeId() {
+            return recipeId;
+        }
+
+        public int getMatchedCount() {
+            return matchedCount;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        public int getMissingCount() {
+            return totalCount - matchedCount;
+        }
+
+        /**
+         * Доля ингредиентов рецепта, которые есть у пользователя (0..1)
+         */
+        public float getCoverage() {
+            return totalCount == 0 ? 0f : (float) matchedCount / totalCount;
+        }
+    }
+
+    public static IngredientIndex getInstance() {
+        if (instance == null) {
+            synchronized (IngredientIndex.class) {
+                if (instance == null) {
+                    instance = new IngredientIndex();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return true, если индекс уже построен по локальному каталогу
+     */
+    public synchronized boolean isBuilt() {
+        return isBuilt;
+    }
+
+    /**
+     * Построить индекс, если он еще не построен.
+     * Список рецептов читается один раз даже при одновременных вызовах и вне
+     * монитора индекса, так что match/update не ждут чтения БД. Изменения,
+     * пришедшие во время построения, применяются поверх прочитанного снимка.
+     *
+     * @param loader источник всех рецептов каталога (вызывается в текущем потоке)
+     */
+    public IngredientIndex ensureBuilt(Supplier<? extends Collection<Recipe>> loader) {
+        synchronized (buildLock) {
+            while (true) {
+                int startedAt;
+                synchronized (this) {
+                    if (isBuilt) {
+                        return this;
+                    }
+                    isBuilding = true;
+                    pendingChanges.clear();
+                    startedAt = generation;
+                }
+                Collection<Recipe> recipes;
+                try {
+                    recipes = loader.get();
+                } catch (RuntimeException e) {
+                    synchronized (this) {
+                        isBuilding = false;
+                        pendingChanges.clear();
+                    }
+                    throw e;
+                }
+                synchronized (this) {
+                    isBuilding = false;
+                    if (startedAt != generation) {
+                        // clear() во время чтения: снимок мог устареть, читаем заново
+                        pendingChanges.clear();
+                        continue;
+                    }
+                    rebuild(recipes);
+                    for (Runnable change : pendingChanges) {
+                        change.run();
+                    }
+                    pendingChanges.clear();
+                    return this;
+                }
+            }
+        }
+    }
+
+    /**
+     * Полностью перестроить индекс по списку рецептов
+     */
+    public synchronized void rebuild(Collection<Recipe> recipes) {
+        vocabulary.clear();
+        terms.clear();
+        recipeBits.clear();
+        recipeSizes.clear();
+        for (Recipe recipe : recipes) {
+            indexRecipe(recipe);
+        }
+        isBuilt = true;
+    }
+
+    /**
+     * Инкрементально обновить индекс для новых или измененных рецептов.
+     * Если индекс еще не построен, ничего не делаем - он будет построен
+     * целиком при первом запросе. Во время построения изменение откладывается
+     * и применяется после него.
+     */
+    public synchronized void update(Collection<Recipe> recipes) {
+        if (recipes == null) {
+            return;
+        }
+        if (isBuilding) {
+            List<Recipe> copy = new ArrayList<>(recipes);
+            pendingChanges.add(() -> {
+                for (Recipe recipe : copy) {
+                    indexRecipe(recipe);
+                }
+            });
+            return;
+        }
+        if (!isBuilt) {
+            return;
+        }
+        for (Recipe recipe : recipes) {
+            indexRecipe(recipe);
+        }
+    }
+
+    /**
+     * Удалить рецепт из индекса; во время построения - после него.
+     * Словарь не сокращается, чтобы номера бит оставались стабильными.
+     */
+    public synchronized void remove(int recipeId) {
+        if (isBuilding) {
+            pendingChanges.add(() -> remove(recipeId));
+            return;
+        }
+        recipeBits.remove(recipeId);
+        recipeSizes.remove(recipeId);
+    }
+
+    /**
+     * Сбросить индекс (например, после очистки локальной БД)
+     */
+    public synchronized void clear() {
+        vocabulary.clear();
+        terms.clear();
+        recipeBits.clear();
+        recipeSizes.clear();
+        pendingChanges.clear();
+        isBuilt = false;
+        generation++;
+    }
+
+    /**
+     * Подобрать рецепты по имеющимся ингредиентам.
+     * Название пользователя совпадает с ингредиентом словаря, если оно равно ему
+     * или является началом одного из его слов ("помидор" -> "помидоры черри").
+     *
+     * @param available ингредиенты, которые есть у пользователя
+     * @param limit максимальное количество результатов
+     * @return рецепты хотя бы с одним совпадением, по убыванию покрытия
+     */
+    public synchronized List<Match> match(Collection<String> available, int limit) {
+        long[] query = buildQueryMask(available);
+        if (query.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> entry : recipeBits.entrySet()) {
+            long[] bits = entry.getValue();
+            int words = Math.min(bits.length, query.length);
+            int matched = 0;
+            for (int i = 0; i < words; i++) {
+                matched += Long.bitCount(bits[i] & query[i]);
+            }
+            if (matched > 0) {
+                matches.add(new Match(entry.getKey(), matched, recipeSizes.get(entry.getKey())));
+            }
+        }
+
+        Collections.sort(matches, (a, b) -> {
+            int byCoverage = Float.compare(b.getCoverage(), a.getCoverage());
+            if (byCoverage != 0) {
+                return byCoverage;
+            }
+            int byMatched = Integer.compare(b.getMatchedCount(), a.getMatchedCount());
+            if (byMatched != 0) {
+                return byMatched;
+            }
+            return Integer.compare(a.getMissingCount(), b.getMissingCount());
+        });
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Разобрать пользовательский ввод ("яйца, молоко; мука") в список названий
+     */
+    public static List<String> parseInput(String input) {
+        List<String> result = new ArrayList<>();
+        if (input == null) {
+            return result;
+        }
+        for (String part : input.split("[,;\\n]")) {
+            String normalized = normalize(part);
+            if (!normalized.isEmpty() && !result.contains(normalized)) {
+                result.add(normalized);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Нормализация названия ингредиента: нижний регистр, "ё" -> "е",
+     * без знаков препинания и лишних пробелов
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String lower = name.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        StringBuilder sb = new StringBuilder(lower.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private void indexRecipe(Recipe recipe) {
+        if (recipe == null) {
+            return;
+        }
+        long[] bits = new long[0];
+        int size = 0;
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                String term = normalize(ingredient.getName());
+                if (term.isEmpty()) {
+                    continue;
+                }
+                int bit = termId(term);
+                bits = ensureCapacity(bits, bit);
+                long mask = 1L << (bit & 63);
+                if ((bits[bit >>> 6] & mask) == 0) {
+                    bits[bit >>> 6] |= mask;
+                    size++;
+                }
+            }
+        }
+        recipeBits.put(recipe.getId(), bits);
+        recipeSizes.put(recipe.getId(), size);
+    }
+
+    private int termId(String term) {
+        Integer id = vocabulary.get(term);
+        if (id == null) {
+            id = terms.size();
+            vocabulary.put(term, id);
+            terms.add(term);
+        }
+        return id;
+    }
+
+    private long[] buildQueryMask(Collection<String> available) {
+        long[] mask = new long[0];
+        if (available == null || available.isEmpty()) {
+            return mask;
+        }
+        for (String raw : available) {
+            String wanted = normalize(raw);
+            if (wanted.isEmpty()) {
+                continue;
+            }
+            for (int bit = 0; bit < terms.size(); bit++) {
+                if (matchesTerm(terms.get(bit), wanted)) {
+                    mask = ensureCapacity(mask, bit);
+                    mask[bit >>> 6] |= 1L << (bit & 63);
+                }
+            }
+        }
+        return mask;
+    }
+
+    private static boolean matchesTerm(String term, String wanted) {
+        if (term.equals(wanted) || term.startsWith(wanted)) {
+            return true;
+        }
+        return term.contains(" " + wanted);
+    }
+
+    private static long[] ensureCapacity(long[] bits, int bit) {
+        int word = bit >>> 6;
+        if (word < bits.length) {
+            return bits;
+        }
+        long[] grown = new long[word + 1];
+        System.arraycopy(bits, 0, grown, 0, bits.length);
+        return grown;
+    }
+}
@@ -0,0 +1,511 @@
+package com.example.cooking.data.search;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.data.database.AppDatabase;
+import com.example.cooking.network.json.Json;
+import com.example.cooking.utils.AppExecutors;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Индекс подсказок для строки поиска.
+ * Источники - названия рецептов из локального каталога и история запросов
+ * пользователя. Ключи хранятся в отсортированном массиве, поиск по префиксу -
+ * бинарный поиск нижней границы и проход до первого несовпадения. Новые ключи
+ * копятся и вливаются в массив одним слиянием на пачку, а не вставкой по одному.
+ * Кроме полного названия индексируется каждое слово, чтобы "цез" находил
+ * "Салат Цезарь".
+ * История запросов сохраняется в SharedPreferences и переживает перезапуск.
+ */
+public class SuggestionIndex {
+    private static final String TAG = "SuggestionIndex";
+    private static final String PREFS_NAME = "search_suggestions";
+    private static final String HISTORY_KEY = "query_history";
+    // Максимальный размер сохраняемой истории запросов
+    private static final int MAX_HISTORY = 200;
+    // Вес одного использования запроса относительно названия рецепта
+    private static final double QUERY_WEIGHT = 3.0;
+    // Период полураспада веса запроса из истории
+    private static final long HISTORY_HALF_LIFE_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private static volatile SuggestionIndex instance;
+
+    private final SharedPreferences preferences;
+    private final Context appContext;
+    // Задачи индекса выполняются по очереди, но в общем пуле вычислений
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger requestGeneration = new AtomicInteger();
+    private static final Gson gson = Json.gson();
+
+    // Нормализованная фраза -> подсказка
+    private final Map<String, Entry> entries = new HashMap<>();
+    // Отсортированные по ключу ссылки (фраза целиком и каждое ее слово)
+    private List<KeyRef> sortedKeys = new ArrayList<>();
+    // Ключи новых фраз, еще не влитые в sortedKeys (см. mergePendingKeys)
+    private final List<KeyRef> pendingKeys = new ArrayList<>();
+    private boolean isLoaded = false;
+
+    private static final Comparator<KeyRef> KEY_ORDER = (a, b) -> a.key.compareTo(b.key);
+
+    /**
+     * Одна подсказка с весами
+     */
+    static class Entry {
+        String key;
+        String text;
+        boolean isTitle;
+        int queryCount;
+        long lastUsed;
+    }
+
+    /**
+     * Ключ в отсортированном массиве
+     */
+    private static class KeyRef {
+        final String key;
+        final Entry entry;
+
+        KeyRef(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Сохраняемая запись истории
+     */
+    private static class HistoryItem {
+        String text;
+        int count;
+        long lastUsed;
+    }
+
+    public interface SuggestionsCallback {
+        void onSuggestions(List<String> suggestions);
+    }
+
+    public static SuggestionIndex getInstance(Context context) {
+        if (instance == null) {
+            synchronized (SuggestionIndex.class) {
+                if (instance == null) {
+                    instance = new SuggestionIndex(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private SuggestionIndex(Context context) {
+        this(context, context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE),
+                AppExecutors.serial(AppExecutors.getInstance().compute()));
+        // Загружаем историю и названия в фоне, первые подсказки подождут в очереди
+        executor.execute(this::loadIfNeeded);
+    }
+
+    /**
+     * Для тестов: пустой индекс без загрузки из Room, задачи на переданном исполнителе
+     */
+    SuggestionIndex(SharedPreferences preferences, Executor executor) {
+        this(null, preferences, executor);
+        isLoaded = true;
+    }
+
+    private SuggestionIndex(Context context, SharedPreferences preferences, Executor executor) {
+        this.appContext = context;
+        this.preferences = preferences;
+        this.executor = executor;
+    }
+
+    /**
+     * Асинхронно получить подсказки для префикса.
+     * Результат доставляется в главный поток; ответы на устаревшие запросы
+     * (если пользователь успел ввести следующий символ) отбрасываются.
+     */
+    public void suggestAsync(String prefix, int limit, SuggestionsCallback callback) {
+        int generation = requestGeneration.incrementAndGet();
+        executor.execute(() -> {
+            if (generation != requestGeneration.get()) {
+                return;
+            }
+            List<String> result = suggest(prefix, limit);
+            mainHandler.post(() -> {
+                if (generation == requestGeneration.get()) {
+                    callback.onSuggestions(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Запомнить выполненный запрос пользователя
+     */
+    public void recordQuery(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        executor.execute(() -> {
+            loadIfNeeded();
+            synchronized (this) {
+                Entry entry = getOrCreate(query.trim());
+                entry.queryCount++;
+                entry.lastUsed = now;
+                mergePendingKeys();
+            }
+            saveHistory();
+        });
+    }
+
+    /**
+     * Инкрементально добавить названия рецептов после синхронизации каталога
+     */
+    public void addTitles(Collection<Recipe> recipes) {
+        if (recipes == null || recipes.isEmpty()) {
+            return;
+        }
+        List<String> titles = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            if (recipe != null && recipe.getTitle() != null) {
+                titles.add(recipe.getTitle());
+            }
+        }
+        addTitleTexts(titles);
+    }
+
+    /**
+     * То же по готовым названиям - когда сами рецепты уже не хранятся в памяти
+     */
+    public void addTitleTexts(List<String> titles) {
+        if (titles == null || titles.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            loadIfNeeded();
+            synchronized (this) {
+                for (String title : titles) {
+                    getOrCreate(title).isTitle = true;
+                }
+                mergePendingKeys();
+            }
+        });
+    }
+
+    /**
+     * Убрать название удаленного рецепта. Фраза остается, если ее искали.
+     * Одинаковые названия не различаются: название другого рецепта вернется
+     * при следующей синхронизации каталога.
+     */
+    public void removeTitle(String title) {
+        if (title == null) {
+            return;
+        }
+        executor.execute(() -> {
+            loadIfNeeded();
+            synchronized (this) {
+                unsetTitle(title);
+            }
+        });
+    }
+
+    /**
+     * Заменить название переименованного рецепта
+     */
+    public void updateTitle(String oldTitle, String newTitle) {
+        if (newTitle == null) {
+            removeTitle(oldTitle);
+            return;
+        }
+        executor.execute(() -> {
+            loadIfNeeded();
+            synchronized (this) {
+                if (oldTitle != null && !IngredientIndex.normalize(oldTitle).equals(IngredientIndex.normalize(newTitle))) {
+                    unsetTitle(oldTitle);
+                }
+                Entry entry = getOrCreate(newTitle);
+                entry.isTitle = true;
+                entry.text = newTitle.trim();
+                mergePendingKeys();
+            }
+        });
+    }
+
+    /**
+     * Очистить историю запросов пользователя
+     */
+    public void clearHistory() {
+        executor.execute(() -> {
+            synchronized (this) {
+                List<String> toRemove = new ArrayList<>();
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    Entry entry = e.getValue();
+                    entry.queryCount = 0;
+                    entry.lastUsed = 0;
+                    if (!entry.isTitle) {
+                        toRemove.add(e.getKey());
+                    }
+                }
+                for (String key : toRemove) {
+                    removeEntry(key);
+                }
+            }
+            preferences.edit().remove(HISTORY_KEY).apply();
+        });
+    }
+
+    /**
+     * Убрать все названия рецептов после очистки локального каталога.
+     * История запросов остается - для нее есть {@link #clearHistory()}.
+     */
+    public void clear() {
+        executor.execute(() -> {
+            // Загрузка до очистки, иначе она вернула бы названия позже
+            loadIfNeeded();
+            synchronized (this) {
+                entries.values().removeIf(entry -> {
+                    entry.isTitle = false;
+                    return entry.queryCount == 0;
+                });
+                List<KeyRef> kept = new ArrayList<>(sortedKeys.size());
+                for (KeyRef ref : sortedKeys) {
+                    if (entries.get(ref.entry.key) == ref.entry) {
+                        kept.add(ref);
+                    }
+                }
+                sortedKeys = kept;
+            }
+        });
+    }
+
+    /**
+     * Синхронный подбор подсказок. Вызывается на фоновом потоке индекса.
+     */
+    synchronized List<String> suggest(String prefix, int limit) {
+        String normalized = IngredientIndex.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        long now = System.currentTimeMillis();
+        PriorityQueue<Map.Entry<Entry, Double>> top = new PriorityQueue<>(limit + 1,
+                (a, b) -> Double.compare(a.getValue(), b.getValue()));
+        Set<Entry> seen = new HashSet<>();
+
+        int from = lowerBound(normalized);
+        for (int i = from; i < sortedKeys.size(); i++) {
+            KeyRef ref = sortedKeys.get(i);
+            if (!ref.key.startsWith(normalized)) {
+                break;
+            }
+            if (!seen.add(ref.entry)) {
+                continue;
+            }
+            double score = score(ref.entry, now);
+            // Совпадение с началом всей фразы важнее совпадения со словом внутри
+            if (ref.key.equals(ref.entry.key)) {
+                score += 0.5;
+            }
+            top.add(new AbstractMap.SimpleEntry<>(ref.entry, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<String> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll().getKey().text);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private double score(Entry entry, long now) {
+        double score = entry.isTitle ? 1.0 : 0.0;
+        if (entry.queryCount > 0) {
+            double age = Math.max(0, now - entry.lastUsed);
+            double decay = Math.pow(0.5, age / HISTORY_HALF_LIFE_MS);
+            score += QUERY_WEIGHT * entry.queryCount * decay;
+        }
+        return score;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedKeys.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedKeys.get(mid).key.compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Entry getOrCreate(String text) {
+        String normalized = IngredientIndex.normalize(text);
+        Entry entry = entries.get(normalized);
+        if (entry != null) {
+            return entry;
+        }
+        entry = new Entry();
+        entry.key = normalized;
+        entry.text = text.trim();
+        entries.put(normalized, entry);
+        pendingKeys.add(new KeyRef(normalized, entry));
+        // Дополнительно индексируем каждое следующее слово фразы
+        int space = normalized.indexOf(' ');
+        while (space != -1) {
+            pendingKeys.add(new KeyRef(normalized.substring(space + 1), entry));
+            space = normalized.indexOf(' ', space + 1);
+        }
+        return entry;
+    }
+
+    private void unsetTitle(String title) {
+        String normalized = IngredientIndex.normalize(title);
+        Entry entry = entries.get(normalized);
+        if (entry == null) {
+            return;
+        }
+        entry.isTitle = false;
+        if (entry.queryCount == 0) {
+            removeEntry(normalized);
+        }
+    }
+
+    private void removeEntry(String normalized) {
+        Entry entry = entries.remove(normalized);
+        if (entry == null) {
+            return;
+        }
+        for (int i = sortedKeys.size() - 1; i >= 0; i--) {
+            if (sortedKeys.get(i).entry == entry) {
+                sortedKeys.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Отсортировать накопленные ключи и слить их с sortedKeys за один проход.
+     * Вызывать в конце каждого блока, создающего фразы, до выхода из synchronized.
+     */
+    private void mergePendingKeys() {
+        if (pendingKeys.isEmpty()) {
+            return;
+        }
+        Collections.sort(pendingKeys, KEY_ORDER);
+        List<KeyRef> merged = new ArrayList<>(sortedKeys.size() + pendingKeys.size());
+        int i = 0;
+        int j = 0;
+        while (i < sortedKeys.size() && j < pendingKeys.size()) {
+            if (KEY_ORDER.compare(sortedKeys.get(i), pendingKeys.get(j)) <= 0) {
+                merged.add(sortedKeys.get(i++));
+            } else {
+                merged.add(pendingKeys.get(j++));
+            }
+        }
+        merged.addAll(sortedKeys.subList(i, sortedKeys.size()));
+        merged.addAll(pendingKeys.subList(j, pendingKeys.size()));
+        sortedKeys = merged;
+        pendingKeys.clear();
+    }
+
+    /**
+     * Загрузка истории из SharedPreferences и названий из Room (один раз)
+     */
+    private void loadIfNeeded() {
+        synchronized (this) {
+            if (isLoaded) {
+                return;
+            }
+            isLoaded = true;
+        }
+        long start = System.currentTimeMillis();
+        List<String> titles;
+        try {
+            titles = AppDatabase.getInstance(appContext).recipeDao().getAllTitles();
+        } catch (Exception e) {
+            Log.e(TAG, "Не удалось загрузить названия рецептов", e);
+            titles = Collections.emptyList();
+        }
+        List<HistoryItem> history = readHistory();
+
+        synchronized (this) {
+            for (String title : titles) {
+                if (title != null) {
+                    getOrCreate(title).isTitle = true;
+                }
+            }
+            for (HistoryItem item : history) {
+                if (item.text == null) {
+                    continue;
+                }
+                Entry entry = getOrCreate(item.text);
+                entry.queryCount = item.count;
+                entry.lastUsed = item.lastUsed;
+            }
+            mergePendingKeys();
+        }
+        Log.d(TAG, "Индекс подсказок загружен: " + entries.size() + " фраз за "
+                + (System.currentTimeMillis() - start) + " мс");
+    }
+
+    private List<HistoryItem> readHistory() {
+        String json = preferences.getString(HISTORY_KEY, null);
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            Type type = new TypeToken<ArrayList<HistoryItem>>() {}.getType();
+            List<HistoryItem> items = gson.fromJson(json, type);
+            return items != null ? items : Collections.emptyList();
+        } catch (Exception e) {
+            Log.e(TAG, "Ошибка чтения истории запросов", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private void saveHistory() {
+        List<HistoryItem> items = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                if (entry.queryCount > 0) {
+                    HistoryItem item = new HistoryItem();
+                    item.text = entry.text;
+                    item.count = entry.queryCount;
+                    item.lastUsed = entry.lastUsed;
+                    items.add(item);
+                }
+            }
+        }
+        // Храним только самые свежие запросы
+        Collections.sort(items, (a, b) -> Long.compare(b.lastUsed, a.lastUsed));
+        if (items.size() > MAX_HISTORY) {
+            items = new ArrayList<>(items.subList(0, MAX_HISTORY));
+        }
+        preferences.edit().putString(HISTORY_KEY, gson.toJson(items)).apply();
+    }
+}
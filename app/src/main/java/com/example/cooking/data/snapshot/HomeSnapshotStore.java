@@ -0,0 +1,197 @@
+package com.example.cooking.data.snapshot;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.cooking.Recipe.Recipe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Бинарный снимок первых карточек ленты для отрисовки первого кадра.
+ * Пишется после каждой успешной синхронизации каталога, читается при запуске
+ * через отображенный в память файл - без Room и Gson. Хранит только то, что
+ * нужно карточке: id, название, URL фото, цвет заглушки фото и лайк.
+ *
+ * Формат (big-endian):
+ * <pre>
+ * int   MAGIC
+ * int   FORMAT_VERSION
+ * long  время записи (мс)
+ * int   количество карточек
+ * int   CRC32 блока карточек
+ * карточки: int id, byte флаги, short длина + UTF-8 название, short длина (-1 = null) + UTF-8 URL фото,
+ *           int цвет заглушки (только при FLAG_PLACEHOLDER)
+ * </pre>
+ */
+public class HomeSnapshotStore {
+    private static final String TAG = "HomeSnapshotStore";
+
+    // Сколько карточек хранить: с запасом на первый экран сетки в две колонки
+    public static final int CARD_LIMIT = 20;
+
+    private static final String FILE_NAME = "home_cards.snap";
+    private static final int MAGIC = 0x48435331; // "HCS1"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+    // Больше этого снимок быть не может - файл поврежден или чужой
+    private static final long MAX_FILE_SIZE = 256 * 1024;
+    private static final byte FLAG_LIKED = 1;
+    private static final byte FLAG_PLACEHOLDER = 2;
+
+    private final File file;
+
+    /**
+     * Не создавать напрямую - экземпляр принадлежит AppContainer
+     */
+    public HomeSnapshotStore(Context context) {
+        this.file = new File(context.getApplicationContext().getCacheDir(), FILE_NAME);
+    }
+
+    /**
+     * Прочитать снимок. Любая ошибка формата означает "снимка нет".
+     * @return карточки в порядке ленты или пустой список
+     */
+    public List<Recipe> read() {
+        if (!file.exists()) {
+            return Collections.emptyList();
+        }
+        long start = SystemClock.elapsedRealtimeNanos();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > MAX_FILE_SIZE) {
+                Log.w(TAG, "Некорректный размер снимка: " + size);
+                return Collections.emptyList();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return Collections.emptyList();
+            }
+            buffer.getLong(); // время записи, пока не используется
+            int count = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (count < 0 || count > CARD_LIMIT) {
+                return Collections.emptyList();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                Log.w(TAG, "Снимок поврежден (CRC не совпадает)");
+                return Collections.emptyList();
+            }
+
+            List<Recipe> cards = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Recipe card = new Recipe();
+                card.setId(buffer.getInt());
+                byte flags = buffer.get();
+                card.setLiked((flags & FLAG_LIKED) != 0);
+                String title = readString(buffer);
+                card.setTitle(title != null ? title : "");
+                card.setPhoto_url(readString(buffer));
+                if ((flags & FLAG_PLACEHOLDER) != 0) {
+                    card.setPlaceholderColor(buffer.getInt());
+                }
+                cards.add(card);
+            }
+            Log.d(TAG, "Снимок ленты прочитан: " + cards.size() + " карточек за "
+                    + (SystemClock.elapsedRealtimeNanos() - start) / 1000 + " мкс");
+            return cards;
+        } catch (IOException | BufferUnderflowException e) {
+            Log.w(TAG, "Не удалось прочитать снимок ленты", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Записать первые CARD_LIMIT карточек. Файл заменяется атомарно, поэтому
+     * чтение при запуске никогда не видит наполовину записанный снимок.
+     * Вызывать в фоновом потоке.
+     */
+    public synchronized void write(List<Recipe> recipes) {
+        int count = Math.min(recipes.size(), CARD_LIMIT);
+        try {
+            ByteArrayOutputStream cardBytes = new ByteArrayOutputStream(count * 128);
+            DataOutputStream cards = new DataOutputStream(cardBytes);
+            for (int i = 0; i < count; i++) {
+                Recipe recipe = recipes.get(i);
+                Integer placeholderColor = recipe.getPlaceholderColor();
+                cards.writeInt(recipe.getId());
+                cards.writeByte((recipe.isLiked() ? FLAG_LIKED : 0) | (placeholderColor != null ? FLAG_PLACEHOLDER : 0));
+                writeString(cards, recipe.getTitle());
+                writeString(cards, recipe.getPhoto_url());
+                if (placeholderColor != null) {
+                    cards.writeInt(placeholderColor);
+                }
+            }
+            cards.flush();
+            byte[] payload = cardBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            File tmp = new File(file.getPath() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp);
+                 DataOutputStream data = new DataOutputStream(out)) {
+                data.writeInt(MAGIC);
+                data.writeInt(FORMAT_VERSION);
+                data.writeLong(System.currentTimeMillis());
+                data.writeInt(count);
+                data.writeInt((int) crc.getValue());
+                data.write(payload);
+                data.flush();
+                out.getFD().sync();
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Не удалось заменить файл снимка");
+            }
+            Log.d(TAG, "Снимок ленты записан: " + count + " карточек, " + (HEADER_SIZE + payload.length) + " байт");
+        } catch (IOException e) {
+            Log.w(TAG, "Не удалось записать снимок ленты", e);
+        }
+    }
+
+    /**
+     * Удалить снимок (например, при выходе из аккаунта - в нем лайки пользователя)
+     */
+    public synchronized void clear() {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Не удалось удалить снимок ленты");
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, Short.MAX_VALUE);
+        out.writeShort(length);
+        out.write(bytes, 0, length);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
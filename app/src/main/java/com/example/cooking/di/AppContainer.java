@@ -0,0 +1,397 @@
+package com.example.cooking.di;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.util.Log;
+
+import com.example.cooking.auth.TokenAuthenticator;
+import com.example.cooking.config.ServerConfig;
+import com.example.cooking.data.database.AppDatabase;
+import com.example.cooking.data.repositories.LikeStore;
+import com.example.cooking.data.repositories.LikedRecipesRepository;
+import com.example.cooking.data.repositories.RecipeLocalRepository;
+import com.example.cooking.data.repositories.RecipeRemoteRepository;
+import com.example.cooking.data.repositories.RecipeRepository;
+import com.example.cooking.data.snapshot.HomeSnapshotStore;
+import com.example.cooking.ltr.LTRClient;
+import com.example.cooking.network.api.ApiService;
+import com.example.cooking.network.api.RecipeApi;
+import com.example.cooking.network.api.SearchApi;
+import com.example.cooking.network.interceptors.AuthInterceptor;
+import com.example.cooking.network.json.Json;
+import com.example.cooking.network.services.HttpClientManager;
+import com.example.cooking.network.services.NetworkUsageMonitor;
+import com.example.cooking.network.services.RecipeDeleter;
+import com.example.cooking.network.services.RecipeManager;
+import com.example.cooking.network.wire.WireFormatConverterFactory;
+import com.example.cooking.utils.AppLog;
+import com.example.cooking.utils.RecipeSearchService;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Контейнер зависимостей уровня приложения.
+ * Владеет единственными экземплярами репозиториев, базы данных, HTTP-стека
+ * и LTR клиента. Все объекты создаются лениво при первом обращении, поэтому
+ * стоимость инициализации (OkHttp Cache, Retrofit, Room) платится один раз
+ * за процесс, а не при каждом создании репозитория.
+ * <p>
+ * Все HTTP клиенты приложения строятся из cachedHttpClient() через newBuilder(),
+ * поэтому у них общие пул соединений, диспетчер и учет трафика. Статические
+ * RetrofitClient и HttpClientManager остались только для классов без Context
+ * (вход, восстановление пароля, LTR).
+ */
+public final class AppContainer {
+    private static final String TAG = "AppContainer";
+
+    // Настройки HTTP кэша для запросов рецептов
+    private static final String HTTP_CACHE_DIR = "http-cache";
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024; // 10 МБ
+    private static final int MAX_AGE = 60 * 4; // 4 минуты для онлайн кэша
+    private static final int MAX_STALE = 60 * 60 * 24 * 7; // 7 дней для оффлайн кэша
+    private static final int UPLOAD_TIMEOUT = 60; // секунд на чтение и запись фото
+
+    private static volatile AppContainer instance;
+
+    private final Context context;
+
+    private Cache httpCache;
+    private OkHttpClient cachedHttpClient;
+    private OkHttpClient bareHttpClient;
+    private OkHttpClient httpClient;
+    private OkHttpClient outboxHttpClient;
+    private ApiService outboxApiService;
+    private Retrofit apiRetrofit;
+    private Retrofit uploadRetrofit;
+    private RecipeApi recipeApi;
+    private ApiService apiService;
+    private SearchApi searchApi;
+    private RecipeLocalRepository recipeLocalRepository;
+    private RecipeRemoteRepository recipeRemoteRepository;
+    private RecipeRepository recipeRepository;
+    private LikedRecipesRepository likedRecipesRepository;
+    private RecipeManager recipeManager;
+    private RecipeDeleter recipeDeleter;
+    private RecipeSearchService recipeSearchService;
+    private HomeSnapshotStore homeSnapshotStore;
+
+    public static AppContainer getInstance(Context context) {
+        if (instance == null) {
+            synchronized (AppContainer.class) {
+                if (instance == null) {
+                    instance = new AppContainer(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private AppContainer(Context context) {
+        this.context = context;
+    }
+
+    public AppDatabase database() {
+        return AppDatabase.getInstance(context);
+    }
+
+    /**
+     * Общий клиент с повторными попытками и авторизацией
+     */
+    public synchronized OkHttpClient httpClient() {
+        if (httpClient == null) {
+            httpClient = withAuth(bareHttpClient().newBuilder()
+                    .addInterceptor(HttpClientManager.retryInterceptor()))
+                    .build();
+        }
+        return httpClient;
+    }
+
+    /**
+     * Единственный HTTP кэш на диске. Два экземпляра Cache над одной папкой
+     * портят журнал друг друга, поэтому создавать его в другом месте нельзя.
+     */
+    public synchronized Cache httpCache() {
+        if (httpCache == null) {
+            httpCache = new Cache(new File(context.getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE);
+        }
+        return httpCache;
+    }
+
+    /**
+     * Клиент с оффлайн-кэшем для списка рецептов
+     */
+    public synchronized OkHttpClient cachedHttpClient() {
+        if (cachedHttpClient == null) {
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                    .cache(httpCache())
+                    .addInterceptor(new AuthInterceptor())
+                    .addInterceptor(chain -> {
+                        Request original = chain.request();
+                        // Методы с @Headers(ACCEPT_BINARY) сами выбирают формат
+                        if (original.header("Accept") != null) {
+                            return chain.proceed(original);
+                        }
+                        return chain.proceed(original.newBuilder()
+                                .header("Accept", "application/json")
+                                .method(original.method(), original.body())
+                                .build());
+                    })
+                    .addNetworkInterceptor(createCacheInterceptor())
+                    .eventListenerFactory(NetworkUsageMonitor.getInstance().factory())
+                    .addNetworkInterceptor(NetworkUsageMonitor.getInstance())
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .writeTimeout(30, TimeUnit.SECONDS);
+            // Только в отладочной сборке и без тел ответов
+            HttpLoggingInterceptor loggingInterceptor = AppLog.httpInterceptor();
+            if (loggingInterceptor != null) {
+                builder.addInterceptor(loggingInterceptor);
+            }
+            cachedHttpClient = builder.build();
+            Log.d(TAG, "Создан HTTP клиент с кэшем для рецептов");
+        }
+        return cachedHttpClient;
+    }
+
+    /**
+     * Клиент без HTTP кэша и перехватчиков API, только с учетом трафика.
+     * Основа остальных клиентов; сам используется Glide (у него свой дисковый
+     * кэш, а авторизация и Accept каталога картинкам не нужны) и для
+     * обновления токена.
+     */
+    public synchronized OkHttpClient bareHttpClient() {
+        if (bareHttpClient == null) {
+            OkHttpClient.Builder builder = cachedHttpClient().newBuilder().cache(null);
+            builder.interceptors().clear();
+            builder.networkInterceptors().clear();
+            bareHttpClient = builder
+                    .addNetworkInterceptor(NetworkUsageMonitor.getInstance())
+                    .build();
+        }
+        return bareHttpClient;
+    }
+
+    /**
+     * Клиент для Glide
+     */
+    public OkHttpClient imageHttpClient() {
+        return bareHttpClient();
+    }
+
+    /**
+     * Клиент фоновых очередей отправки: авторизация как у httpClient(), но без
+     * перехватчика повторов - повторами управляет WorkManager.
+     */
+    public synchronized OkHttpClient outboxHttpClient() {
+        if (outboxHttpClient == null) {
+            outboxHttpClient = withAuth(bareHttpClient().newBuilder()).build();
+        }
+        return outboxHttpClient;
+    }
+
+    /**
+     * ApiService для очередей отправки (LikeSyncWorker)
+     */
+    public synchronized ApiService outboxApiService() {
+        if (outboxApiService == null) {
+            outboxApiService = new Retrofit.Builder()
+                    .baseUrl(ServerConfig.BASE_API_URL)
+                    .client(outboxHttpClient())
+                    .addConverterFactory(GsonConverterFactory.create(Json.gson()))
+                    .build()
+                    .create(ApiService.class);
+        }
+        return outboxApiService;
+    }
+
+    public synchronized RecipeApi recipeApi() {
+        if (recipeApi == null) {
+            // Настраиваем Gson для более безопасного парсинга JSON
+            Retrofit retrofit = new Retrofit.Builder()
+                    .baseUrl(ServerConfig.BASE_API_URL + "/")
+                    .client(cachedHttpClient())
+                    .addConverterFactory(WireFormatConverterFactory.create())
+                    .addConverterFactory(GsonConverterFactory.create(Json.lenient()))
+                    .build();
+            recipeApi = retrofit.create(RecipeApi.class);
+        }
+        return recipeApi;
+    }
+
+    public synchronized ApiService apiService() {
+        if (apiService == null) {
+            apiService = apiRetrofit().create(ApiService.class);
+        }
+        return apiService;
+    }
+
+    public synchronized SearchApi searchApi() {
+        if (searchApi == null) {
+            searchApi = apiRetrofit().create(SearchApi.class);
+        }
+        return searchApi;
+    }
+
+    /**
+     * Retrofit для ApiService и SearchApi поверх httpClient()
+     */
+    private synchronized Retrofit apiRetrofit() {
+        if (apiRetrofit == null) {
+            apiRetrofit = new Retrofit.Builder()
+                    .baseUrl(ServerConfig.BASE_API_URL)
+                    .client(httpClient())
+                    // CBOR для каталога и поиска, если сервер его отдал; остальное - Gson
+                    .addConverterFactory(WireFormatConverterFactory.create())
+                    .addConverterFactory(GsonConverterFactory.create(Json.gson()))
+                    .build();
+        }
+        return apiRetrofit;
+    }
+
+    /**
+     * Retrofit для загрузки рецептов с фото: клиент очередей отправки
+     * с увеличенными таймаутами чтения и записи
+     */
+    private synchronized Retrofit uploadRetrofit() {
+        if (uploadRetrofit == null) {
+            OkHttpClient client = outboxHttpClient().newBuilder()
+                    .readTimeout(UPLOAD_TIMEOUT, TimeUnit.SECONDS)
+                    .writeTimeout(UPLOAD_TIMEOUT, TimeUnit.SECONDS)
+                    .build();
+            uploadRetrofit = new Retrofit.Builder()
+                    .baseUrl(ServerConfig.BASE_API_URL)
+                    .client(client)
+                    .addConverterFactory(GsonConverterFactory.create(Json.gson()))
+                    .build();
+        }
+        return uploadRetrofit;
+    }
+
+    public synchronized RecipeLocalRepository recipeLocalRepository() {
+        if (recipeLocalRepository == null) {
+            recipeLocalRepository = new RecipeLocalRepository(context);
+        }
+        return recipeLocalRepository;
+    }
+
+    public synchronized RecipeRemoteRepository recipeRemoteRepository() {
+        if (recipeRemoteRepository == null) {
+            recipeRemoteRepository = new RecipeRemoteRepository(context);
+        }
+        return recipeRemoteRepository;
+    }
+
+    public synchronized RecipeRepository recipeRepository() {
+        if (recipeRepository == null) {
+            recipeRepository = new RecipeRepository(context);
+        }
+        return recipeRepository;
+    }
+
+    public synchronized LikedRecipesRepository likedRecipesRepository() {
+        if (likedRecipesRepository == null) {
+            likedRecipesRepository = new LikedRecipesRepository(context);
+        }
+        return likedRecipesRepository;
+    }
+
+    public LikeStore likeStore() {
+        return LikeStore.getInstance(context);
+    }
+
+    public synchronized RecipeManager recipeManager() {
+        if (recipeManager == null) {
+            recipeManager = new RecipeManager(context, uploadRetrofit());
+        }
+        return recipeManager;
+    }
+
+    public synchronized RecipeDeleter recipeDeleter() {
+        if (recipeDeleter == null) {
+            recipeDeleter = new RecipeDeleter(context, httpClient());
+        }
+        return recipeDeleter;
+    }
+
+    public synchronized RecipeSearchService recipeSearchService() {
+        if (recipeSearchService == null) {
+            recipeSearchService = new RecipeSearchService(context);
+        }
+        return recipeSearchService;
+    }
+
+    public synchronized HomeSnapshotStore homeSnapshotStore() {
+        if (homeSnapshotStore == null) {
+            homeSnapshotStore = new HomeSnapshotStore(context);
+        }
+        return homeSnapshotStore;
+    }
+
+    public LTRClient ltrClient() {
+        return LTRClient.getInstance(context);
+    }
+
+    /**
+     * Авторизация по токену и его обновление при 401. Обновление идет через
+     * bareHttpClient(): перехватчик авторизации заменил бы refresh токен на access.
+     */
+    private OkHttpClient.Builder withAuth(OkHttpClient.Builder builder) {
+        builder.addInterceptor(new com.example.cooking.auth.AuthInterceptor())
+                .authenticator(new TokenAuthenticator(bareHttpClient()));
+        HttpLoggingInterceptor loggingInterceptor = AppLog.httpInterceptor();
+        if (loggingInterceptor != null) {
+            builder.addInterceptor(loggingInterceptor);
+        }
+        return builder;
+    }
+
+    /**
+     * Интерцептор для добавления заголовков кэширования
+     */
+    private Interceptor createCacheInterceptor() {
+        return chain -> {
+            Request request = chain.request();
+
+            // Всегда сначала пробуем загрузить свежие данные с сервера
+            if (isNetworkAvailable()) {
+                request = request.newBuilder()
+                        .cacheControl(CacheControl.FORCE_NETWORK)
+                        .build();
+            } else {
+                // Если сети нет, пробуем использовать кэш
+                request = request.newBuilder()
+                        .cacheControl(new CacheControl.Builder()
+                                .maxStale(MAX_STALE, TimeUnit.SECONDS)
+                                .build())
+                        .build();
+                Log.d(TAG, "Нет сети, используем оффлайн кэш");
+            }
+
+            Response response = chain.proceed(request);
+
+            // Кэшируем ответ для будущего использования в оффлайн режиме
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", "public, max-age=" + MAX_AGE)
+                    .build();
+        };
+    }
+
+    private boolean isNetworkAvailable() {
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo activeNetwork = cm != null ? cm.getActiveNetworkInfo() : null;
+        return activeNetwork != null && activeNetwork.isConnected();
+    }
+}
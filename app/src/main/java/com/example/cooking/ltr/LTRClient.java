@@ -10,6 +10,7 @@ import com.example.cooking.ltr.models.SearchResult;
 import com.example.cooking.ltr.network.LTRApiClient;
 import com.example.cooking.ltr.network.callbacks.SearchRequestCallback;
 import com.example.cooking.ltr.network.callbacks.SimilarRecipesCallback;
+import com.example.cooking.utils.SearchPageCache;
 
 import java.util.List;
 
@@ -23,6 +24,11 @@ public class LTRClient {
     private final LTRDataCollector dataCollector;
     private final LTRApiClient apiClient;
     private final LTRCacheManager cacheManager;
+    private static final int RESULTS_MAX_QUERIES = 8;
+    private static final int RESULTS_MAX_PAGE_DISTANCE = 5;
+    // Уже загруженные страницы персонализированного поиска
+    private final SearchPageCache<SearchResult> searchPageCache = new SearchPageCache<>(
+            RESULTS_MAX_QUERIES, RESULTS_MAX_PAGE_DISTANCE, SearchPageCache.RESULTS_TTL_MS);
 
     private String serverUrl = "http://api.cooking-server.com/v2/";
     private String apiKey;
@@ -130,13 +136,49 @@ public class LTRClient {
      */
     public void collectFavoriteAction(Recipe recipe, boolean isFavorite) {
         dataCollector.collectFavoriteAction(recipe, isFavorite);
+        // Избранное влияет на ранжирование - закэшированная выдача устарела
+        searchPageCache.clear();
     }
 
     /**
-     * Запрос персонализированных результатов поиска с сервера
+     * Запрос персонализированных результатов поиска с сервера (первая страница)
      */
     public void requestPersonalizedResults(String query, SearchRequestCallback callback) {
-        apiClient.requestPersonalizedResults(query, isPersonalizationEnabled, callback);
+        requestPersonalizedResults(query, 1, callback);
+    }
+
+    /**
+     * Запрос страницы персонализированных результатов поиска.
+     * Уже загруженные страницы отдаются из кэша без обращения к серверу, пока
+     * не истек SearchPageCache.RESULTS_TTL_MS и не изменилось избранное.
+     */
+    public void requestPersonalizedResults(String query, int page, SearchRequestCallback callback) {
+        List<SearchResult> cached = searchPageCache.getPage(query, page);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
+        }
+        apiClient.requestPersonalizedResults(query, isPersonalizationEnabled, page, LTRApiClient.DEFAULT_PER_PAGE,
+                new SearchRequestCallback() {
+                    @Override
+                    public void onSuccess(List<SearchResult> results) {
+                        boolean isLastPage = results == null || results.size() < LTRApiClient.DEFAULT_PER_PAGE;
+                        searchPageCache.putPage(query, page, results, isLastPage);
+                        callback.onSuccess(results);
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        callback.onError(errorMessage);
+                    }
+                });
+    }
+
+    /**
+     * Проверить, является ли страница последней для запроса (если это уже известно)
+     */
+    public boolean isLastResultsPage(String query, int page) {
+        return searchPageCache.isLastPage(query, page);
     }
 
     /**
@@ -150,6 +192,7 @@ public class LTRClient {
      * Синхронизация избранных рецептов с сервером
      */
     public void syncFavoritesWithServer(List<Recipe> favorites) {
+        searchPageCache.clear();
         apiClient.syncFavoritesWithServer(favorites);
     }
 
@@ -157,6 +200,7 @@ public class LTRClient {
      * Очистка кеша результатов
      */
     public void clearResultsCache() {
+        searchPageCache.clear();
         cacheManager.clearCache();
     }
 }
\ No newline at end of file
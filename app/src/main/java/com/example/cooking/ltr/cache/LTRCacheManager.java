@@ -7,6 +7,7 @@ import androidx.room.Room;
 
 import com.example.cooking.ltr.models.Recipe;
 import com.example.cooking.ltr.models.SearchResult;
+import com.example.cooking.utils.AppExecutors;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -47,7 +48,7 @@ public class LTRCacheManager {
 
         try {
             // Асинхронное сохранение результатов в базу данных
-            new Thread(() -> {
+            AppExecutors.getInstance().diskWrite().execute(() -> {
                 // Сначала удаляем старые результаты для этого запроса
                 database.searchResultDao().deleteByQuery(query);
 
@@ -60,7 +61,7 @@ public class LTRCacheManager {
 
                 // Обновляем время последнего обновления кеша
                 updateLastCacheTime();
-            }).start();
+            });
         } catch (Exception e) {
             // Логгирование ошибки
         }
@@ -75,7 +76,7 @@ public class LTRCacheManager {
 
         try {
             // Асинхронное сохранение рекомендаций в базу данных
-            new Thread(() -> {
+            AppExecutors.getInstance().diskWrite().execute(() -> {
                 // Сначала удаляем старые рекомендации этого типа
                 database.recommendationDao().deleteByType(recommendationType);
 
@@ -92,7 +93,7 @@ public class LTRCacheManager {
 
                 // Обновляем время последнего обновления кеша
                 updateLastCacheTime();
-            }).start();
+            });
         } catch (Exception e) {
             // Логгирование ошибки
         }
@@ -138,13 +139,13 @@ public class LTRCacheManager {
     public void clearCache() {
         try {
             // Асинхронная очистка всех таблиц
-            new Thread(() -> {
+            AppExecutors.getInstance().diskWrite().execute(() -> {
                 database.searchResultDao().deleteAll();
                 database.recommendationDao().deleteAll();
 
                 // Сбрасываем время последнего обновления кеша
                 resetLastCacheTime();
-            }).start();
+            });
         } catch (Exception e) {
             // Логгирование ошибки
         }
@@ -156,12 +157,12 @@ public class LTRCacheManager {
     public void clearExpiredCache() {
         try {
             // Асинхронная очистка устаревших данных
-            new Thread(() -> {
+            AppExecutors.getInstance().diskWrite().execute(() -> {
                 long expireTime = System.currentTimeMillis() - CACHE_EXPIRATION_TIME;
 
                 database.searchResultDao().deleteOlderThan(expireTime);
                 database.recommendationDao().deleteOlderThan(expireTime);
-            }).start();
+            });
         } catch (Exception e) {
             // Логгирование ошибки
         }
@@ -1,6 +1,7 @@
 package com.example.cooking.ltr.cache;
 
 import com.example.cooking.ltr.models.Recipe;
+import com.example.cooking.network.json.Json;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
@@ -13,7 +14,7 @@ import java.util.List;
  */
 public class RecommendationConverter {
 
-    private static final Gson gson = new Gson();
+    private static final Gson gson = Json.gson();
 
     /**
      * Преобразует JSON-строку в объект Recipe
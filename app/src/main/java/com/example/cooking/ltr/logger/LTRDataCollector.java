@@ -16,12 +16,12 @@ import com.example.cooking.ltr.network.api.LTRApiService;
 import com.example.cooking.ltr.network.models.ClickEventRequest;
 import com.example.cooking.ltr.network.models.FavoriteActionRequest;
 import com.example.cooking.network.services.RetrofitClient;
+import com.example.cooking.utils.AppExecutors;
 
 import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import retrofit2.Call;
@@ -44,7 +44,8 @@ public class LTRDataCollector {
     private String sessionId;
     private Queue<UserInteractionEvent> eventQueue;
     private LTRApiService apiService;
-    private ScheduledExecutorService scheduler;
+    // Периодическая отправка на общем планировщике приложения
+    private ScheduledFuture<?> syncTask;
     private final Handler mainHandler;
 
     /**
@@ -67,12 +68,14 @@ public class LTRDataCollector {
         // Создаем API сервис
         apiService = retrofit.create(LTRApiService.class);
 
-        // Инициализируем планировщик фоновых задач
-        scheduler = Executors.newSingleThreadScheduledExecutor();
-
-        // Планируем периодическую отправку данных в фоне
-        scheduler.scheduleAtFixedRate(
-                this::sendQueuedEvents,
+        // Планируем периодическую отправку данных в фоне: общий планировщик
+        // только будит задачу, сама отправка идет в сетевом пуле
+        AppExecutors executors = AppExecutors.getInstance();
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        syncTask = executors.scheduler().scheduleAtFixedRate(
+                () -> executors.network().execute(this::sendQueuedEvents),
                 SYNC_INTERVAL_SECONDS,
                 SYNC_INTERVAL_SECONDS,
                 TimeUnit.SECONDS);
@@ -170,7 +173,7 @@ public class LTRDataCollector {
      */
     private void trySendQueuedEvents() {
         // Выполняем в фоновом потоке
-        scheduler.execute(() -> {
+        AppExecutors.getInstance().network().execute(() -> {
             if (isNetworkAvailable()) {
                 sendQueuedEvents();
             }
@@ -319,8 +322,10 @@ public class LTRDataCollector {
      * Вызывается в onDestroy() активити или в onCleared() ViewModel
      */
     public void shutdown() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdown();
+        // Планировщик общий - останавливаем только свою задачу
+        if (syncTask != null) {
+            syncTask.cancel(false);
+            syncTask = null;
         }
     }
 
@@ -1,6 +1,6 @@
 package com.example.cooking.ltr.models;
 
-import com.google.gson.Gson;
+import com.example.cooking.network.json.Json;
 import com.google.gson.annotations.SerializedName;
 
 import java.util.List;
@@ -53,7 +53,7 @@ public class Recipe {
      * Сериализация в JSON
      */
     public String toJson() {
-        return new Gson().toJson(this);
+        return Json.gson().toJson(this);
     }
 
     /**
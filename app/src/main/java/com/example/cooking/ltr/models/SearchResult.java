@@ -5,13 +5,22 @@ import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 
+import com.example.cooking.network.json.JsonValues;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 
 /**
  * Модель данных результата поиска для использования в LTR-системе
  * Используется также как Entity для Room при кешировании результатов
  */
 @Entity(tableName = "search_results")
+@JsonAdapter(SearchResult.GsonAdapter.class)
 public class SearchResult {
 
     @PrimaryKey(autoGenerate = true)
@@ -159,4 +168,87 @@ public class SearchResult {
     public void setCacheTimestamp(long cacheTimestamp) {
         this.cacheTimestamp = cacheTimestamp;
     }
-}
\ No newline at end of file
+
+    /**
+     * Потоковый адаптер без рефлексии. Имена полей те же, что давал
+     * рефлексивный адаптер, включая служебные поля кеша.
+     */
+    public static final class GsonAdapter extends TypeAdapter<SearchResult> {
+        @Override
+        public void write(JsonWriter out, SearchResult value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.id);
+            out.name("recipe_id").value(value.recipeId);
+            out.name("title").value(value.title);
+            out.name("description").value(value.description);
+            out.name("image_url").value(value.imageUrl);
+            out.name("rating").value(value.rating);
+            out.name("cooking_time").value(value.cookingTime);
+            out.name("position").value(value.position);
+            out.name("query").value(value.query);
+            out.name("server_score").value(value.serverScore);
+            out.name("personalization_reason").value(value.personalizationReason);
+            out.name("cacheTimestamp").value(value.cacheTimestamp);
+            out.endObject();
+        }
+
+        @Override
+        public SearchResult read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            SearchResult value = new SearchResult();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        value.id = JsonValues.nextLong(in, 0);
+                        break;
+                    case "recipe_id":
+                        value.recipeId = JsonValues.nextLong(in, 0);
+                        break;
+                    case "title":
+                        String title = JsonValues.nextString(in);
+                        value.title = title != null ? title : "";
+                        break;
+                    case "description":
+                        value.description = JsonValues.nextString(in);
+                        break;
+                    case "image_url":
+                        value.imageUrl = JsonValues.nextString(in);
+                        break;
+                    case "rating":
+                        value.rating = JsonValues.nextFloat(in, 0f);
+                        break;
+                    case "cooking_time":
+                        value.cookingTime = JsonValues.nextInt(in, 0);
+                        break;
+                    case "position":
+                        value.position = JsonValues.nextInt(in, 0);
+                        break;
+                    case "query":
+                        value.query = JsonValues.nextString(in);
+                        break;
+                    case "server_score":
+                        value.serverScore = JsonValues.nextFloat(in, 0f);
+                        break;
+                    case "personalization_reason":
+                        value.personalizationReason = JsonValues.nextString(in);
+                        break;
+                    case "cacheTimestamp":
+                        value.cacheTimestamp = JsonValues.nextLong(in, 0);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+}
@@ -30,6 +30,8 @@ import retrofit2.converter.gson.GsonConverterFactory;
 public class LTRApiClient {
     // Базовый URL по умолчанию берем из конфигурации
     private static final String DEFAULT_BASE_URL = LTRServerConfig.BASE_URL;
+    // Размер страницы результатов поиска по умолчанию
+    public static final int DEFAULT_PER_PAGE = 20;
 
     private String baseUrl = DEFAULT_BASE_URL;
     private String apiKey;
@@ -62,15 +64,26 @@ public class LTRApiClient {
     }
 
     /**
-     * Запрос персонализированных результатов поиска
+     * Запрос первой страницы персонализированных результатов поиска
      */
     public void requestPersonalizedResults(String query, boolean usePersonalization,
             final SearchRequestCallback callback) {
+        requestPersonalizedResults(query, usePersonalization, 1, DEFAULT_PER_PAGE, callback);
+    }
+
+    /**
+     * Запрос указанной страницы персонализированных результатов поиска
+     *
+     * @param page    номер страницы (с 1)
+     * @param perPage размер страницы
+     */
+    public void requestPersonalizedResults(String query, boolean usePersonalization, int page, int perPage,
+            final SearchRequestCallback callback) {
         // Создаем параметры запроса
         Map<String, Object> queryParams = new HashMap<>();
         queryParams.put("q", query);
-        queryParams.put("page", 1);
-        queryParams.put("per_page", 20);
+        queryParams.put("page", page);
+        queryParams.put("per_page", perPage);
 
         // Выполняем запрос к API
         Call<SearchResponse> call = apiService.search(queryParams, getAuthHeader());
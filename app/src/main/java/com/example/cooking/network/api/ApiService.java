@@ -3,13 +3,17 @@ package com.example.cooking.network.api;
 import com.example.cooking.auth.UserLoginRequest;
 import com.example.cooking.auth.UserRegisterRequest;
 import com.example.cooking.data.models.ApiResponse;
+import com.example.cooking.data.models.LikeRequest;
 import com.example.cooking.data.models.PasswordResetRequest;
 import com.example.cooking.data.models.PasswordResetResponse;
 import com.example.cooking.network.responses.RecipesResponse;
+import com.example.cooking.network.wire.WireFormatConverterFactory;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
+import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 
@@ -42,11 +46,33 @@ public interface ApiService {
     @GET("recipes/liked")
     Call<RecipesResponse> getLikedRecipes(@Query("userId") String userId);
 
+    /**
+     * Переключает лайк рецепта для пользователя.
+     * Повтор после потерянного ответа переключит лайк обратно - для очереди
+     * отправки использовать {@link #setLike}.
+     * @param recipeId ID рецепта
+     * @param request пользователь и ожидаемое состояние лайка
+     * @return ответ сервера
+     */
+    @POST("recipes/{id}/like")
+    Call<ApiResponse> toggleLike(@Path("id") int recipeId, @Body LikeRequest request);
+
+    /**
+     * Устанавливает лайк рецепта в состояние request.isLiked.
+     * Идемпотентен: повтор того же запроса не меняет результат.
+     * @param recipeId ID рецепта
+     * @param request пользователь и итоговое состояние лайка
+     * @return ответ сервера; 405 - сервер не поддерживает установку состояния
+     */
+    @PUT("recipes/{id}/like")
+    Call<ApiResponse> setLike(@Path("id") int recipeId, @Body LikeRequest request);
+
     /**
      * Простой поиск рецептов по строке.
      * @param query строка поиска
      * @return Call объект с ответом типа RecipesResponse
      */
+    @Headers(WireFormatConverterFactory.ACCEPT_BINARY)
     @GET("recipes/search-simple")
     Call<RecipesResponse> searchRecipesSimple(@Query("q") String query);
 
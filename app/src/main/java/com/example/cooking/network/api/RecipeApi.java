@@ -1,9 +1,13 @@
 package com.example.cooking.network.api;
 
 import com.example.cooking.network.responses.RecipesResponse;
+import com.example.cooking.network.wire.WireFormatConverterFactory;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Интерфейс Retrofit для работы с API рецептов
@@ -11,13 +15,26 @@ import retrofit2.http.Query;
 public interface RecipeApi {
 
     /**
-     * Метод для получения списка всех рецептов
+     * Метод для получения списка всех рецептов.
+     * Принимает CBOR, если сервер его поддерживает, иначе JSON
      * 
      * @return Call объект с ответом сервера
      */
+    @Headers(WireFormatConverterFactory.ACCEPT_BINARY)
     @GET("recipes")
     Call<RecipesResponse> getRecipes(@Query("userId") String userId);
 
+    /**
+     * Тот же каталог без буферизации тела - для потокового разбора
+     * (CatalogStreamReader). Тело нужно прочитать и закрыть в фоновом потоке
+     *
+     * @return Call объект с необработанным телом ответа
+     */
+    @Streaming
+    @Headers(WireFormatConverterFactory.ACCEPT_BINARY)
+    @GET("recipes")
+    Call<ResponseBody> streamRecipes(@Query("userId") String userId);
+
     /**
      * Альтернативный метод для получения рецептов в виде строки
      * Используется как запасной вариант, когда возникают проблемы с десериализацией
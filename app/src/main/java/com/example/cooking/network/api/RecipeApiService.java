@@ -17,15 +17,19 @@ import retrofit2.http.Header;
 public interface RecipeApiService {
     
     /**
-     * Метод для ДОБАВЛЕНИЯ нового рецепта с фото
+     * Метод для ДОБАВЛЕНИЯ нового рецепта с фото.
+     * Idempotency-Key позволяет серверу распознать повторную отправку того же рецепта.
+     * placeholder_color - преобладающий цвет фото "#RRGGBB"; при null часть не отправляется.
      */
     @Multipart
     @POST("/recipes/add")
     Call<ResponseBody> addRecipe(
+            @Header("Idempotency-Key") String idempotencyKey,
             @Part("title") RequestBody title,
             @Part("ingredients") RequestBody ingredients,
             @Part("instructions") RequestBody instructions,
             @Part("userId") RequestBody userId,
+            @Part("placeholder_color") RequestBody placeholderColor,
             @Part MultipartBody.Part photo
     );
     
@@ -35,6 +39,7 @@ public interface RecipeApiService {
     @Multipart
     @POST("/recipes/add")
     Call<ResponseBody> addRecipeWithoutPhoto(
+            @Header("Idempotency-Key") String idempotencyKey,
             @Part("title") RequestBody title,
             @Part("ingredients") RequestBody ingredients,
             @Part("instructions") RequestBody instructions,
@@ -42,7 +47,25 @@ public interface RecipeApiService {
     );
 
     /**
-     * Метод для ОБНОВЛЕНИЯ существующего рецепта
+     * Метод для ДОБАВЛЕНИЯ нового рецепта с фото, уже загруженным через /uploads
+     */
+    @Multipart
+    @POST("/recipes/add")
+    Call<ResponseBody> addRecipeWithUpload(
+            @Header("Idempotency-Key") String idempotencyKey,
+            @Part("title") RequestBody title,
+            @Part("ingredients") RequestBody ingredients,
+            @Part("instructions") RequestBody instructions,
+            @Part("userId") RequestBody userId,
+            @Part("placeholder_color") RequestBody placeholderColor,
+            @Part("upload_id") RequestBody uploadId
+    );
+
+    /**
+     * Метод для частичного ОБНОВЛЕНИЯ существующего рецепта.
+     * Передаются только измененные поля: Retrofit пропускает части со значением null,
+     * отсутствующая часть означает "без изменений".
+     * Новое фото передается либо файлом (photo), либо ссылкой на загрузку (upload_id).
      */
     @Multipart
     @PUT("/recipes/update/{recipeId}")
@@ -53,6 +76,7 @@ public interface RecipeApiService {
             @Part("title") RequestBody title,
             @Part("ingredients") RequestBody ingredients,
             @Part("instructions") RequestBody instructions,
-            @Part MultipartBody.Part photo
+            @Part MultipartBody.Part photo,
+            @Part("upload_id") RequestBody uploadId
     );
-} 
\ No newline at end of file
+}
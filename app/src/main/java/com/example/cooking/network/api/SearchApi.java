@@ -2,10 +2,13 @@ package com.example.cooking.network.api;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.Query;
 import com.example.cooking.network.responses.SearchResponse;
+import com.example.cooking.network.wire.WireFormatConverterFactory;
 
 public interface SearchApi {
+    @Headers(WireFormatConverterFactory.ACCEPT_BINARY)
     @GET("search/")
     Call<SearchResponse> searchRecipes(
         @Query("q")        String query,
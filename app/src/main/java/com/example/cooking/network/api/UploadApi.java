@@ -0,0 +1,50 @@
+package com.example.cooking.network.api;
+
+import com.example.cooking.network.responses.UploadSessionResponse;
+
+import okhttp3.RequestBody;
+import retrofit2.Call;
+import retrofit2.http.Body;
+import retrofit2.http.HEAD;
+import retrofit2.http.Header;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.Path;
+
+/**
+ * API докачиваемой загрузки файлов.
+ * Клиент создает сессию, отправляет файл частями с указанием смещения
+ * и после обрыва связи запрашивает у сервера, сколько байт уже получено.
+ */
+public interface UploadApi {
+
+    String HEADER_UPLOAD_OFFSET = "Upload-Offset";
+
+    /**
+     * Создать сессию загрузки
+     * @param totalBytes полный размер файла
+     * @param contentType MIME-тип файла
+     */
+    @POST("/uploads")
+    Call<UploadSessionResponse> createSession(
+            @Header("Upload-Length") long totalBytes,
+            @Header("Upload-Content-Type") String contentType
+    );
+
+    /**
+     * Узнать, сколько байт сервер уже принял (заголовок Upload-Offset)
+     */
+    @HEAD("/uploads/{uploadId}")
+    Call<Void> getOffset(@Path("uploadId") String uploadId);
+
+    /**
+     * Отправить часть файла, начиная с указанного смещения.
+     * В ответе заголовок Upload-Offset содержит новое смещение.
+     */
+    @PATCH("/uploads/{uploadId}")
+    Call<Void> uploadChunk(
+            @Path("uploadId") String uploadId,
+            @Header(HEADER_UPLOAD_OFFSET) long offset,
+            @Body RequestBody chunk
+    );
+}
@@ -0,0 +1,30 @@
+package com.example.cooking.network.json;
+
+import com.google.gson.Gson;
+
+/**
+ * Общий экземпляр Gson для всего приложения.
+ * Gson кеширует адаптеры внутри экземпляра, поэтому новый Gson на каждый вызов
+ * заново строит фабрики и адаптеры. Модели ленты (Recipe, Ingredient, Step,
+ * SearchResult и ответы сервера) разбираются потоковыми адаптерами без рефлексии,
+ * они подключены к классам через @JsonAdapter и работают в любом экземпляре.
+ */
+public final class Json {
+
+    private static final Gson GSON = new Gson();
+    private static final Gson LENIENT = GSON.newBuilder().setLenient().create();
+
+    private Json() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Gson, прощающий отклонения от формата (для API, которое их допускает)
+     */
+    public static Gson lenient() {
+        return LENIENT;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.cooking.network.json;
+
+import android.util.Log;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковое чтение и запись списков через адаптер элемента.
+ * Сервер отдает ingredients и instructions то массивом, то строкой с JSON внутри;
+ * строку разбирает тот же адаптер элемента прямо из StringReader - без второго
+ * прохода через Gson.fromJson и без промежуточного дерева JsonElement.
+ */
+public final class JsonLists {
+    private static final String TAG = "JsonLists";
+
+    private JsonLists() {
+    }
+
+    /**
+     * Прочитать массив. null-элементы пропускаются
+     */
+    public static <T> ArrayList<T> readArray(JsonReader in, TypeAdapter<T> element) throws IOException {
+        ArrayList<T> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            T item = element.read(in);
+            if (item != null) {
+                list.add(item);
+            }
+        }
+        in.endArray();
+        return list;
+    }
+
+    /**
+     * Прочитать поле, в котором массив может прийти как есть или строкой с JSON.
+     * Испорченная строка дает пустой список: она самодостаточна, и разбор
+     * остального объекта продолжается. Ошибка внутри обычного массива
+     * пробрасывается - позиция основного потока после нее уже не восстановима.
+     * @param field имя поля для лога
+     * @return список, никогда не null
+     */
+    public static <T> ArrayList<T> readEmbeddedArray(JsonReader in, TypeAdapter<T> element, String field)
+            throws IOException {
+        JsonToken token = in.peek();
+        switch (token) {
+            case NULL:
+                in.nextNull();
+                return new ArrayList<>();
+            case BEGIN_ARRAY:
+                return readArray(in, element);
+            case STRING:
+                return readArrayFromString(in.nextString(), element, field, in.isLenient());
+            default:
+                Log.w(TAG, "Неожиданный JSON токен для " + field + ": " + token);
+                in.skipValue();
+                return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Разобрать JSON-массив, хранящийся в строке (например, в колонке базы)
+     * @return список, никогда не null
+     */
+    public static <T> ArrayList<T> readArrayFromString(String json, TypeAdapter<T> element, String field,
+                                                       boolean lenient) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (JsonReader nested = new JsonReader(new StringReader(json))) {
+            nested.setLenient(lenient);
+            if (nested.peek() == JsonToken.NULL) {
+                return new ArrayList<>();
+            }
+            return readArray(nested, element);
+        } catch (IOException | IllegalStateException | NumberFormatException | JsonParseException e) {
+            Log.e(TAG, "Ошибка разбора " + field + " из строки (" + json.length() + " символов)", e);
+            return new ArrayList<>();
+        }
+    }
+
+    public static <T> void writeArray(JsonWriter out, List<T> list, TypeAdapter<T> element) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (T item : list) {
+            element.write(out, item);
+        }
+        out.endArray();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.cooking.network.json;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Чтение примитивов в потоковых адаптерах.
+ * Допускает то же, что и стандартные адаптеры Gson (числа в кавычках, null для
+ * примитива), и немного больше: дробное число в целом поле и 0/1 в логическом.
+ */
+public final class JsonValues {
+
+    private JsonValues() {
+    }
+
+    public static String nextString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    public static int nextInt(JsonReader in, int fallback) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException notInt) {
+            return (int) nextDouble(in);
+        }
+    }
+
+    public static long nextLong(JsonReader in, long fallback) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException notLong) {
+            return (long) nextDouble(in);
+        }
+    }
+
+    public static float nextFloat(JsonReader in, float fallback) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        return (float) nextDouble(in);
+    }
+
+    public static boolean nextBoolean(JsonReader in, boolean fallback) throws IOException {
+        switch (in.peek()) {
+            case NULL:
+                in.nextNull();
+                return fallback;
+            case STRING:
+                return Boolean.parseBoolean(in.nextString());
+            case NUMBER:
+                return nextDouble(in) != 0;
+            default:
+                return in.nextBoolean();
+        }
+    }
+
+    private static double nextDouble(JsonReader in) throws IOException {
+        try {
+            return in.nextDouble();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException("Ожидалось число: " + in.getPath(), e);
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.cooking.network.responses;
 
 import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.network.json.JsonLists;
+import com.example.cooking.network.json.JsonValues;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.List;
 
 /**
  * Класс для представления ответа от сервера с рецептами
  */
+@JsonAdapter(RecipesResponse.GsonAdapter.class)
 public class RecipesResponse {
     
     @SerializedName("success")
@@ -36,4 +46,79 @@ public class RecipesResponse {
     public String getMessage() {
         return message;
     }
-} 
\ No newline at end of file
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public void setRecipes(List<Recipe> recipes) {
+        this.recipes = recipes;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Потоковый адаптер: список рецептов читается адаптером Recipe напрямую,
+     * без поиска адаптеров через Gson на каждый элемент
+     */
+    public static final class GsonAdapter extends TypeAdapter<RecipesResponse> {
+        private final Recipe.GsonAdapter recipeAdapter = new Recipe.GsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, RecipesResponse value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("success").value(value.success);
+            if (value.recipes != null) {
+                out.name("recipes");
+                JsonLists.writeArray(out, value.recipes, recipeAdapter);
+            }
+            out.name("count").value(value.count);
+            out.name("message").value(value.message);
+            out.endObject();
+        }
+
+        @Override
+        public RecipesResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            RecipesResponse value = new RecipesResponse();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "success":
+                        value.success = JsonValues.nextBoolean(in, false);
+                        break;
+                    case "recipes":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            value.recipes = JsonLists.readArray(in, recipeAdapter);
+                        }
+                        break;
+                    case "count":
+                        value.count = JsonValues.nextInt(in, 0);
+                        break;
+                    case "message":
+                        value.message = JsonValues.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.cooking.network.responses;
 
 import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.network.json.JsonLists;
+import com.example.cooking.network.json.JsonValues;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.List;
 
+@JsonAdapter(SearchResponse.GsonAdapter.class)
 public class SearchResponse {
     @SerializedName("status")
     private String status;
@@ -19,6 +29,14 @@ public class SearchResponse {
         return data;
     }
 
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setData(Data data) {
+        this.data = data;
+    }
+
     /** Вложенный класс для объекта data */
     public static class Data {
         @SerializedName("results")
@@ -27,5 +45,78 @@ public class SearchResponse {
         public List<Recipe> getResults() {
             return results;
         }
+
+        public void setResults(List<Recipe> results) {
+            this.results = results;
+        }
+    }
+
+    /**
+     * Потоковый адаптер ответа поиска: data.results читается адаптером Recipe
+     * напрямую, остальные поля data пропускаются
+     */
+    public static final class GsonAdapter extends TypeAdapter<SearchResponse> {
+        private final Recipe.GsonAdapter recipeAdapter = new Recipe.GsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, SearchResponse value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("status").value(value.status);
+            if (value.data != null) {
+                out.name("data").beginObject();
+                if (value.data.results != null) {
+                    out.name("results");
+                    JsonLists.writeArray(out, value.data.results, recipeAdapter);
+                }
+                out.endObject();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public SearchResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            SearchResponse value = new SearchResponse();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "status":
+                        value.status = JsonValues.nextString(in);
+                        break;
+                    case "data":
+                        value.data = readData(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+
+        private Data readData(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                in.skipValue();
+                return null;
+            }
+            Data data = new Data();
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("results".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    data.results = JsonLists.readArray(in, recipeAdapter);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return data;
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.example.cooking.network.responses;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Ответ сервера на создание сессии докачиваемой загрузки
+ */
+public class UploadSessionResponse {
+
+    @SerializedName("success")
+    private boolean success;
+
+    @SerializedName("upload_id")
+    private String uploadId;
+
+    // Рекомендуемый сервером размер части, 0 - на усмотрение клиента
+    @SerializedName("chunk_size")
+    private int chunkSize;
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
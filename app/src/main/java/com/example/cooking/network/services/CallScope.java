@@ -0,0 +1,156 @@
+package com.example.cooking.network.services;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Набор запросов и фоновых задач, принадлежащих одному владельцу (обычно ViewModel).
+ * cancelAll() отменяет все незавершенные запросы и задачи: OkHttp обрывает
+ * загрузку, разбор тела ответа прерывается, а колбэки отмененных запросов
+ * не вызываются. Количество отмененных запросов и байт пишется в лог.
+ * Запросы-изменения (сохранение, удаление) в scope добавлять не нужно:
+ * они должны завершиться, даже если пользователь ушел с экрана.
+ */
+public final class CallScope {
+    private static final String TAG = "CallScope";
+
+    private final String owner;
+    private final Set<Call<?>> calls = ConcurrentHashMap.newKeySet();
+    private final Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    public CallScope(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Выполнить запрос асинхронно в рамках scope.
+     * После отмены callback не вызывается.
+     */
+    public <T> void enqueue(Call<T> call, Callback<T> callback) {
+        if (closed) {
+            call.cancel();
+            return;
+        }
+        calls.add(call);
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> c, @NonNull Response<T> response) {
+                calls.remove(call);
+                if (!c.isCanceled()) {
+                    callback.onResponse(c, response);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> c, @NonNull Throwable t) {
+                calls.remove(call);
+                if (!c.isCanceled()) {
+                    callback.onFailure(c, t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Добавить запрос, возвращенный репозиторием (запущенный или еще нет).
+     * Запрос удаляется из scope по завершении: об этом сообщает NetworkUsageMonitor,
+     * подключенный ко всем клиентам AppContainer. Запрос, который OkHttp еще
+     * не начал, остается в scope и удаляется при следующем вызове track()
+     * после завершения.
+     * @return тот же запрос; null допускается, если запрос не понадобился
+     */
+    @Nullable
+    public <T> Call<T> track(@Nullable Call<T> call) {
+        if (call == null) {
+            return null;
+        }
+        if (closed) {
+            call.cancel();
+            return call;
+        }
+        NetworkUsageMonitor monitor = NetworkUsageMonitor.getInstance();
+        calls.removeIf(tracked -> isFinished(monitor, tracked));
+        calls.add(call);
+        if (!monitor.whenFinished(call.request(), () -> calls.remove(call)) && isFinished(monitor, call)) {
+            // Запрос уже завершился - отменять нечего
+            calls.remove(call);
+        }
+        return call;
+    }
+
+    /**
+     * Добавить фоновую задачу; CompletableFuture удаляется из scope по завершении,
+     * остальные Future - при следующем вызове track()
+     */
+    public <F extends Future<?>> F track(F task) {
+        if (closed) {
+            task.cancel(true);
+            return task;
+        }
+        tasks.removeIf(Future::isDone);
+        tasks.add(task);
+        if (task instanceof CompletableFuture) {
+            ((CompletableFuture<?>) task).whenComplete((result, error) -> tasks.remove(task));
+        }
+        return task;
+    }
+
+    /**
+     * Отменить все незавершенные запросы и задачи. Scope можно использовать дальше.
+     */
+    public void cancelAll() {
+        NetworkUsageMonitor monitor = NetworkUsageMonitor.getInstance();
+        int cancelledCalls = 0;
+        long bytesTransferred = 0;
+        long bytesAvoided = 0;
+        for (Call<?> call : calls) {
+            calls.remove(call);
+            // Завершенные запросы удаляются из scope сами, здесь только выполняющиеся
+            if (call.isCanceled() || isFinished(monitor, call)) {
+                continue;
+            }
+            cancelledCalls++;
+            NetworkUsageMonitor.Transfer transfer = monitor.getTransfer(call.request());
+            if (transfer != null) {
+                bytesTransferred += transfer.getSent() + transfer.getReceived();
+                bytesAvoided += transfer.getRemaining();
+            }
+            call.cancel();
+        }
+        int cancelledTasks = 0;
+        for (Future<?> task : tasks) {
+            tasks.remove(task);
+            if (task.cancel(true)) {
+                cancelledTasks++;
+            }
+        }
+        if (cancelledCalls > 0 || cancelledTasks > 0) {
+            Log.i(TAG, owner + ": отменено запросов " + cancelledCalls + ", задач " + cancelledTasks
+                    + "; передано впустую " + bytesTransferred + " байт, не загружено " + bytesAvoided + " байт");
+        }
+    }
+
+    private static boolean isFinished(NetworkUsageMonitor monitor, Call<?> call) {
+        return call.isExecuted() && monitor.isFinished(call.request());
+    }
+
+    /**
+     * Отменить все и запретить новые запросы. Вызывать из onCleared().
+     */
+    public void close() {
+        closed = true;
+        cancelAll();
+    }
+}
@@ -7,7 +7,6 @@ import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
-import okhttp3.logging.HttpLoggingInterceptor;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -26,96 +25,36 @@ public class HttpClientManager {
     private static final int WRITE_TIMEOUT = 30;
 
     /**
-     * Получить настроенный OkHttpClient с улучшенной обработкой ошибок
-     * 
+     * Получить настроенный OkHttpClient с улучшенной обработкой ошибок.
+     * Нужен только классам без Context (вход, восстановление пароля, LTR);
+     * остальные берут клиент из AppContainer.
+     *
      * @return OkHttpClient экземпляр
      */
-    public static OkHttpClient getClient() {
+    public static synchronized OkHttpClient getClient() {
         if (client == null) {
-            // Отключаем логирование, чтобы избежать ошибок при чтении закрытого потока
-            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(message -> { /* no-op */ });
-            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.NONE);
-
-            // Создаем перехватчик для повторных попыток при ошибках
-            Interceptor retryInterceptor = new Interceptor() {
-                @Override
-                public Response intercept(Chain chain) throws IOException {
-                    Request request = chain.request();
-
-                    // Максимальное количество попыток
-                    int maxRetries = 3;
-                    int retryCount = 0;
-                    Response response = null;
-
-                    IOException lastException = null;
-                    while (retryCount < maxRetries) {
-                        try {
-                            if (response != null) {
-                                response.close();
-                            }
-
-                            // Пытаемся выполнить запрос
-                            response = chain.proceed(request);
-
-                            // Если успешно - возвращаем ответ
-                            if (response.isSuccessful()) {
-                                return response;
-                            }
-
-                            // Если получили ошибку сервера, закрываем ответ и пробуем еще раз
-                            if (response.code() >= 500) {
-                                response.close();
-                                retryCount++;
-                                Log.w(TAG, "Повторная попытка запроса после ошибки сервера: " + response.code());
-                                // Добавляем паузу между попытками
-                                try {
-                                    Thread.sleep(1000);
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                    throw new IOException("Прервано ожидание", e);
-                                }
-                            } else {
-                                // Если это не ошибка сервера, просто возвращаем ответ
-                                return response;
-                            }
-                        } catch (IOException e) {
-                            lastException = e;
-                            retryCount++;
-                            Log.w(TAG, "Повторная попытка запроса после сетевой ошибки: " + e.getMessage());
-                            try {
-                                Thread.sleep(1000);
-                            } catch (InterruptedException ie) {
-                                Thread.currentThread().interrupt();
-                                throw new IOException("Прервано ожидание", ie);
-                            }
-                        }
-                    }
-
-                    // Если все попытки не удались, выбрасываем последнее исключение
-                    if (lastException != null) {
-                        throw lastException;
-                    }
-
-                    // Или возвращаем последний ответ
-                    return response;
-                }
-            };
-
-            // Настраиваем клиент с таймаутами и перехватчиками
-            client = new OkHttpClient.Builder()
+            // Клиент обновления токена: без авторизации, иначе AuthInterceptor
+            // заменит refresh токен в заголовке на access
+            OkHttpClient refreshClient = new OkHttpClient.Builder()
                     .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
                     .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
                     .writeTimeout(WRITE_TIMEOUT, TimeUnit.SECONDS)
                     .retryOnConnectionFailure(true)
                     .connectionPool(new ConnectionPool(0, 1, TimeUnit.NANOSECONDS))
                     .protocols(Collections.singletonList(Protocol.HTTP_1_1))
+                    // Учет трафика и отмененных запросов
+                    .eventListenerFactory(NetworkUsageMonitor.getInstance().factory())
+                    .addNetworkInterceptor(NetworkUsageMonitor.getInstance())
+                    .build();
+
+            // Настраиваем клиент с перехватчиками поверх того же пула соединений
+            client = refreshClient.newBuilder()
                     // отключили логирование
-                    //.addInterceptor(loggingInterceptor)
-                    .addInterceptor(retryInterceptor)
+                    .addInterceptor(retryInterceptor())
                     // Добавляем перехватчик для заголовков авторизации
                     .addInterceptor(new com.example.cooking.auth.AuthInterceptor())
                     // Добавляем Authenticator для обновления токенов
-                    .authenticator(new com.example.cooking.auth.TokenAuthenticator())
+                    .authenticator(new com.example.cooking.auth.TokenAuthenticator(refreshClient))
                     .build();
 
             Log.d(TAG, "Создан HTTP клиент с улучшенной обработкой ошибок, отключенным Keep-Alive и HTTP/1.1");
@@ -124,6 +63,79 @@ public class HttpClientManager {
         return client;
     }
 
+    /**
+     * Перехватчик повторных попыток: до 3 попыток при сетевых ошибках и ответах 5xx
+     */
+    public static Interceptor retryInterceptor() {
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+
+                // Максимальное количество попыток
+                int maxRetries = 3;
+                int retryCount = 0;
+                Response response = null;
+
+                IOException lastException = null;
+                while (retryCount < maxRetries) {
+                    try {
+                        if (response != null) {
+                            response.close();
+                        }
+
+                        // Пытаемся выполнить запрос
+                        response = chain.proceed(request);
+
+                        // Если успешно - возвращаем ответ
+                        if (response.isSuccessful()) {
+                            return response;
+                        }
+
+                        // Если получили ошибку сервера, закрываем ответ и пробуем еще раз
+                        if (response.code() >= 500) {
+                            response.close();
+                            retryCount++;
+                            Log.w(TAG, "Повторная попытка запроса после ошибки сервера: " + response.code());
+                            // Добавляем паузу между попытками
+                            try {
+                                Thread.sleep(1000);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new IOException("Прервано ожидание", e);
+                            }
+                        } else {
+                            // Если это не ошибка сервера, просто возвращаем ответ
+                            return response;
+                        }
+                    } catch (IOException e) {
+                        // Отмененный запрос повторять бессмысленно
+                        if (chain.call().isCanceled()) {
+                            throw e;
+                        }
+                        lastException = e;
+                        retryCount++;
+                        Log.w(TAG, "Повторная попытка запроса после сетевой ошибки: " + e.getMessage());
+                        try {
+                            Thread.sleep(1000);
+                        } catch (InterruptedException ie) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException("Прервано ожидание", ie);
+                        }
+                    }
+                }
+
+                // Если все попытки не удались, выбрасываем последнее исключение
+                if (lastException != null) {
+                    throw lastException;
+                }
+
+                // Или возвращаем последний ответ
+                return response;
+            }
+        };
+    }
+
     /**
      * Сбросить HTTP клиент для повторной инициализации
      */
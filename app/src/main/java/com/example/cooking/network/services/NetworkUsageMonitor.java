@@ -0,0 +1,297 @@
+package com.example.cooking.network.services;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Учет сетевого трафика общих HTTP клиентов.
+ * Подключается к OkHttpClient как EventListener и сетевой интерцептор:
+ * для каждого выполняющегося запроса считает отправленные и полученные байты,
+ * а для отмененных запросов накапливает, сколько байт было получено впустую
+ * и сколько удалось не загружать (по Content-Length).
+ * Запросы идентифицируются по исходному объекту Request, который Retrofit
+ * возвращает из Call.request().
+ */
+public final class NetworkUsageMonitor extends EventListener implements Interceptor {
+    private static final String TAG = "NetworkUsageMonitor";
+
+    private static final NetworkUsageMonitor INSTANCE = new NetworkUsageMonitor();
+
+    private final ConcurrentHashMap<Request, Transfer> inFlight = new ConcurrentHashMap<>();
+    // Завершенные запросы; забываются вместе с объектом Request
+    private final Set<Request> finished = Collections.newSetFromMap(
+            Collections.synchronizedMap(new WeakHashMap<>()));
+
+    private final AtomicLong completedCalls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong cancelledCalls = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong cancelledBytesTransferred = new AtomicLong();
+    private final AtomicLong cancelledBytesAvoided = new AtomicLong();
+
+    /**
+     * Состояние одного выполняющегося запроса
+     */
+    public static final class Transfer {
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong received = new AtomicLong();
+        // -1, пока заголовки ответа не получены или длина неизвестна
+        private volatile long expected = -1;
+        // Действия по завершении; null после завершения запроса
+        private List<Runnable> finishActions = new ArrayList<>();
+
+        public long getSent() {
+            return sent.get();
+        }
+
+        public long getReceived() {
+            return received.get();
+        }
+
+        /**
+         * Сколько байт тела ответа еще не получено, если длина известна, иначе 0
+         */
+        public long getRemaining() {
+            long length = expected;
+            return length > 0 ? Math.max(0, length - received.get()) : 0;
+        }
+
+        synchronized boolean addFinishAction(Runnable action) {
+            if (finishActions == null) {
+                return false;
+            }
+            finishActions.add(action);
+            return true;
+        }
+
+        void finished() {
+            List<Runnable> actions;
+            synchronized (this) {
+                actions = finishActions;
+                finishActions = null;
+            }
+            if (actions != null) {
+                for (Runnable action : actions) {
+                    action.run();
+                }
+            }
+        }
+    }
+
+    public static NetworkUsageMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    private NetworkUsageMonitor() {
+    }
+
+    /**
+     * Фабрика для OkHttpClient.Builder.eventListenerFactory
+     */
+    public EventListener.Factory factory() {
+        return call -> this;
+    }
+
+    /**
+     * Текущее состояние запроса или null, если он уже завершен или не начинался
+     */
+    @Nullable
+    public Transfer getTransfer(Request request) {
+        return inFlight.get(request);
+    }
+
+    /**
+     * @return true, если запрос начинался и уже завершился (успешно, с ошибкой или отменой)
+     */
+    public boolean isFinished(Request request) {
+        return finished.contains(request);
+    }
+
+    /**
+     * Выполнить action, когда запрос завершится (успешно, с ошибкой или отменой)
+     * @return false, если запрос уже завершен или не начинался - action не будет вызван,
+     *         различить эти случаи можно через {@link #isFinished(Request)}
+     */
+    public boolean whenFinished(Request request, Runnable action) {
+        Transfer transfer = inFlight.get(request);
+        return transfer != null && transfer.addFinishAction(action);
+    }
+
+    // --- EventListener ---
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        inFlight.put(call.request(), new Transfer());
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        Transfer transfer = inFlight.get(call.request());
+        if (transfer != null) {
+            transfer.sent.addAndGet(byteCount);
+        }
+    }
+
+    @Override
+    public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+        Transfer transfer = inFlight.get(call.request());
+        String length = response.header("Content-Length");
+        if (transfer != null && length != null) {
+            try {
+                transfer.expected = Long.parseLong(length.trim());
+            } catch (NumberFormatException ignored) {
+                // Длина неизвестна - оценка сэкономленного трафика будет нулевой
+            }
+        }
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        finish(call, false);
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        finish(call, true);
+    }
+
+    private void finish(Call call, boolean failed) {
+        finished.add(call.request());
+        Transfer transfer = inFlight.remove(call.request());
+        long received = transfer != null ? transfer.getReceived() : 0;
+        bytesReceived.addAndGet(received);
+        if (call.isCanceled()) {
+            cancelledCalls.incrementAndGet();
+            if (transfer != null) {
+                cancelledBytesTransferred.addAndGet(transfer.getSent() + received);
+                cancelledBytesAvoided.addAndGet(transfer.getRemaining());
+            }
+        } else if (failed) {
+            failedCalls.incrementAndGet();
+        } else {
+            completedCalls.incrementAndGet();
+        }
+        if (transfer != null) {
+            transfer.finished();
+        }
+    }
+
+    // --- Interceptor: подсчет полученных байт тела ответа ---
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        Transfer transfer = inFlight.get(chain.call().request());
+        ResponseBody body = response.body();
+        if (transfer == null || body == null) {
+            return response;
+        }
+        return response.newBuilder()
+                .body(new CountingResponseBody(body, transfer))
+                .build();
+    }
+
+    public Stats getStats() {
+        return new Stats(completedCalls.get(), failedCalls.get(), cancelledCalls.get(), inFlight.size(),
+                bytesReceived.get(), cancelledBytesTransferred.get(), cancelledBytesAvoided.get());
+    }
+
+    public void logStats() {
+        Log.i(TAG, getStats().toString());
+    }
+
+    /**
+     * Снимок счетчиков трафика
+     */
+    public static final class Stats {
+        public final long completedCalls;
+        public final long failedCalls;
+        public final long cancelledCalls;
+        public final int inFlightCalls;
+        public final long bytesReceived;
+        public final long cancelledBytesTransferred;
+        public final long cancelledBytesAvoided;
+
+        Stats(long completedCalls, long failedCalls, long cancelledCalls, int inFlightCalls,
+              long bytesReceived, long cancelledBytesTransferred, long cancelledBytesAvoided) {
+            this.completedCalls = completedCalls;
+            this.failedCalls = failedCalls;
+            this.cancelledCalls = cancelledCalls;
+            this.inFlightCalls = inFlightCalls;
+            this.bytesReceived = bytesReceived;
+            this.cancelledBytesTransferred = cancelledBytesTransferred;
+            this.cancelledBytesAvoided = cancelledBytesAvoided;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "запросы: завершено=%d, ошибок=%d, отменено=%d, в работе=%d; получено %d байт; "
+                            + "отмененные: передано впустую %d байт, не загружено %d байт",
+                    completedCalls, failedCalls, cancelledCalls, inFlightCalls, bytesReceived,
+                    cancelledBytesTransferred, cancelledBytesAvoided);
+        }
+    }
+
+    private static final class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        CountingResponseBody(ResponseBody delegate, Transfer transfer) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(@NonNull Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        transfer.received.addAndGet(read);
+                    }
+                    return read;
+                }
+            });
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @NonNull
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.cooking.network.services;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Тело запроса, читающее файл (или его часть) потоком прямо при отправке.
+ * Файл не загружается в память целиком, а повторная отправка (retry)
+ * просто перечитывает его с диска. Прогресс сообщается по мере записи.
+ */
+public class ProgressRequestBody extends RequestBody {
+    private static final int SEGMENT_SIZE = 8 * 1024;
+
+    /**
+     * Получатель прогресса отправки
+     */
+    public interface ProgressListener {
+        /**
+         * @param bytesSent сколько байт файла уже отправлено (с учетом смещения части)
+         * @param totalBytes полный размер файла
+         */
+        void onProgress(long bytesSent, long totalBytes);
+    }
+
+    private final File file;
+    private final MediaType contentType;
+    private final long offset;
+    private final long length;
+    private final ProgressListener listener;
+
+    /**
+     * Тело для всего файла
+     */
+    public ProgressRequestBody(File file, MediaType contentType, @Nullable ProgressListener listener) {
+        this(file, contentType, 0, file.length(), listener);
+    }
+
+    /**
+     * Тело для части файла [offset, offset + length)
+     */
+    public ProgressRequestBody(File file, MediaType contentType, long offset, long length,
+                               @Nullable ProgressListener listener) {
+        this.file = file;
+        this.contentType = contentType;
+        this.offset = offset;
+        this.length = length;
+        this.listener = listener;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        long total = file.length();
+        try (BufferedSource source = Okio.buffer(Okio.source(file))) {
+            source.skip(offset);
+            Buffer buffer = new Buffer();
+            long written = 0;
+            while (written < length) {
+                long toRead = Math.min(SEGMENT_SIZE, length - written);
+                long read = source.read(buffer, toRead);
+                if (read == -1) {
+                    throw new IOException("Файл закончился раньше ожидаемого: " + file.getName());
+                }
+                sink.write(buffer, read);
+                written += read;
+                if (listener != null) {
+                    listener.onProgress(offset + written, total);
+                }
+            }
+        }
+    }
+}
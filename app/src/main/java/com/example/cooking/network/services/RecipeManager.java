@@ -7,27 +7,31 @@ import android.util.Log;
 
 import com.example.cooking.Recipe.Ingredient;
 import com.example.cooking.Recipe.Step;
-import com.example.cooking.data.repositories.RecipeRepository;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.network.json.Json;
+import com.example.cooking.utils.AppExecutors;
+import com.example.cooking.utils.AppLog;
+import com.example.cooking.utils.DominantColor;
+import com.example.cooking.utils.ImageIngestor;
 import com.example.cooking.network.api.RecipeApiService;
 import com.google.gson.Gson;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
-import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
  * Менеджер для работы с API рецептов через Retrofit
@@ -35,17 +39,15 @@ import androidx.annotation.NonNull;
  */
 public class RecipeManager {
     private static final String TAG = "RecipeManager";
-    private static final String API_URL = "http://89.35.130.107";
-    
-    // Увеличенные таймауты для стабильности
-    private static final int CONNECT_TIMEOUT = 30; // 30 секунд
-    private static final int READ_TIMEOUT = 60; // 60 секунд
-    private static final int WRITE_TIMEOUT = 60; // 60 секунд
     private static final int MAX_RETRY_ATTEMPTS = 3; // Максимальное количество повторных попыток
     
+    private static final MediaType TEXT = MediaType.parse("text/plain");
+    private static final MediaType PHOTO_TYPE = MediaType.parse(ImageIngestor.MIME_TYPE);
+    
     private final RecipeApiService apiService;
+    private final ResumableUploader uploader;
     private final Context context;
-    private static final Gson gson = new Gson();
+    private static final Gson gson = Json.gson();
 
     public void updateRecipe(Integer currentRecipeId, String currentTitle, List<Ingredient> currentIngredients, List<Step> currentSteps, byte[] bytes, String userId, int permission, RecipeSaveCallback recipeSaveCallback) {
     }
@@ -58,26 +60,14 @@ public class RecipeManager {
         void onFailure(String error);
     }
     
-    public RecipeManager(Context context) {
-        this.context = context;
-        
-        // Создаем OkHttpClient с увеличенными таймаутами
-        OkHttpClient okHttpClient = new OkHttpClient.Builder()
-                .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
-                .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
-                .writeTimeout(WRITE_TIMEOUT, TimeUnit.SECONDS)
-                .retryOnConnectionFailure(true) // Включаем автоматические повторные попытки
-                .build();
-        
-        // Создаем Retrofit с настроенным OkHttpClient
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(API_URL)
-                .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-        
-        // Создаем API сервис
+    /**
+     * Не создавать напрямую - экземпляр принадлежит AppContainer
+     * @param retrofit Retrofit загрузок из AppContainer (общий HTTP-стек, увеличенные таймауты)
+     */
+    public RecipeManager(Context context, Retrofit retrofit) {
+        this.context = context.getApplicationContext();
         apiService = retrofit.create(RecipeApiService.class);
+        uploader = new ResumableUploader(context, retrofit);
     }
     
     /**
@@ -94,84 +84,139 @@ public class RecipeManager {
     }
     
     /**
-     * Добавляет или редактирует рецепт
-     * @param title Название рецепта
-     * @param ingredients Список ингредиентов
-     * @param steps Список шагов
-     * @param userId ID пользователя
-     * @param imageBytes Изображение рецепта (может быть null)
-     * @param callback Обратный вызов результата
+     * Результат создания рецепта на сервере
      */
-    public void saveRecipe(String title, List<Ingredient> ingredients, List<Step> steps,
-                          String userId, byte[] imageBytes,
-                          RecipeSaveCallback callback) {
-        
+    public static class CreatedRecipe {
+        public final int recipeId;
+        public final String photoUrl;
 
+        CreatedRecipe(int recipeId, String photoUrl) {
+            this.recipeId = recipeId;
+            this.photoUrl = photoUrl;
+        }
+    }
 
-        // Проверяем наличие интернет-соединения
-        if (!isNetworkAvailable()) {
-            Log.w(TAG, "RecipeManager.saveRecipe: Сеть недоступна (проверка внутри менеджера)");
-            callback.onFailure("Отсутствует подключение к интернету. Пожалуйста, проверьте подключение и попробуйте снова.");
-            return;
+    /**
+     * Ошибка, при которой повторять запрос бессмысленно (сервер отклонил данные)
+     */
+    public static class RejectedException extends IOException {
+        public RejectedException(String message) {
+            super(message);
         }
-        Log.d(TAG, "RecipeManager.saveRecipe: Сеть доступна (проверка внутри менеджера)");
-        
-        // Сериализуем списки в JSON
-        String ingredientsJson = gson.toJson(ingredients);
-        String stepsJson = gson.toJson(steps);
-        
-        Log.d(TAG, "Сохранение рецепта:" +
-                " title: " + title +
-                ", ingredients: " + ingredientsJson +
-                ", steps: " + stepsJson +
-                ", userId: " + userId +
-                ", imageBytes: " + (imageBytes != null ? imageBytes.length + " байт" : "нет"));
-        
-        try {
-            // Создаем RequestBody для текстовых полей (включая JSON-строки)
-            RequestBody titleBody = RequestBody.create(title, MediaType.parse("text/plain"));
-            RequestBody ingredientsBody = RequestBody.create(ingredientsJson, MediaType.parse("application/json"));
-            RequestBody stepsBody = RequestBody.create(stepsJson, MediaType.parse("application/json"));
-            RequestBody userIdBody = RequestBody.create(userId, MediaType.parse("text/plain"));
-            
-            Call<ResponseBody> call;
-            
-            // Если есть изображение, используем метод с фото
-            if (imageBytes != null && imageBytes.length > 0) {
-                String fileName = "recipe_" + System.currentTimeMillis() + ".jpg";
-                RequestBody requestFile = RequestBody.create(imageBytes, MediaType.parse("image/jpeg"));
-                MultipartBody.Part photoPart = MultipartBody.Part.createFormData("photo", fileName, requestFile);
-                
-                call = apiService.addRecipe(
-                        titleBody, ingredientsBody, stepsBody, userIdBody, photoPart
-                );
-                Log.d(TAG, "RecipeManager.saveRecipe: Отправка запроса в API...");
-                Log.d(TAG, "Отправка запроса с изображением (размер: " + imageBytes.length + " байт)");
+    }
+    
+    /**
+     * Синхронно создает рецепт на сервере. Вызывается из фоновой очереди отправки.
+     * @param ingredientsJson Ингредиенты в JSON
+     * @param stepsJson Шаги в JSON
+     * @param photoFile Подготовленное фото рецепта (может быть null)
+     * @param idempotencyKey Ключ, по которому сервер распознает повторную отправку
+     * @param uploadListener Прогресс отправки фото (может быть null)
+     * @param placeholderColor преобладающий цвет фото (ARGB) или null
+     * @return ID рецепта на сервере и URL фото
+     * @throws RejectedException если сервер отклонил рецепт
+     * @throws IOException при сетевой ошибке (запрос можно повторить)
+     */
+    public CreatedRecipe createRecipe(String title, String ingredientsJson, String stepsJson,
+                                      String userId, @Nullable File photoFile, @Nullable Integer placeholderColor,
+                                      String idempotencyKey,
+                                      @Nullable ProgressRequestBody.ProgressListener uploadListener) throws IOException {
+        Log.d(TAG, "Создание рецепта: title: " + title + ", userId: " + userId
+                + ", photo: " + (photoFile != null ? photoFile.length() + " байт" : "нет")
+                + ", key: " + idempotencyKey);
+
+        RequestBody titleBody = RequestBody.create(title, TEXT);
+        RequestBody ingredientsBody = RequestBody.create(ingredientsJson, MediaType.parse("application/json"));
+        RequestBody stepsBody = RequestBody.create(stepsJson, MediaType.parse("application/json"));
+        RequestBody userIdBody = RequestBody.create(userId, TEXT);
+
+        Call<ResponseBody> call;
+        if (photoFile == null || photoFile.length() == 0) {
+            call = apiService.addRecipeWithoutPhoto(idempotencyKey, titleBody, ingredientsBody, stepsBody, userIdBody);
+        } else {
+            RequestBody placeholderBody = placeholderColor != null
+                    ? RequestBody.create(DominantColor.toHex(placeholderColor), TEXT) : null;
+            String uploadId = uploader.upload(photoFile, PHOTO_TYPE, uploadListener);
+            if (uploadId != null) {
+                Log.d(TAG, "createRecipe: фото загружено частями, upload_id=" + uploadId);
+                call = apiService.addRecipeWithUpload(idempotencyKey, titleBody, ingredientsBody, stepsBody,
+                        userIdBody, placeholderBody, RequestBody.create(uploadId, TEXT));
             } else {
-                // Без изображения
-                // Для нового рецепта без картинки используем метод без фото
-                Log.d(TAG, "Создание нового рецепта без изображения");
-                call = apiService.addRecipeWithoutPhoto(
-                        titleBody, ingredientsBody, stepsBody, userIdBody
-                );
+                // Сервер без докачки - отправляем файл потоком в multipart
+                call = apiService.addRecipe(idempotencyKey, titleBody, ingredientsBody, stepsBody, userIdBody,
+                        placeholderBody, createPhotoPart(photoFile, uploadListener));
             }
-            
-            // Выполняем запрос с поддержкой повторных попыток
-            executeWithRetry(call, callback, 0);
-            
-        } catch (Exception e) {
-            // Обрабатываем любые исключения при подготовке запроса
-            Log.e(TAG, "Ошибка при подготовке запроса", e);
-            callback.onFailure("Ошибка при подготовке запроса: " + e.getMessage());
+        }
+
+        Response<ResponseBody> response = call.execute();
+        String body = null;
+        try (ResponseBody responseBody = response.isSuccessful() ? response.body() : response.errorBody()) {
+            if (responseBody != null) {
+                body = responseBody.string();
+            }
+        }
+        if (!response.isSuccessful()) {
+            Log.e(TAG, "Ошибка HTTP " + response.code() + ": " + body);
+            if (response.code() >= 500 || response.code() == 429) {
+                throw new IOException("Ошибка сервера: " + response.code());
+            }
+            throw new RejectedException("Сервер отклонил рецепт: " + response.code()
+                    + (body != null && !body.isEmpty() ? " - " + body : ""));
+        }
+        if (body == null || body.isEmpty()) {
+            throw new IOException("Ошибка сервера: пустой ответ");
+        }
+        try {
+            JSONObject json = new JSONObject(body);
+            if (!json.optBoolean("success", false)) {
+                String message = json.optString("message", "");
+                throw new RejectedException(message.isEmpty() ? "Ошибка при сохранении рецепта" : message);
+            }
+            int recipeId = json.optInt("recipeId", -1);
+            if (recipeId <= 0) {
+                throw new IOException("Сервер не вернул ID рецепта");
+            }
+            // Очищаем кэш рецептов, чтобы при следующем запросе получить свежие данные
+            AppContainer.getInstance(context).recipeRepository().clearCache();
+            return new CreatedRecipe(recipeId, json.isNull("photo_url") ? null : json.optString("photo_url", null));
+        } catch (JSONException e) {
+            throw new IOException("Ошибка при обработке ответа: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Забыть докачанное фото рецепта, когда очередь отправки получила ответ сервера
+     * @param photoFile фото, переданное в {@link #createRecipe}, может быть null
+     */
+    public void forgetUpload(@Nullable File photoFile) {
+        if (photoFile != null) {
+            uploader.forget(photoFile);
         }
     }
 
-    public void updateRecipe(String title, List<Ingredient> ingredients, List<Step> steps,
-                             String userId, @NonNull Integer recipeId, byte[] imageBytes,
-                             int permission, RecipeSaveCallback callback) {
+    /**
+     * Частично обновляет существующий рецепт: отправляются только измененные поля.
+     * @param title Новое название или null, если не менялось
+     * @param ingredients Новые ингредиенты или null, если не менялись
+     * @param steps Новые шаги или null, если не менялись
+     * @param photoFile Новое фото рецепта или null, если фото не менялось
+     * @param uploadListener Прогресс отправки фото (может быть null)
+     */
+    public void updateRecipe(@Nullable String title, @Nullable List<Ingredient> ingredients,
+                             @Nullable List<Step> steps, String userId, @NonNull Integer recipeId,
+                             @Nullable File photoFile, int permission,
+                             @Nullable ProgressRequestBody.ProgressListener uploadListener,
+                             RecipeSaveCallback callback) {
 
         Log.d(TAG, "RecipeManager.updateRecipe: Метод вызван. Recipe ID: " + recipeId + ", Permission: " + permission + ", User ID: " + userId);
 
+        boolean hasPhoto = photoFile != null && photoFile.length() > 0;
+        if (title == null && ingredients == null && steps == null && !hasPhoto) {
+            Log.d(TAG, "RecipeManager.updateRecipe: изменений нет, запрос не отправляется");
+            callback.onSuccess("Изменений нет");
+            return;
+        }
+
         if (!isNetworkAvailable()) {
             Log.w(TAG, "RecipeManager.updateRecipe: Сеть недоступна");
             callback.onFailure("Отсутствует подключение к интернету. Пожалуйста, проверьте подключение и попробуйте снова.");
@@ -179,49 +224,61 @@ public class RecipeManager {
         }
         Log.d(TAG, "RecipeManager.updateRecipe: Сеть доступна");
 
-        String ingredientsJson = gson.toJson(ingredients);
-        String stepsJson = gson.toJson(steps);
-
-        Log.d(TAG, "Обновление рецепта:" +
-                " title: " + title +
-                ", ingredients: " + ingredientsJson +
-                ", steps: " + stepsJson +
-                ", userId: " + userId +
-                ", recipeId: " + recipeId +
-                ", permission: " + permission +
-                ", imageBytes: " + (imageBytes != null ? imageBytes.length + " байт" : "нет"));
+        Log.d(TAG, "Обновление рецепта " + recipeId + ", измененные поля:" +
+                (title != null ? " title" : "") +
+                (ingredients != null ? " ingredients" : "") +
+                (steps != null ? " steps" : "") +
+                (hasPhoto ? " photo (" + photoFile.length() + " байт)" : ""));
 
         try {
-            RequestBody titleBody = RequestBody.create(title, MediaType.parse("text/plain"));
-            RequestBody ingredientsBody = RequestBody.create(ingredientsJson, MediaType.parse("application/json"));
-            RequestBody stepsBody = RequestBody.create(stepsJson, MediaType.parse("application/json"));
-
-            MultipartBody.Part photoPart;
-            if (imageBytes != null && imageBytes.length > 0) {
-                String fileName = "recipe_" + System.currentTimeMillis() + ".jpg";
-                RequestBody requestFile = RequestBody.create(imageBytes, MediaType.parse("image/jpeg"));
-                photoPart = MultipartBody.Part.createFormData("photo", fileName, requestFile);
-                Log.d(TAG, "RecipeManager.updateRecipe: Подготовка запроса API (с новым фото)...");
-            } else {
-                photoPart = MultipartBody.Part.createFormData("photo", "", RequestBody.create(new byte[0], MediaType.parse("image/jpeg")));
-                Log.d(TAG, "RecipeManager.updateRecipe: Подготовка запроса API (без нового фото)...");
-            }
+            // Неизмененные поля не передаются вовсе
+            RequestBody titleBody = title != null ? RequestBody.create(title, TEXT) : null;
+            RequestBody ingredientsBody = ingredients != null
+                    ? RequestBody.create(gson.toJson(ingredients), MediaType.parse("application/json")) : null;
+            RequestBody stepsBody = steps != null
+                    ? RequestBody.create(gson.toJson(steps), MediaType.parse("application/json")) : null;
 
             String userIdHeader = String.valueOf(userId);
             String permissionHeader = String.valueOf(permission);
 
-            Log.d(TAG, "RecipeManager.updateRecipe: Вызов apiService.updateRecipe (с заголовками)...");
-            Call<ResponseBody> call = apiService.updateRecipe(
-                    recipeId,         // ID в Path
-                    userIdHeader,     // User ID в заголовке
-                    permissionHeader, // Permission в заголовке
-                    titleBody,        // Данные в теле
-                    ingredientsBody,  // Данные в теле
-                    stepsBody,        // Данные в теле
-                    photoPart         // Фото (новое или пустое) в теле
-            );
+            if (!hasPhoto) {
+                Log.d(TAG, "RecipeManager.updateRecipe: Подготовка запроса API (без нового фото)...");
+                executeWithRetry(apiService.updateRecipe(recipeId, userIdHeader, permissionHeader,
+                        titleBody, ingredientsBody, stepsBody, null, null), callback, 0);
+                return;
+            }
 
-            executeWithRetry(call, callback, 0);
+            AppExecutors.getInstance().network().execute(() -> {
+                try {
+                    String uploadId = uploader.upload(photoFile, PHOTO_TYPE, uploadListener);
+                    Call<ResponseBody> call;
+                    if (uploadId != null) {
+                        Log.d(TAG, "RecipeManager.updateRecipe: фото загружено частями, upload_id=" + uploadId);
+                        call = apiService.updateRecipe(recipeId, userIdHeader, permissionHeader,
+                                titleBody, ingredientsBody, stepsBody, null, RequestBody.create(uploadId, TEXT));
+                    } else {
+                        Log.d(TAG, "RecipeManager.updateRecipe: Подготовка запроса API (с новым фото)...");
+                        call = apiService.updateRecipe(recipeId, userIdHeader, permissionHeader,
+                                titleBody, ingredientsBody, stepsBody, createPhotoPart(photoFile, uploadListener), null);
+                    }
+                    // Загрузка хранится до ответа сервера: повторное сохранение не отправит фото заново
+                    executeWithRetry(call, new RecipeSaveCallback() {
+                        @Override
+                        public void onSuccess(String message) {
+                            uploader.forget(photoFile);
+                            callback.onSuccess(message);
+                        }
+
+                        @Override
+                        public void onFailure(String error) {
+                            callback.onFailure(error);
+                        }
+                    }, 0);
+                } catch (IOException e) {
+                    Log.e(TAG, "Ошибка при загрузке изображения", e);
+                    callback.onFailure("Ошибка при загрузке изображения: " + e.getMessage());
+                }
+            });
 
         } catch (Exception e) {
             Log.e(TAG, "Ошибка при подготовке запроса на обновление", e);
@@ -229,6 +286,16 @@ public class RecipeManager {
         }
     }
     
+    /**
+     * Часть multipart с фото, читаемым из файла потоком
+     */
+    private MultipartBody.Part createPhotoPart(File photoFile,
+                                               @Nullable ProgressRequestBody.ProgressListener listener) {
+        String fileName = "recipe_" + System.currentTimeMillis() + ImageIngestor.FILE_EXTENSION;
+        return MultipartBody.Part.createFormData("photo", fileName,
+                new ProgressRequestBody(photoFile, PHOTO_TYPE, listener));
+    }
+    
     /**
      * Выполняет запрос с поддержкой повторных попыток при ошибках
      * @param call Запрос Retrofit
@@ -243,7 +310,7 @@ public class RecipeManager {
                     try {
                         // Получаем тело ответа
                         String responseStr = response.body() != null ? response.body().string() : "";
-                        Log.d(TAG, "Ответ сервера: " + responseStr);
+                        AppLog.d(TAG, () -> "Ответ сервера: " + responseStr.length() + " символов");
                         
                         if (responseStr.isEmpty()) {
                             Log.e(TAG, "Получен пустой ответ от сервера");
@@ -264,8 +331,7 @@ public class RecipeManager {
                         
                         if (success) {
                             // Очищаем кэш рецептов, чтобы при следующем запросе получить свежие данные
-                            RecipeRepository repository = new RecipeRepository(context);
-                            repository.clearCache();
+                            AppContainer.getInstance(context).recipeRepository().clearCache();
                             
                             // Возвращаем успех
                             callback.onSuccess(message.isEmpty() ? "Рецепт успешно сохранен" : message);
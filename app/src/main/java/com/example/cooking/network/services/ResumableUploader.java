@@ -0,0 +1,252 @@
+package com.example.cooking.network.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.cooking.network.api.UploadApi;
+import com.example.cooking.network.responses.UploadSessionResponse;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * Докачиваемая загрузка файла частями.
+ * Файл отправляется кусками фиксированного размера; после обрыва связи клиент
+ * спрашивает у сервера текущее смещение и продолжает с него, а не с начала.
+ * Идентификатор сессии сохраняется в SharedPreferences, поэтому загрузка
+ * продолжается и после перезапуска приложения. Завершенная загрузка хранится,
+ * пока вызывающий не подтвердит, что сервер принял ее ({@link #forget(File)}):
+ * повторная отправка того же файла получит тот же идентификатор без передачи.
+ * Методы блокирующие - вызывать только из фонового потока.
+ */
+public class ResumableUploader {
+    private static final String TAG = "ResumableUploader";
+    private static final String PREFS_NAME = "resumable_uploads";
+
+    // Размер части по умолчанию
+    private static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    // Сколько подряд неудачных попыток отправки части допускается
+    private static final int MAX_CHUNK_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MS = 1000;
+    // Сколько раз подряд создаем новую сессию, если сервер теряет текущую
+    private static final int MAX_SESSIONS = 3;
+
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+    private static final int HTTP_CONFLICT = 409;
+    private static final int HTTP_GONE = 410;
+    private static final int HTTP_NOT_IMPLEMENTED = 501;
+
+    private final UploadApi uploadApi;
+    private final SharedPreferences preferences;
+    private final long baseBackoffMs;
+
+    /**
+     * @param retrofit Retrofit загрузок из AppContainer
+     */
+    public ResumableUploader(Context context, Retrofit retrofit) {
+        this(context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE),
+                retrofit.create(UploadApi.class), BASE_BACKOFF_MS);
+    }
+
+    // Для тестов: свое хранилище сессий и короткие паузы между попытками
+    ResumableUploader(SharedPreferences preferences, UploadApi uploadApi, long baseBackoffMs) {
+        this.preferences = preferences;
+        this.uploadApi = uploadApi;
+        this.baseBackoffMs = baseBackoffMs;
+    }
+
+    /**
+     * Загрузить файл с докачкой
+     * @param file файл для загрузки
+     * @param contentType MIME-тип файла
+     * @param listener получатель прогресса, может быть null
+     * @return идентификатор завершенной загрузки или null, если сервер
+     *         не поддерживает докачку (нужно отправить файл обычным запросом).
+     *         Идентификатор хранится до вызова {@link #forget(File)}
+     * @throws IOException если файл не удалось отправить после всех попыток
+     */
+    @Nullable
+    public String upload(File file, MediaType contentType,
+                         @Nullable ProgressRequestBody.ProgressListener listener) throws IOException {
+        long total = file.length();
+        String sessionKey = sessionKey(file);
+
+        for (int sessions = 1; ; sessions++) {
+            String uploadId = preferences.getString(sessionKey, null);
+            int chunkSize = preferences.getInt(sessionKey + ":chunk", DEFAULT_CHUNK_SIZE);
+            long offset = -1;
+            if (uploadId != null) {
+                offset = queryOffset(uploadId);
+                if (preferences.getBoolean(sessionKey + ":done", false)) {
+                    if (offset == total) {
+                        Log.d(TAG, "Файл уже загружен: " + uploadId);
+                        return uploadId;
+                    }
+                    // Сервер больше не хранит загрузку - отправляем заново
+                    offset = -1;
+                }
+                Log.d(TAG, "Продолжаем загрузку " + uploadId + " со смещения " + offset);
+            }
+            if (offset < 0) {
+                UploadSessionResponse session = createSession(total, contentType);
+                if (session == null) {
+                    return null;
+                }
+                uploadId = session.getUploadId();
+                chunkSize = session.getChunkSize() > 0 ? session.getChunkSize() : DEFAULT_CHUNK_SIZE;
+                offset = 0;
+                preferences.edit()
+                        .putString(sessionKey, uploadId)
+                        .putInt(sessionKey + ":chunk", chunkSize)
+                        .remove(sessionKey + ":done")
+                        .apply();
+            }
+
+            boolean completed = sendChunks(file, contentType, listener, uploadId, chunkSize, offset);
+            if (completed) {
+                // Идентификатор нужен, пока сервер не принял запрос с ним
+                preferences.edit().putBoolean(sessionKey + ":done", true).apply();
+                Log.d(TAG, "Загрузка " + uploadId + " завершена, " + total + " байт");
+                return uploadId;
+            }
+            removeSession(sessionKey);
+            if (sessions >= MAX_SESSIONS) {
+                throw new IOException("Сервер теряет сессию загрузки, попыток: " + MAX_SESSIONS);
+            }
+            // Сессия истекла на сервере - начинаем заново
+            Log.w(TAG, "Сессия " + uploadId + " не найдена, создаем новую");
+        }
+    }
+
+    /**
+     * Забыть загрузку файла, когда запрос с ее идентификатором принят сервером
+     * (или отклонен окончательно)
+     */
+    public void forget(File file) {
+        removeSession(sessionKey(file));
+    }
+
+    private void removeSession(String sessionKey) {
+        preferences.edit()
+                .remove(sessionKey)
+                .remove(sessionKey + ":chunk")
+                .remove(sessionKey + ":done")
+                .apply();
+    }
+
+    /**
+     * Отправить файл частями, начиная с offset
+     * @return true - файл принят целиком, false - сервер не знает сессию (404/410)
+     * @throws IOException если часть не удалось отправить после всех попыток
+     */
+    private boolean sendChunks(File file, MediaType contentType,
+                               @Nullable ProgressRequestBody.ProgressListener listener,
+                               String uploadId, int chunkSize, long offset) throws IOException {
+        long total = file.length();
+        int failures = 0;
+        while (offset < total) {
+            long length = Math.min(chunkSize, total - offset);
+            ProgressRequestBody chunk = new ProgressRequestBody(file, contentType, offset, length, listener);
+            Response<Void> response = null;
+            try {
+                response = uploadApi.uploadChunk(uploadId, offset, chunk).execute();
+            } catch (IOException e) {
+                Log.w(TAG, "Обрыв при отправке части со смещения " + offset + ": " + e.getMessage());
+            }
+            if (response != null) {
+                if (response.isSuccessful()) {
+                    offset = parseOffset(response, offset + length);
+                    failures = 0;
+                    continue;
+                }
+                int code = response.code();
+                if (code == HTTP_NOT_FOUND || code == HTTP_GONE) {
+                    return false;
+                }
+                if (code != HTTP_CONFLICT && code < 500) {
+                    throw new IOException("Сервер отклонил часть файла: HTTP " + code);
+                }
+                // 409 - расхождение смещений, 5xx - временная ошибка: сверяемся с сервером
+                Log.w(TAG, "HTTP " + code + " при отправке части со смещения " + offset);
+            }
+
+            if (++failures > MAX_CHUNK_ATTEMPTS) {
+                throw new IOException("Не удалось отправить файл после " + MAX_CHUNK_ATTEMPTS + " попыток");
+            }
+            sleepBackoff(failures);
+            long serverOffset = queryOffset(uploadId);
+            if (serverOffset >= 0) {
+                offset = serverOffset;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private UploadSessionResponse createSession(long total, MediaType contentType) throws IOException {
+        Response<UploadSessionResponse> response =
+                uploadApi.createSession(total, contentType.toString()).execute();
+        int code = response.code();
+        if (code == HTTP_NOT_FOUND || code == HTTP_METHOD_NOT_ALLOWED || code == HTTP_NOT_IMPLEMENTED) {
+            Log.d(TAG, "Сервер не поддерживает докачку (HTTP " + code + ")");
+            return null;
+        }
+        UploadSessionResponse body = response.body();
+        if (!response.isSuccessful() || body == null || body.getUploadId() == null) {
+            throw new IOException("Не удалось создать сессию загрузки: HTTP " + code);
+        }
+        return body;
+    }
+
+    /**
+     * @return смещение на сервере или -1, если сессия неизвестна или сервер недоступен
+     */
+    private long queryOffset(String uploadId) {
+        try {
+            Response<Void> response = uploadApi.getOffset(uploadId).execute();
+            if (!response.isSuccessful()) {
+                return -1;
+            }
+            return parseOffset(response, -1);
+        } catch (IOException e) {
+            Log.w(TAG, "Не удалось запросить смещение: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static long parseOffset(Response<?> response, long fallback) {
+        String header = response.headers().get(UploadApi.HEADER_UPLOAD_OFFSET);
+        if (header == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private void sleepBackoff(int attempt) throws IOException {
+        try {
+            Thread.sleep(baseBackoffMs * (1L << Math.min(attempt - 1, 4)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Загрузка прервана", e);
+        }
+    }
+
+    /**
+     * Ключ сессии: один и тот же файл с тем же размером и временем изменения
+     */
+    private static String sessionKey(File file) {
+        return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+    }
+}
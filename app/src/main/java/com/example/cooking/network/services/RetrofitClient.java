@@ -2,6 +2,8 @@ package com.example.cooking.network.services;
 
 import android.util.Log;
 import com.example.cooking.network.api.ApiService;
+import com.example.cooking.network.json.Json;
+import com.example.cooking.network.wire.WireFormatConverterFactory;
 import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
@@ -35,7 +37,9 @@ public class RetrofitClient {
             retrofit = new Retrofit.Builder()
                     .baseUrl(baseUrl)
                     .client(client)
-                    .addConverterFactory(GsonConverterFactory.create())
+                    // CBOR для каталога и поиска, если сервер его отдал; остальное - Gson
+                    .addConverterFactory(WireFormatConverterFactory.create())
+                    .addConverterFactory(GsonConverterFactory.create(Json.gson()))
                     .build();
 
             Log.d(TAG, "Создан Retrofit клиент с улучшенной обработкой сетевых ошибок");
@@ -62,7 +66,7 @@ public class RetrofitClient {
         ltrRetrofit = new Retrofit.Builder()
                 .baseUrl(baseUrl)
                 .client(client)
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(Json.gson()))
                 .build();
 
         Log.d(TAG, "Создан Retrofit клиент для LTR API с URL: " + baseUrl);
@@ -5,6 +5,14 @@ import com.example.cooking.auth.UserLoginRequest;
 import com.example.cooking.auth.UserRegisterRequest;
 import com.example.cooking.data.models.ApiResponse;
 import com.example.cooking.network.api.ApiService;
+import com.example.cooking.utils.AppExecutors;
+import com.example.cooking.utils.Futures;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -15,6 +23,10 @@ import retrofit2.Response;
 public class UserService {
     private static final String TAG = "UserService";
     private final ApiService apiService;
+
+    // Повторные попытки входа при обрыве соединения или 401
+    private static final int MAX_LOGIN_RETRIES = 3;
+    private static final long LOGIN_RETRY_DELAY_MS = 1000;
     
     public interface UserCallback {
         void onSuccess(ApiResponse response);
@@ -131,74 +143,68 @@ public class UserService {
      * Вход пользователя после успешного входа в Firebase
      * @param email Email пользователя
      * @param firebaseId ID пользователя в Firebase
-     * @param callback Callback для обработки результата
+     * @return future с ответом сервера; при ошибке завершается IOException
+     *         с сообщением для пользователя. Отмена прекращает запрос и повторы.
      */
-    public void loginFirebaseUser(String email, String firebaseId, UserCallback callback) {
+    public CompletableFuture<ApiResponse> loginFirebaseUser(String email, String firebaseId) {
         Log.d(TAG, "Login Firebase user: email=" + email + ", firebaseId=" + firebaseId);
-        
-        UserLoginRequest request = new UserLoginRequest(email, firebaseId);
-        Call<ApiResponse> call = apiService.loginUser(request);
-        
-        // Добавляем механизм повторных попыток на случай ошибки "unexpected end of stream"
-        final int[] retryCount = {0};
-        final int maxRetries = 3;
-        
-        Callback<ApiResponse> loginCallback = new Callback<ApiResponse>() {
-            @Override
-            public void onResponse(Call<ApiResponse> call, Response<ApiResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse apiResponse = response.body();
-                    Log.d(TAG, "Login success: " + apiResponse.isSuccess());
-                    
-                    if (apiResponse.isSuccess()) {
-                        callback.onSuccess(apiResponse);
-                    } else {
-                        callback.onFailure(apiResponse.getMessage());
-                    }
+        CompletableFuture<ApiResponse> result = new CompletableFuture<>();
+        attemptLogin(new UserLoginRequest(email, firebaseId), result, 0);
+        return result;
+    }
+
+    private void attemptLogin(UserLoginRequest request, CompletableFuture<ApiResponse> result, int retryCount) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<ApiResponse> call = Futures.fromCall(apiService.loginUser(request));
+        // Отмена результата отменяет текущий запрос
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        call.whenComplete((apiResponse, error) -> {
+            if (error == null) {
+                Log.d(TAG, "Login success: " + apiResponse.isSuccess());
+                if (apiResponse.isSuccess()) {
+                    result.complete(apiResponse);
                 } else {
-                    Log.e(TAG, "Login error code: " + response.code());
-                    
-                    // Если мы получили ошибку 401, возможно нужно сбросить клиент и повторить попытку
-                    if (response.code() == 401 && retryCount[0] < maxRetries) {
-                        retryCount[0]++;
-                        Log.d(TAG, "Повторная попытка входа после ошибки авторизации: " + retryCount[0]);
-                        RetrofitClient.resetClient();
-                        apiService.loginUser(request).enqueue(this);
-                    } else {
-                        callback.onFailure("Ошибка сервера: " + response.code());
-                    }
+                    result.completeExceptionally(new IOException(apiResponse.getMessage()));
                 }
+                return;
             }
-            
-            @Override
-            public void onFailure(Call<ApiResponse> call, Throwable t) {
-                Log.e(TAG, "Login network error", t);
-                
+            Throwable cause = Futures.unwrap(error);
+            if (cause instanceof CancellationException) {
+                return;
+            }
+            boolean retryable;
+            String failure;
+            if (cause instanceof Futures.HttpException) {
+                int code = ((Futures.HttpException) cause).getCode();
+                Log.e(TAG, "Login error code: " + code);
+                // Если мы получили ошибку 401, возможно нужно сбросить клиент и повторить попытку
+                retryable = code == 401;
+                failure = "Ошибка сервера: " + code;
+            } else {
+                Log.e(TAG, "Login network error", cause);
                 // Проверяем, является ли ошибка "unexpected end of stream" и повторяем попытку
-                if (t.getMessage() != null && 
-                    (t.getMessage().contains("unexpected end of stream") ||
-                     t.getMessage().contains("timeout") ||
-                     t.getMessage().contains("Connection reset")) && 
-                    retryCount[0] < maxRetries) {
-                    
-                    retryCount[0]++;
-                    Log.d(TAG, "Повторная попытка входа после ошибки сети: " + retryCount[0]);
-                    
-                    // Небольшая задержка перед повторной попыткой
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        Log.e(TAG, "Прервано ожидание перед повторной попыткой", e);
-                    }
-                    
-                    RetrofitClient.resetClient();
-                    apiService.loginUser(request).enqueue(this);
-                } else {
-                    callback.onFailure("Ошибка сети: " + t.getMessage());
-                }
+                String message = cause.getMessage();
+                retryable = message != null && (message.contains("unexpected end of stream")
+                        || message.contains("timeout")
+                        || message.contains("Connection reset"));
+                failure = "Ошибка сети: " + message;
             }
-        };
-        
-        call.enqueue(loginCallback);
+            if (retryable && retryCount < MAX_LOGIN_RETRIES) {
+                Log.d(TAG, "Повторная попытка входа: " + (retryCount + 1));
+                RetrofitClient.resetClient();
+                // Небольшая задержка перед повторной попыткой - без блокировки потока
+                AppExecutors.getInstance().scheduler().schedule(
+                        () -> attemptLogin(request, result, retryCount + 1),
+                        LOGIN_RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+            } else {
+                result.completeExceptionally(new IOException(failure, cause));
+            }
+        });
     }
-} 
\ No newline at end of file
+}
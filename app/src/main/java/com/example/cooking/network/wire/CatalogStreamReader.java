@@ -0,0 +1,99 @@
+package com.example.cooking.network.wire;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.network.json.JsonValues;
+import com.example.cooking.network.responses.RecipesResponse;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+/**
+ * Потоковый разбор ответа GET recipes: рецепты отдаются получателю по одному
+ * прямо из тела ответа, весь каталог в памяти не собирается. Формат (JSON или
+ * CBOR) выбирается по Content-Type, как в {@link WireFormatConverterFactory}.
+ */
+public final class CatalogStreamReader {
+    private static final String TAG = "CatalogStreamReader";
+
+    private CatalogStreamReader() {
+    }
+
+    /**
+     * Прочитать тело ответа. Вызывать в фоновом потоке; тело закрывается.
+     * @param sink получатель рецептов, вызывается в потоке чтения; если success=false
+     *             пришел раньше списка, рецепты в него не передаются
+     * @return конверт ответа (success, count, message) без списка рецептов
+     */
+    public static RecipesResponse read(ResponseBody body, Consumer<Recipe> sink) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        int[] count = {0};
+        Consumer<Recipe> counting = recipe -> {
+            count[0]++;
+            sink.accept(recipe);
+        };
+        RecipesResponse envelope;
+        try (ResponseBody stream = body) {
+            MediaType contentType = stream.contentType();
+            if (contentType != null && "cbor".equals(contentType.subtype())) {
+                envelope = CborRecipeDecoder.readRecipesResponse(new CborReader(stream.source()), counting);
+            } else {
+                envelope = readJson(new JsonReader(stream.charStream()), counting);
+            }
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Некорректный ответ каталога", e);
+        }
+        Log.d(TAG, "Каталог прочитан потоком: " + count[0] + " рецептов за "
+                + (SystemClock.elapsedRealtime() - start) + " мс");
+        return envelope;
+    }
+
+    private static RecipesResponse readJson(JsonReader in, Consumer<Recipe> sink) throws IOException {
+        // API каталога исторически разбирается в нестрогом режиме (Json.lenient)
+        in.setLenient(true);
+        Recipe.GsonAdapter recipeAdapter = new Recipe.GsonAdapter();
+        RecipesResponse envelope = new RecipesResponse();
+        boolean rejected = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "success":
+                    envelope.setSuccess(JsonValues.nextBoolean(in, false));
+                    rejected = !envelope.isSuccess();
+                    break;
+                case "count":
+                    envelope.setCount(JsonValues.nextInt(in, 0));
+                    break;
+                case "message":
+                    envelope.setMessage(JsonValues.nextString(in));
+                    break;
+                case "recipes":
+                    // Рецепты отказа не передаются: получатель пишет их в БД
+                    if (rejected || in.peek() != JsonToken.BEGIN_ARRAY) {
+                        in.skipValue();
+                        break;
+                    }
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        Recipe recipe = recipeAdapter.read(in);
+                        if (recipe != null) {
+                            sink.accept(recipe);
+                        }
+                    }
+                    in.endArray();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return envelope;
+    }
+}
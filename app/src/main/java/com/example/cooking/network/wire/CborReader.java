@@ -0,0 +1,361 @@
+package com.example.cooking.network.wire;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+
+import okio.BufferedSource;
+
+/**
+ * Потоковое чтение CBOR (RFC 8949) в стиле JsonReader: значения читаются по
+ * одному прямо из источника, без промежуточного дерева. Поддерживается то, что
+ * встречается в ответах каталога: числа, строки, массивы и словари (включая
+ * неопределенной длины), true/false/null, float16/32/64. Теги пропускаются.
+ */
+public final class CborReader {
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int MAJOR_TAG = 6;
+    private static final int MAJOR_SIMPLE = 7;
+
+    private static final int INFO_INDEFINITE = 31;
+    private static final int SIMPLE_FALSE = 20;
+    private static final int SIMPLE_TRUE = 21;
+    private static final int SIMPLE_NULL = 22;
+    private static final int SIMPLE_UNDEFINED = 23;
+    private static final int BREAK = 0xFF;
+    // Глубже ответы каталога не бывают; защита от испорченного потока
+    private static final int MAX_DEPTH = 32;
+
+    private final BufferedSource source;
+    // Сколько элементов осталось в открытых контейнерах; -1 - до BREAK
+    private final long[] remaining = new long[MAX_DEPTH];
+    private int depth;
+
+    public CborReader(BufferedSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Начать словарь. Ключи и значения читаются по очереди до {@link #hasNext()} == false
+     */
+    public void beginMap() throws IOException {
+        push(MAJOR_MAP, 2);
+    }
+
+    public void endMap() throws IOException {
+        pop();
+    }
+
+    public void beginArray() throws IOException {
+        push(MAJOR_ARRAY, 1);
+    }
+
+    public void endArray() throws IOException {
+        pop();
+    }
+
+    /**
+     * Есть ли еще элементы в текущем контейнере
+     */
+    public boolean hasNext() throws IOException {
+        long left = remaining[depth - 1];
+        if (left >= 0) {
+            return left > 0;
+        }
+        return peekByte() != BREAK;
+    }
+
+    public boolean isMap() throws IOException {
+        return peekMajor() == MAJOR_MAP;
+    }
+
+    public boolean isArray() throws IOException {
+        return peekMajor() == MAJOR_ARRAY;
+    }
+
+    public boolean isText() throws IOException {
+        return peekMajor() == MAJOR_TEXT;
+    }
+
+    /**
+     * Следующее значение - null или undefined. Значение не поглощается
+     */
+    public boolean isNull() throws IOException {
+        int b = peekInitial();
+        return b == ((MAJOR_SIMPLE << 5) | SIMPLE_NULL) || b == ((MAJOR_SIMPLE << 5) | SIMPLE_UNDEFINED);
+    }
+
+    public void nextNull() throws IOException {
+        if (!isNull()) {
+            throw unexpected("null");
+        }
+        consumeItem();
+        source.readByte();
+    }
+
+    /**
+     * Прочитать строку. null дает null, число - его запись
+     */
+    public String nextString() throws IOException {
+        int major = peekMajor();
+        if (major == MAJOR_TEXT) {
+            consumeItem();
+            int info = source.readByte() & 0x1F;
+            if (info != INFO_INDEFINITE) {
+                return source.readUtf8(readArgument(info));
+            }
+            StringBuilder sb = new StringBuilder();
+            while (peekByte() != BREAK) {
+                int chunk = source.readByte() & 0xFF;
+                if (chunk >>> 5 != MAJOR_TEXT || (chunk & 0x1F) == INFO_INDEFINITE) {
+                    throw new ProtocolException("Некорректный фрагмент строки CBOR");
+                }
+                sb.append(source.readUtf8(readArgument(chunk & 0x1F)));
+            }
+            source.readByte();
+            return sb.toString();
+        }
+        if (isNull()) {
+            nextNull();
+            return null;
+        }
+        if (major == MAJOR_UNSIGNED || major == MAJOR_NEGATIVE) {
+            return Long.toString(nextLong());
+        }
+        if (major == MAJOR_SIMPLE) {
+            double value = nextDouble();
+            return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+        }
+        throw unexpected("строка");
+    }
+
+    /**
+     * Прочитать целое; дробное число округляется вниз, строка разбирается
+     */
+    public long nextLong() throws IOException {
+        int major = peekMajor();
+        if (major == MAJOR_UNSIGNED || major == MAJOR_NEGATIVE) {
+            consumeItem();
+            long value = readArgument(source.readByte() & 0x1F);
+            return major == MAJOR_UNSIGNED ? value : -1 - value;
+        }
+        if (major == MAJOR_SIMPLE) {
+            return (long) nextDouble();
+        }
+        if (major == MAJOR_TEXT) {
+            String text = nextString();
+            try {
+                return (long) Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Ожидалось число, получено \"" + text + "\"");
+            }
+        }
+        throw unexpected("число");
+    }
+
+    public double nextDouble() throws IOException {
+        int major = peekMajor();
+        if (major == MAJOR_UNSIGNED || major == MAJOR_NEGATIVE) {
+            return nextLong();
+        }
+        if (major == MAJOR_TEXT) {
+            String text = nextString();
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Ожидалось число, получено \"" + text + "\"");
+            }
+        }
+        if (major != MAJOR_SIMPLE) {
+            throw unexpected("число");
+        }
+        int info = peekInitial() & 0x1F;
+        switch (info) {
+            case 25:
+                consumeItem();
+                source.readByte();
+                return halfToFloat(source.readShort() & 0xFFFF);
+            case 26:
+                consumeItem();
+                source.readByte();
+                return Float.intBitsToFloat(source.readInt());
+            case 27:
+                consumeItem();
+                source.readByte();
+                return Double.longBitsToDouble(source.readLong());
+            default:
+                throw unexpected("число");
+        }
+    }
+
+    /**
+     * Прочитать логическое значение; число считается true, если не равно 0
+     */
+    public boolean nextBoolean() throws IOException {
+        int b = peekInitial();
+        if (b == ((MAJOR_SIMPLE << 5) | SIMPLE_TRUE) || b == ((MAJOR_SIMPLE << 5) | SIMPLE_FALSE)) {
+            consumeItem();
+            source.readByte();
+            return b == ((MAJOR_SIMPLE << 5) | SIMPLE_TRUE);
+        }
+        int major = b >>> 5;
+        if (major == MAJOR_UNSIGNED || major == MAJOR_NEGATIVE) {
+            return nextLong() != 0;
+        }
+        if (major == MAJOR_TEXT) {
+            return Boolean.parseBoolean(nextString());
+        }
+        throw unexpected("логическое значение");
+    }
+
+    /**
+     * Пропустить значение целиком, включая вложенные контейнеры
+     */
+    public void skipValue() throws IOException {
+        int major = peekMajor();
+        switch (major) {
+            case MAJOR_ARRAY:
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                return;
+            case MAJOR_MAP:
+                beginMap();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endMap();
+                return;
+            case MAJOR_BYTES:
+            case MAJOR_TEXT: {
+                consumeItem();
+                int info = source.readByte() & 0x1F;
+                if (info != INFO_INDEFINITE) {
+                    source.skip(readArgument(info));
+                    return;
+                }
+                while (peekByte() != BREAK) {
+                    source.skip(readArgument(source.readByte() & 0x1F));
+                }
+                source.readByte();
+                return;
+            }
+            default: {
+                consumeItem();
+                int info = source.readByte() & 0x1F;
+                if (info >= 24 && info <= 27) {
+                    source.skip(1L << (info - 24));
+                }
+            }
+        }
+    }
+
+    private void push(int major, int itemsPerEntry) throws IOException {
+        if (peekMajor() != major) {
+            throw unexpected(major == MAJOR_MAP ? "словарь" : "массив");
+        }
+        if (depth == MAX_DEPTH) {
+            throw new ProtocolException("Слишком глубокая вложенность CBOR");
+        }
+        consumeItem();
+        int info = source.readByte() & 0x1F;
+        remaining[depth++] = info == INFO_INDEFINITE ? -1 : readArgument(info) * itemsPerEntry;
+    }
+
+    private void pop() throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("Нет открытого контейнера");
+        }
+        long left = remaining[--depth];
+        if (left > 0) {
+            throw new ProtocolException("Контейнер CBOR прочитан не полностью");
+        }
+        if (left < 0 && (source.readByte() & 0xFF) != BREAK) {
+            throw new ProtocolException("Ожидался конец контейнера CBOR");
+        }
+    }
+
+    /**
+     * Учесть очередной элемент в текущем контейнере
+     */
+    private void consumeItem() {
+        if (depth > 0 && remaining[depth - 1] > 0) {
+            remaining[depth - 1]--;
+        }
+    }
+
+    /**
+     * Начальный байт следующего значения; теги перед ним пропускаются
+     */
+    private int peekInitial() throws IOException {
+        int b = peekByte();
+        while (b >>> 5 == MAJOR_TAG) {
+            source.readByte();
+            readArgument(b & 0x1F);
+            b = peekByte();
+        }
+        return b;
+    }
+
+    private int peekMajor() throws IOException {
+        return peekInitial() >>> 5;
+    }
+
+    private int peekByte() throws IOException {
+        source.require(1);
+        return source.getBuffer().getByte(0) & 0xFF;
+    }
+
+    private long readArgument(int info) throws IOException {
+        if (info < 24) {
+            return info;
+        }
+        long value;
+        switch (info) {
+            case 24:
+                value = source.readByte() & 0xFFL;
+                break;
+            case 25:
+                value = source.readShort() & 0xFFFFL;
+                break;
+            case 26:
+                value = source.readInt() & 0xFFFFFFFFL;
+                break;
+            case 27:
+                value = source.readLong();
+                break;
+            default:
+                throw new ProtocolException("Некорректный аргумент CBOR: " + info);
+        }
+        if (value < 0) {
+            throw new ProtocolException("Слишком большое значение CBOR");
+        }
+        return value;
+    }
+
+    private ProtocolException unexpected(String expected) throws IOException {
+        return new ProtocolException("Ожидалось " + expected + ", получен байт CBOR 0x"
+                + Integer.toHexString(peekByte()));
+    }
+
+    private static float halfToFloat(int half) {
+        int exponent = (half >>> 10) & 0x1F;
+        int mantissa = half & 0x3FF;
+        float value;
+        if (exponent == 0) {
+            value = mantissa * 0x1p-24f;
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        } else {
+            value = (1 + mantissa / 1024f) * (float) Math.pow(2, exponent - 15);
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+}
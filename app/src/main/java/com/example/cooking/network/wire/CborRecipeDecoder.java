@@ -0,0 +1,246 @@
+package com.example.cooking.network.wire;
+
+import androidx.annotation.Nullable;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.Recipe.Step;
+import com.example.cooking.data.database.converters.RecipeListCodec;
+import com.example.cooking.network.responses.RecipesResponse;
+import com.example.cooking.network.responses.SearchResponse;
+import com.example.cooking.utils.DominantColor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Разбор ответов каталога и поиска из CBOR. Ключи те же, что в JSON
+ * (см. Recipe.GsonAdapter), поэтому серверу достаточно сменить кодировщик.
+ * Объекты заполняются сразу при чтении, без промежуточных словарей.
+ */
+final class CborRecipeDecoder {
+
+    private CborRecipeDecoder() {
+    }
+
+    static RecipesResponse readRecipesResponse(CborReader in) throws IOException {
+        return readRecipesResponse(in, null);
+    }
+
+    /**
+     * @param sink если задан, рецепты отдаются в него по одному и в ответ не попадают;
+     *             после success=false рецепты в него не отдаются
+     */
+    static RecipesResponse readRecipesResponse(CborReader in, @Nullable Consumer<Recipe> sink) throws IOException {
+        RecipesResponse response = new RecipesResponse();
+        boolean rejected = false;
+        in.beginMap();
+        while (in.hasNext()) {
+            String name = in.nextString();
+            if (in.isNull()) {
+                in.nextNull();
+                continue;
+            }
+            switch (name == null ? "" : name) {
+                case "success":
+                    response.setSuccess(in.nextBoolean());
+                    rejected = !response.isSuccess();
+                    break;
+                case "recipes":
+                    if (sink != null && rejected) {
+                        // Рецепты отказа получателю не передаются
+                        in.skipValue();
+                    } else if (sink != null) {
+                        readRecipes(in, sink);
+                    } else {
+                        List<Recipe> recipes = new ArrayList<>();
+                        readRecipes(in, recipes::add);
+                        response.setRecipes(recipes);
+                    }
+                    break;
+                case "count":
+                    response.setCount((int) in.nextLong());
+                    break;
+                case "message":
+                    response.setMessage(in.nextString());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endMap();
+        return response;
+    }
+
+    static SearchResponse readSearchResponse(CborReader in) throws IOException {
+        SearchResponse response = new SearchResponse();
+        in.beginMap();
+        while (in.hasNext()) {
+            String name = in.nextString();
+            if ("status".equals(name)) {
+                response.setStatus(in.nextString());
+            } else if ("data".equals(name) && in.isMap()) {
+                SearchResponse.Data data = new SearchResponse.Data();
+                in.beginMap();
+                while (in.hasNext()) {
+                    if ("results".equals(in.nextString()) && in.isArray()) {
+                        List<Recipe> results = new ArrayList<>();
+                        readRecipes(in, results::add);
+                        data.setResults(results);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endMap();
+                response.setData(data);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endMap();
+        return response;
+    }
+
+    private static void readRecipes(CborReader in, Consumer<Recipe> sink) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.isNull()) {
+                in.nextNull();
+            } else {
+                sink.accept(readRecipe(in));
+            }
+        }
+        in.endArray();
+    }
+
+    private static Recipe readRecipe(CborReader in) throws IOException {
+        Recipe recipe = new Recipe();
+        in.beginMap();
+        while (in.hasNext()) {
+            String name = in.nextString();
+            if (in.isNull()) {
+                in.nextNull();
+                continue;
+            }
+            switch (name == null ? "" : name) {
+                case "id":
+                    recipe.setId((int) in.nextLong());
+                    break;
+                case "title":
+                    recipe.setTitle(in.nextString());
+                    break;
+                case "created_at":
+                    recipe.setCreated_at(in.nextString());
+                    break;
+                case "userId":
+                    recipe.setUserId(in.nextString());
+                    break;
+                case "isLiked":
+                    recipe.setLiked(in.nextBoolean());
+                    break;
+                case "ingredients":
+                    recipe.setIngredients(in.isText()
+                            ? new ArrayList<>(RecipeListCodec.ingredientsFromJson(in.nextString()))
+                            : readIngredients(in));
+                    break;
+                case "instructions":
+                    recipe.setSteps(in.isText()
+                            ? new ArrayList<>(RecipeListCodec.stepsFromJson(in.nextString()))
+                            : readSteps(in));
+                    break;
+                case "meal_type":
+                    recipe.setMealType(in.nextString());
+                    break;
+                case "food_type":
+                    recipe.setFoodType(in.nextString());
+                    break;
+                case "photo":
+                    recipe.setPhoto_url(in.nextString());
+                    break;
+                case "placeholder_color":
+                    if (in.isText()) {
+                        recipe.setPlaceholderColor(DominantColor.parse(in.nextString()));
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endMap();
+        return recipe;
+    }
+
+    private static ArrayList<Ingredient> readIngredients(CborReader in) throws IOException {
+        ArrayList<Ingredient> ingredients = new ArrayList<>();
+        if (!in.isArray()) {
+            in.skipValue();
+            return ingredients;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            if (!in.isMap()) {
+                in.skipValue();
+                continue;
+            }
+            Ingredient ingredient = new Ingredient();
+            in.beginMap();
+            while (in.hasNext()) {
+                String name = in.nextString();
+                if (in.isNull()) {
+                    in.nextNull();
+                } else if ("name".equals(name)) {
+                    ingredient.setName(in.nextString());
+                } else if ("count".equals(name)) {
+                    ingredient.setCount((int) in.nextDouble());
+                } else if ("type".equals(name)) {
+                    ingredient.setType(in.nextString());
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endMap();
+            ingredients.add(ingredient);
+        }
+        in.endArray();
+        return ingredients;
+    }
+
+    private static ArrayList<Step> readSteps(CborReader in) throws IOException {
+        ArrayList<Step> steps = new ArrayList<>();
+        if (!in.isArray()) {
+            in.skipValue();
+            return steps;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            if (!in.isMap()) {
+                in.skipValue();
+                continue;
+            }
+            Step step = new Step();
+            in.beginMap();
+            while (in.hasNext()) {
+                String name = in.nextString();
+                if (in.isNull()) {
+                    in.nextNull();
+                } else if ("number".equals(name)) {
+                    step.setNumber((int) in.nextLong());
+                } else if ("instruction".equals(name)) {
+                    step.setInstruction(in.nextString());
+                } else if ("url".equals(name)) {
+                    step.setUrl(in.nextString());
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endMap();
+            steps.add(step);
+        }
+        in.endArray();
+        return steps;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.cooking.network.wire;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.cooking.network.responses.RecipesResponse;
+import com.example.cooking.network.responses.SearchResponse;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Выбор формата ответа каталога и поиска по Content-Type.
+ * Запросы с {@link #ACCEPT_BINARY} просят у сервера CBOR, а JSON оставляют
+ * запасным вариантом; сервер без поддержки CBOR просто отвечает JSON, и такой
+ * ответ уходит следующему конвертеру (Gson). Регистрировать до GsonConverterFactory.
+ */
+public final class WireFormatConverterFactory extends Converter.Factory {
+    private static final String TAG = "WireFormat";
+
+    /**
+     * Заголовок для @Headers методов, которые умеют принимать CBOR
+     */
+    public static final String ACCEPT_BINARY = "Accept: application/cbor, application/json;q=0.9";
+
+    public static WireFormatConverterFactory create() {
+        return new WireFormatConverterFactory();
+    }
+
+    private WireFormatConverterFactory() {
+    }
+
+    @Nullable
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        if (type != RecipesResponse.class && type != SearchResponse.class) {
+            return null;
+        }
+        Converter<ResponseBody, ?> fallback = retrofit.nextResponseBodyConverter(this, type, annotations);
+        boolean search = type == SearchResponse.class;
+        return body -> {
+            if (!isCbor(body.contentType())) {
+                return fallback.convert(body);
+            }
+            try (ResponseBody cbor = body) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                CborReader reader = new CborReader(cbor.source());
+                Object result = search
+                        ? CborRecipeDecoder.readSearchResponse(reader)
+                        : CborRecipeDecoder.readRecipesResponse(reader);
+                Log.d(TAG, "CBOR " + cbor.contentLength() + " байт разобран за "
+                        + (SystemClock.elapsedRealtimeNanos() - start) / 1000 + " мкс");
+                return result;
+            } catch (IllegalStateException e) {
+                throw new IOException("Некорректный CBOR ответ", e);
+            }
+        };
+    }
+
+    private static boolean isCbor(@Nullable MediaType contentType) {
+        return contentType != null
+                && "application".equals(contentType.type())
+                && "cbor".equals(contentType.subtype());
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.cooking.startup;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.cooking.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Граф инициализации приложения.
+ * Шаги регистрируются в Application.onCreate() и выполняются по фазам:
+ * BEFORE_FIRST_FRAME - сразу и синхронно, AFTER_FIRST_FRAME - в фоне после
+ * первого кадра первой Activity, ON_DEMAND - при первом ensureInitialized().
+ * Зависимости шага всегда выполняются раньше него, каждый шаг - один раз.
+ * Время каждого шага попадает в {@link StartupReport}.
+ */
+public final class AppStartup {
+    private static final String TAG = "AppStartup";
+
+    private static volatile AppStartup instance;
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final List<StartupReport.Step> steps = Collections.synchronizedList(new ArrayList<>());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private volatile Context context;
+    private volatile List<Node> order = Collections.emptyList();
+    private volatile long applicationCreateMs;
+    private volatile long firstFrameOffsetMs = -1;
+
+    private static final class Node {
+        final Initializer initializer;
+        volatile boolean done;
+
+        Node(Initializer initializer) {
+            this.initializer = initializer;
+        }
+    }
+
+    public static AppStartup getInstance() {
+        if (instance == null) {
+            synchronized (AppStartup.class) {
+                if (instance == null) {
+                    instance = new AppStartup();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private AppStartup() {
+    }
+
+    /**
+     * Зарегистрировать шаги. Вызывать до start()
+     */
+    public synchronized AppStartup register(Initializer... initializers) {
+        if (context != null) {
+            throw new IllegalStateException("Шаги запуска нужно регистрировать до start()");
+        }
+        for (Initializer initializer : initializers) {
+            if (nodes.put(initializer.getName(), new Node(initializer)) != null) {
+                throw new IllegalStateException("Шаг запуска зарегистрирован дважды: " + initializer.getName());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Проверить граф, выполнить шаги BEFORE_FIRST_FRAME и дождаться первого кадра
+     * для шагов AFTER_FIRST_FRAME. Вызывать из Application.onCreate()
+     */
+    public synchronized void start(Application application) {
+        if (context != null) {
+            return;
+        }
+        order = sortAndValidate();
+        context = application;
+
+        long start = SystemClock.uptimeMillis();
+        for (Node node : order) {
+            if (node.initializer.getPhase() == StartupPhase.BEFORE_FIRST_FRAME) {
+                run(node);
+            }
+        }
+        applicationCreateMs = SystemClock.uptimeMillis() - start;
+        Log.d(TAG, "Шаги до первого кадра выполнены за " + applicationCreateMs + " мс");
+
+        application.registerActivityLifecycleCallbacks(new FirstFrameWatcher(application));
+    }
+
+    /**
+     * Выполнить шаг (и его зависимости), если он еще не выполнен.
+     * Блокирует вызывающий поток на время инициализации.
+     */
+    public void ensureInitialized(String name) {
+        Node node;
+        synchronized (this) {
+            if (context == null) {
+                throw new IllegalStateException("AppStartup.start() еще не вызван");
+            }
+            node = nodes.get(name);
+        }
+        if (node == null) {
+            throw new IllegalArgumentException("Неизвестный шаг запуска: " + name);
+        }
+        run(node);
+    }
+
+    public boolean isInitialized(String name) {
+        Node node;
+        synchronized (this) {
+            node = nodes.get(name);
+        }
+        return node != null && node.done;
+    }
+
+    public StartupReport getReport() {
+        List<StartupReport.Step> snapshot;
+        synchronized (steps) {
+            snapshot = new ArrayList<>(steps);
+        }
+        return new StartupReport(snapshot, applicationCreateMs, firstFrameOffsetMs);
+    }
+
+    public void logReport() {
+        Log.i(TAG, getReport().toString());
+    }
+
+    private void run(Node node) {
+        if (node.done) {
+            return;
+        }
+        for (String dependency : node.initializer.getDependencies()) {
+            run(nodes.get(dependency));
+        }
+        synchronized (node) {
+            if (node.done) {
+                return;
+            }
+            Initializer initializer = node.initializer;
+            long startOffset = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+            long startNanos = System.nanoTime();
+            boolean failed = true;
+            try {
+                initializer.initialize(context);
+                failed = false;
+                node.done = true;
+            } finally {
+                long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+                steps.add(new StartupReport.Step(initializer.getName(), initializer.getPhase(),
+                        Thread.currentThread().getName(), startOffset, durationMs, failed));
+                Log.d(TAG, initializer.getName() + ": " + durationMs + " мс" + (failed ? " (ошибка)" : ""));
+            }
+        }
+    }
+
+    private void onFirstFrame() {
+        firstFrameOffsetMs = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        Log.d(TAG, "Первый кадр через " + firstFrameOffsetMs + " мс после старта процесса");
+        AppExecutors.getInstance().diskRead().execute(() -> {
+            for (Node node : order) {
+                if (node.initializer.getPhase() != StartupPhase.AFTER_FIRST_FRAME) {
+                    continue;
+                }
+                try {
+                    run(node);
+                } catch (RuntimeException e) {
+                    // Отложенный шаг не должен ронять приложение, которое уже работает
+                    Log.e(TAG, "Ошибка шага запуска " + node.initializer.getName(), e);
+                }
+            }
+            logReport();
+        });
+    }
+
+    /**
+     * Топологическая сортировка с проверкой неизвестных зависимостей, циклов
+     * и фаз: шаг до первого кадра не может зависеть от отложенного шага
+     */
+    private List<Node> sortAndValidate() {
+        List<Node> sorted = new ArrayList<>(nodes.size());
+        Map<Node, Boolean> visiting = new HashMap<>();
+        for (Node node : nodes.values()) {
+            visit(node, visiting, sorted);
+        }
+        return sorted;
+    }
+
+    private void visit(Node node, Map<Node, Boolean> visiting, List<Node> sorted) {
+        Boolean state = visiting.get(node);
+        if (Boolean.FALSE.equals(state)) {
+            return;
+        }
+        if (Boolean.TRUE.equals(state)) {
+            throw new IllegalStateException("Циклическая зависимость шагов запуска: " + node.initializer.getName());
+        }
+        visiting.put(node, true);
+        for (String dependencyName : node.initializer.getDependencies()) {
+            Node dependency = nodes.get(dependencyName);
+            if (dependency == null) {
+                throw new IllegalStateException("Шаг " + node.initializer.getName()
+                        + " зависит от незарегистрированного шага " + dependencyName);
+            }
+            if (node.initializer.getPhase() == StartupPhase.BEFORE_FIRST_FRAME
+                    && dependency.initializer.getPhase() != StartupPhase.BEFORE_FIRST_FRAME) {
+                throw new IllegalStateException("Шаг " + node.initializer.getName()
+                        + " до первого кадра зависит от отложенного шага " + dependencyName);
+            }
+            visit(dependency, visiting, sorted);
+        }
+        visiting.put(node, false);
+        sorted.add(node);
+    }
+
+    /**
+     * Ждет первого кадра первой показанной Activity.
+     * Кадр начинается в колбэке Choreographer, а отрисовка заканчивается до
+     * следующего сообщения главного потока - поэтому onFirstFrame ставится через post.
+     */
+    private final class FirstFrameWatcher implements Application.ActivityLifecycleCallbacks {
+        private final Application application;
+
+        FirstFrameWatcher(Application application) {
+            this.application = application;
+        }
+
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+            application.unregisterActivityLifecycleCallbacks(this);
+            Choreographer.getInstance().postFrameCallback(frameTimeNanos -> mainHandler.post(AppStartup.this::onFirstFrame));
+        }
+
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+}
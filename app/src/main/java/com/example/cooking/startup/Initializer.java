@@ -0,0 +1,33 @@
+package com.example.cooking.startup;
+
+import android.content.Context;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Шаг инициализации приложения.
+ * Шаг объявляет свое имя, фазу запуска и имена шагов, которые должны
+ * выполниться раньше него. AppStartup выполняет каждый шаг ровно один раз.
+ */
+public interface Initializer {
+
+    /**
+     * Уникальное имя шага; на него ссылаются зависимости и отчет о запуске
+     */
+    String getName();
+
+    StartupPhase getPhase();
+
+    /**
+     * Имена шагов, которые должны быть выполнены до этого
+     */
+    default List<String> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param context контекст приложения
+     */
+    void initialize(Context context);
+}
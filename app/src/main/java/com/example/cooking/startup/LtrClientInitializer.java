@@ -0,0 +1,34 @@
+package com.example.cooking.startup;
+
+import android.content.Context;
+
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.ltr.config.LTRServerConfig;
+
+/**
+ * Настраивает клиент Learning to Rank и отправляет накопленные события.
+ * Первому экрану клиент не нужен, поэтому шаг выполняется после первого кадра.
+ */
+public class LtrClientInitializer implements Initializer {
+    public static final String NAME = "ltr-client";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public StartupPhase getPhase() {
+        return StartupPhase.AFTER_FIRST_FRAME;
+    }
+
+    @Override
+    public void initialize(Context context) {
+        // Инициализация LTR клиента с использованием настроек из конфигурации
+        AppContainer.getInstance(context).ltrClient()
+                .setServerUrl(LTRServerConfig.BASE_URL)
+                .setApiKey(LTRServerConfig.API_KEY)
+                .enablePersonalization(true)
+                .initialize();
+    }
+}
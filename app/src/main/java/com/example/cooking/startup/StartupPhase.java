@@ -0,0 +1,23 @@
+package com.example.cooking.startup;
+
+/**
+ * Когда выполняется шаг инициализации приложения
+ */
+public enum StartupPhase {
+    /**
+     * Синхронно в Application.onCreate() на главном потоке - только то,
+     * без чего первый экран не может отрисоваться (например, тема)
+     */
+    BEFORE_FIRST_FRAME,
+
+    /**
+     * В фоновом потоке после отрисовки первого кадра первой Activity
+     */
+    AFTER_FIRST_FRAME,
+
+    /**
+     * Только при первом обращении через AppStartup.ensureInitialized(),
+     * в потоке вызывающего
+     */
+    ON_DEMAND
+}
@@ -0,0 +1,94 @@
+package com.example.cooking.startup;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Отчет о запуске приложения: время каждого шага и момент первого кадра.
+ * Смещения отсчитываются от старта процесса (Process.getStartUptimeMillis).
+ */
+public final class StartupReport {
+
+    /**
+     * Выполненный шаг инициализации
+     */
+    public static final class Step {
+        public final String name;
+        public final StartupPhase phase;
+        public final String thread;
+        public final long startOffsetMs;
+        public final long durationMs;
+        public final boolean failed;
+
+        Step(String name, StartupPhase phase, String thread, long startOffsetMs, long durationMs, boolean failed) {
+            this.name = name;
+            this.phase = phase;
+            this.thread = thread;
+            this.startOffsetMs = startOffsetMs;
+            this.durationMs = durationMs;
+            this.failed = failed;
+        }
+    }
+
+    private final List<Step> steps;
+    private final long applicationCreateMs;
+    private final long firstFrameOffsetMs;
+
+    StartupReport(List<Step> steps, long applicationCreateMs, long firstFrameOffsetMs) {
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+        this.applicationCreateMs = applicationCreateMs;
+        this.firstFrameOffsetMs = firstFrameOffsetMs;
+    }
+
+    /**
+     * Шаги в порядке завершения
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Сколько заняли шаги BEFORE_FIRST_FRAME внутри Application.onCreate()
+     */
+    public long getApplicationCreateMs() {
+        return applicationCreateMs;
+    }
+
+    /**
+     * Момент первого кадра от старта процесса или -1, если кадра еще не было
+     */
+    public long getFirstFrameOffsetMs() {
+        return firstFrameOffsetMs;
+    }
+
+    /**
+     * Суммарное время шагов указанной фазы
+     */
+    public long getTotalMs(StartupPhase phase) {
+        long total = 0;
+        for (Step step : steps) {
+            if (step.phase == phase) {
+                total += step.durationMs;
+            }
+        }
+        return total;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "Запуск: onCreate %d мс, первый кадр через %d мс после старта процесса",
+                applicationCreateMs, firstFrameOffsetMs));
+        for (Step step : steps) {
+            sb.append(String.format(Locale.US, "%n  %-16s %-18s +%5d мс  %4d мс  [%s]%s",
+                    step.name, step.phase, step.startOffsetMs, step.durationMs, step.thread,
+                    step.failed ? " ОШИБКА" : ""));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.cooking.startup;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.preference.PreferenceManager;
+
+import com.example.cooking.utils.ThemeUtils;
+
+/**
+ * Применяет сохраненную тему. Должна быть выставлена до создания первой
+ * Activity, иначе экран отрисуется в неверной теме и пересоздастся.
+ */
+public class ThemeInitializer implements Initializer {
+    public static final String NAME = "theme";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public StartupPhase getPhase() {
+        return StartupPhase.BEFORE_FIRST_FRAME;
+    }
+
+    @Override
+    public void initialize(Context context) {
+        // Получаем доступ к SharedPreferences
+        SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(context);
+
+        // Читаем сохраненное значение темы (по умолчанию - "system")
+        String themeValue = sharedPreferences.getString("theme", "system");
+
+        // Применяем сохраненную тему
+        ThemeUtils.applyTheme(themeValue);
+    }
+}
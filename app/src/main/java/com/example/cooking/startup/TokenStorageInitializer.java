@@ -0,0 +1,29 @@
+package com.example.cooking.startup;
+
+import android.content.Context;
+
+import com.example.cooking.auth.TokenStorage;
+
+/**
+ * Заранее открывает зашифрованное хранилище токенов (Android Keystore +
+ * EncryptedSharedPreferences). Если токен понадобится раньше, TokenStorage
+ * создаст хранилище сам при первом обращении.
+ */
+public class TokenStorageInitializer implements Initializer {
+    public static final String NAME = "token-storage";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public StartupPhase getPhase() {
+        return StartupPhase.AFTER_FIRST_FRAME;
+    }
+
+    @Override
+    public void initialize(Context context) {
+        TokenStorage.preload();
+    }
+}
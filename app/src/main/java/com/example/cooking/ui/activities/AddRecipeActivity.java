@@ -175,7 +175,7 @@ public class AddRecipeActivity extends AppCompatActivity implements
         // Наблюдаем за успешным сохранением
         viewModel.getSaveSuccess().observe(this, success -> {
             if (success != null && success) {
-                Toast.makeText(this, "Рецепт успешно сохранен", Toast.LENGTH_LONG).show();
+                Toast.makeText(this, "Рецепт сохранен и будет отправлен при наличии сети", Toast.LENGTH_LONG).show();
                 setResult(RESULT_OK);
                 finish();
             }
@@ -222,6 +222,16 @@ public class AddRecipeActivity extends AppCompatActivity implements
             }
         });
         
+        // Наблюдаем за прогрессом подготовки изображения
+        viewModel.getImageProgress().observe(this, percent -> {
+            if (percent != null) {
+                textImageView.setTextColor(ContextCompat.getColor(this, android.R.color.black));
+                textImageView.setText("Обработка изображения: " + percent + "%");
+            } else if (viewModel.getImageError().getValue() == null) {
+                textImageView.setText(viewModel.hasImage() ? "Изображение выбрано" : "Выберите изображение*");
+            }
+        });
+
         // Наблюдаем за списком ингредиентов
         viewModel.getIngredients().observe(this, ingredients -> {
             Log.d(TAG, "Список ингредиентов обновлен, количество: " + (ingredients != null ? ingredients.size() : 0));
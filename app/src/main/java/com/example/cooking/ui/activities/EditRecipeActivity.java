@@ -5,8 +5,6 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.res.ColorStateList;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
@@ -113,10 +111,6 @@ public class EditRecipeActivity extends AppCompatActivity {
         
         viewModel.setRecipeData(recipeToEdit);
         
-        if (recipeToEdit.getPhoto_url() != null && !recipeToEdit.getPhoto_url().isEmpty()) {
-            viewModel.loadImageFromUrl(recipeToEdit.getPhoto_url());
-        }
-        
         setupObservers();
         setupEventListeners();
         saveButton.setText("Сохранить изменения");
@@ -173,17 +167,17 @@ public class EditRecipeActivity extends AppCompatActivity {
             }
         });
         
+        // Исходное фото показываем по URL через Glide, не скачивая его в память
         viewModel.getPhotoUrl().observe(this, url -> {
-            if (url != null && !url.isEmpty() && viewModel.getImageBytes().getValue() == null) {
+            if (url != null && !url.isEmpty() && viewModel.getImageFile().getValue() == null) {
                 Glide.with(this).load(url).into(recipeImageView);
                 textImage.setText("Изображение загружено");
             }
         });
         
-        viewModel.getImageBytes().observe(this, bytes -> {
-            if (bytes != null && bytes.length > 0) {
-                Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-                recipeImageView.setImageBitmap(bitmap);
+        viewModel.getImageFile().observe(this, file -> {
+            if (file != null && file.length() > 0) {
+                Glide.with(this).load(file).into(recipeImageView);
                 textImage.setText("Изображение загружено");
             } else if (viewModel.getPhotoUrl().getValue() == null || viewModel.getPhotoUrl().getValue().isEmpty()){
                 recipeImageView.setImageResource(R.drawable.placeholder_image);
@@ -199,6 +193,9 @@ public class EditRecipeActivity extends AppCompatActivity {
             addStepButton.setEnabled(!isSaving);
             recipeImageView.setEnabled(!isSaving);
         });
+        
+        viewModel.getUploadProgress().observe(this, percent ->
+                saveButton.setText(percent != null ? "Отправка фото: " + percent + "%" : "Сохранить изменения"));
 
         viewModel.getSaveResult().observe(this, result -> {
             if (result != null) {
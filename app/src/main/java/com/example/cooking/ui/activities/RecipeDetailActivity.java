@@ -23,6 +23,7 @@ import com.example.cooking.R;
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.ui.adapters.StepAdapter;
 import com.example.cooking.ui.adapters.IngredientViewAdapter;
+import com.example.cooking.ui.images.RecipeImages;
 import com.example.cooking.ui.viewmodels.RecipeDetailViewModel;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.imageview.ShapeableImageView;
@@ -155,9 +156,7 @@ public class RecipeDetailActivity extends AppCompatActivity {
         updateLikeButton(currentRecipe.isLiked());
         if (recipeImageView != null && currentRecipe != null && currentRecipe.getPhoto_url() != null && !currentRecipe.getPhoto_url().isEmpty()) {
             Log.d(TAG, "onCreate: Загрузка изображения Glide: " + currentRecipe.getPhoto_url());
-            Glide.with(this)
-                 .load(currentRecipe.getPhoto_url())
-                 .placeholder(R.drawable.placeholder_image)
+            RecipeImages.photo(Glide.with(this), currentRecipe, R.drawable.placeholder_image)
                  .error(R.drawable.error_image)
                  .into(recipeImageView);
         } else {
@@ -233,6 +232,7 @@ public class RecipeDetailActivity extends AppCompatActivity {
             if (recipeFromVm != null) {
                 Log.d(TAG, "Получен обновленный рецепт из ViewModel. Шагов: " + (recipeFromVm.getSteps() != null ? recipeFromVm.getSteps().size() : "null"));
                 currentRecipe = recipeFromVm; // Обновляем текущий рецепт
+                recipeId = recipeFromVm.getId(); // ID мог смениться после отправки рецепта на сервер
                 updateUI(currentRecipe); // Обновляем весь UI свежими данными
             } else {
                 Log.w(TAG, "ViewModel вернул null Recipe объект.");
@@ -308,9 +308,7 @@ public class RecipeDetailActivity extends AppCompatActivity {
 
         if (recipeImageView != null && recipe.getPhoto_url() != null && !recipe.getPhoto_url().isEmpty()) {
              Log.d(TAG, "updateUI: Загрузка изображения Glide: " + recipe.getPhoto_url());
-             Glide.with(this)
-                  .load(recipe.getPhoto_url())
-                  .placeholder(R.drawable.placeholder_image)
+             RecipeImages.photo(Glide.with(this), recipe, R.drawable.placeholder_image)
                   .error(R.drawable.error_image)
                   .into(recipeImageView);
         } else {
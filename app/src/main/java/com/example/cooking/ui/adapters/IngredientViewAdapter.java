@@ -118,10 +118,6 @@ public class IngredientViewAdapter extends RecyclerView.Adapter<IngredientViewAd
             }
             
             amountTextView.setText(formattedAmount);
-            
-            // Логируем для отладки
-            Log.d("IngredientViewHolder", "Отображение ингредиента: " + name + 
-                  ", количество: " + calculatedAmount + " " + unit);
         }
     }
 } 
\ No newline at end of file
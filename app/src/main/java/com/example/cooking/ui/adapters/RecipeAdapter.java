@@ -15,10 +15,10 @@ import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.bumptech.glide.Glide;
 import com.example.cooking.R;
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.ui.activities.RecipeDetailActivity;
+import com.example.cooking.ui.images.RecipeImages;
 import com.google.android.material.checkbox.MaterialCheckBox;
 import com.google.android.material.imageview.ShapeableImageView;
 
@@ -71,16 +71,7 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
         holder.titleTextView.setText(recipe.getTitle());
         
         // Загружаем изображение, если оно есть
-        if (recipe.getPhoto_url() != null){
-            Glide.with(holder.imageView.getContext())
-                    .load(recipe.getPhoto_url())
-                    .placeholder(R.drawable.white_card_background)
-                    .error(R.drawable.white_card_background)
-                    .centerCrop()
-                    .into(holder.imageView);
-        } else {
-            holder.imageView.setImageResource(R.drawable.white_card_background);
-        }
+        RecipeImages.loadCard(holder.imageView, recipe);
         
         // Устанавливаем состояние избранного
         holder.favoriteButton.setChecked(recipe.isLiked());
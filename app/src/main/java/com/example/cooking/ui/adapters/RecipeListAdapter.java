@@ -17,10 +17,11 @@ import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.cooking.R;
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.ui.activities.RecipeDetailActivity;
+import com.example.cooking.ui.images.RecipeImages;
+import com.example.cooking.utils.AppLog;
 import com.google.android.material.checkbox.MaterialCheckBox;
 import com.google.android.material.imageview.ShapeableImageView;
 
@@ -31,7 +32,11 @@ import com.google.android.material.imageview.ShapeableImageView;
 public class RecipeListAdapter extends ListAdapter<Recipe, RecipeListAdapter.RecipeViewHolder> {
     
     private static final String TAG = "RecipeListAdapter";
+    // onBind вызывается на каждый кадр прокрутки - в лог попадает каждый 50-й
+    private static final AppLog.Sampler BIND_SAMPLER = AppLog.sampler(50);
     private final OnRecipeLikeListener likeListener;
+    // false, пока показан снимок ленты: у карточек нет ингредиентов и шагов
+    private boolean interactive = true;
 
     // DiffUtil для эффективного обновления RecyclerView
     private static final DiffUtil.ItemCallback<Recipe> DIFF_CALLBACK = new DiffUtil.ItemCallback<Recipe>() {
@@ -61,6 +66,14 @@ public class RecipeListAdapter extends ListAdapter<Recipe, RecipeListAdapter.Rec
         this.likeListener = likeListener;
     }
 
+    /**
+     * Разрешить или запретить открытие рецепта и лайк.
+     * Запрещается на время показа снимка ленты до получения данных из Room.
+     */
+    public void setInteractive(boolean interactive) {
+        this.interactive = interactive;
+    }
+
     /**
      * Получает рецепт по позиции
      */
@@ -84,19 +97,11 @@ public class RecipeListAdapter extends ListAdapter<Recipe, RecipeListAdapter.Rec
         holder.titleTextView.setText(recipe.getTitle());
         
         // Загружаем изображение, если оно есть
-        if (recipe.getPhoto_url() != null){
-            Glide.with(holder.imageView.getContext())
-                    .load(recipe.getPhoto_url())
-                    .placeholder(R.drawable.white_card_background)
-                    .error(R.drawable.white_card_background)
-                    .centerCrop()
-                    .into(holder.imageView);
-        } else {
-            holder.imageView.setImageResource(R.drawable.white_card_background);
-        }
+        RecipeImages.loadCard(holder.imageView, recipe);
         
-        // Логируем состояние isLiked ПЕРЕД установкой чекбокса
-        Log.d(TAG, "Binding ViewHolder for Recipe ID: " + recipe.getId() + ", Title: " + recipe.getTitle() + ", isLiked from Recipe object: " + recipe.isLiked());
+        if (AppLog.VERBOSE && BIND_SAMPLER.sample()) {
+            Log.v(TAG, "onBind #" + BIND_SAMPLER.count() + ": рецепт " + recipe.getId() + ", isLiked=" + recipe.isLiked());
+        }
         
         // Устанавливаем состояние избранного
         holder.favoriteButton.setChecked(recipe.isLiked());
@@ -105,11 +110,9 @@ public class RecipeListAdapter extends ListAdapter<Recipe, RecipeListAdapter.Rec
         if (recipe.isLiked()) {
             // Если лайк есть, устанавливаем красный tint
             holder.favoriteButton.setButtonTintList(ColorStateList.valueOf(Color.parseColor("#FF0031")));
-            Log.d(TAG, "Recipe ID: " + recipe.getId() + " is Liked. Setting RED tint."); // Лог для лайка
         } else {
             // Если лайка нет, сбрасываем tint на null, чтобы использовался цвет по умолчанию
             holder.favoriteButton.setButtonTintList(null);
-            Log.d(TAG, "Recipe ID: " + recipe.getId() + " is NOT Liked. Setting NULL tint."); // Лог для снятия лайка
         }
         
         // Убедимся, что кнопка избранного всегда видна
@@ -117,6 +120,10 @@ public class RecipeListAdapter extends ListAdapter<Recipe, RecipeListAdapter.Rec
         
         // Слушатель нажатий на кнопку избранного
         holder.favoriteButton.setOnClickListener(v -> {
+            if (!interactive) {
+                holder.favoriteButton.setChecked(recipe.isLiked());
+                return;
+            }
             boolean isChecked = holder.favoriteButton.isChecked();
 
             // Вызываем метод обработки лайка, который проверит авторизацию
@@ -136,16 +143,16 @@ public class RecipeListAdapter extends ListAdapter<Recipe, RecipeListAdapter.Rec
         
         // Устанавливаем обработчик нажатий на карточку
         holder.cardView.setOnClickListener(v -> {
+            if (!interactive) {
+                return;
+            }
             Intent intent = new Intent(v.getContext(), RecipeDetailActivity.class);
             
             // --- Передаем ВЕСЬ объект Recipe как Parcelable --- 
             intent.putExtra(RecipeDetailActivity.EXTRA_SELECTED_RECIPE, recipe);
 
             
-            Log.d(TAG, "Запуск RecipeDetailActivity для рецепта: " + recipe.toString());
-            if (recipe.getPhoto_url() != null) {
-                Log.d(TAG, "Photo URL: " + recipe.getPhoto_url());
-            }
+            AppLog.d(TAG, () -> "Запуск RecipeDetailActivity для рецепта: " + recipe.getId());
             
             // Запускаем активность с ожиданием результата (код 200, возможно, не используется?)
             // Если результат не нужен, можно использовать просто startActivity(intent)
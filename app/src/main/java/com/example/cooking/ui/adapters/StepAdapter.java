@@ -20,6 +20,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.example.cooking.R;
 import com.example.cooking.Recipe.Step;
+import com.example.cooking.ui.images.RecipeImages;
 import com.google.android.material.imageview.ShapeableImageView;
 
 import java.util.Objects;
@@ -118,7 +119,7 @@ public class StepAdapter extends ListAdapter<Step, RecyclerView.ViewHolder> {
             String imageUrl = step.getUrl();
             if (imageUrl != null && !imageUrl.isEmpty()) {
                 stepImageView.setVisibility(View.VISIBLE);
-                Glide.with(itemView.getContext()).load(imageUrl).placeholder(R.drawable.placeholder_image).error(R.drawable.error_image).into(stepImageView);
+                Glide.with(itemView.getContext()).load(RecipeImages.model(imageUrl)).placeholder(R.drawable.placeholder_image).error(R.drawable.error_image).into(stepImageView);
             } else {
                 stepImageView.setVisibility(View.GONE);
             }
@@ -162,7 +163,7 @@ public class StepAdapter extends ListAdapter<Step, RecyclerView.ViewHolder> {
             String imageUrl = step.getUrl();
             if (imageUrl != null && !imageUrl.isEmpty()) {
                 stepImageView.setVisibility(View.VISIBLE);
-                Glide.with(itemView.getContext()).load(imageUrl).placeholder(R.drawable.placeholder_image).error(R.drawable.error_image).into(stepImageView);
+                Glide.with(itemView.getContext()).load(RecipeImages.model(imageUrl)).placeholder(R.drawable.placeholder_image).error(R.drawable.error_image).into(stepImageView);
             } else {
                 stepImageView.setVisibility(View.GONE);
             }
@@ -24,7 +24,9 @@ import com.example.cooking.utils.MySharedPreferences;
 import com.example.cooking.R;
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.ui.adapters.RecipeAdapter;
+import com.example.cooking.ui.images.RecipeImages;
 import com.example.cooking.ui.viewmodels.FavoritesViewModel;
+import com.example.cooking.utils.SearchSuggestionHelper;
 import com.google.android.material.progressindicator.CircularProgressIndicator;
 
 import java.util.ArrayList;
@@ -96,6 +98,7 @@ public class FavoritesFragment extends Fragment implements RecipeAdapter.OnRecip
         adapter = new RecipeAdapter(new ArrayList<>(), this);
         recyclerView.setAdapter(adapter);
         recyclerView.setLayoutManager(new GridLayoutManager(getContext(), 2));
+        RecipeImages.attachPreloader(this, recyclerView, adapter::getRecipeAt);
     }
     
     private void setupSwipeRefresh() {
@@ -127,15 +130,20 @@ public class FavoritesFragment extends Fragment implements RecipeAdapter.OnRecip
             searchView.requestFocusFromTouch();
         });
         
+        // Подсказки из названий рецептов и истории запросов
+        SearchSuggestionHelper suggestionHelper = SearchSuggestionHelper.attach(searchView);
+        
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextSubmit(String query) {
+                suggestionHelper.onQuerySubmitted(query);
                 viewModel.performSearch(query);
                 return true;
             }
 
             @Override
             public boolean onQueryTextChange(String newText) {
+                suggestionHelper.onQueryChanged(newText);
                 viewModel.performSearch(newText);
                 return true;
             }
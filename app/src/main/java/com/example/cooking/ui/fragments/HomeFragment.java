@@ -10,14 +10,22 @@ import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.HorizontalScrollView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import android.content.Intent;
 import android.widget.Toast;
@@ -26,9 +34,15 @@ import com.example.cooking.ui.activities.MainActivity;
 import com.example.cooking.utils.MySharedPreferences;
 import com.example.cooking.R;
 import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.data.database.FacetCount;
+import com.example.cooking.data.search.FacetFilter;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
 import com.example.cooking.ui.adapters.RecipeListAdapter;
+import com.example.cooking.ui.images.RecipeImages;
 import com.example.cooking.ui.activities.AddRecipeActivity;
 import com.example.cooking.utils.RecipeSearchService;
+import com.example.cooking.utils.SearchSuggestionHelper;
 import com.example.cooking.ui.viewmodels.HomeViewModel;
 
 import android.widget.SearchView;
@@ -45,6 +59,8 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
     private SwipeRefreshLayout swipeRefreshLayout;
     private ProgressBar progressBar;
     private TextView emptyView;
+    private ChipGroup mealTypeChips;
+    private ChipGroup foodTypeChips;
     private MySharedPreferences preferences;
     private String userId;
     private HomeViewModel viewModel;
@@ -55,6 +71,11 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
     private static final long AUTO_REFRESH_INTERVAL = 30000; // 30 секунд
     private boolean autoRefreshEnabled = true;
     
+    // За сколько карточек до конца списка начинаем загружать следующую страницу поиска
+    private static final int SEARCH_PREFETCH_THRESHOLD = 6;
+    // Последний список основной ленты, чтобы вернуться к нему после поиска
+    private List<Recipe> latestFeedRecipes = new ArrayList<>();
+    
     /**
      * Создает и настраивает представление фрагмента.
      * Инициализирует RecyclerView и загружает рецепты.
@@ -75,6 +96,8 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
         swipeRefreshLayout = view.findViewById(R.id.swipe_refresh);
         progressBar = view.findViewById(R.id.progress_bar);
         emptyView = view.findViewById(R.id.empty_view);
+        mealTypeChips = view.findViewById(R.id.chip_group_meal_type);
+        foodTypeChips = view.findViewById(R.id.chip_group_food_type);
         
         // Инициализация и настройка SearchView
         SearchView searchView = view.findViewById(R.id.search_view_main);
@@ -104,16 +127,24 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
             searchView.requestFocusFromTouch();
         });
         
+        // Подсказки из названий рецептов и истории запросов
+        SearchSuggestionHelper suggestionHelper = SearchSuggestionHelper.attach(searchView);
+        
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextSubmit(String query) {
+                suggestionHelper.onQuerySubmitted(query);
                 performSearch(query);
                 return true;
             }
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                // Поиск только по нажатию Enter, не реагируем на изменение текста
+                // Поиск только по нажатию Enter, но очистка поля возвращает к ленте
+                if (newText == null || newText.trim().isEmpty()) {
+                    performSearch(newText);
+                }
+                suggestionHelper.onQueryChanged(newText);
                 return false;
             }
         });
@@ -124,6 +155,33 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
         // Инициализируем адаптер
         adapter = new RecipeListAdapter(this);
         recyclerView.setAdapter(adapter);
+        RecipeImages.attachPreloader(this, recyclerView, adapter::getRecipeAt);
+        
+        // Первый кадр рисуем из снимка карточек, не дожидаясь открытия Room
+        List<Recipe> snapshot = viewModel.takeStartupSnapshot();
+        if (!snapshot.isEmpty()) {
+            adapter.setInteractive(false);
+            adapter.submitList(snapshot);
+            showEmptyView(false);
+        }
+        
+        // Подгружаем следующую страницу поиска заранее, пока пользователь не дошел до конца
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0 || !viewModel.isSearchActive()) {
+                    return;
+                }
+                GridLayoutManager layoutManager = (GridLayoutManager) rv.getLayoutManager();
+                if (layoutManager == null) {
+                    return;
+                }
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= adapter.getItemCount() - SEARCH_PREFETCH_THRESHOLD) {
+                    viewModel.loadNextSearchPage();
+                }
+            }
+        });
         
         // Настраиваем swipe-to-refresh
         swipeRefreshLayout.setOnRefreshListener(() -> viewModel.refreshRecipes());
@@ -133,6 +191,10 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
         
         // Наблюдаем за результатами поиска
         viewModel.getSearchResults().observe(getViewLifecycleOwner(), recipes -> {
+            if (!viewModel.isSearchActive()) {
+                return;
+            }
+            adapter.setInteractive(true);
             adapter.submitList(recipes);
             showEmptyView(recipes == null || recipes.isEmpty());
         });
@@ -168,14 +230,30 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
     private void observeViewModel() {
         // Наблюдаем за списком рецептов
         viewModel.getRecipes().observe(getViewLifecycleOwner(), recipes -> {
+            latestFeedRecipes = recipes != null ? recipes : new ArrayList<>();
+            // Данные из Room пришли - снимок больше не нужен
+            adapter.setInteractive(true);
+            // Пока открыт поиск, не перезаписываем его результаты лентой
+            if (viewModel.isSearchActive()) {
+                return;
+            }
             if (recipes != null && !recipes.isEmpty()) {
                 adapter.submitList(recipes);
                 showEmptyView(false);
             } else {
+                adapter.submitList(latestFeedRecipes);
                 showEmptyView(true);
             }
         });
         
+        // Фасеты: при каждом изменении выбора Room пересчитывает количества
+        viewModel.getMealTypeFacets().observe(getViewLifecycleOwner(), counts ->
+                renderFacetChips(mealTypeChips, counts, currentFacetFilter().getMealTypes(),
+                        viewModel::toggleMealTypeFacet));
+        viewModel.getFoodTypeFacets().observe(getViewLifecycleOwner(), counts ->
+                renderFacetChips(foodTypeChips, counts, currentFacetFilter().getFoodTypes(),
+                        viewModel::toggleFoodTypeFacet));
+        
         // Наблюдаем за состоянием загрузки
         viewModel.getIsRefreshing().observe(getViewLifecycleOwner(), isRefreshing -> {
             swipeRefreshLayout.setRefreshing(isRefreshing);
@@ -235,6 +313,47 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
         */
     }
     
+    /**
+     * Текущий фильтр фасетов; пустой, пока ViewModel его не выставила
+     */
+    private FacetFilter currentFacetFilter() {
+        FacetFilter filter = viewModel.getFacetFilter().getValue();
+        return filter != null ? filter : FacetFilter.EMPTY;
+    }
+    
+    /**
+     * Перерисовывает чипы одного фасета.
+     * Выбранные значения показываются даже с нулевым количеством, чтобы их можно было снять.
+     */
+    private void renderFacetChips(ChipGroup group, List<FacetCount> counts,
+                                  Set<String> selected, Consumer<String> onToggle) {
+        Map<String, Integer> values = new LinkedHashMap<>();
+        for (String value : selected) {
+            values.put(value, 0);
+        }
+        if (counts != null) {
+            for (FacetCount facet : counts) {
+                values.put(facet.getValue(), facet.getCount());
+            }
+        }
+        
+        group.removeAllViews();
+        for (Map.Entry<String, Integer> entry : values.entrySet()) {
+            String value = entry.getKey();
+            Chip chip = new Chip(requireContext());
+            chip.setText(value + " (" + entry.getValue() + ")");
+            chip.setCheckable(true);
+            chip.setChecked(selected.contains(value));
+            chip.setOnClickListener(v -> onToggle.accept(value));
+            group.addView(chip);
+        }
+        
+        View container = (View) group.getParent();
+        if (container instanceof HorizontalScrollView) {
+            container.setVisibility(values.isEmpty() ? View.GONE : View.VISIBLE);
+        }
+    }
+    
     /**
      * Показывает/скрывает сообщение о пустом списке
      */
@@ -272,10 +391,38 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
             Intent intent = new Intent(getActivity(), AddRecipeActivity.class);
             startActivityForResult(intent, 100);
             return true;
+        } else if (item.getItemId() == R.id.action_cook_from_ingredients) {
+            showIngredientSearchDialog();
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
     
+    /**
+     * Показывает диалог поиска рецептов по имеющимся ингредиентам
+     */
+    private void showIngredientSearchDialog() {
+        EditText input = new EditText(requireContext());
+        input.setHint(R.string.ingredient_search_hint);
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.ingredient_search_title)
+                .setView(input)
+                .setPositiveButton(R.string.ingredient_search_action, (dialog, which) -> {
+                    String text = input.getText().toString();
+                    if (!text.trim().isEmpty()) {
+                        // Показываем запрос в строке поиска, чтобы его очистка вернула ленту
+                        View root = getView();
+                        SearchView searchView = root != null ? root.findViewById(R.id.search_view_main) : null;
+                        if (searchView != null) {
+                            searchView.setQuery(text, false);
+                        }
+                        viewModel.searchByIngredients(text);
+                    }
+                })
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+    
     /**
      * Включаем меню в Action Bar
      */
@@ -319,7 +466,11 @@ public class HomeFragment extends Fragment implements RecipeListAdapter.OnRecipe
     public void performSearch(String query) {
         if (query == null || query.trim().isEmpty()) {
             // Очищаем результаты поиска и возвращаемся к основному списку
-            viewModel.getSearchResults().removeObservers(getViewLifecycleOwner());
+            if (viewModel.isSearchActive()) {
+                viewModel.clearSearch();
+                adapter.submitList(latestFeedRecipes);
+                showEmptyView(latestFeedRecipes.isEmpty());
+            }
         } else {
             // Запускаем поиск через ViewModel
             viewModel.searchRecipes(query.trim());
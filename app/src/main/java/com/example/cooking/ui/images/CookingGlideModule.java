@@ -0,0 +1,58 @@
+package com.example.cooking.ui.images;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.example.cooking.di.AppContainer;
+
+import java.io.InputStream;
+
+/**
+ * Настройка Glide для всего приложения: загрузка через общий OkHttp
+ * (пул соединений и учет трафика общие с API), явные размеры кэшей и
+ * варианты фото рецептов под размер view (RecipePhotoLoader).
+ */
+@GlideModule
+public final class CookingGlideModule extends AppGlideModule {
+
+    private static final String DISK_CACHE_DIR = "image-cache";
+    private static final long DISK_CACHE_SIZE = 100 * 1024 * 1024; // 100 МБ
+    // Кэш памяти - два экрана карточек, пул битмапов - три экрана для переиспользования при прокрутке
+    private static final float MEMORY_CACHE_SCREENS = 2;
+    private static final float BITMAP_POOL_SCREENS = 3;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_SIZE));
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class,
+                new OkHttpUrlLoader.Factory(AppContainer.getInstance(context).imageHttpClient()));
+        registry.prepend(RecipePhoto.class, InputStream.class, new RecipePhotoLoader.Factory(context));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
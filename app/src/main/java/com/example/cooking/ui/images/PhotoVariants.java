@@ -0,0 +1,69 @@
+package com.example.cooking.ui.images;
+
+import com.example.cooking.config.ServerConfig;
+import com.example.cooking.utils.ImageIngestor;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Выбор варианта фото на сервере: ширина округляется вверх до корзины, чтобы
+ * вариантов было немного и они переиспользовались в кэше, формат зависит от сети.
+ *
+ * <pre>
+ * ?w=ширина  - ширина варианта; без параметра - исходник
+ * ?format=   - webp или avif
+ * </pre>
+ *
+ * Сервер без поддержки вариантов игнорирует параметры и отдает исходник,
+ * поэтому вариант можно просить всегда. Чужие хосты не трогаются.
+ */
+final class PhotoVariants {
+
+    // Исходник не шире ImageIngestor.DEFAULT_MAX_SIDE - больше корзины не нужны
+    private static final int[] WIDTH_BUCKETS = {200, 320, 480, 640};
+    // На лимитной сети берем вариант чуть меньше view: легкое растяжение заметно меньше трафика
+    private static final float METERED_SCALE = 0.75f;
+
+    static final String FORMAT_WEBP = "webp";
+    // AVIF меньше WebP при том же качестве, но дороже в декодировании - только для лимитной сети
+    static final String FORMAT_AVIF = "avif";
+
+    private PhotoVariants() {
+    }
+
+    /**
+     * @param url исходный URL фото
+     * @param targetWidth ширина ImageView в пикселях; <= 0 - неизвестна
+     * @param metered активная сеть лимитная (мобильная, точка доступа)
+     * @return URL варианта или исходный URL для чужих хостов
+     */
+    static String select(String url, int targetWidth, boolean metered) {
+        HttpUrl parsed = HttpUrl.parse(url);
+        HttpUrl server = HttpUrl.parse(ServerConfig.BASE_API_URL);
+        if (parsed == null || server == null || !parsed.host().equals(server.host())) {
+            return url;
+        }
+        HttpUrl.Builder variant = parsed.newBuilder()
+                .setQueryParameter("format", metered ? FORMAT_AVIF : FORMAT_WEBP);
+        int width = bucket(metered ? Math.round(targetWidth * METERED_SCALE) : targetWidth);
+        if (width > 0) {
+            variant.setQueryParameter("w", Integer.toString(width));
+        }
+        return variant.build().toString();
+    }
+
+    /**
+     * Наименьшая корзина не уже targetWidth; 0 - нужен исходник
+     */
+    static int bucket(int targetWidth) {
+        if (targetWidth <= 0 || targetWidth > ImageIngestor.DEFAULT_MAX_SIDE) {
+            return 0;
+        }
+        for (int bucket : WIDTH_BUCKETS) {
+            if (bucket >= targetWidth) {
+                return bucket;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.cooking.ui.images;
+
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.cooking.R;
+import com.example.cooking.Recipe.Recipe;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Загрузка фото рецептов.
+ * Фото с сервера запрашиваются вариантом под размер ImageView (см. {@link RecipePhoto}),
+ * пока фото грузится, показывается его преобладающий цвет, если он известен.
+ * Карточки сеток декодируются в RGB_565 (фото непрозрачные, вдвое меньше памяти).
+ * Предзагрузка использует те же параметры запроса, поэтому подготовленная
+ * картинка берется из кэша памяти без декодирования.
+ */
+public final class RecipeImages {
+
+    // Три ряда сетки из двух столбцов
+    private static final int PRELOAD_AHEAD = 6;
+
+    private static final RequestOptions CARD_OPTIONS = new RequestOptions()
+            .format(DecodeFormat.PREFER_RGB_565)
+            .placeholder(R.drawable.white_card_background)
+            .error(R.drawable.white_card_background)
+            .centerCrop();
+
+    private RecipeImages() {
+    }
+
+    /**
+     * Модель Glide для URL фото: вариант под размер для http(s), как есть для
+     * локальных файлов (рецепт еще в очереди отправки)
+     */
+    public static Object model(String url) {
+        return url.startsWith("http://") || url.startsWith("https://") ? new RecipePhoto(url) : url;
+    }
+
+    /**
+     * Загрузить фото в карточку; без фото - фон карточки
+     */
+    public static void loadCard(ImageView view, Recipe recipe) {
+        RequestManager glide = Glide.with(view.getContext());
+        String url = recipe.getPhoto_url();
+        if (url == null || url.isEmpty()) {
+            // Отменяем загрузку, оставшуюся от прошлого рецепта в этом ViewHolder
+            glide.clear(view);
+            view.setImageResource(R.drawable.white_card_background);
+            return;
+        }
+        RequestBuilder<Drawable> request = card(glide, url);
+        Integer color = recipe.getPlaceholderColor();
+        if (color != null) {
+            // Заглушка не входит в ключ кэша - предзагруженное фото все равно подходит
+            request = request.placeholder(new ColorDrawable(color));
+        }
+        request.into(view);
+    }
+
+    /**
+     * Запрос фото рецепта для экрана рецепта; заглушка - цвет фото или fallbackPlaceholder.
+     * Фото должно быть задано.
+     */
+    public static RequestBuilder<Drawable> photo(RequestManager glide, Recipe recipe,
+                                                 @DrawableRes int fallbackPlaceholder) {
+        RequestBuilder<Drawable> request = glide.load(model(recipe.getPhoto_url()));
+        Integer color = recipe.getPlaceholderColor();
+        return color != null
+                ? request.placeholder(new ColorDrawable(color))
+                : request.placeholder(fallbackPlaceholder);
+    }
+
+    /**
+     * Подключить предзагрузку фото для карточек ниже видимой области
+     * @param recipeAt рецепт по позиции адаптера
+     */
+    public static void attachPreloader(Fragment fragment, RecyclerView list, IntFunction<Recipe> recipeAt) {
+        RequestManager glide = Glide.with(fragment);
+        ListPreloader.PreloadModelProvider<String> models = new ListPreloader.PreloadModelProvider<String>() {
+            @NonNull
+            @Override
+            public List<String> getPreloadItems(int position) {
+                Recipe recipe = recipeAt.apply(position);
+                String url = recipe != null ? recipe.getPhoto_url() : null;
+                return url == null || url.isEmpty() ? Collections.emptyList() : Collections.singletonList(url);
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull String url) {
+                return card(glide, url);
+            }
+        };
+        ListPreloader.PreloadSizeProvider<String> sizes = (url, adapterPosition, perItemPosition) -> cardSize(list);
+        list.addOnScrollListener(new RecyclerViewPreloader<>(glide, models, sizes, PRELOAD_AHEAD));
+    }
+
+    private static RequestBuilder<Drawable> card(RequestManager glide, String url) {
+        return glide.load(model(url)).apply(CARD_OPTIONS);
+    }
+
+    /**
+     * Размер фото по уже размещенной карточке; null, пока ни одна не измерена.
+     * Должен совпадать с размером, который Glide берет у ImageView, иначе
+     * предзагрузка попадет в другой ключ кэша.
+     */
+    @Nullable
+    private static int[] cardSize(RecyclerView list) {
+        for (int i = 0; i < list.getChildCount(); i++) {
+            View image = list.getChildAt(i).findViewById(R.id.recipe_image);
+            if (image == null) {
+                continue;
+            }
+            int width = image.getWidth() - image.getPaddingLeft() - image.getPaddingRight();
+            int height = image.getHeight() - image.getPaddingTop() - image.getPaddingBottom();
+            if (width > 0 && height > 0) {
+                return new int[]{width, height};
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.cooking.ui.images;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Модель Glide для фото рецепта с сервера. В отличие от строки URL, для нее
+ * зарегистрирован RecipePhotoLoader, который запрашивает вариант под размер
+ * ImageView и тип сети (см. PhotoVariants). Создавать через RecipeImages.model().
+ */
+public final class RecipePhoto {
+    private final String url;
+
+    RecipePhoto(String url) {
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RecipePhoto && url.equals(((RecipePhoto) o).url);
+    }
+
+    @Override
+    public int hashCode() {
+        return url.hashCode();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return url;
+    }
+}
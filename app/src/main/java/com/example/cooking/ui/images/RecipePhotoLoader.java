@@ -0,0 +1,61 @@
+package com.example.cooking.ui.images;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.model.stream.BaseGlideUrlLoader;
+
+import java.io.InputStream;
+
+/**
+ * Загрузчик {@link RecipePhoto}: Glide передает сюда размер цели, по нему и по
+ * типу сети выбирается URL варианта. Сама загрузка идет через зарегистрированный
+ * загрузчик GlideUrl (общий OkHttp). Ключ кэша - URL варианта, поэтому разные
+ * размеры одного фото кэшируются отдельно.
+ */
+final class RecipePhotoLoader extends BaseGlideUrlLoader<RecipePhoto> {
+
+    private final ConnectivityManager connectivity;
+
+    private RecipePhotoLoader(ModelLoader<GlideUrl, InputStream> urlLoader, ConnectivityManager connectivity) {
+        super(urlLoader);
+        this.connectivity = connectivity;
+    }
+
+    @Override
+    protected String getUrl(RecipePhoto photo, int width, int height, Options options) {
+        // Вызывается в потоке Glide, не в главном
+        return PhotoVariants.select(photo.getUrl(), width, connectivity.isActiveNetworkMetered());
+    }
+
+    @Override
+    public boolean handles(@NonNull RecipePhoto photo) {
+        return true;
+    }
+
+    static final class Factory implements ModelLoaderFactory<RecipePhoto, InputStream> {
+        private final ConnectivityManager connectivity;
+
+        Factory(Context context) {
+            connectivity = (ConnectivityManager) context.getApplicationContext()
+                    .getSystemService(Context.CONNECTIVITY_SERVICE);
+        }
+
+        @NonNull
+        @Override
+        public ModelLoader<RecipePhoto, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new RecipePhotoLoader(multiFactory.build(GlideUrl.class, InputStream.class), connectivity);
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+}
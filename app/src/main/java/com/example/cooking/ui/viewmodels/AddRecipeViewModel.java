@@ -1,10 +1,6 @@
 package com.example.cooking.ui.viewmodels;
 
 import android.app.Application;
-import android.content.Context;
-import android.graphics.Bitmap;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 import android.net.Uri;
 import android.util.Log;
 
@@ -14,16 +10,17 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.cooking.Recipe.Ingredient;
-import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.Recipe.Step;
-import com.example.cooking.network.services.RecipeManager;
+import com.example.cooking.data.outbox.RecipeOutbox;
+import com.example.cooking.utils.AppExecutors;
+import com.example.cooking.utils.ImageIngestor;
 import com.example.cooking.utils.MySharedPreferences;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ViewModel для экрана добавления рецепта
@@ -47,18 +44,25 @@ public class AddRecipeViewModel extends AndroidViewModel {
     private final MutableLiveData<String> title = new MutableLiveData<>("");
     private final MutableLiveData<List<Ingredient>> ingredients = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<List<Step>> steps = new MutableLiveData<>(new ArrayList<>());
-    private byte[] imageBytes = null;
+    // Подготовленное фото во временном файле, отправляется потоком
+    private volatile File imageFile = null;
+    // Преобладающий цвет фото - заглушка карточки, сохраняется вместе с рецептом
+    private volatile Integer imagePlaceholderColor = null;
+    // Прогресс подготовки фото (0..100), null - обработка не идет
+    private final MutableLiveData<Integer> imageProgress = new MutableLiveData<>(null);
+    // Номер последнего выбранного изображения, чтобы отбросить устаревшие результаты
+    private final AtomicInteger imageGeneration = new AtomicInteger();
+    // Текущая обработка фото в общем пуле вычислений
+    private Future<?> imageTask;
     
     // Сервисы
-    private final RecipeManager recipeManager;
+    private final RecipeOutbox outbox;
     private final MySharedPreferences preferences;
-    private final com.example.cooking.data.repositories.RecipeLocalRepository localRepository;
     
     public AddRecipeViewModel(@NonNull Application application) {
         super(application);
         preferences = new MySharedPreferences(application);
-        recipeManager = new RecipeManager(application);
-        localRepository = new com.example.cooking.data.repositories.RecipeLocalRepository(application);
+        outbox = RecipeOutbox.getInstance(application);
         
         // Инициализируем списки с одним пустым элементом
         ArrayList<Ingredient> initialIngredients = new ArrayList<>();
@@ -73,12 +77,14 @@ public class AddRecipeViewModel extends AndroidViewModel {
     }
     
     /**
-     * Сохраняет новый рецепт
+     * Сохраняет новый рецепт.
+     * Рецепт сразу попадает в локальную БД с временным ID, а отправка на сервер
+     * выполняется в фоне через RecipeOutbox, поэтому сеть для сохранения не нужна.
      */
     public void saveRecipe() {
-        // Проверяем подключение к интернету
-        if (!isNetworkAvailable()) {
-            errorMessage.setValue("Отсутствует подключение к интернету");
+        // Фото еще готовится в фоне
+        if (imageProgress.getValue() != null) {
+            errorMessage.setValue("Дождитесь окончания обработки изображения");
             return;
         }
         
@@ -95,67 +101,29 @@ public class AddRecipeViewModel extends AndroidViewModel {
         
         // Получаем текущие данные из LiveData
         String currentTitle = title.getValue() != null ? title.getValue() : "";
-        List<Ingredient> currentIngredients = ingredients.getValue();
-        List<Step> currentSteps = steps.getValue();
-        
-        // Убедимся, что списки не null (хотя инициализированы)
-        if (currentIngredients == null) currentIngredients = new ArrayList<>();
-        if (currentSteps == null) currentSteps = new ArrayList<>();
+        List<Ingredient> currentIngredients = ingredients.getValue() != null
+                ? new ArrayList<>(ingredients.getValue()) : new ArrayList<>();
+        List<Step> currentSteps = steps.getValue() != null
+                ? new ArrayList<>(steps.getValue()) : new ArrayList<>();
+        File photo = imageFile;
+        Integer placeholderColor = imagePlaceholderColor;
 
-        // Log.d(TAG, "Сохранение рецепта: title=" + currentTitle + ", userId=" + userId + ", ingredients=" + ingredientsString + ", steps=" + stepsString);
         Log.d(TAG, "Сохранение рецепта: title=" + currentTitle + ", userId=" + userId + ", ingredients count=" + currentIngredients.size() + ", steps count=" + currentSteps.size());
 
-        List<Ingredient> CurrentIngredients = currentIngredients;
-        List<Step> finalCurrentSteps = currentSteps;
-        recipeManager.saveRecipe(
-            currentTitle,
-            currentIngredients, // Передаем список напрямую
-            currentSteps, // Передаем список напрямую
-            userId,
-            imageBytes,
-            new RecipeManager.RecipeSaveCallback() {
-                @Override
-                public void onSuccess(String message) {
-                    isLoading.postValue(false);
-                    saveSuccess.postValue(true);
-                    Log.d(TAG, "Рецепт успешно сохранен: " + message);
-                    // --- Новый код: парсим ответ сервера и сохраняем рецепт в локальную БД ---
-                    try {
-                        org.json.JSONObject json = new org.json.JSONObject(message);
-                        if (json.optBoolean("success", false)) {
-                            int recipeId = json.optInt("recipeId", -1);
-                            String photoUrl = json.optString("photo_url", null);
-                            // Собираем объект Recipe для локальной базы
-                            Recipe recipe = new Recipe();
-                            recipe.setId(recipeId);
-                            recipe.setTitle(currentTitle);
-                            recipe.setIngredients(new ArrayList<>(CurrentIngredients));
-                            recipe.setSteps(new ArrayList<>(finalCurrentSteps));
-                            recipe.setPhoto_url(photoUrl);
-                            recipe.setUserId(userId);
-                            // created_at и другие поля можно заполнить при необходимости
-                            localRepository.insertAll(java.util.Collections.singletonList(recipe));
-                            Log.d(TAG, "Рецепт сохранён в локальную БД с id=" + recipeId + ", photo_url=" + photoUrl);
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Ошибка парсинга ответа сервера или сохранения в БД", e);
-                    }
-                }
-
-                @Override
-                public void onFailure(String error) {
-                    isLoading.postValue(false);
-                    // Если ошибка связана с дублированием рецепта, считаем это успешным сохранением
-                    if (error != null && (error.toLowerCase().contains("дубли") || error.toLowerCase().contains("уже существует") || error.toLowerCase().contains("повторно") || error.toLowerCase().contains("duplicate") || error.toLowerCase().contains("already exists") || error.toLowerCase().contains("already added"))) {
-                        saveSuccess.postValue(true);
-                        Log.d(TAG, "Рецепт уже существует или был отправлен повторно, считаем как успешное сохранение: " + error);
-                    } else {
-                        errorMessage.postValue(error);
-                        Log.e(TAG, "Ошибка при сохранении рецепта: " + error);
-                    }
-                }
+        AppExecutors.getInstance().diskWrite().execute(() -> {
+            try {
+                int localId = outbox.enqueue(currentTitle, currentIngredients, currentSteps, userId,
+                        photo, placeholderColor);
+                imageFile = null;
+                isLoading.postValue(false);
+                saveSuccess.postValue(true);
+                Log.d(TAG, "Рецепт поставлен в очередь отправки, временный ID: " + localId);
+            } catch (Exception e) {
+                isLoading.postValue(false);
+                errorMessage.postValue("Не удалось сохранить рецепт: " + e.getMessage());
+                Log.e(TAG, "Ошибка при сохранении рецепта в очередь", e);
             }
-        );
+        });
     }
     
     /**
@@ -248,59 +216,45 @@ public class AddRecipeViewModel extends AndroidViewModel {
     }
     
     /**
-     * Обрабатывает выбранное изображение и преобразует его в массив байтов
+     * Обрабатывает выбранное изображение в фоне: уменьшает, поворачивает по EXIF
+     * и кодирует в WebP. Прогресс публикуется в getImageProgress().
      */
     public void processSelectedImage(Uri imageUri) {
-        try {
-            InputStream inputStream = getApplication().getContentResolver().openInputStream(imageUri);
-            Bitmap bitmap = android.graphics.BitmapFactory.decodeStream(inputStream);
-            
-            // Сжимаем изображение до разумного размера
-            Bitmap resizedBitmap = resizeBitmap(bitmap, 800);
-            
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            resizedBitmap.compress(Bitmap.CompressFormat.JPEG, 80, byteArrayOutputStream);
-            imageBytes = byteArrayOutputStream.toByteArray();
-            
-            if (inputStream != null) {
-                inputStream.close();
-            }
-            
-            Log.d(TAG, "Изображение обработано, размер: " + imageBytes.length + " байт");
-            
-            // Очищаем ошибку изображения, если она была
-            imageError.setValue(null);
-            validateImage();
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка при обработке изображения", e);
-            imageError.setValue("Ошибка при обработке изображения: " + e.getMessage());
-            imageBytes = null;
+        int generation = imageGeneration.incrementAndGet();
+        imageFile = null;
+        imageProgress.setValue(0);
+        if (imageTask != null) {
+            imageTask.cancel(false);
         }
-    }
-    
-    /**
-     * Изменяет размер Bitmap до указанного максимального значения
-     */
-    private Bitmap resizeBitmap(Bitmap bitmap, int maxSide) {
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-        
-        if (width <= maxSide && height <= maxSide) {
-            return bitmap; // Нет необходимости менять размер
-        }
-        
-        float ratio = (float) width / height;
-        int newWidth, newHeight;
-        
-        if (width > height) {
-            newWidth = maxSide;
-            newHeight = (int) (maxSide / ratio);
-        } else {
-            newHeight = maxSide;
-            newWidth = (int) (maxSide * ratio);
-        }
-        
-        return Bitmap.createScaledBitmap(bitmap, newWidth, newHeight, true);
+        imageTask = AppExecutors.getInstance().compute().submit(() -> {
+            try {
+                ImageIngestor.Prepared prepared = ImageIngestor.ingestForUpload(getApplication(), imageUri,
+                        percent -> {
+                            if (generation == imageGeneration.get()) {
+                                imageProgress.postValue(percent);
+                            }
+                        });
+                if (generation != imageGeneration.get()) {
+                    return; // Пользователь уже выбрал другое изображение
+                }
+                imagePlaceholderColor = prepared.placeholderColor;
+                imageFile = prepared.file;
+                Log.d(TAG, "Изображение обработано, размер: " + prepared.file.length() + " байт");
+                // Очищаем ошибку изображения, если она была
+                imageError.postValue(null);
+            } catch (Exception e) {
+                if (generation != imageGeneration.get()) {
+                    return;
+                }
+                Log.e(TAG, "Ошибка при обработке изображения", e);
+                imageError.postValue("Ошибка при обработке изображения: " + e.getMessage());
+                imageFile = null;
+            } finally {
+                if (generation == imageGeneration.get()) {
+                    imageProgress.postValue(null);
+                }
+            }
+        });
     }
     
     /**
@@ -425,7 +379,7 @@ public class AddRecipeViewModel extends AndroidViewModel {
      * Проверяет, выбрано ли изображение
      */
     private boolean validateImage() {
-        if (imageBytes == null) {
+        if (imageFile == null) {
             imageError.setValue("Выберите изображение для рецепта");
             return false;
         } else {
@@ -434,16 +388,6 @@ public class AddRecipeViewModel extends AndroidViewModel {
         }
     }
     
-    /**
-     * Проверяет подключение к интернету
-     */
-    private boolean isNetworkAvailable() {
-        ConnectivityManager connectivityManager = (ConnectivityManager) 
-                getApplication().getSystemService(Context.CONNECTIVITY_SERVICE);
-        NetworkInfo activeNetworkInfo = connectivityManager.getActiveNetworkInfo();
-        return activeNetworkInfo != null && activeNetworkInfo.isConnected();
-    }
-    
     // Геттеры для LiveData
     public LiveData<Boolean> getIsLoading() {
         return isLoading;
@@ -469,6 +413,10 @@ public class AddRecipeViewModel extends AndroidViewModel {
         return stepsListError;
     }
     
+    public LiveData<Integer> getImageProgress() {
+        return imageProgress;
+    }
+    
     public LiveData<String> getImageError() {
         return imageError;
     }
@@ -489,6 +437,15 @@ public class AddRecipeViewModel extends AndroidViewModel {
      * Возвращает true, если изображение было выбрано и обработано.
      */
     public boolean hasImage() {
-        return imageBytes != null && imageBytes.length > 0;
+        File file = imageFile;
+        return file != null && file.length() > 0;
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (imageTask != null) {
+            imageTask.cancel(true);
+        }
     }
-}
\ No newline at end of file
+}
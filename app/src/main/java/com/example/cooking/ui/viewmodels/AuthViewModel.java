@@ -13,11 +13,16 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.cooking.auth.FirebaseAuthManager;
 import com.example.cooking.data.repositories.LikedRecipesRepository;
+import com.example.cooking.di.AppContainer;
 import com.example.cooking.utils.MySharedPreferences;
 import com.example.cooking.data.models.ApiResponse;
 import com.example.cooking.network.services.UserService;
+import com.example.cooking.utils.Futures;
 import com.google.firebase.auth.FirebaseUser;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * ViewModel для управления аутентификацией пользователя
  */
@@ -50,12 +55,15 @@ public class AuthViewModel extends AndroidViewModel {
     private String pendingEmail;
     private int pendingPermissionLevel = 1;
 
+    // Текущий вход на сервере (с последующей синхронизацией лайков)
+    private CompletableFuture<Void> loginTask;
+
     public AuthViewModel(@NonNull Application application) {
         super(application);
         authManager = new FirebaseAuthManager(application);
         preferences = new MySharedPreferences(application);
         userService = new UserService();
-        likedRecipesRepository = new LikedRecipesRepository(application);
+        likedRecipesRepository = AppContainer.getInstance(application).likedRecipesRepository();
 
         checkAuthenticationState();
     }
@@ -92,39 +100,7 @@ public class AuthViewModel extends AndroidViewModel {
             public void onSuccess(FirebaseUser user) {
                 if (user != null) {
                     Log.d(TAG, "Firebase login success, calling server login for user: " + user.getEmail());
-                    userService.loginFirebaseUser(user.getEmail(), user.getUid(), new UserService.UserCallback() {
-                        @Override
-                        public void onSuccess(ApiResponse response) {
-                            String internalUserId = response.getUserId();
-                            int permissionLevel = response.getPermission();
-                            if (internalUserId == null || internalUserId.isEmpty()) {
-                                Log.e(TAG, "Внутренний userId не пришел от сервера при логине! Используем Firebase UID.");
-                                internalUserId = user.getUid();
-                            }
-                            if (permissionLevel == 0) {
-                                Log.w(TAG, "Уровень прав не пришел от сервера при логине. Установлен 1.");
-                                permissionLevel = 1;
-                            }
-                            saveUserData(user, internalUserId, permissionLevel);
-                            isLoading.postValue(false);
-                            isAuthenticated.postValue(true);
-                            Log.d(TAG, "signInWithEmailPassword: Успешный вход, ID: " + internalUserId + ", Права: " + permissionLevel);
-
-                            // <--- ВЫЗОВ СИНХРОНИЗАЦИИ ЧЕРЕЗ РЕПОЗИТОРИЙ --->
-                            Log.i(TAG, "Запуск синхронизации лайков через LikedRecipesRepository для userId: " + internalUserId);
-                            likedRecipesRepository.syncLikedRecipesFromServerIfNeeded(internalUserId);
-                            // <------------------------------------------------>
-                        }
-
-                        @Override
-                        public void onFailure(String errorMessage) {
-                            Log.e(TAG, "Ошибка логина на сервере: " + errorMessage);
-                            saveUserData(user, user.getUid(), 1);
-                            isLoading.postValue(false);
-                            isAuthenticated.postValue(true);
-                            AuthViewModel.this.errorMessage.postValue("Ошибка синхронизации с сервером: " + errorMessage);
-                        }
-                    });
+                    completeServerLogin(user, "signInWithEmailPassword");
                 } else {
                     isLoading.postValue(false);
                     errorMessage.postValue("Ошибка: Firebase User == null после успешного входа");
@@ -234,6 +210,78 @@ public class AuthViewModel extends AndroidViewModel {
         permission.setValue(1);
     }
 
+    /**
+     * Вход на нашем сервере после успешного входа в Firebase.
+     * Как только сервер вернул внутренний ID, экран считается авторизованным,
+     * а синхронизация лайков идет в фоне параллельно с переходом на главный экран.
+     * При ошибке сервера сохраняется Firebase UID и права по умолчанию.
+     *
+     * @param user   пользователь Firebase
+     * @param source источник входа для логов
+     */
+    private void completeServerLogin(FirebaseUser user, String source) {
+        cancelLogin();
+        CompletableFuture<ApiResponse> serverLogin = userService.loginFirebaseUser(user.getEmail(), user.getUid());
+        CompletableFuture<Void> task = serverLogin
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = Futures.unwrap(error);
+                        if (cause instanceof CancellationException) {
+                            return null;
+                        }
+                        Log.e(TAG, source + ": Ошибка логина на сервере: " + cause.getMessage());
+                        // Сохраняем Firebase UID и права по умолчанию (1) при ошибке сервера
+                        saveUserData(user, user.getUid(), 1);
+                        isLoading.postValue(false);
+                        isAuthenticated.postValue(true); // Считаем аутентифицированным локально
+                        errorMessage.postValue("Ошибка синхронизации с сервером: " + cause.getMessage());
+                        return null;
+                    }
+                    String internalUserId = response.getUserId();
+                    int permissionLevel = response.getPermission();
+                    if (internalUserId == null || internalUserId.isEmpty()) {
+                        Log.e(TAG, source + ": Внутренний userId не пришел от сервера! Используем Firebase UID.");
+                        internalUserId = user.getUid();
+                    }
+                    if (permissionLevel == 0) {
+                        Log.w(TAG, source + ": Уровень прав не пришел от сервера. Установлен 1.");
+                        permissionLevel = 1;
+                    }
+                    saveUserData(user, internalUserId, permissionLevel);
+                    isLoading.postValue(false);
+                    isAuthenticated.postValue(true);
+                    Log.d(TAG, source + ": Успешный вход, ID: " + internalUserId + ", Права: " + permissionLevel);
+                    return internalUserId;
+                })
+                .thenCompose(internalUserId -> {
+                    if (internalUserId == null) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    Log.i(TAG, "Запуск синхронизации лайков через LikedRecipesRepository для userId: " + internalUserId);
+                    return likedRecipesRepository.syncLikedRecipesFromServer(internalUserId);
+                });
+        task.whenComplete((ignored, error) -> {
+            Throwable cause = error != null ? Futures.unwrap(error) : null;
+            if (cause != null && !(cause instanceof CancellationException)) {
+                Log.w(TAG, source + ": Лайки не синхронизированы: " + cause.getMessage());
+            }
+        });
+        loginTask = Futures.cancelling(task, serverLogin);
+    }
+
+    private void cancelLogin() {
+        if (loginTask != null) {
+            loginTask.cancel(true);
+            loginTask = null;
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancelLogin();
+    }
+
     /**
      * Сохраняет данные пользователя в SharedPreferences
      * 
@@ -468,41 +516,7 @@ public class AuthViewModel extends AndroidViewModel {
                     // После успешного Google Sign-In с Firebase, логинимся на нашем сервере
                     Log.d(TAG,
                             "Google Sign-In success with Firebase, calling server login for user: " + user.getEmail());
-                    userService.loginFirebaseUser(user.getEmail(), user.getUid(), new UserService.UserCallback() {
-                        @Override
-                        public void onSuccess(ApiResponse response) {
-                            // Получаем внутренний ID и права от сервера
-                            String internalUserId = response.getUserId();
-                            int permissionLevel = response.getPermission(); // Получаем permission
-                            if (internalUserId == null || internalUserId.isEmpty()) {
-                                Log.e(TAG,
-                                        "Внутренний userId не пришел от сервера при Google Sign-In! Сохраняем Firebase UID.");
-                                internalUserId = user.getUid(); // Запасной вариант
-                            }
-                            if (permissionLevel == 0) { // Если сервер не вернул или вернул 0
-                                Log.w(TAG, "Уровень прав не пришел от сервера при Google Sign-In. Установлен 1.");
-                                permissionLevel = 1; // Значение по умолчанию
-                            }
-                            // Сохраняем данные с внутренним ID и правами
-                            saveUserData(user, internalUserId, permissionLevel);
-                            isLoading.postValue(false);
-                            isAuthenticated.postValue(true);
-                            Log.d(TAG, "Google Sign-In: Успешный вход, ID: " + internalUserId + ", Права: "
-                                    + permissionLevel);
-                        }
-
-                        @Override
-                        public void onFailure(String errorMessage) {
-                            // Ошибка при логине на НАШЕМ сервере после Google Sign-In
-                            Log.e(TAG, "Ошибка логина на сервере после Google Sign-In: " + errorMessage);
-                            // Сохраняем Firebase UID и права по умолчанию (1) при ошибке сервера
-                            saveUserData(user, user.getUid(), 1);
-                            isLoading.postValue(false);
-                            isAuthenticated.postValue(true); // Считаем аутентифицированным локально
-                            AuthViewModel.this.errorMessage
-                                    .postValue("Ошибка синхронизации с сервером: " + errorMessage);
-                        }
-                    });
+                    completeServerLogin(user, "Google Sign-In");
                 }
 
                 @Override
@@ -1,8 +1,6 @@
 package com.example.cooking.ui.viewmodels;
 
 import android.app.Application;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.net.Uri;
@@ -16,15 +14,20 @@ import androidx.lifecycle.MutableLiveData;
 import com.example.cooking.Recipe.Ingredient;
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.Recipe.Step;
+import com.example.cooking.data.outbox.RecipeIdReconciler;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.network.json.Json;
+import com.example.cooking.utils.AppExecutors;
+import com.example.cooking.utils.ImageIngestor;
 import com.example.cooking.utils.MySharedPreferences;
 import com.example.cooking.network.services.RecipeManager;
+import com.google.gson.Gson;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ViewModel для экрана редактирования рецепта.
@@ -34,7 +37,9 @@ public class EditRecipeViewModel extends AndroidViewModel {
 
     private final RecipeManager recipeManager;
     private final MySharedPreferences preferences;
-    private final ExecutorService executor;
+    // Общий пул вычислений (обработка фото); после onCleared новые задачи не запускаются
+    private final Executor executor;
+    private volatile boolean cleared = false;
 
     // LiveData для состояний UI
     private final MutableLiveData<Boolean> isSaving = new MutableLiveData<>(false);
@@ -47,15 +52,28 @@ public class EditRecipeViewModel extends AndroidViewModel {
     private final MutableLiveData<List<Ingredient>> ingredients = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<List<Step>> steps = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<String> photoUrl = new MutableLiveData<>(null); // URL исходного фото
-    private final MutableLiveData<byte[]> imageBytes = new MutableLiveData<>(null); // Новое выбранное/загруженное фото
+    private final MutableLiveData<File> imageFile = new MutableLiveData<>(null); // Новое выбранное фото (подготовленный файл)
     private boolean imageChanged = false; // Флаг, указывающий, было ли изменено изображение
     private Uri selectedImageUri = null; // Uri выбранного изображения
+    // Прогресс подготовки фото (0..100), null - обработка не идет
+    private final MutableLiveData<Integer> imageProgress = new MutableLiveData<>(null);
+    // Номер последнего выбранного изображения, чтобы отбросить устаревшие результаты
+    private final AtomicInteger imageGeneration = new AtomicInteger();
+    // Прогресс отправки фото на сервер (0..100), null - отправка не идет
+    private final MutableLiveData<Integer> uploadProgress = new MutableLiveData<>(null);
+
+    // Снимок исходных данных рецепта для определения измененных полей.
+    // Списки храним в JSON, т.к. адаптеры редактируют элементы на месте.
+    private static final Gson gson = Json.gson();
+    private String originalTitle = "";
+    private String originalIngredientsJson = "";
+    private String originalStepsJson = "";
 
     public EditRecipeViewModel(@NonNull Application application) {
         super(application);
-        recipeManager = new RecipeManager(application);
+        recipeManager = AppContainer.getInstance(application).recipeManager();
         preferences = new MySharedPreferences(application);
-        executor = Executors.newSingleThreadExecutor();
+        executor = AppExecutors.getInstance().compute();
     }
 
     /**
@@ -66,7 +84,7 @@ public class EditRecipeViewModel extends AndroidViewModel {
         recipeId.setValue(recipeToEdit.getId());
         title.setValue(recipeToEdit.getTitle() != null ? recipeToEdit.getTitle() : "");
         photoUrl.setValue(recipeToEdit.getPhoto_url()); // Сохраняем исходный URL
-        imageBytes.setValue(null); // Сбрасываем новое/выбранное изображение
+        imageFile.setValue(null); // Сбрасываем новое/выбранное изображение
         selectedImageUri = null; // Сбрасываем Uri
         imageChanged = false;
 
@@ -90,6 +108,8 @@ public class EditRecipeViewModel extends AndroidViewModel {
         ingredients.setValue(new ArrayList<>(initialIngredients)); // Используем копию
         steps.setValue(new ArrayList<>(initialSteps)); // Используем копию
 
+        rememberOriginalState(title.getValue(), initialIngredients, initialSteps);
+
         Log.d(TAG, "setRecipeData: Установлены данные для рецепта ID " + recipeId.getValue() + ", Ингредиентов: " + ingredients.getValue().size() + ", Шагов: " + steps.getValue().size());
     }
 
@@ -194,78 +214,45 @@ public class EditRecipeViewModel extends AndroidViewModel {
     // --- Обработка и загрузка изображений ---
 
     /**
-     * Загружает изображение по URL (обычно для отображения существующего фото)
-     */
-    public void loadImageFromUrl(String url) {
-        if (url == null || url.isEmpty() || imageBytes.getValue() != null) {
-            Log.d(TAG, "loadImageFromUrl: URL пуст или уже есть новое изображение, загрузка пропущена.");
-            return;
-        }
-        //isLoading.setValue(true); // Возможно, индикатор загрузки не нужен здесь
-        executeIfActive(() -> {
-            try {
-                java.net.URL imageUrl = new java.net.URL(url);
-                Bitmap bitmap = BitmapFactory.decodeStream(imageUrl.openConnection().getInputStream());
-                if (bitmap != null) {
-                    Bitmap resizedBitmap = resizeBitmap(bitmap, 800);
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    resizedBitmap.compress(Bitmap.CompressFormat.JPEG, 80, baos);
-                    byte[] bytes = baos.toByteArray();
-                    if (imageBytes.getValue() == null && selectedImageUri == null) { // Устанавливаем только если нет нового
-                        imageBytes.postValue(bytes);
-                        imageChanged = false;
-                    }
-                    Log.d(TAG, "loadImageFromUrl: Исходное изображение загружено.");
-                } else {
-                     Log.e(TAG, "loadImageFromUrl: Не удалось декодировать Bitmap.");
-                    //errorMessage.postValue("Не удалось загрузить исходное изображение");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "loadImageFromUrl: Ошибка при загрузке изображения", e);
-                //errorMessage.postValue("Ошибка загрузки изображения: " + e.getMessage());
-            } finally {
-                 //isLoading.postValue(false);
-            }
-        });
-    }
-
-    /**
-     * Обрабатывает новое выбранное изображение из галереи
+     * Обрабатывает новое выбранное изображение из галереи в фоне:
+     * уменьшает, поворачивает по EXIF и кодирует в WebP
      */
     public void processSelectedImage(Uri imageUri) {
         if (imageUri == null) {
             errorMessage.setValue("Ошибка при выборе изображения: Uri = null");
             return;
         }
+        int generation = imageGeneration.incrementAndGet();
         isSaving.setValue(true);
+        imageProgress.setValue(0);
         executeIfActive(() -> {
             try {
-                InputStream inputStream = getApplication().getContentResolver().openInputStream(imageUri);
-                if (inputStream != null) {
-                    Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-                    inputStream.close();
-                    if (bitmap != null) {
-                        Bitmap resizedBitmap = resizeBitmap(bitmap, 800);
-                        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                        resizedBitmap.compress(Bitmap.CompressFormat.JPEG, 85, baos); // Качество 85
-                        byte[] bytes = baos.toByteArray();
-                        imageBytes.postValue(bytes);
-                        imageChanged = true;
-                        photoUrl.postValue(null); // Сбрасываем старый URL, т.к. есть новое фото
-                        Log.d(TAG, "processSelectedImage: Изображение обработано, размер: " + bytes.length + " байт");
-                    } else {
-                        errorMessage.postValue("Не удалось декодировать изображение");
-                    }
-                } else {
-                    errorMessage.postValue("Не удалось открыть поток данных для изображения");
+                File file = ImageIngestor.ingestToFile(getApplication(), imageUri,
+                        percent -> {
+                            if (generation == imageGeneration.get()) {
+                                imageProgress.postValue(percent);
+                            }
+                        });
+                if (generation != imageGeneration.get()) {
+                    return; // Уже выбрано другое изображение
                 }
+                imageFile.postValue(file);
+                imageChanged = true;
+                photoUrl.postValue(null); // Сбрасываем старый URL, т.к. есть новое фото
+                Log.d(TAG, "processSelectedImage: Изображение обработано, размер: " + file.length() + " байт");
             } catch (Exception e) {
+                if (generation != imageGeneration.get()) {
+                    return;
+                }
                 Log.e(TAG, "processSelectedImage: Ошибка при обработке изображения", e);
                 errorMessage.postValue("Ошибка обработки изображения: " + e.getMessage());
-                imageBytes.postValue(null);
+                imageFile.postValue(null);
                 imageChanged = false;
             } finally {
-                isSaving.postValue(false);
+                if (generation == imageGeneration.get()) {
+                    imageProgress.postValue(null);
+                    isSaving.postValue(false);
+                }
             }
         });
     }
@@ -281,6 +268,28 @@ public class EditRecipeViewModel extends AndroidViewModel {
         }
         Log.d(TAG, "saveRecipe: Валидация ВСЕХ полей пройдена");
 
+        String currentTitle = title.getValue();
+        List<Ingredient> currentIngredients = ingredients.getValue();
+        List<Step> currentSteps = steps.getValue();
+        File currentImageFile = imageChanged ? imageFile.getValue() : null;
+        Integer currentRecipeId = recipeId.getValue();
+        String userId = preferences.getString("userId", "0");
+        int permission = preferences.getInt("permission", 1);
+
+        // Определяем измененные поля, неизмененные на сервер не отправляем
+        boolean titleChanged = currentTitle != null && !currentTitle.equals(originalTitle);
+        String ingredientsJson = gson.toJson(currentIngredients);
+        String stepsJson = gson.toJson(currentSteps);
+        boolean ingredientsChanged = !ingredientsJson.equals(originalIngredientsJson);
+        boolean stepsChanged = !stepsJson.equals(originalStepsJson);
+        boolean photoChanged = currentImageFile != null;
+
+        if (!titleChanged && !ingredientsChanged && !stepsChanged && !photoChanged) {
+            Log.d(TAG, "saveRecipe: Изменений нет, запрос не отправляется");
+            saveResult.setValue(true);
+            return;
+        }
+
         if (!isNetworkAvailable()) {
             Log.w(TAG, "saveRecipe: Сеть недоступна");
             errorMessage.setValue("Нет подключения к интернету для сохранения рецепта.");
@@ -291,35 +300,43 @@ public class EditRecipeViewModel extends AndroidViewModel {
         isSaving.setValue(true);
         errorMessage.setValue(null);
 
-        String currentTitle = title.getValue();
-        List<Ingredient> currentIngredients = ingredients.getValue();
-        List<Step> currentSteps = steps.getValue();
-        byte[] currentImageBytes = imageBytes.getValue();
-        Integer currentRecipeId = recipeId.getValue();
-        String userId = preferences.getString("userId", "0");
-        int permission = preferences.getInt("permission", 1);
-
         if (currentRecipeId == null) {
             errorMessage.setValue("Ошибка: ID рецепта отсутствует.");
             isSaving.setValue(false);
             return;
         }
-        Log.d(TAG, "saveRecipe: ID рецепта = " + currentRecipeId);
-        Log.d(TAG, String.valueOf(permission));
-        Log.d(TAG, userId);
-        Log.d(TAG, "saveRecipe: Вызов recipeManager.updateRecipe...");
+        // Рецепт мог быть создан офлайн: берем серверный ID, если он уже известен
+        currentRecipeId = RecipeIdReconciler.getInstance().resolve(currentRecipeId);
+        if (RecipeIdReconciler.isTemporaryId(currentRecipeId)) {
+            errorMessage.setValue("Рецепт еще не отправлен на сервер. Попробуйте позже.");
+            isSaving.setValue(false);
+            return;
+        }
+        recipeId.setValue(currentRecipeId);
+        Log.d(TAG, "saveRecipe: ID рецепта = " + currentRecipeId + ", изменены:"
+                + (titleChanged ? " название" : "")
+                + (ingredientsChanged ? " ингредиенты" : "")
+                + (stepsChanged ? " шаги" : "")
+                + (photoChanged ? " фото" : ""));
         recipeManager.updateRecipe(
-            currentTitle,
-            currentIngredients,
-            currentSteps,
+            titleChanged ? currentTitle : null,
+            ingredientsChanged ? currentIngredients : null,
+            stepsChanged ? currentSteps : null,
             userId,
             currentRecipeId,
-            imageChanged ? currentImageBytes : null,
+            currentImageFile,
             permission,
+            (sent, total) -> uploadProgress.postValue(total > 0 ? (int) (sent * 100 / total) : 0),
             new RecipeManager.RecipeSaveCallback() {
                 @Override
                 public void onSuccess(String message) {
+                    // Отправленное состояние становится новой точкой отсчета
+                    originalTitle = titleChanged ? currentTitle : originalTitle;
+                    originalIngredientsJson = ingredientsJson;
+                    originalStepsJson = stepsJson;
+                    imageChanged = false;
                     isSaving.postValue(false);
+                    uploadProgress.postValue(null);
                     saveResult.postValue(true);
                     Log.d(TAG, "Рецепт успешно обновлен: " + message);
                     // Очистка кэша? Возможно, не здесь, а при возврате в список
@@ -328,6 +345,7 @@ public class EditRecipeViewModel extends AndroidViewModel {
                 @Override
                 public void onFailure(String error) {
                     isSaving.postValue(false);
+                    uploadProgress.postValue(null);
                     errorMessage.postValue(error);
                     saveResult.postValue(false);
                     Log.e(TAG, "Ошибка обновления рецепта: " + error);
@@ -336,6 +354,25 @@ public class EditRecipeViewModel extends AndroidViewModel {
         );
     }
 
+    /**
+     * Запоминает исходное состояние рецепта для последующего сравнения
+     */
+    private void rememberOriginalState(String currentTitle, List<Ingredient> currentIngredients, List<Step> currentSteps) {
+        originalTitle = currentTitle != null ? currentTitle : "";
+        originalIngredientsJson = gson.toJson(currentIngredients);
+        originalStepsJson = gson.toJson(currentSteps);
+    }
+
+    /**
+     * @return true, если есть несохраненные изменения
+     */
+    public boolean hasUnsavedChanges() {
+        return imageChanged
+                || !originalTitle.equals(title.getValue() != null ? title.getValue() : "")
+                || !originalIngredientsJson.equals(gson.toJson(ingredients.getValue()))
+                || !originalStepsJson.equals(gson.toJson(steps.getValue()));
+    }
+
     // --- Валидация ---
 
     private boolean validateAll() {
@@ -410,7 +447,9 @@ public class EditRecipeViewModel extends AndroidViewModel {
     public LiveData<List<Ingredient>> getIngredients() { return ingredients; }
     public LiveData<List<Step>> getSteps() { return steps; }
     public LiveData<String> getPhotoUrl() { return photoUrl; } // URL исходного фото
-    public LiveData<byte[]> getImageBytes() { return imageBytes; } // Новое/загруженное фото
+    public LiveData<File> getImageFile() { return imageFile; } // Новое выбранное фото
+    public LiveData<Integer> getUploadProgress() { return uploadProgress; } // Прогресс отправки фото
+    public LiveData<Integer> getImageProgress() { return imageProgress; } // Прогресс подготовки фото
 
     // --- Методы для сброса сообщений/результатов --- 
     public void clearErrorMessage() {
@@ -429,35 +468,22 @@ public class EditRecipeViewModel extends AndroidViewModel {
         return activeNetwork != null && activeNetwork.isConnectedOrConnecting();
     }
 
-    private Bitmap resizeBitmap(Bitmap bitmap, int maxSide) {
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-        float ratio = (float) width / height;
-
-        if (width > height) {
-            if (width > maxSide) {
-                width = maxSide;
-                height = (int) (width / ratio);
-            }
-        } else {
-            if (height > maxSide) {
-                height = maxSide;
-                width = (int) (height * ratio);
-            }
-        }
-        return Bitmap.createScaledBitmap(bitmap, width, height, true);
-    }
-
     private void executeIfActive(Runnable task) {
-        if (!executor.isShutdown()) {
-            executor.execute(task);
+        if (!cleared) {
+            executor.execute(() -> {
+                if (!cleared) {
+                    task.run();
+                }
+            });
         }
     }
 
     @Override
     protected void onCleared() {
         super.onCleared();
-        executor.shutdown();
+        cleared = true;
+        // Запрос сохранения рецепта не отменяем: изменение должно дойти до сервера,
+        // даже если пользователь уже ушел с экрана
     }
 
     // Новый метод для установки Uri
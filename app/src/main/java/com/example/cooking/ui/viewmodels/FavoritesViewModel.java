@@ -4,27 +4,32 @@ import android.app.Application;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.util.Pair;
 import androidx.fragment.app.FragmentActivity;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.example.cooking.Recipe.Ingredient;
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.data.repositories.LikedRecipesRepository;
-import com.example.cooking.data.repositories.RecipeLocalRepository;
-import com.example.cooking.data.repositories.RecipeRemoteRepository;
+import com.example.cooking.data.search.IngredientIndex;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.network.services.CallScope;
+import com.example.cooking.utils.AppExecutors;
 import com.example.cooking.utils.MySharedPreferences;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * ViewModel для FavoritesFragment
@@ -33,12 +38,14 @@ import java.util.stream.Collectors;
 public class FavoritesViewModel extends AndroidViewModel {
     
     private static final String TAG = "FavoritesViewModel";
+    // Как часто (в рецептах) проверять, не устарел ли текущий запрос фильтрации
+    private static final int FILTER_CANCEL_CHECK_INTERVAL = 32;
     private final LikedRecipesRepository likedRecipesRepository;
-    private final RecipeLocalRepository recipeLocalRepository;
     private LikeSyncViewModel likeSyncViewModel;
-    private final ExecutorService executor;
+    // Фильтрация идет по очереди в общем пуле вычислений, чтобы поиск не ждал записи в БД
+    private final Executor filterExecutor;
+    private volatile boolean cleared = false;
     private final MySharedPreferences preferences;
-    private final RecipeRemoteRepository remoteRepository;
 
 
     // LiveData для состояния UI (загрузка, ошибки, поиск)
@@ -53,23 +60,66 @@ public class FavoritesViewModel extends AndroidViewModel {
     private String userId;
     private LiveData<List<Recipe>> repositoryLikedRecipes; // LiveData из репозитория
     
+    // Фильтрация избранного в фоне
+    private final MediatorLiveData<List<Recipe>> filteredLikedRecipes = new MediatorLiveData<>();
+    private LiveData<List<Recipe>> observedLikedSource;
+    private boolean isQuerySourceAdded = false;
+    private final AtomicInteger filterGeneration = new AtomicInteger();
+    // Новый список из репозитория, для которого еще не построены ключи поиска
+    private final AtomicReference<List<Recipe>> pendingLikedSource = new AtomicReference<>();
+    // Рецепты с заранее нормализованными ключами (доступ только из filterExecutor)
+    private List<SearchableRecipe> searchableRecipes = new ArrayList<>();
+    private Future<?> pendingFilter;
+    // Синхронизация избранного с сервером; отменяется в onCleared
+    private final CallScope calls = new CallScope(TAG);
+    
+    /**
+     * Рецепт с заранее нормализованными строками для поиска
+     */
+    private static class SearchableRecipe {
+        final Recipe recipe;
+        final String titleKey;
+        final String[] ingredientKeys;
+        
+        SearchableRecipe(Recipe recipe) {
+            this.recipe = recipe;
+            this.titleKey = IngredientIndex.normalize(recipe.getTitle());
+            List<Ingredient> ingredients = recipe.getIngredients();
+            int count = ingredients != null ? ingredients.size() : 0;
+            this.ingredientKeys = new String[count];
+            for (int i = 0; i < count; i++) {
+                ingredientKeys[i] = IngredientIndex.normalize(ingredients.get(i).getName());
+            }
+        }
+        
+        boolean matches(String query) {
+            if (titleKey.contains(query)) {
+                return true;
+            }
+            for (String key : ingredientKeys) {
+                if (key.contains(query)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
     // Периодическая синхронизация (оставлена без изменений)
     private Runnable syncRunnable;
     private android.os.Handler syncHandler;
     
     public FavoritesViewModel(@NonNull Application application) {
         super(application);
-        likedRecipesRepository = new LikedRecipesRepository(application);
-        recipeLocalRepository = new RecipeLocalRepository(application);
-        remoteRepository = new RecipeRemoteRepository(application);
+        likedRecipesRepository = AppContainer.getInstance(application).likedRecipesRepository();
         preferences = new MySharedPreferences(application);
-        executor = Executors.newSingleThreadExecutor();
+        filterExecutor = AppExecutors.serial(AppExecutors.getInstance().compute());
         userId = preferences.getString("userId", "0");
         syncHandler = new android.os.Handler();
         
         // Инициализируем LiveData из репозитория
         if (isUserLoggedIn()) {
-            repositoryLikedRecipes = likedRecipesRepository.getLikedRecipes(userId);
+            repositoryLikedRecipes = likedRecipesRepository.getLikedRecipes(userId, calls);
         } else {
             // Если пользователь не вошел, создаем пустой LiveData
             MutableLiveData<List<Recipe>> emptyData = new MutableLiveData<>();
@@ -88,18 +138,16 @@ public class FavoritesViewModel extends AndroidViewModel {
         likeSyncViewModel.getLikeChangeEvent().observe(owner, event -> {
             if (event != null && !event.equals(lastProcessedLikeEvent)) {
                 Log.d(TAG, "Received like change event from LikeSyncViewModel: " + event.first + " -> " + event.second);
-                // Обновляем статус лайка в ЛОКАЛЬНОЙ БД ОСНОВНЫХ рецептов
-                updateLocalRecipeLikeStatus(event.first, event.second);
-                // Обновляем статус лайка в ЛОКАЛЬНОЙ БД ЛАЙКНУТЫХ рецептов
-                // (это вызовет обновление repositoryLikedRecipes, если статус изменился)
-                likedRecipesRepository.updateLikeStatusLocal(event.first, userId, event.second);
+                // БД уже обновлена через LikeStore тем экраном, где нажали лайк,
+                // список обновится сам через LiveData Room - повторно не пишем
             }
         });
     }
     
     /**
      * Возвращает LiveData со списком избранных рецептов (фильтрованным по поиску).
-     * Использует Transformations.switchMap для реагирования на изменения поискового запроса.
+     * Фильтрация выполняется в фоновом потоке: ключи поиска нормализуются один раз
+     * на каждый новый список из репозитория, а устаревшие запросы отменяются.
      */
     public LiveData<List<Recipe>> getFilteredLikedRecipes() {
         // Если пользователь не авторизован, всегда возвращаем пустой список
@@ -111,40 +159,96 @@ public class FavoritesViewModel extends AndroidViewModel {
         }
         errorMessage.setValue(null); // Сброс ошибки, если пользователь вошел
         
-        return Transformations.switchMap(currentSearchQuery, query -> 
-            Transformations.map(repositoryLikedRecipes, recipes -> {
-                if (query == null || query.trim().isEmpty()) {
-                    Log.d(TAG, "Фильтрация неактивна, возвращаем все лайкнутые: " + (recipes != null ? recipes.size() : 0));
-                    return recipes != null ? recipes : new ArrayList<>();
-                }
-                List<Recipe> filteredList = new ArrayList<>();
-                if (recipes != null) {
-                     String lowerCaseQuery = query.toLowerCase().trim();
-                    for (Recipe recipe : recipes) {
-                         boolean titleMatch = recipe.getTitle() != null && recipe.getTitle().toLowerCase().contains(lowerCaseQuery);
-                         boolean ingredientMatch = false;
-                         if (recipe.getIngredients() != null) {
-                             for (Ingredient ingredient : recipe.getIngredients()) {
-                                 if (ingredient.getName() != null && ingredient.getName().toLowerCase().contains(lowerCaseQuery)) {
-                                     ingredientMatch = true;
-                                     break;
-                                 }
-                             }
-                         }
-                         if (titleMatch || ingredientMatch) {
-                             filteredList.add(recipe);
-                         }
-                    }
+        if (!isQuerySourceAdded) {
+            filteredLikedRecipes.addSource(currentSearchQuery, query -> scheduleFilter());
+            isQuerySourceAdded = true;
+        }
+        bindLikedSource();
+        return filteredLikedRecipes;
+    }
+    
+    /**
+     * Подписывает фильтр на актуальную LiveData репозитория (меняется при смене пользователя)
+     */
+    private void bindLikedSource() {
+        if (observedLikedSource == repositoryLikedRecipes) {
+            return;
+        }
+        if (observedLikedSource != null) {
+            filteredLikedRecipes.removeSource(observedLikedSource);
+        }
+        observedLikedSource = repositoryLikedRecipes;
+        filteredLikedRecipes.addSource(observedLikedSource, recipes -> {
+            pendingLikedSource.set(recipes != null ? recipes : new ArrayList<>());
+            scheduleFilter();
+        });
+    }
+    
+    /**
+     * Запускает фильтрацию в фоне, отменяя предыдущую незавершенную
+     */
+    private void scheduleFilter() {
+        String query = currentSearchQuery.getValue();
+        int generation = filterGeneration.incrementAndGet();
+        if (pendingFilter != null) {
+            pendingFilter.cancel(false);
+        }
+        if (cleared) {
+            return;
+        }
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            // Новый список из репозитория: нормализуем ключи один раз
+            List<Recipe> newSource = pendingLikedSource.getAndSet(null);
+            if (newSource != null) {
+                List<SearchableRecipe> prepared = new ArrayList<>(newSource.size());
+                for (Recipe recipe : newSource) {
+                    prepared.add(new SearchableRecipe(recipe));
                 }
-                Log.d(TAG, "Фильтрация по '" + query + "', найдено: " + filteredList.size());
-                 if (filteredList.isEmpty() && !query.trim().isEmpty()) {
-                     errorMessage.postValue("По запросу \"" + query + "\" ничего не найдено");
-                 } else {
-                     errorMessage.postValue(null);
-                 }
-                return filteredList;
-            })
-        );
+                searchableRecipes = prepared;
+            }
+            if (generation != filterGeneration.get()) {
+                return;
+            }
+            List<Recipe> result = filterRecipes(searchableRecipes, query, generation);
+            if (result == null || generation != filterGeneration.get()) {
+                return; // Запрос устарел
+            }
+            filteredLikedRecipes.postValue(result);
+            if (result.isEmpty() && query != null && !query.trim().isEmpty()) {
+                errorMessage.postValue("По запросу \"" + query + "\" ничего не найдено");
+            } else {
+                errorMessage.postValue(null);
+            }
+        }, null);
+        pendingFilter = task;
+        filterExecutor.execute(task);
+    }
+    
+    /**
+     * Фильтрует рецепты по названию и ингредиентам.
+     * @return отфильтрованный список или null, если запрос устарел во время работы
+     */
+    @Nullable
+    private List<Recipe> filterRecipes(List<SearchableRecipe> recipes, String query, int generation) {
+        String normalizedQuery = IngredientIndex.normalize(query);
+        List<Recipe> filteredList = new ArrayList<>();
+        if (normalizedQuery.isEmpty()) {
+            for (SearchableRecipe searchable : recipes) {
+                filteredList.add(searchable.recipe);
+            }
+            return filteredList;
+        }
+        for (int i = 0; i < recipes.size(); i++) {
+            if (i % FILTER_CANCEL_CHECK_INTERVAL == 0 && generation != filterGeneration.get()) {
+                return null;
+            }
+            SearchableRecipe searchable = recipes.get(i);
+            if (searchable.matches(normalizedQuery)) {
+                filteredList.add(searchable.recipe);
+            }
+        }
+        Log.d(TAG, "Фильтрация по '" + query + "', найдено: " + filteredList.size());
+        return filteredList;
     }
     
     /**
@@ -228,7 +332,8 @@ public class FavoritesViewModel extends AndroidViewModel {
     
     /**
      * Обновляет состояние лайка для рецепта.
-     * Обновляет ОБЕ локальные БД (LikedRecipeEntity и RecipeEntity) и оповещает SharedViewModel.
+     * recipes, liked_recipes и очередь отправки обновляются одной транзакцией
+     * через LikeStore, затем оповещается SharedViewModel.
      * UI обновится автоматически через LiveData.
      */
     public void toggleLikeStatus(Recipe recipe, boolean isLiked) {
@@ -237,18 +342,10 @@ public class FavoritesViewModel extends AndroidViewModel {
             return;
         }
         
-        // 1. Обновляем статус в ЛОКАЛЬНОЙ БД ЛАЙКНУТЫХ рецептов
-        executeIfActive(() -> {
-            Log.d(TAG, "Toggle like (LikedRepo): recipeId=" + recipe.getId() + ", userId=" + userId + ", isLiked=" + isLiked);
-            likedRecipesRepository.updateLikeStatusLocal(recipe.getId(), userId, isLiked);
-        });
+        Log.d(TAG, "Toggle like: recipeId=" + recipe.getId() + ", userId=" + userId + ", isLiked=" + isLiked);
+        AppContainer.getInstance(getApplication()).likeStore().setLiked(userId, recipe.getId(), isLiked);
 
-        // 2. Обновляем статус в ЛОКАЛЬНОЙ БД ОСНОВНЫХ рецептов
-        updateLocalRecipeLikeStatus(recipe.getId(), isLiked);
-
-        updateLikedRepositoryStatus(recipe.getId(), isLiked);
-
-        // 3. Оповещаем Shared ViewModel об изменении
+        // Оповещаем Shared ViewModel об изменении
         // Используем сохраненную переменную likeSyncViewModel
         if (likeSyncViewModel != null) {
             Log.d(TAG, "Notifying LikeSyncViewModel about change: " + recipe.getId() + " -> " + isLiked);
@@ -258,43 +355,6 @@ public class FavoritesViewModel extends AndroidViewModel {
         } else {
             Log.e(TAG, "LikeSyncViewModel is null! Cannot notify.");
         }
-
-        remoteRepository.updateLikeStatus(recipe, isLiked);
-
-    }
-
-    /**
-     * Обновляет статус лайка в локальной БД ОСНОВНЫХ рецептов (RecipeEntity).
-     */
-    private void updateLocalRecipeLikeStatus(int recipeId, boolean isLiked) {
-        executeIfActive(() -> {
-             try {
-                 Log.d(TAG, "Updating like status in local MAIN REPOSITORY for recipe " + recipeId + " to " + isLiked);
-                 recipeLocalRepository.updateLikeStatus(recipeId, isLiked);
-             } catch (Exception e) {
-                 Log.e(TAG, "Error updating like status in local main repository: " + e.getMessage(), e);
-             }
-        });
-    }
-
-    private void updateLikedRepositoryStatus(int recipeId, boolean isLiked) {
-        String currentUserId = new MySharedPreferences(getApplication()).getString("userId", "0");
-        if (currentUserId.equals("0")) {
-            Log.w(TAG, "Cannot update liked repository status: User ID is 0.");
-            return;
-        }
-        executeIfActive(() -> {
-            try {
-                Log.d(TAG, "Updating like status in LIKED REPOSITORY for recipe " + recipeId + " to " + isLiked);
-                if (isLiked) {
-                    likedRecipesRepository.insertLikedRecipeLocal(recipeId, currentUserId);
-                } else {
-                    likedRecipesRepository.deleteLikedRecipeLocal(recipeId, currentUserId);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error updating status in liked repository: " + e.getMessage(), e);
-            }
-        });
     }
     
     /**
@@ -316,6 +376,9 @@ public class FavoritesViewModel extends AndroidViewModel {
          MutableLiveData<List<Recipe>> emptyData = new MutableLiveData<>();
          emptyData.setValue(new ArrayList<>());
          repositoryLikedRecipes = emptyData; // Устанавливаем пустой LiveData
+         if (observedLikedSource != null) {
+             bindLikedSource();
+         }
          currentSearchQuery.setValue(""); // Сбрасываем поиск
          errorMessage.setValue("Для просмотра избранных рецептов необходимо войти в аккаунт");
     }
@@ -325,7 +388,10 @@ public class FavoritesViewModel extends AndroidViewModel {
         Log.d(TAG, "Вход пользователя: " + newUserId);
         userId = newUserId;
         if (isUserLoggedIn()) {
-            repositoryLikedRecipes = likedRecipesRepository.getLikedRecipes(userId);
+            repositoryLikedRecipes = likedRecipesRepository.getLikedRecipes(userId, calls);
+            if (observedLikedSource != null) {
+                bindLikedSource();
+            }
             errorMessage.setValue(null);
         } else {
             updateLikedRecipesOnLogout();
@@ -358,24 +424,12 @@ public class FavoritesViewModel extends AndroidViewModel {
         if (syncHandler != null && syncRunnable != null) {
             syncHandler.removeCallbacks(syncRunnable);
         }
-        executor.shutdownNow();
-        Log.d(TAG, "FavoritesViewModel cleared");
-    }
-    
-    /**
-     * Метод, выполняющий операцию в executor с проверкой его состояния
-     * @param task задача для выполнения
-     */
-    private void executeIfActive(Runnable task) {
-        if (executor != null && !executor.isShutdown() && !executor.isTerminated()) {
-            try {
-                executor.execute(task);
-            } catch (Exception e) {
-                Log.e(TAG, "Ошибка при выполнении задачи в Executor", e);
-            }
-        } else {
-             Log.w(TAG, "Executor is null or shut down, skipping task");
+        cleared = true;
+        if (pendingFilter != null) {
+            pendingFilter.cancel(true);
         }
+        calls.close();
+        Log.d(TAG, "FavoritesViewModel cleared");
     }
     
     /**
@@ -9,31 +9,40 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.fragment.app.FragmentActivity;
 
 import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.data.database.FacetCount;
 import com.example.cooking.data.repositories.RecipeLocalRepository;
 import com.example.cooking.data.repositories.RecipeRemoteRepository;
 import com.example.cooking.data.repositories.LikedRecipesRepository;
+import com.example.cooking.data.search.FacetFilter;
+import com.example.cooking.data.search.IngredientIndex;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.network.services.CallScope;
+import com.example.cooking.utils.AppExecutors;
+import com.example.cooking.utils.Futures;
 import com.example.cooking.utils.MySharedPreferences;
 import android.content.SharedPreferences;
 import androidx.preference.PreferenceManager;
 import com.example.cooking.network.api.SearchApi;
-import com.example.cooking.network.services.RetrofitClient;
 import com.example.cooking.network.responses.SearchResponse;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 import com.example.cooking.utils.RecipeSearchService;
+import com.example.cooking.utils.SearchPageCache;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
-import java.util.HashSet;
 import java.util.Collections;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.ArrayList;
 
 /**
@@ -42,11 +51,25 @@ import java.util.ArrayList;
 public class HomeViewModel extends AndroidViewModel {
     
     private static final String TAG = "HomeViewModel";
+    // Размер одной страницы умного поиска
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private static final int SEARCH_CACHE_MAX_QUERIES = 8;
+    private static final int SEARCH_CACHE_MAX_PAGE_DISTANCE = 5;
+    // Сколько рецептов показываем в поиске по ингредиентам
+    private static final int INGREDIENT_SEARCH_LIMIT = 50;
     private final RecipeLocalRepository localRepository;
     private final RecipeRemoteRepository remoteRepository;
     private final LikedRecipesRepository likedRecipesRepository;
     private LikeSyncViewModel likeSyncViewModel; // Убрали final, будем инициализировать позже
-    private final ExecutorService executor;
+    // Общий пул чтения БД; после onCleared новые задачи не запускаются
+    private final Executor executor;
+    private volatile boolean cleared = false;
+    // Текущее обновление каталога; отменяется при новом обновлении и в onCleared
+    private CompletableFuture<Void> refreshTask;
+    // Запросы и задачи экрана; отменяются в onCleared
+    private final CallScope calls = new CallScope(TAG);
+    // Снимок карточек с прошлого запуска отдается фрагменту только один раз
+    private boolean startupSnapshotTaken = false;
     
     // LiveData для состояния загрузки и ошибок
     private final MutableLiveData<Boolean> isRefreshing = new MutableLiveData<>(false);
@@ -61,12 +84,35 @@ public class HomeViewModel extends AndroidViewModel {
     // LiveData для результатов поиска
     private final MutableLiveData<List<Recipe>> searchResults = new MutableLiveData<>();
 
+    // Выбранные фасеты ленты и зависящие от них данные из Room
+    private final MutableLiveData<FacetFilter> facetFilter = new MutableLiveData<>(FacetFilter.EMPTY);
+    private final LiveData<List<Recipe>> facetedRecipes;
+    private final LiveData<List<FacetCount>> mealTypeFacets;
+    private final LiveData<List<FacetCount>> foodTypeFacets;
+
+    // Состояние постраничного поиска
+    // Страницы хранят isLiked и удаленные рецепты, поэтому сбрасываются при их изменении
+    private final SearchPageCache<Recipe> searchPageCache = new SearchPageCache<>(
+            SEARCH_CACHE_MAX_QUERIES, SEARCH_CACHE_MAX_PAGE_DISTANCE, SearchPageCache.RESULTS_TTL_MS);
+    private int searchCacheLikeCount;
+    private int searchCacheDeleteCount;
+    private final List<Recipe> loadedSearchResults = new ArrayList<>();
+    private String currentSearchQuery = null;
+    private int loadedSearchPages = 0;
+    private int searchGeneration = 0;
+    private boolean isSearchPageLoading = false;
+    private boolean isSearchEndReached = false;
+
     public HomeViewModel(@NonNull Application application) {
         super(application);
-        localRepository = new RecipeLocalRepository(application);
-        remoteRepository = new RecipeRemoteRepository(application);
-        likedRecipesRepository = new LikedRecipesRepository(application);
-        executor = Executors.newFixedThreadPool(2);
+        AppContainer container = AppContainer.getInstance(application);
+        localRepository = container.recipeLocalRepository();
+        remoteRepository = container.recipeRemoteRepository();
+        likedRecipesRepository = container.likedRecipesRepository();
+        executor = AppExecutors.getInstance().diskRead();
+        facetedRecipes = Transformations.switchMap(facetFilter, localRepository::getRecipesByFacets);
+        mealTypeFacets = Transformations.switchMap(facetFilter, localRepository::getMealTypeFacets);
+        foodTypeFacets = Transformations.switchMap(facetFilter, localRepository::getFoodTypeFacets);
         // likeSyncViewModel инициализируется в observeLikeChanges
     }
     
@@ -79,14 +125,8 @@ public class HomeViewModel extends AndroidViewModel {
         likeSyncViewModel.getLikeChangeEvent().observe(owner, event -> {
             if (event != null && !event.equals(lastProcessedLikeEvent)) {
                 Log.d(TAG, "Received like change event from LikeSyncViewModel: " + event.first + " -> " + event.second);
-                // Добавляем логирование перед обновлением
-                Log.i(TAG, "[LikeSync] Updating local statuses for Recipe ID: " + event.first + " to liked: " + event.second);
-                // Обновляем статус лайка в ЛОКАЛЬНОЙ БД ОСНОВНЫХ рецептов
-                updateLocalLikeStatus(event.first, event.second);
-                // Обновляем статус лайка в ЛОКАЛЬНОЙ БД ЛАЙКНУТЫХ рецептов
-                updateLikedRepositoryStatus(event.first, event.second);
-                // Мы не сохраняем это событие как lastProcessed, так как обновление локальной БД
-                // должно быть идемпотентным.
+                // БД уже обновлена через LikeStore тем экраном, где нажали лайк,
+                // список обновится сам через LiveData Room - повторно не пишем
             } else if (event != null) {
                 Log.d(TAG, "[LikeSync] Ignored duplicate/own like event: " + event.first + " -> " + event.second);
             }
@@ -95,9 +135,77 @@ public class HomeViewModel extends AndroidViewModel {
     
     /**
      * Получить LiveData со списком рецептов из локального хранилища
+     * с учетом выбранных фасетов
      */
     public LiveData<List<Recipe>> getRecipes() {
-        return localRepository.getAllRecipes();
+        return facetedRecipes;
+    }
+    
+    /**
+     * Карточки ленты из бинарного снимка для первого кадра, пока Room не отдал данные.
+     * Читается синхронно (файл отображается в память и занимает единицы КБ).
+     * @return карточки для показа без взаимодействия или пустой список,
+     *         если данные уже есть, открыт поиск или выбраны фасеты
+     */
+    public List<Recipe> takeStartupSnapshot() {
+        if (startupSnapshotTaken || facetedRecipes.getValue() != null || isSearchActive()) {
+            return Collections.emptyList();
+        }
+        startupSnapshotTaken = true;
+        FacetFilter filter = facetFilter.getValue();
+        if (filter != null && !filter.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return AppContainer.getInstance(getApplication()).homeSnapshotStore().read();
+    }
+    
+    /**
+     * Значения фасета "тип приема пищи" с количеством рецептов
+     */
+    public LiveData<List<FacetCount>> getMealTypeFacets() {
+        return mealTypeFacets;
+    }
+    
+    /**
+     * Значения фасета "тип блюда" с количеством рецептов
+     */
+    public LiveData<List<FacetCount>> getFoodTypeFacets() {
+        return foodTypeFacets;
+    }
+    
+    /**
+     * Текущие выбранные фасеты
+     */
+    public LiveData<FacetFilter> getFacetFilter() {
+        return facetFilter;
+    }
+    
+    /**
+     * Выбрать или снять значение фасета "тип приема пищи"
+     */
+    public void toggleMealTypeFacet(String value) {
+        facetFilter.setValue(currentFacetFilter().toggleMealType(value));
+    }
+    
+    /**
+     * Выбрать или снять значение фасета "тип блюда"
+     */
+    public void toggleFoodTypeFacet(String value) {
+        facetFilter.setValue(currentFacetFilter().toggleFoodType(value));
+    }
+    
+    /**
+     * Сбросить все фасеты
+     */
+    public void clearFacets() {
+        if (!currentFacetFilter().isEmpty()) {
+            facetFilter.setValue(FacetFilter.EMPTY);
+        }
+    }
+    
+    private FacetFilter currentFacetFilter() {
+        FacetFilter current = facetFilter.getValue();
+        return current != null ? current : FacetFilter.EMPTY;
     }
     
     /**
@@ -142,78 +250,84 @@ public class HomeViewModel extends AndroidViewModel {
     public void refreshRecipes() {
         isRefreshing.setValue(true);
         Log.d(TAG, "Refreshing recipes...");
-        
-        remoteRepository.getRecipes(new RecipeRemoteRepository.RecipesCallback() {
-            @Override
-            public void onRecipesLoaded(List<Recipe> remoteRecipes) {
-                 Log.d(TAG, "Recipes loaded from remote: " + (remoteRecipes != null ? remoteRecipes.size() : 0));
-                // Сохраняем или обновляем рецепты в локальном хранилище
-                executeIfActive(() -> {
-                    try {
-                        if (remoteRecipes != null) {
-                             // Получаем ID текущего пользователя
-                             String currentUserId = new MySharedPreferences(getApplication()).getString("userId", "0");
-
-                             // Получаем набор ID лайкнутых рецептов из LikedRecipesRepository
-                             Set<Integer> likedRecipeIds = new HashSet<>();
-                             if (!currentUserId.equals("0")) {
-                                 List<Integer> likedIdsList = likedRecipesRepository.getLikedRecipeIdsSync(currentUserId);
-                                 if (likedIdsList != null) {
-                                     likedRecipeIds.addAll(likedIdsList);
-                                 }
-                                 Log.d(TAG, "Loaded liked recipe IDs for user " + currentUserId + ": " + likedRecipeIds.size());
-                             } else {
-                                 Log.w(TAG, "User not logged in (userId=0), cannot load liked IDs.");
-                             }
-
-                             // Обновляем isLiked в полученных с сервера рецептах
-                             for (Recipe remoteRecipe : remoteRecipes) {
-                                 boolean isLiked = likedRecipeIds.contains(remoteRecipe.getId());
-                                 remoteRecipe.setLiked(isLiked);
-                                 // Лог для проверки
-                                 // Log.d(TAG, "Setting like status for ID " + remoteRecipe.getId() + ": " + isLiked);
-                             }
-
-                             // Вставляем/заменяем рецепты с обновленным статусом isLiked
-                             localRepository.insertAll(remoteRecipes);
-                             Log.d(TAG, "Recipes inserted/updated in local storage with like status based on LikedRecipesRepository: " + remoteRecipes.size());
-                        } else {
-                             Log.w(TAG, "Received null recipe list from remote.");
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error saving recipes to local storage", e);
-                        errorMessage.postValue("Ошибка сохранения данных локально.");
-                    } finally {
-                        isRefreshing.postValue(false);
-                         Log.d(TAG, "Recipe refresh finished.");
-                    }
-                });
+        // Предыдущее обновление больше не нужно - отменяем его вместе с HTTP запросом
+        cancelRefresh();
+
+        String currentUserId = new MySharedPreferences(getApplication()).getString("userId", "0");
+
+        // Каталог запрашивается, когда лайкнутые ID уже прочитаны из БД:
+        // сетевой поток не ждет чтения БД посреди разбора ответа
+        CompletableFuture<Set<Integer>> likedIds;
+        if (!currentUserId.equals("0")) {
+            likedIds = likedRecipesRepository.getLikedRecipeIds(currentUserId);
+        } else {
+            Log.w(TAG, "User not logged in (userId=0), cannot load liked IDs.");
+            likedIds = CompletableFuture.completedFuture(Collections.emptySet());
+        }
+
+        // Рецепты пишутся в БД пачками прямо по ходу разбора ответа
+        RecipeLocalRepository.CatalogInserter inserter = localRepository.newCatalogInserter();
+        CompletableFuture<Integer> catalog = Futures.compose(likedIds, liked ->
+                remoteRepository.streamRecipes(recipe -> {
+                    recipe.setLiked(liked.contains(recipe.getId()));
+                    inserter.accept(recipe);
+                }));
+
+        CompletableFuture<Void> task = catalog.thenAcceptAsync(count -> {
+            int saved = inserter.finish();
+            Log.d(TAG, "Recipes streamed from remote: " + count + ", saved to local storage: " + saved);
+            // Следующий холодный старт покажет эти карточки до открытия Room
+            localRepository.refreshHomeSnapshot();
+        }, executor);
+
+        task.whenComplete((ignored, error) -> {
+            Throwable cause = error != null ? Futures.unwrap(error) : null;
+            if (cause != null) {
+                // Ни ошибка, ни отмена не должны оставить в БД часть каталога
+                inserter.abort();
             }
-            
-            @Override
-            public void onDataNotAvailable(String error) {
-                Log.e(TAG, "Error loading recipes from remote: " + error);
-                errorMessage.postValue(error);
-                isRefreshing.postValue(false);
-                 Log.d(TAG, "Recipe refresh finished with error.");
+            if (cause instanceof CancellationException) {
+                return;
+            }
+            if (cause instanceof IOException) {
+                Log.e(TAG, "Error loading recipes from remote: " + cause.getMessage());
+                errorMessage.postValue(cause.getMessage());
+            } else if (cause != null) {
+                Log.e(TAG, "Error saving recipes to local storage", cause);
+                errorMessage.postValue("Ошибка сохранения данных локально.");
             }
+            isRefreshing.postValue(false);
+            Log.d(TAG, "Recipe refresh finished" + (cause != null ? " with error." : "."));
         });
+        refreshTask = calls.track(Futures.cancelling(task, catalog));
+    }
+
+    private void cancelRefresh() {
+        CompletableFuture<Void> previous = refreshTask;
+        refreshTask = null;
+        if (previous != null) {
+            previous.cancel(true);
+        }
     }
     
     /**
      * Обновить состояние лайка для рецепта.
-     * Обновляет локальную БД и оповещает другие компоненты через Shared ViewModel.
+     * Одной транзакцией обновляет локальную БД через LikeStore и оповещает
+     * другие компоненты через Shared ViewModel.
      * @param recipe рецепт
      * @param isLiked новое состояние лайка
      */
     public void updateLikeStatus(Recipe recipe, boolean isLiked) {
-        // 1. Обновляем статус в локальной базе RecipeEntity
-        updateLocalLikeStatus(recipe.getId(), isLiked);
+        String currentUserId = new MySharedPreferences(getApplication()).getString("userId", "0");
+        if (currentUserId.equals("0")) {
+            Log.w(TAG, "Cannot update like status: User ID is 0.");
+            return;
+        }
 
-        // 2. Обновляем статус в локальной базе LikedRecipeEntity
-        updateLikedRepositoryStatus(recipe.getId(), isLiked);
+        // 1. recipes, liked_recipes и очередь отправки на сервер - одна транзакция
+        AppContainer.getInstance(getApplication()).likeStore().setLiked(currentUserId, recipe.getId(), isLiked);
 
-        // 3. Оповещаем Shared ViewModel об изменении (для других фрагментов)
+        // 2. Оповещаем Shared ViewModel об изменении (для других фрагментов)
         // Используем сохраненную переменную likeSyncViewModel
         if (likeSyncViewModel != null) {
              Log.d(TAG, "Notifying LikeSyncViewModel about change: " + recipe.getId() + " -> " + isLiked);
@@ -223,43 +337,6 @@ public class HomeViewModel extends AndroidViewModel {
         } else {
              Log.e(TAG, "LikeSyncViewModel is null! Cannot notify.");
         }
-
-        // 4. Отправляем обновление на сервер (асинхронно)
-        remoteRepository.updateLikeStatus(recipe, isLiked);
-    }
-    
-    /**
-     * Обновляет статус лайка в локальной БД ОСНОВНЫХ рецептов (RecipeEntity).
-     */
-    public void updateLocalLikeStatus(int recipeId, boolean isLiked) {
-        executeIfActive(() -> {
-            try {
-                Log.d(TAG, "Updating like status in local REPOSITORY for recipe " + recipeId + " to " + isLiked);
-                localRepository.updateLikeStatus(recipeId, isLiked);
-            } catch (Exception e) {
-                Log.e(TAG, "Error updating like status in local repository: " + e.getMessage(), e);
-            }
-        });
-    }
-
-    private void updateLikedRepositoryStatus(int recipeId, boolean isLiked) {
-         String currentUserId = new MySharedPreferences(getApplication()).getString("userId", "0");
-        if (currentUserId.equals("0")) {
-            Log.w(TAG, "Cannot update liked repository status: User ID is 0.");
-            return;
-        }
-        executeIfActive(() -> {
-            try {
-                Log.d(TAG, "Updating like status in LIKED REPOSITORY for recipe " + recipeId + " to " + isLiked);
-                if (isLiked) {
-                    likedRecipesRepository.insertLikedRecipeLocal(recipeId, currentUserId);
-                } else {
-                    likedRecipesRepository.deleteLikedRecipeLocal(recipeId, currentUserId);
-                }
-            } catch (Exception e) {
-                 Log.e(TAG, "Error updating status in liked repository: " + e.getMessage(), e);
-            }
-        });
     }
     
     /**
@@ -267,14 +344,18 @@ public class HomeViewModel extends AndroidViewModel {
      * @param task задача для выполнения
      */
     private void executeIfActive(Runnable task) {
-        if (executor != null && !executor.isShutdown()) {
-            try {
-                executor.execute(task);
-            } catch (Exception e) {
-                 Log.e(TAG, "Error executing task in executor", e);
-            }
-        } else {
-            Log.w(TAG, "Executor is null or shut down, skipping task");
+        if (cleared) {
+            Log.w(TAG, "ViewModel cleared, skipping task");
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                if (!cleared) {
+                    task.run();
+                }
+            });
+        } catch (Exception e) {
+             Log.e(TAG, "Error executing task in executor", e);
         }
     }
     
@@ -284,45 +365,50 @@ public class HomeViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
+        cleared = true;
+        // Обновление каталога, страницы поиска и их разбор экрану больше не нужны
+        calls.close();
          Log.d(TAG, "HomeViewModel cleared.");
     }
 
     /**
-     * Выполнить поиск рецептов, учитывая настройку Smart Search
+     * Выполнить поиск рецептов, учитывая настройку Smart Search.
+     * Умный поиск загружается постранично: первая страница запрашивается сразу,
+     * следующие - через loadNextSearchPage() по мере прокрутки.
      * @param query строка поиска
      */
     public void searchRecipes(String query) {
-        isRefreshing.setValue(true);
+        String trimmedQuery = query.trim();
         SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(getApplication());
         boolean smartEnabled = prefs.getBoolean("smart_search_enabled", true);
-        String userId = prefs.getString("userId", "0");
-        if (smartEnabled) {
-            // Умный поиск через GET /search/
-            SearchApi api = RetrofitClient.getClient().create(SearchApi.class);
-            Call<SearchResponse> call = api.searchRecipes(query.trim(), userId, 1, 20);
-            call.enqueue(new Callback<SearchResponse>() {
-                @Override
-                public void onResponse(Call<SearchResponse> call, Response<SearchResponse> response) {
-                    if (response.isSuccessful() && response.body() != null && response.body().getData() != null) {
-                        searchResults.postValue(response.body().getData().getResults());
-                    } else {
-                        errorMessage.postValue("Ошибка HTTP: " + response.code());
-                    }
-                    isRefreshing.postValue(false);
-                }
 
-                @Override
-                public void onFailure(Call<SearchResponse> call, Throwable t) {
-                    errorMessage.postValue(t.getMessage() != null ? t.getMessage() : "Ошибка сети при поиске");
-                    isRefreshing.postValue(false);
-                }
-            });
+        // Сбрасываем состояние предыдущего поиска
+        searchGeneration++;
+        currentSearchQuery = trimmedQuery;
+        loadedSearchResults.clear();
+        loadedSearchPages = 0;
+        isSearchPageLoading = false;
+        isSearchEndReached = false;
+
+        if (smartEnabled) {
+            dropStaleSearchPages();
+            // Если страницы этого запроса уже загружались, показываем их без сети
+            int cachedPages = searchPageCache.getContiguousPageCount(trimmedQuery);
+            if (cachedPages > 0) {
+                Log.d(TAG, "Restoring " + cachedPages + " cached search pages for '" + trimmedQuery + "'");
+                loadedSearchResults.addAll(searchPageCache.getPages(trimmedQuery, cachedPages));
+                loadedSearchPages = cachedPages;
+                isSearchEndReached = searchPageCache.isLastPage(trimmedQuery, cachedPages);
+                searchResults.setValue(new ArrayList<>(loadedSearchResults));
+                return;
+            }
+            isRefreshing.setValue(true);
+            loadSearchPage(trimmedQuery, 1, searchGeneration);
         } else {
-            // Простой поиск через /recipes/search-simple
-            new RecipeSearchService(getApplication()).searchRecipes(query.trim(), new RecipeSearchService.SearchCallback() {
+            // Простой поиск через /recipes/search-simple не поддерживает страницы
+            isRefreshing.setValue(true);
+            isSearchEndReached = true;
+            calls.track(AppContainer.getInstance(getApplication()).recipeSearchService().searchRecipes(trimmedQuery, new RecipeSearchService.SearchCallback() {
                 @Override
                 public void onSearchResults(List<Recipe> recipes) {
                     searchResults.postValue(recipes != null ? recipes : Collections.emptyList());
@@ -334,7 +420,171 @@ public class HomeViewModel extends AndroidViewModel {
                     errorMessage.postValue(error);
                     isRefreshing.postValue(false);
                 }
-            });
+            }));
+        }
+    }
+
+    /**
+     * Поиск "что можно приготовить" по имеющимся ингредиентам.
+     * Рецепты из локального каталога ранжируются по доле имеющихся ингредиентов.
+     * @param input ингредиенты через запятую, например "яйца, молоко, мука"
+     */
+    public void searchByIngredients(String input) {
+        List<String> available = IngredientIndex.parseInput(input);
+        if (available.isEmpty()) {
+            return;
+        }
+
+        // Результат показывается как обычный поиск, но без постраничной загрузки
+        searchGeneration++;
+        int generation = searchGeneration;
+        currentSearchQuery = input.trim();
+        loadedSearchResults.clear();
+        loadedSearchPages = 0;
+        isSearchPageLoading = false;
+        isSearchEndReached = true;
+        isRefreshing.setValue(true);
+
+        executeIfActive(() -> {
+            try {
+                IngredientIndex index = localRepository.getIngredientIndexSync();
+                List<IngredientIndex.Match> matches = index.match(available, INGREDIENT_SEARCH_LIMIT);
+                List<Integer> ids = new ArrayList<>(matches.size());
+                for (IngredientIndex.Match match : matches) {
+                    ids.add(match.getRecipeId());
+                }
+                List<Recipe> recipes = ids.isEmpty() ? new ArrayList<>() : localRepository.getRecipesByIdsSync(ids);
+                Log.d(TAG, "Ingredient search " + available + " matched " + recipes.size() + " recipes");
+                if (generation == searchGeneration) {
+                    searchResults.postValue(recipes);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error searching by ingredients", e);
+                errorMessage.postValue("Ошибка поиска по ингредиентам");
+            } finally {
+                isRefreshing.postValue(false);
+            }
+        });
+    }
+
+    /**
+     * Загрузить следующую страницу текущего поиска.
+     * Вызывается фрагментом, когда пользователь приближается к концу списка.
+     * Повторные вызовы во время загрузки и после последней страницы игнорируются.
+     */
+    public void loadNextSearchPage() {
+        if (currentSearchQuery == null || isSearchPageLoading || isSearchEndReached) {
+            return;
+        }
+        int nextPage = loadedSearchPages + 1;
+        dropStaleSearchPages();
+        List<Recipe> cachedPage = searchPageCache.getPage(currentSearchQuery, nextPage);
+        if (cachedPage != null) {
+            appendSearchPage(nextPage, cachedPage, searchPageCache.isLastPage(currentSearchQuery, nextPage));
+            return;
+        }
+        loadSearchPage(currentSearchQuery, nextPage, searchGeneration);
+    }
+
+    /**
+     * Сбросить кэш страниц поиска, если с его заполнения менялись лайки
+     * или удалялись рецепты - на любом экране
+     */
+    private void dropStaleSearchPages() {
+        int likeCount = AppContainer.getInstance(getApplication()).likeStore().getChangeCount();
+        int deleteCount = localRepository.getDeleteCount();
+        if (likeCount != searchCacheLikeCount || deleteCount != searchCacheDeleteCount) {
+            searchPageCache.clear();
+            searchCacheLikeCount = likeCount;
+            searchCacheDeleteCount = deleteCount;
+        }
+    }
+
+    /**
+     * Завершить режим поиска и вернуться к основной ленте
+     */
+    public void clearSearch() {
+        searchGeneration++;
+        currentSearchQuery = null;
+        loadedSearchResults.clear();
+        loadedSearchPages = 0;
+        isSearchPageLoading = false;
+        isSearchEndReached = false;
+    }
+
+    /**
+     * @return true, если сейчас отображаются результаты поиска
+     */
+    public boolean isSearchActive() {
+        return currentSearchQuery != null;
+    }
+
+    /**
+     * Запросить страницу умного поиска через GET /search/
+     */
+    private void loadSearchPage(String query, int page, int generation) {
+        isSearchPageLoading = true;
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(getApplication());
+        String userId = prefs.getString("userId", "0");
+        Log.d(TAG, "Loading search page " + page + " for '" + query + "'");
+
+        int likeCount = searchCacheLikeCount;
+        int deleteCount = searchCacheDeleteCount;
+
+        SearchApi api = AppContainer.getInstance(getApplication()).searchApi();
+        Call<SearchResponse> call = api.searchRecipes(query, userId, page, SEARCH_PAGE_SIZE);
+        calls.enqueue(call, new Callback<SearchResponse>() {
+            @Override
+            public void onResponse(Call<SearchResponse> call, Response<SearchResponse> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().getData() != null) {
+                    List<Recipe> results = response.body().getData().getResults();
+                    if (results == null) {
+                        results = Collections.emptyList();
+                    }
+                    boolean isLastPage = results.size() < SEARCH_PAGE_SIZE;
+                    // Кэшируем страницу даже для устаревшего запроса - пригодится при возврате,
+                    // но не ответ, запрошенный до изменения лайков или удаления
+                    dropStaleSearchPages();
+                    if (likeCount == searchCacheLikeCount && deleteCount == searchCacheDeleteCount) {
+                        searchPageCache.putPage(query, page, results, isLastPage);
+                    }
+                    if (generation == searchGeneration) {
+                        appendSearchPage(page, results, isLastPage);
+                    }
+                } else if (generation == searchGeneration) {
+                    errorMessage.postValue("Ошибка HTTP: " + response.code());
+                }
+                finishSearchPageLoad(page, generation);
+            }
+
+            @Override
+            public void onFailure(Call<SearchResponse> call, Throwable t) {
+                if (generation == searchGeneration) {
+                    errorMessage.postValue(t.getMessage() != null ? t.getMessage() : "Ошибка сети при поиске");
+                }
+                finishSearchPageLoad(page, generation);
+            }
+        });
+    }
+
+    /**
+     * Добавить загруженную страницу к отображаемым результатам
+     */
+    private void appendSearchPage(int page, List<Recipe> results, boolean isLastPage) {
+        loadedSearchResults.addAll(results);
+        loadedSearchPages = page;
+        isSearchEndReached = isLastPage;
+        searchResults.postValue(new ArrayList<>(loadedSearchResults));
+        Log.d(TAG, "Search page " + page + " appended, total results: " + loadedSearchResults.size());
+    }
+
+    private void finishSearchPageLoad(int page, int generation) {
+        if (generation != searchGeneration) {
+            return;
+        }
+        isSearchPageLoading = false;
+        if (page == 1) {
+            isRefreshing.postValue(false);
         }
     }
-} 
\ No newline at end of file
+} 
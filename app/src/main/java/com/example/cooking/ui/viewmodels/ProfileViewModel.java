@@ -13,11 +13,11 @@ import com.example.cooking.data.database.AppDatabase;
 import com.example.cooking.data.database.LikedRecipeDao;
 import com.example.cooking.data.models.ApiResponse;
 import com.example.cooking.network.services.UserService;
+import com.example.cooking.utils.AppExecutors;
 import com.example.cooking.utils.MySharedPreferences;
 import com.google.firebase.auth.FirebaseUser;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 /**
  * ViewModel для экрана профиля пользователя
@@ -28,7 +28,7 @@ public class ProfileViewModel extends AndroidViewModel {
     private final FirebaseAuthManager authManager;
     private final MySharedPreferences preferences;
     private final UserService userService;
-    private final ExecutorService databaseExecutor;
+    private final Executor databaseExecutor;
 
     // LiveData для состояний UI
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
@@ -46,7 +46,7 @@ public class ProfileViewModel extends AndroidViewModel {
         preferences = new MySharedPreferences(application);
         userService = new UserService();
         likedRecipeDao = AppDatabase.getInstance(application).likedRecipeDao();
-        databaseExecutor = Executors.newSingleThreadExecutor();
+        databaseExecutor = AppExecutors.getInstance().diskWrite();
 
         // Проверяем текущее состояние аутентификации
         checkAuthenticationState();
@@ -364,11 +364,4 @@ public class ProfileViewModel extends AndroidViewModel {
     public LiveData<String> getEmail() {
         return email;
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        databaseExecutor.shutdown();
-        Log.d(TAG, "ExecutorService остановлен в onCleared");
-    }
 }
\ No newline at end of file
@@ -6,29 +6,23 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.core.util.Pair;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 
 import com.example.cooking.Recipe.Recipe;
 import com.example.cooking.data.database.RecipeEntity;
+import com.example.cooking.data.outbox.RecipeIdReconciler;
 import com.example.cooking.data.repositories.RecipeRepository;
+import com.example.cooking.di.AppContainer;
+import com.example.cooking.network.services.CallScope;
 import com.example.cooking.network.services.RecipeDeleter;
+import com.example.cooking.utils.AppExecutors;
 import com.example.cooking.utils.MySharedPreferences;
 import com.example.cooking.data.repositories.RecipeLocalRepository;
 
-import org.json.JSONObject;
-
-import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
+import java.util.concurrent.Executor;
 
 /**
  * ViewModel для RecipeDetailActivity
@@ -37,10 +31,12 @@ import okhttp3.Response;
 public class RecipeDetailViewModel extends AndroidViewModel {
 
     private static final String TAG = "RecipeDetailViewModel";
-    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
-    private final OkHttpClient client;
-    private final ExecutorService executor;
+    // Общий пул чтения БД; после onCleared новые задачи не запускаются
+    private final Executor executor;
+    private volatile boolean cleared = false;
+    // Загрузка рецепта с сервера; отменяется в onCleared. Удаление сюда не входит
+    private final CallScope calls = new CallScope(TAG);
     private final RecipeDeleter recipeDeleter;
     private final RecipeLocalRepository localRepository;
     private final RecipeRepository recipeRepository;
@@ -54,25 +50,58 @@ public class RecipeDetailViewModel extends AndroidViewModel {
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> hasEditPermission = new MutableLiveData<>(false);
 
+    // Подмена временного ID открытого рецепта после подтверждения сервером
+    private final RecipeIdReconciler idReconciler = RecipeIdReconciler.getInstance();
+    private final Observer<Pair<Integer, Integer>> idChangeObserver = this::onRecipeIdChanged;
+
     public RecipeDetailViewModel(@NonNull Application application) {
         super(application);
-        client = new OkHttpClient();
-        executor = Executors.newSingleThreadExecutor();
-        recipeDeleter = new RecipeDeleter(application);
-        localRepository = new RecipeLocalRepository(application);
-        recipeRepository = new RecipeRepository(application);
+        executor = AppExecutors.getInstance().diskRead();
+        AppContainer container = AppContainer.getInstance(application);
+        recipeDeleter = container.recipeDeleter();
+        localRepository = container.recipeLocalRepository();
+        recipeRepository = container.recipeRepository();
         preferences = new MySharedPreferences(application);
+        idReconciler.getIdChanges().observeForever(idChangeObserver);
+    }
+
+    /**
+     * Рецепт, открытый с временным ID, получил ID от сервера
+     */
+    private void onRecipeIdChanged(Pair<Integer, Integer> change) {
+        Recipe currentRecipe = recipe.getValue();
+        if (change == null || currentRecipe == null || currentRecipe.getId() != change.first) {
+            return;
+        }
+        currentRecipe.setId(change.second);
+        recipe.setValue(currentRecipe);
+        Log.d(TAG, "ID открытого рецепта заменен: " + change.first + " -> " + change.second);
     }
 
     /**
      * Загружает данные рецепта по ID из кэша репозитория.
-     * @param recipeId ID рецепта для загрузки.
+     * @param requestedId ID рецепта для загрузки.
      */
-    public void loadRecipe(int recipeId) {
-        if (recipeId == -1) {
+    public void loadRecipe(int requestedId) {
+        if (requestedId == -1) {
             errorMessage.postValue("Неверный ID рецепта.");
             return;
         }
+        int recipeId = idReconciler.resolve(requestedId);
+        if (RecipeIdReconciler.isTemporaryId(recipeId)) {
+            // Рецепт еще в очереди отправки и есть только в локальной БД
+            executeIfActive(() -> {
+                Recipe localRecipe = localRepository.getRecipeById(recipeId);
+                if (localRecipe == null) {
+                    errorMessage.postValue("Рецепт не найден.");
+                    return;
+                }
+                recipe.postValue(localRecipe);
+                isLiked.postValue(localRecipe.isLiked());
+                checkEditPermission(localRecipe.getUserId());
+            });
+            return;
+        }
         Log.d(TAG, "Загрузка рецепта с ID: " + recipeId + " из кэша репозитория");
         executeIfActive(() -> {
             RecipeRepository.Result<List<Recipe>> cachedResult = recipeRepository.loadFromCache();
@@ -103,7 +132,7 @@ public class RecipeDetailViewModel extends AndroidViewModel {
                 needServer = true;
             }
             if (needServer) {
-                recipeRepository.loadRecipeFromServer(recipeId, new RecipeRepository.RecipeCallback() {
+                calls.track(recipeRepository.loadRecipeFromServer(recipeId, new RecipeRepository.RecipeCallback() {
                     @Override
                     public void onRecipeLoaded(Recipe loadedRecipe) {
                         recipe.postValue(loadedRecipe);
@@ -118,7 +147,7 @@ public class RecipeDetailViewModel extends AndroidViewModel {
                         errorMessage.postValue("Не удалось загрузить рецепт с сервера: " + error);
                         Log.e(TAG, "Не удалось загрузить рецепт с сервера: " + error);
                     }
-                });
+                }));
             }
         });
     }
@@ -198,62 +227,9 @@ public class RecipeDetailViewModel extends AndroidViewModel {
         isLiked.postValue(newLikeState);
         currentRecipe.setLiked(newLikeState);
         
-        sendLikeRequest(userId, currentRecipe.getId(), newLikeState);
-        
-        executeIfActive(() -> {
-            localRepository.updateLikeStatus(currentRecipe.getId(), newLikeState);
-            Log.d(TAG, "Статус лайка для ID " + currentRecipe.getId() + " обновлен в локальной БД на " + newLikeState);
-        });
-    }
-    
-    /**
-     * Отправляет запрос на сервер для изменения статуса "лайк"
-     */
-    private void sendLikeRequest(String userId, int recipeId, boolean isLiked) {
-        try {
-            JSONObject jsonObject = new JSONObject();
-            jsonObject.put("recipeId", recipeId);
-            jsonObject.put("userId", userId);
-            
-            String jsonBody = jsonObject.toString();
-            Log.d(TAG, "Отправка запроса лайка: " + jsonBody);
-            
-            RequestBody body = RequestBody.create(jsonBody, JSON);
-            
-            // Формируем URL '/recipes/{id}/like'
-            String url = com.example.cooking.config.ServerConfig.getFullUrl(
-                    com.example.cooking.config.ServerConfig.ENDPOINT_RECIPES + "/" + recipeId + "/like");
-            Request request = new Request.Builder()
-                    .url(url)
-                    .post(body)
-                    .build();
-            
-            client.newCall(request).enqueue(new Callback() {
-                @Override
-                public void onFailure(@NonNull Call call, @NonNull IOException e) {
-                    Log.e(TAG, "Ошибка сети при изменении лайка", e);
-                    errorMessage.postValue("Ошибка сети: " + e.getMessage());
-                }
-                
-                @Override
-                public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
-                    if (response.isSuccessful()) {
-                        Log.d(TAG, "Успешный ответ от сервера на изменение лайка");
-                    } else {
-                        Log.e(TAG, "Ошибка сервера при изменении лайка: " + response.code() + " " + response.message());
-                        String responseBody = response.body() != null ? response.body().string() : "No body";
-                        Log.e(TAG, "Тело ответа: " + responseBody);
-                        errorMessage.postValue("Ошибка сервера: " + response.code());
-                    }
-                    if (response.body() != null) {
-                        response.body().close();
-                    }
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка при создании запроса на изменение лайка", e);
-            errorMessage.postValue("Ошибка приложения: " + e.getMessage());
-        }
+        // recipes, liked_recipes и очередь отправки - одна транзакция.
+        // Лайк рецепта с временным ID уйдет на сервер после создания рецепта
+        AppContainer.getInstance(getApplication()).likeStore().setLiked(userId, currentRecipe.getId(), newLikeState);
     }
     
     /**
@@ -276,6 +252,10 @@ public class RecipeDetailViewModel extends AndroidViewModel {
             errorMessage.postValue("У вас нет прав на удаление этого рецепта.");
             return;
         }
+        if (RecipeIdReconciler.isTemporaryId(recipeId)) {
+            errorMessage.postValue("Рецепт еще не отправлен на сервер");
+            return;
+        }
         
         isDeleting.postValue(true);
         
@@ -303,15 +283,21 @@ public class RecipeDetailViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
-        executor.shutdown();
+        idReconciler.getIdChanges().removeObserver(idChangeObserver);
+        cleared = true;
+        calls.close();
     }
 
     /**
      * Выполняет задачу в фоновом потоке, если ViewModel активна.
      */
     private void executeIfActive(Runnable task) {
-        if (!executor.isShutdown()) {
-            executor.execute(task);
+        if (!cleared) {
+            executor.execute(() -> {
+                if (!cleared) {
+                    task.run();
+                }
+            });
         }
     }
 }
\ No newline at end of file
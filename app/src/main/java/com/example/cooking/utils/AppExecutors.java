@@ -0,0 +1,153 @@
+package com.example.cooking.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Общие пулы потоков приложения.
+ * Вместо собственных Executors.newSingleThreadExecutor() в каждом репозитории
+ * и ViewModel все компоненты используют ограниченный набор именованных пулов:
+ * <ul>
+ *     <li>diskWrite - запись в БД, один поток, порядок записей сохраняется;</li>
+ *     <li>diskRead - чтение из БД и файлов, параллельно;</li>
+ *     <li>network - блокирующие сетевые запросы;</li>
+ *     <li>compute - вычисления (изображения, фильтрация, индексы);</li>
+ *     <li>scheduler - только для периодического запуска, работа передается в другие пулы.</li>
+ * </ul>
+ * Пулы живут все время работы приложения и не останавливаются из onCleared():
+ * ViewModel сама отменяет свои задачи через Future или флаг.
+ */
+public final class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+
+    private static volatile AppExecutors instance;
+
+    private final InstrumentedThreadPool diskWrite;
+    private final InstrumentedThreadPool diskRead;
+    private final InstrumentedThreadPool network;
+    private final InstrumentedThreadPool compute;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Executor mainThread;
+
+    public static AppExecutors getInstance() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    instance = new AppExecutors();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private AppExecutors() {
+        diskWrite = new InstrumentedThreadPool("db-write", 1, 512, true);
+        diskRead = new InstrumentedThreadPool("db-read", 3, 256, false);
+        network = new InstrumentedThreadPool("network", 4, 128, false);
+        compute = new InstrumentedThreadPool("compute", Math.max(2, CPU_COUNT - 1), 64, false);
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "cooking-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThread = mainHandler::post;
+    }
+
+    /**
+     * Запись в БД. Один поток: записи выполняются строго в порядке постановки
+     */
+    public InstrumentedThreadPool diskWrite() {
+        return diskWrite;
+    }
+
+    /**
+     * Чтение из БД и файлов
+     */
+    public InstrumentedThreadPool diskRead() {
+        return diskRead;
+    }
+
+    /**
+     * Блокирующие сетевые запросы
+     */
+    public InstrumentedThreadPool network() {
+        return network;
+    }
+
+    /**
+     * Вычисления: обработка изображений, фильтрация, построение индексов
+     */
+    public InstrumentedThreadPool compute() {
+        return compute;
+    }
+
+    /**
+     * Периодические задачи. Сама работа должна передаваться в один из пулов
+     */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Последовательный исполнитель поверх общего пула: задачи выполняются по
+     * одной и в порядке постановки, но без выделенного потока
+     */
+    public static Executor serial(Executor pool) {
+        return new SerialExecutor(pool);
+    }
+
+    /**
+     * Записать в лог метрики всех пулов
+     */
+    public void logStats() {
+        for (InstrumentedThreadPool pool : new InstrumentedThreadPool[]{diskWrite, diskRead, network, compute}) {
+            Log.i(TAG, pool.getStats().toString());
+        }
+    }
+
+    private static final class SerialExecutor implements Executor {
+        private final Executor pool;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        SerialExecutor(Executor pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public synchronized void execute(@NonNull Runnable task) {
+            tasks.offer((InstrumentedThreadPool.SerialTask) () -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            if ((active = tasks.poll()) != null) {
+                pool.execute(active);
+            }
+        }
+    }
+}
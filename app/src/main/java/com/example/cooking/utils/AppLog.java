@@ -0,0 +1,119 @@
+package com.example.cooking.utils;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.cooking.BuildConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import okhttp3.logging.HttpLoggingInterceptor;
+
+/**
+ * Логирование горячих путей (сеть, БД, списки) с отсечением по уровню сборки.
+ *
+ * Минимальный уровень задается в build.gradle.kts (BuildConfig.LOG_LEVEL): в debug
+ * это DEBUG, в release - WARN. Флаги {@link #VERBOSE}, {@link #DEBUG}, {@link #INFO} -
+ * константы времени компиляции, поэтому блок {@code if (AppLog.DEBUG) { ... }}
+ * в release сборке вырезается javac целиком, вместе с конкатенацией строк.
+ *
+ * Для обычных сообщений достаточно перегрузок с {@link Supplier}: строка собирается
+ * только если уровень включен. В циклах и onBind оборачивать вызов в проверку флага,
+ * чтобы не создавать и саму лямбду.
+ */
+public final class AppLog {
+
+    public static final int LEVEL = BuildConfig.LOG_LEVEL;
+    public static final boolean VERBOSE = LEVEL <= Log.VERBOSE;
+    public static final boolean DEBUG = LEVEL <= Log.DEBUG;
+    public static final boolean INFO = LEVEL <= Log.INFO;
+
+    private static final String HTTP_TAG = "OkHttp";
+
+    private AppLog() {
+    }
+
+    public static void v(String tag, Supplier<String> message) {
+        if (VERBOSE) {
+            Log.v(tag, message.get());
+        }
+    }
+
+    public static void d(String tag, String message) {
+        if (DEBUG) {
+            Log.d(tag, message);
+        }
+    }
+
+    public static void d(String tag, Supplier<String> message) {
+        if (DEBUG) {
+            Log.d(tag, message.get());
+        }
+    }
+
+    public static void i(String tag, Supplier<String> message) {
+        if (INFO) {
+            Log.i(tag, message.get());
+        }
+    }
+
+    /**
+     * Предупреждения и ошибки пишутся во всех сборках
+     */
+    public static void w(String tag, String message) {
+        Log.w(tag, message);
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        Log.e(tag, message, error);
+    }
+
+    /**
+     * Счетчик для выборочного логирования частых событий
+     * @param every пропускать в лог каждое every-е событие
+     */
+    public static Sampler sampler(int every) {
+        return new Sampler(every);
+    }
+
+    /**
+     * Перехватчик OkHttp для отладки или null, если логирование HTTP выключено.
+     * Пишет только строку запроса, код и размер ответа: уровень BODY буферизует
+     * тело целиком и ломает потоковый разбор каталога.
+     */
+    @Nullable
+    public static HttpLoggingInterceptor httpInterceptor() {
+        if (!DEBUG) {
+            return null;
+        }
+        HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor(message -> Log.d(HTTP_TAG, message));
+        interceptor.setLevel(VERBOSE ? HttpLoggingInterceptor.Level.HEADERS : HttpLoggingInterceptor.Level.BASIC);
+        interceptor.redactHeader("Authorization");
+        return interceptor;
+    }
+
+    public static final class Sampler {
+        private final int every;
+        private final AtomicLong events = new AtomicLong();
+
+        private Sampler(int every) {
+            this.every = Math.max(1, every);
+        }
+
+        /**
+         * @return true для первого и каждого every-го события
+         */
+        public boolean sample() {
+            return events.getAndIncrement() % every == 0;
+        }
+
+        /**
+         * Сколько событий учтено, включая пропущенные
+         */
+        public long count() {
+            return events.get();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.cooking.utils;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Преобладающий цвет фото - заглушка карточки, пока грузится изображение.
+ * Считается один раз при подготовке фото к загрузке и хранится вместе с
+ * рецептом (4 байта), поэтому при отрисовке ничего не декодируется.
+ */
+public final class DominantColor {
+
+    // Уменьшенная копия: 256 пикселей хватает, чтобы найти преобладающий цвет
+    private static final int SAMPLE_SIDE = 16;
+    // 4 бита на канал - близкие оттенки попадают в одну корзину
+    private static final int BUCKET_SHIFT = 4;
+
+    private DominantColor() {
+    }
+
+    /**
+     * Найти преобладающий цвет: самую частую корзину квантованных цветов,
+     * усредненную по попавшим в нее пикселям. Среднее по всему кадру для фото
+     * еды почти всегда дает грязно-коричневый, поэтому берется именно мода.
+     * @return непрозрачный цвет ARGB
+     */
+    public static int compute(Bitmap bitmap) {
+        Bitmap sample = Bitmap.createScaledBitmap(bitmap, SAMPLE_SIDE, SAMPLE_SIDE, true);
+        int[] pixels = new int[SAMPLE_SIDE * SAMPLE_SIDE];
+        sample.getPixels(pixels, 0, SAMPLE_SIDE, 0, 0, SAMPLE_SIDE, SAMPLE_SIDE);
+        if (sample != bitmap) {
+            sample.recycle();
+        }
+
+        int buckets = 1 << (3 * (8 - BUCKET_SHIFT));
+        int[] counts = new int[buckets];
+        int best = 0;
+        for (int pixel : pixels) {
+            int bucket = bucketOf(pixel);
+            if (++counts[bucket] > counts[best]) {
+                best = bucket;
+            }
+        }
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        for (int pixel : pixels) {
+            if (bucketOf(pixel) == best) {
+                red += (pixel >> 16) & 0xFF;
+                green += (pixel >> 8) & 0xFF;
+                blue += pixel & 0xFF;
+            }
+        }
+        int n = counts[best];
+        return 0xFF000000 | (int) (red / n) << 16 | (int) (green / n) << 8 | (int) (blue / n);
+    }
+
+    /**
+     * Цвет в формате API: "#RRGGBB"
+     */
+    public static String toHex(int color) {
+        return String.format(Locale.US, "#%06X", color & 0xFFFFFF);
+    }
+
+    /**
+     * Разобрать "#RRGGBB" или "#AARRGGBB"; альфа-канал отбрасывается
+     * @return непрозрачный цвет или null, если строка не является цветом
+     */
+    @Nullable
+    public static Integer parse(@Nullable String value) {
+        if (value == null || !value.startsWith("#")) {
+            return null;
+        }
+        String hex = value.substring(1);
+        if (hex.length() != 6 && hex.length() != 8) {
+            return null;
+        }
+        try {
+            return 0xFF000000 | (int) (Long.parseLong(hex, 16) & 0xFFFFFF);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int bucketOf(int pixel) {
+        int r = ((pixel >> 16) & 0xFF) >> BUCKET_SHIFT;
+        int g = ((pixel >> 8) & 0xFF) >> BUCKET_SHIFT;
+        int b = (pixel & 0xFF) >> BUCKET_SHIFT;
+        int bits = 8 - BUCKET_SHIFT;
+        return (r << (2 * bits)) | (g << bits) | b;
+    }
+}
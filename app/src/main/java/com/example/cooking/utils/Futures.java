@@ -0,0 +1,207 @@
+package com.example.cooking.utils;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Помощники для асинхронного API репозиториев на CompletableFuture.
+ * Отмена будущего результата, полученного из Retrofit Call, отменяет и сам
+ * HTTP запрос, поэтому незавершенные запросы не держат соединения и потоки.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Асинхронно выполнить Call и вернуть успешное тело ответа.
+     * Ответ с кодом ошибки завершает future с HttpException, пустое тело - с IOException.
+     */
+    public static <T> CompletableFuture<T> fromCall(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                call.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                T body = response.body();
+                if (response.isSuccessful() && body != null) {
+                    future.complete(body);
+                } else if (response.isSuccessful()) {
+                    future.completeExceptionally(new IOException("Пустой ответ от сервера"));
+                } else {
+                    future.completeExceptionally(new HttpException(response.code(), readErrorBody(response)));
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Выполнить блокирующую операцию в указанном пуле.
+     * В отличие от CompletableFuture.supplyAsync допускает checked-исключения.
+     * Отмена до начала выполнения снимает задачу, во время выполнения - прерывает поток.
+     */
+    public static <T> CompletableFuture<T> supply(Executor executor, Callable<T> task) {
+        TaskFuture<T> future = new TaskFuture<>(task);
+        executor.execute(future::run);
+        return future;
+    }
+
+    /**
+     * Отмена target отменяет и все sources.
+     * Нужна для составных future (thenCombine, allOf), которые сами по себе
+     * отмену вверх по цепочке не передают.
+     */
+    public static <T> CompletableFuture<T> cancelling(CompletableFuture<T> target, Future<?>... sources) {
+        target.whenComplete((result, error) -> {
+            if (target.isCancelled()) {
+                for (Future<?> source : sources) {
+                    source.cancel(true);
+                }
+            }
+        });
+        return target;
+    }
+
+    /**
+     * thenCompose, который передает отмену дальше: отмена результата отменяет
+     * и source, и future, полученный из next. fn вызывается только после
+     * завершения source, поэтому его поток ничего не ждет.
+     */
+    public static <T, U> CompletableFuture<U> compose(CompletableFuture<T> source,
+                                                      Function<? super T, CompletableFuture<U>> next) {
+        CompletableFuture<U> result = new CompletableFuture<>();
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<U> inner;
+            try {
+                inner = next.apply(value);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            inner.whenComplete((innerValue, innerError) -> {
+                if (innerError != null) {
+                    result.completeExceptionally(innerError);
+                } else {
+                    result.complete(innerValue);
+                }
+            });
+            // Если результат уже отменен, обработчик сработает сразу
+            cancelling(result, inner);
+        });
+        return cancelling(result, source);
+    }
+
+    /**
+     * Исходная причина ошибки без оберток CompletionException/ExecutionException
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static String readErrorBody(Response<?> response) {
+        try {
+            return response.errorBody() != null ? response.errorBody().string() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Сервер ответил кодом ошибки
+     */
+    public static class HttpException extends IOException {
+        private final int code;
+
+        public HttpException(int code, String errorBody) {
+            super("Ошибка HTTP " + code + (errorBody != null && !errorBody.isEmpty() ? ": " + errorBody : ""));
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    private static class TaskFuture<T> extends CompletableFuture<T> {
+        private final Callable<T> task;
+        private Thread runner;
+        // Поток runner прерван отменой этой задачи
+        private boolean interruptedByCancel;
+
+        TaskFuture(Callable<T> task) {
+            this.task = task;
+        }
+
+        void run() {
+            boolean wasInterrupted;
+            synchronized (this) {
+                if (isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+                wasInterrupted = runner.isInterrupted();
+            }
+            try {
+                complete(task.call());
+            } catch (Throwable t) {
+                completeExceptionally(t);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // Снимаем только свое прерывание: не переносим его на следующую задачу
+                    // пула, но и не теряем прерывание вызывающего потока при запуске на месте
+                    if (interruptedByCancel && !wasInterrupted) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            synchronized (this) {
+                if (cancelled && mayInterruptIfRunning && runner != null) {
+                    interruptedByCancel = true;
+                    runner.interrupt();
+                }
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.cooking.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Подготовка фото рецепта к загрузке на сервер.
+ * Изображение никогда не декодируется в полном разрешении: сначала читаются
+ * только размеры, затем декодирование идет с inSampleSize, после чего
+ * применяется поворот из EXIF и кодирование в WebP с подбором качества под
+ * заданный размер в байтах. Заодно по уже уменьшенному изображению считается
+ * преобладающий цвет - заглушка карточки до загрузки фото (см. DominantColor).
+ * Методы блокирующие - вызывать только из фонового потока.
+ */
+public final class ImageIngestor {
+    private static final String TAG = "ImageIngestor";
+
+    public static final String MIME_TYPE = "image/webp";
+    public static final String FILE_EXTENSION = ".webp";
+
+    // Максимальная сторона итогового изображения
+    public static final int DEFAULT_MAX_SIDE = 800;
+    // Целевой размер закодированного изображения
+    public static final int DEFAULT_MAX_BYTES = 200 * 1024;
+
+    private static final int MIN_QUALITY = 40;
+    private static final int MAX_QUALITY = 90;
+    // Если даже минимальное качество не укладывается в бюджет, уменьшаем размер
+    private static final float DOWNSCALE_STEP = 0.75f;
+    private static final int MAX_DOWNSCALE_ATTEMPTS = 3;
+    // Папка в кэше для подготовленных к отправке фото
+    private static final String UPLOAD_DIR = "upload_images";
+    // Файлы старше суток считаются брошенными и удаляются
+    private static final long STALE_FILE_AGE_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Получатель прогресса обработки (0..100)
+     */
+    public interface ProgressListener {
+        void onProgress(int percent);
+    }
+
+    /**
+     * Подготовленное к отправке фото
+     */
+    public static final class Prepared {
+        public final File file;
+        // Преобладающий цвет фото (ARGB)
+        public final int placeholderColor;
+
+        Prepared(File file, int placeholderColor) {
+            this.file = file;
+            this.placeholderColor = placeholderColor;
+        }
+    }
+
+    private static final class Encoded {
+        final byte[] bytes;
+        final int placeholderColor;
+
+        Encoded(byte[] bytes, int placeholderColor) {
+            this.bytes = bytes;
+            this.placeholderColor = placeholderColor;
+        }
+    }
+
+    private ImageIngestor() {
+    }
+
+    /**
+     * Подготовить изображение с параметрами по умолчанию
+     */
+    public static byte[] ingest(ContentResolver resolver, Uri uri, ProgressListener listener) throws IOException {
+        return ingest(resolver, uri, DEFAULT_MAX_SIDE, DEFAULT_MAX_BYTES, listener);
+    }
+
+    /**
+     * Подготовить изображение к загрузке
+     * @param resolver ContentResolver для чтения Uri
+     * @param uri выбранное изображение
+     * @param maxSide максимальная сторона результата в пикселях
+     * @param maxBytes целевой размер результата
+     * @param listener получатель прогресса, может быть null
+     * @return байты WebP
+     * @throws IOException если изображение не удалось прочитать или декодировать
+     */
+    public static byte[] ingest(ContentResolver resolver, Uri uri, int maxSide, int maxBytes,
+                                ProgressListener listener) throws IOException {
+        return prepare(resolver, uri, maxSide, maxBytes, listener).bytes;
+    }
+
+    private static Encoded prepare(ContentResolver resolver, Uri uri, int maxSide, int maxBytes,
+                                   ProgressListener listener) throws IOException {
+        long start = System.currentTimeMillis();
+
+        // 1. Только размеры, без выделения памяти под пиксели
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Не удалось определить размер изображения");
+        }
+        report(listener, 10);
+
+        // 2. Ориентация из EXIF
+        int rotation = readRotation(resolver, uri);
+        report(listener, 20);
+
+        // 3. Декодирование с прореживанием
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight, maxSide);
+        Bitmap sampled;
+        try (InputStream in = open(resolver, uri)) {
+            sampled = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (sampled == null) {
+            throw new IOException("Не удалось декодировать изображение");
+        }
+        report(listener, 50);
+
+        // 4. Точный размер и поворот за одну операцию
+        Bitmap prepared = scaleAndRotate(sampled, maxSide, rotation);
+        if (prepared != sampled) {
+            sampled.recycle();
+        }
+        report(listener, 60);
+
+        // 5. WebP под бюджет и цвет заглушки
+        try {
+            byte[] result = encodeToBudget(prepared, maxBytes, listener);
+            int placeholderColor = DominantColor.compute(prepared);
+            Log.d(TAG, "Изображение " + bounds.outWidth + "x" + bounds.outHeight
+                    + " (inSampleSize=" + options.inSampleSize + ", поворот " + rotation + ") -> "
+                    + result.length + " байт за " + (System.currentTimeMillis() - start) + " мс");
+            report(listener, 100);
+            return new Encoded(result, placeholderColor);
+        } finally {
+            prepared.recycle();
+        }
+    }
+
+    /**
+     * Подготовить изображение и сохранить его во временный файл для потоковой отправки
+     * @return файл WebP в кэше приложения
+     */
+    public static File ingestToFile(Context context, Uri uri, ProgressListener listener) throws IOException {
+        return ingestForUpload(context, uri, listener).file;
+    }
+
+    /**
+     * Как {@link #ingestToFile}, но вместе с цветом заглушки для карточки
+     */
+    public static Prepared ingestForUpload(Context context, Uri uri, ProgressListener listener) throws IOException {
+        Encoded encoded = prepare(context.getContentResolver(), uri, DEFAULT_MAX_SIDE, DEFAULT_MAX_BYTES, listener);
+        File dir = new File(context.getCacheDir(), UPLOAD_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Не удалось создать папку " + dir);
+        }
+        deleteStaleFiles(dir);
+        File file = new File(dir, "recipe_" + System.currentTimeMillis() + FILE_EXTENSION);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(encoded.bytes);
+        }
+        return new Prepared(file, encoded.placeholderColor);
+    }
+
+    private static void deleteStaleFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long threshold = System.currentTimeMillis() - STALE_FILE_AGE_MS;
+        for (File file : files) {
+            if (file.lastModified() < threshold && !file.delete()) {
+                Log.w(TAG, "Не удалось удалить старый файл " + file.getName());
+            }
+        }
+    }
+
+    /**
+     * Наибольшая степень двойки, при которой обе стороны остаются не меньше maxSide
+     */
+    static int calculateInSampleSize(int width, int height, int maxSide) {
+        int sampleSize = 1;
+        int longSide = Math.max(width, height);
+        while (longSide / (sampleSize * 2) >= maxSide) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Не удалось открыть поток данных для изображения");
+        }
+        return in;
+    }
+
+    private static int readRotation(ContentResolver resolver, Uri uri) {
+        try (InputStream in = open(resolver, uri)) {
+            ExifInterface exif = new ExifInterface(in);
+            int orientation = exif.getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            // Нет EXIF (например, PNG) - поворот не нужен
+            Log.w(TAG, "EXIF недоступен: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static Bitmap scaleAndRotate(Bitmap source, int maxSide, int rotation) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        float scale = Math.min(1f, (float) maxSide / Math.max(width, height));
+        if (scale == 1f && rotation == 0) {
+            return source;
+        }
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(rotation);
+        return Bitmap.createBitmap(source, 0, 0, width, height, matrix, true);
+    }
+
+    /**
+     * Бинарный поиск максимального качества, укладывающегося в бюджет.
+     * Если не укладывается даже минимальное качество, изображение уменьшается.
+     */
+    private static byte[] encodeToBudget(Bitmap bitmap, int maxBytes, ProgressListener listener) {
+        Bitmap current = bitmap;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                byte[] best = null;
+                int low = MIN_QUALITY;
+                int high = MAX_QUALITY;
+                int step = 0;
+                while (low <= high) {
+                    int quality = (low + high) >>> 1;
+                    byte[] encoded = encode(current, quality);
+                    if (encoded.length <= maxBytes) {
+                        best = encoded;
+                        low = quality + 1;
+                    } else {
+                        high = quality - 1;
+                    }
+                    report(listener, Math.min(95, 60 + (++step) * 6));
+                }
+                if (best != null) {
+                    return best;
+                }
+                if (attempt >= MAX_DOWNSCALE_ATTEMPTS) {
+                    // Бюджет недостижим - отдаем минимальное качество
+                    return encode(current, MIN_QUALITY);
+                }
+                int newWidth = Math.max(1, Math.round(current.getWidth() * DOWNSCALE_STEP));
+                int newHeight = Math.max(1, Math.round(current.getHeight() * DOWNSCALE_STEP));
+                Bitmap smaller = Bitmap.createScaledBitmap(current, newWidth, newHeight, true);
+                if (current != bitmap) {
+                    current.recycle();
+                }
+                current = smaller;
+            }
+        } finally {
+            if (current != bitmap) {
+                current.recycle();
+            }
+        }
+    }
+
+    private static byte[] encode(Bitmap bitmap, int quality) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.WEBP_LOSSY, quality, out);
+        return out.toByteArray();
+    }
+
+    private static void report(ProgressListener listener, int percent) {
+        if (listener != null) {
+            listener.onProgress(percent);
+        }
+    }
+}
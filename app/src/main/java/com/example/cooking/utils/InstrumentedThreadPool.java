@@ -0,0 +1,201 @@
+package com.example.cooking.utils;
+
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пул потоков с метриками.
+ * Считает глубину очереди (текущую и пиковую), время ожидания задачи в очереди
+ * и время ее выполнения. Задачи не отклоняются: очередь не ограничена, а
+ * queueCapacity - порог обратного давления. Сверх порога задача пула без
+ * требований к порядку выполняется в вызывающем фоновом потоке; задачи
+ * упорядоченного пула, последовательных исполнителей ({@link SerialTask}) и
+ * задачи из главного потока всегда встают в очередь, чтобы не обгонять уже
+ * поставленные и не ронять интерфейс.
+ */
+public class InstrumentedThreadPool extends ThreadPoolExecutor {
+    private static final String TAG = "InstrumentedThreadPool";
+    // Ожидание в очереди дольше этого значения попадает в лог
+    private static final long SLOW_WAIT_MS = 500;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final int queueCapacity;
+    private final boolean ordered;
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicLong finishedTasks = new AtomicLong();
+    private final AtomicLong overflowedTasks = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+
+    /**
+     * Снимок метрик пула
+     */
+    public static class Stats {
+        public final String name;
+        public final int activeThreads;
+        public final int queueDepth;
+        public final int peakQueueDepth;
+        public final long finishedTasks;
+        public final long overflowedTasks;
+        public final long avgWaitMs;
+        public final long maxWaitMs;
+        public final long avgRunMs;
+
+        Stats(InstrumentedThreadPool pool) {
+            long finished = pool.finishedTasks.get();
+            this.name = pool.name;
+            this.activeThreads = pool.getActiveCount();
+            this.queueDepth = pool.getQueue().size();
+            this.peakQueueDepth = pool.peakQueueDepth.get();
+            this.finishedTasks = finished;
+            this.overflowedTasks = pool.overflowedTasks.get();
+            this.avgWaitMs = finished > 0 ? TimeUnit.NANOSECONDS.toMillis(pool.totalWaitNanos.get() / finished) : 0;
+            this.maxWaitMs = TimeUnit.NANOSECONDS.toMillis(pool.maxWaitNanos.get());
+            this.avgRunMs = finished > 0 ? TimeUnit.NANOSECONDS.toMillis(pool.totalRunNanos.get() / finished) : 0;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": активных=" + activeThreads
+                    + ", очередь=" + queueDepth + " (пик " + peakQueueDepth + ")"
+                    + ", выполнено=" + finishedTasks
+                    + ", сверх порога=" + overflowedTasks
+                    + ", ожидание ср/макс=" + avgWaitMs + "/" + maxWaitMs + " мс"
+                    + ", выполнение ср=" + avgRunMs + " мс";
+        }
+    }
+
+    /**
+     * Задача последовательного исполнителя поверх пула (AppExecutors.serial).
+     * Всегда встает в очередь: исполнитель ставит следующую задачу, держа свой
+     * монитор, и запуск на месте вел бы к рекурсии под этим монитором.
+     */
+    interface SerialTask extends Runnable {
+    }
+
+    /**
+     * Задача с отметкой времени постановки в очередь
+     */
+    private static final class TimedTask implements Runnable {
+        final Runnable delegate;
+        final long enqueuedAt = System.nanoTime();
+        long startedAt;
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    /**
+     * @param name имя пула, используется в именах потоков и в метриках
+     * @param threads максимальное число потоков
+     * @param queueCapacity длина очереди, после которой включается обратное давление
+     * @param ordered задачи выполняются строго в порядке постановки (однопоточный пул) -
+     *                в вызывающем потоке их выполнять нельзя
+     */
+    public InstrumentedThreadPool(String name, int threads, int queueCapacity, boolean ordered) {
+        super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.ordered = ordered;
+        // Простаивающие потоки завершаются, пул не держит их все время жизни приложения
+        allowCoreThreadTimeOut(true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Stats getStats() {
+        return new Stats(this);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Runnable task = command instanceof TimedTask ? command : new TimedTask(command);
+        if (getQueue().size() >= queueCapacity) {
+            overflowedTasks.incrementAndGet();
+            if (!ordered && !(command instanceof SerialTask) && Looper.myLooper() != Looper.getMainLooper() && !isShutdown()) {
+                Log.w(TAG, "Очередь пула " + name + " переполнена, задача выполняется в вызывающем потоке");
+                task.run();
+                return;
+            }
+            Log.w(TAG, "Очередь пула " + name + " выше порога: " + getQueue().size());
+        }
+        super.execute(task);
+        int depth = getQueue().size();
+        int peak;
+        while (depth > (peak = peakQueueDepth.get()) && !peakQueueDepth.compareAndSet(peak, depth)) {
+            // повторяем, пока не обновим пиковое значение
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        if (runnable instanceof TimedTask) {
+            TimedTask task = (TimedTask) runnable;
+            task.startedAt = System.nanoTime();
+            long wait = task.startedAt - task.enqueuedAt;
+            totalWaitNanos.addAndGet(wait);
+            long max;
+            while (wait > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, wait)) {
+                // повторяем, пока не обновим максимум
+            }
+            if (TimeUnit.NANOSECONDS.toMillis(wait) > SLOW_WAIT_MS) {
+                Log.w(TAG, "Задача ждала в пуле " + name + " " + TimeUnit.NANOSECONDS.toMillis(wait)
+                        + " мс, в очереди " + getQueue().size());
+            }
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable error) {
+        super.afterExecute(runnable, error);
+        if (runnable instanceof TimedTask) {
+            totalRunNanos.addAndGet(System.nanoTime() - ((TimedTask) runnable).startedAt);
+        }
+        finishedTasks.incrementAndGet();
+        if (error != null) {
+            Log.e(TAG, "Необработанное исключение в пуле " + name, error);
+        }
+    }
+
+    /**
+     * Именованные фоновые потоки: cooking-<пул>-<номер>
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.prefix = "cooking-" + name + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -4,11 +4,11 @@ import com.example.cooking.Recipe.Recipe;
 import java.util.ArrayList;
 import java.util.List;
 import android.content.Context;
+import com.example.cooking.di.AppContainer;
 import com.example.cooking.network.api.ApiService;
 import com.example.cooking.network.api.SearchApi;
 import com.example.cooking.network.responses.RecipesResponse;
 import com.example.cooking.network.responses.SearchResponse;
-import com.example.cooking.network.services.RetrofitClient;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -26,19 +26,24 @@ public class RecipeSearchService {
     private final ApiService apiService;
     private final SearchApi searchApi;
     
+    /**
+     * Не создавать напрямую - экземпляр принадлежит AppContainer
+     */
     public RecipeSearchService(Context context) {
         this.context = context.getApplicationContext();
-        this.apiService = RetrofitClient.getApiService();
-        this.searchApi = RetrofitClient.getClient().create(SearchApi.class);
+        AppContainer container = AppContainer.getInstance(context);
+        this.apiService = container.apiService();
+        this.searchApi = container.searchApi();
     }
     
     /**
-     * Заглушка для метода поиска: пока возвращает пустой список
+     * Поиск рецептов: умный (если включен в настройках) или простой
+     * @return запущенный запрос, чтобы вызывающий мог его отменить; null для пустого запроса
      */
-    public void searchRecipes(String query, SearchCallback callback) {
+    public Call<?> searchRecipes(String query, SearchCallback callback) {
         if (query == null || query.trim().isEmpty()) {
             callback.onSearchResults(Collections.emptyList());
-            return;
+            return null;
         }
         MySharedPreferences preferences = new MySharedPreferences(context);
         boolean smartSearchEnabled = preferences.getBoolean("smart_search_enabled", false);
@@ -61,9 +66,13 @@ public class RecipeSearchService {
 
                 @Override
                 public void onFailure(Call<SearchResponse> call, Throwable t) {
+                    if (call.isCanceled()) {
+                        return;
+                    }
                     callback.onSearchError(t.getMessage() != null ? t.getMessage() : "Ошибка сети при умном поиске");
                 }
             });
+            return smartCall;
         } else {
             Call<RecipesResponse> call = apiService.searchRecipesSimple(query.trim());
             call.enqueue(new Callback<RecipesResponse>() {
@@ -79,9 +88,13 @@ public class RecipeSearchService {
 
                 @Override
                 public void onFailure(Call<RecipesResponse> call, Throwable t) {
+                    if (call.isCanceled()) {
+                        return;
+                    }
                     callback.onSearchError(t.getMessage() != null ? t.getMessage() : "Ошибка сети при простом поиске");
                 }
             });
+            return call;
         }
     }
 }
\ No newline at end of file
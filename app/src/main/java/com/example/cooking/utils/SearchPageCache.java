@@ -0,0 +1,202 @@
+package com.example.cooking.utils;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш страниц результатов поиска.
+ * Хранит уже загруженные страницы для нескольких последних запросов, чтобы при
+ * возврате к запросу не выполнять повторные сетевые вызовы.
+ * Память ограничена: число запросов ограничено LRU, а у каждого запроса
+ * удаляются страницы, далекие от последней запрошенной.
+ * Если задан срок жизни, страницы запроса отбрасываются целиком, когда с первой
+ * загруженной страницы прошло больше ttlMs.
+ */
+public class SearchPageCache<T> {
+
+    // Сколько запросов держим в кэше одновременно
+    private static final int DEFAULT_MAX_QUERIES = 8;
+    // Насколько далеко (в страницах) от текущей страницы храним данные
+    private static final int DEFAULT_MAX_PAGE_DISTANCE = 5;
+    // Срок жизни выдачи поиска: она персонализирована и меняется с действиями пользователя
+    public static final long RESULTS_TTL_MS = 5 * 60 * 1000;
+
+    // 0 - без срока жизни
+    private final long ttlMs;
+    private final int maxPageDistance;
+    // Монотонные часы в мс; в тестах подменяются
+    private final LongSupplier clock;
+    // Порядок доступа: первым вытесняется давно не запрошенный запрос
+    private final LinkedHashMap<String, QueryPages<T>> queries;
+
+    /**
+     * Загруженные страницы одного запроса
+     */
+    private static class QueryPages<T> {
+        final TreeMap<Integer, List<T>> pages = new TreeMap<>();
+        // Номер последней существующей страницы, -1 если неизвестен
+        int lastPage = -1;
+        final long createdAt;
+
+        QueryPages(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+
+    public SearchPageCache() {
+        this(DEFAULT_MAX_QUERIES, DEFAULT_MAX_PAGE_DISTANCE);
+    }
+
+    public SearchPageCache(int maxQueries, int maxPageDistance) {
+        this(maxQueries, maxPageDistance, 0);
+    }
+
+    public SearchPageCache(int maxQueries, int maxPageDistance, long ttlMs) {
+        this(maxQueries, maxPageDistance, ttlMs, SystemClock::elapsedRealtime);
+    }
+
+    SearchPageCache(int maxQueries, int maxPageDistance, long ttlMs, LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.maxPageDistance = maxPageDistance;
+        this.clock = clock;
+        this.queries = new LinkedHashMap<String, QueryPages<T>>(maxQueries + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryPages<T>> eldest) {
+                return size() > maxQueries;
+            }
+        };
+    }
+
+    /**
+     * Сохранить страницу результатов
+     * @param query поисковый запрос
+     * @param page номер страницы (с 1)
+     * @param items результаты страницы
+     * @param isLastPage true, если после этой страницы результатов больше нет
+     */
+    public synchronized void putPage(String query, int page, List<T> items, boolean isLastPage) {
+        String key = normalize(query);
+        QueryPages<T> entry = fresh(key);
+        if (entry == null) {
+            entry = new QueryPages<>(clock.getAsLong());
+            queries.put(key, entry);
+        }
+        entry.pages.put(page, items != null ? new ArrayList<>(items) : new ArrayList<>());
+        if (isLastPage) {
+            entry.lastPage = page;
+        } else if (entry.lastPage != -1 && entry.lastPage <= page) {
+            // Сервер вернул больше данных, чем мы думали - сбрасываем границу
+            entry.lastPage = -1;
+        }
+        trimAround(entry, page);
+    }
+
+    /**
+     * Получить страницу из кэша
+     * @return список результатов или null, если страница не загружена
+     */
+    public synchronized List<T> getPage(String query, int page) {
+        QueryPages<T> entry = fresh(normalize(query));
+        if (entry == null) {
+            return null;
+        }
+        List<T> items = entry.pages.get(page);
+        if (items != null) {
+            trimAround(entry, page);
+        }
+        return items;
+    }
+
+    /**
+     * Количество страниц, загруженных подряд начиная с первой.
+     * Именно столько страниц можно показать без сетевых запросов.
+     */
+    public synchronized int getContiguousPageCount(String query) {
+        QueryPages<T> entry = fresh(normalize(query));
+        if (entry == null) {
+            return 0;
+        }
+        int count = 0;
+        while (entry.pages.containsKey(count + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Склеить страницы с первой по pageCount включительно
+     */
+    public synchronized List<T> getPages(String query, int pageCount) {
+        List<T> result = new ArrayList<>();
+        QueryPages<T> entry = fresh(normalize(query));
+        if (entry == null) {
+            return result;
+        }
+        for (int page = 1; page <= pageCount; page++) {
+            List<T> items = entry.pages.get(page);
+            if (items == null) {
+                break;
+            }
+            result.addAll(items);
+        }
+        return result;
+    }
+
+    /**
+     * Проверить, известна ли последняя страница и загружена ли она
+     */
+    public synchronized boolean isLastPage(String query, int page) {
+        QueryPages<T> entry = fresh(normalize(query));
+        return entry != null && entry.lastPage != -1 && page >= entry.lastPage;
+    }
+
+    /**
+     * Удалить все страницы запроса
+     */
+    public synchronized void invalidate(String query) {
+        queries.remove(normalize(query));
+    }
+
+    /**
+     * Очистить кэш полностью
+     */
+    public synchronized void clear() {
+        queries.clear();
+    }
+
+    /**
+     * Страницы запроса или null, если их нет или срок жизни истек
+     */
+    private QueryPages<T> fresh(String key) {
+        QueryPages<T> entry = queries.get(key);
+        if (entry != null && ttlMs > 0 && clock.getAsLong() - entry.createdAt > ttlMs) {
+            queries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Удаляет страницы, которые находятся дальше maxPageDistance от текущей
+     */
+    private void trimAround(QueryPages<T> entry, int currentPage) {
+        Iterator<Map.Entry<Integer, List<T>>> iterator = entry.pages.entrySet().iterator();
+        while (iterator.hasNext()) {
+            int page = iterator.next().getKey();
+            if (Math.abs(page - currentPage) > maxPageDistance) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String normalize(String query) {
+        return query == null ? "" : query.trim().toLowerCase();
+    }
+}
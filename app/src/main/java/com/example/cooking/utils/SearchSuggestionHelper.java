@@ -0,0 +1,91 @@
+package com.example.cooking.utils;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.provider.BaseColumns;
+import android.widget.SearchView;
+import android.widget.SimpleCursorAdapter;
+
+import com.example.cooking.data.search.SuggestionIndex;
+
+import java.util.List;
+
+/**
+ * Подключает выпадающие подсказки к SearchView.
+ * Подсказки считаются в фоне через SuggestionIndex, а выбор подсказки
+ * отправляет ее как обычный поисковый запрос.
+ */
+public class SearchSuggestionHelper {
+    private static final String COLUMN_SUGGESTION = "suggestion";
+    private static final String[] COLUMNS = {BaseColumns._ID, COLUMN_SUGGESTION};
+    // Максимальное количество подсказок в выпадающем списке
+    private static final int MAX_SUGGESTIONS = 8;
+
+    private final SearchView searchView;
+    private final SimpleCursorAdapter adapter;
+    private final SuggestionIndex index;
+
+    private SearchSuggestionHelper(SearchView searchView) {
+        this.searchView = searchView;
+        this.index = SuggestionIndex.getInstance(searchView.getContext());
+        this.adapter = new SimpleCursorAdapter(
+                searchView.getContext(),
+                android.R.layout.simple_list_item_1,
+                null,
+                new String[]{COLUMN_SUGGESTION},
+                new int[]{android.R.id.text1},
+                0);
+        searchView.setSuggestionsAdapter(adapter);
+        searchView.setOnSuggestionListener(new SearchView.OnSuggestionListener() {
+            @Override
+            public boolean onSuggestionSelect(int position) {
+                return false;
+            }
+
+            @Override
+            public boolean onSuggestionClick(int position) {
+                Cursor cursor = adapter.getCursor();
+                if (cursor != null && cursor.moveToPosition(position)) {
+                    String suggestion = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_SUGGESTION));
+                    // submit=true вызовет onQueryTextSubmit у слушателя фрагмента
+                    searchView.setQuery(suggestion, true);
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Подключить подсказки к SearchView
+     */
+    public static SearchSuggestionHelper attach(SearchView searchView) {
+        return new SearchSuggestionHelper(searchView);
+    }
+
+    /**
+     * Вызывать из onQueryTextChange: обновляет список подсказок
+     */
+    public void onQueryChanged(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            adapter.changeCursor(null);
+            return;
+        }
+        index.suggestAsync(text, MAX_SUGGESTIONS, this::showSuggestions);
+    }
+
+    /**
+     * Вызывать из onQueryTextSubmit: запоминает запрос в истории
+     */
+    public void onQuerySubmitted(String query) {
+        index.recordQuery(query);
+    }
+
+    private void showSuggestions(List<String> suggestions) {
+        MatrixCursor cursor = new MatrixCursor(COLUMNS, suggestions.size());
+        long id = 0;
+        for (String suggestion : suggestions) {
+            cursor.addRow(new Object[]{id++, suggestion});
+        }
+        adapter.changeCursor(cursor);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.cooking.Recipe;
+
+import com.example.cooking.network.json.Json;
+import com.google.gson.Gson;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Замер разбора ленты: потоковые адаптеры против рефлексивного Gson.
+ * Обычный прогон тестов его пропускает; запуск:
+ * BENCHMARK=1 ./gradlew :app:testDebugUnitTest --tests "*RecipeJsonBenchmark"
+ * Результат печатается в stdout (build/test-results).
+ */
+public class RecipeJsonBenchmark {
+    private static final int RECIPES = 10_000;
+    private static final int WARMUP = 10;
+    private static final int ROUNDS = 5;
+    private static final int PARSES_PER_ROUND = 5;
+
+    @Test
+    public void parseFeed() {
+        Assume.assumeNotNull(System.getenv("BENCHMARK"));
+
+        String feed = feed();
+        Gson handWritten = Json.gson();
+        Gson reflective = RecipeJsonTest.reflectiveGson();
+        for (int i = 0; i < WARMUP; i++) {
+            parse(handWritten, feed);
+            parse(reflective, feed);
+        }
+
+        // Варианты чередуются, берется лучший раунд - меньше влияние JIT и GC
+        long bestHandWritten = Long.MAX_VALUE;
+        long bestReflective = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            bestReflective = Math.min(bestReflective, measure(reflective, feed));
+            bestHandWritten = Math.min(bestHandWritten, measure(handWritten, feed));
+        }
+        report("рефлексия", bestReflective);
+        report("потоковые адаптеры", bestHandWritten);
+    }
+
+    private static long measure(Gson gson, String feed) {
+        long start = System.nanoTime();
+        for (int i = 0; i < PARSES_PER_ROUND; i++) {
+            parse(gson, feed);
+        }
+        return (System.nanoTime() - start) / PARSES_PER_ROUND;
+    }
+
+    private static void report(String name, long nanosPerFeed) {
+        System.out.printf("%s: %.1f мс на ленту из %d рецептов, %.2f мкс на рецепт%n",
+                name, nanosPerFeed / 1_000_000.0, RECIPES, nanosPerFeed / 1000.0 / RECIPES);
+    }
+
+    private static void parse(Gson gson, String feed) {
+        List<Recipe> recipes = gson.fromJson(feed, RecipeJsonTest.RECIPE_LIST);
+        assertEquals(RECIPES, recipes.size());
+    }
+
+    /**
+     * Лента с вложенными строкой списками, как в старых ответах сервера
+     */
+    private static String feed() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < RECIPES; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"title\":\"Рецепт ").append(i)
+                    .append("\",\"created_at\":\"2024-05-01 12:00:00\",\"userId\":\"42\",\"isLiked\":false,")
+                    .append("\"ingredients\":\"[");
+            for (int j = 0; j < 8; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append("{\\\"name\\\":\\\"Ингредиент ").append(j)
+                        .append("\\\",\\\"count\\\":").append(j * 50)
+                        .append(",\\\"type\\\":\\\"г\\\"}");
+            }
+            json.append("]\",\"instructions\":\"[");
+            for (int j = 0; j < 6; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append("{\\\"number\\\":").append(j + 1)
+                        .append(",\\\"instruction\\\":\\\"Шаг ").append(j + 1)
+                        .append(": перемешать и оставить на 10 минут\\\"}");
+            }
+            json.append("]\",\"meal_type\":\"Обед\",\"food_type\":\"Суп\",")
+                    .append("\"photo\":\"http://example.com/").append(i).append(".jpg\"}");
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.cooking.Recipe;
+
+import com.example.cooking.network.json.Json;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Потоковые адаптеры Recipe, Ingredient и Step против рефлексивного Gson:
+ * одинаковый результат разбора и одинаковый JSON на выходе
+ */
+public class RecipeJsonTest {
+    static final Type RECIPE_LIST = new TypeToken<List<Recipe>>() {}.getType();
+
+    // Списки строкой с JSON внутри (как в старых ответах сервера), массивом и null
+    static final String FEED = "["
+            + "{\"id\":17,\"title\":\"Блины \\\"тонкие\\\"\",\"created_at\":\"2024-05-01 12:00:00\","
+            + "\"userId\":\"42\",\"isLiked\":true,"
+            + "\"ingredients\":\"[{\\\"name\\\":\\\"Мука\\\",\\\"count\\\":200,\\\"type\\\":\\\"г\\\"},"
+            + "{\\\"name\\\":\\\"Молоко\\\",\\\"count\\\":\\\"500\\\",\\\"type\\\":\\\"мл\\\"}]\","
+            + "\"instructions\":\"[{\\\"number\\\":1,\\\"instruction\\\":\\\"Смешать\\\\nвсе\\\"},"
+            + "{\\\"number\\\":2,\\\"instruction\\\":\\\"Жарить\\\",\\\"url\\\":\\\"http://example.com/2.jpg\\\"}]\","
+            + "\"meal_type\":\"Завтрак\",\"food_type\":\"Выпечка\",\"photo\":\"http://example.com/17.jpg\","
+            + "\"rating\":4.5},"
+            + "{\"id\":18,\"title\":\"Суп\",\"isLiked\":false,"
+            + "\"ingredients\":[{\"name\":\"Вода\",\"count\":1,\"type\":\"л\"}],"
+            + "\"instructions\":[{\"number\":1,\"instruction\":\"Варить\"}],"
+            + "\"meal_type\":\"Обед\",\"food_type\":null},"
+            + "{\"id\":19,\"title\":\"Пусто\",\"ingredients\":\"\",\"instructions\":null}"
+            + "]";
+
+    private final Gson handWritten = Json.gson();
+    private final Gson reflective = reflectiveGson();
+
+    @Test
+    public void handWrittenAndReflectiveReadTheSameFeed() {
+        List<Recipe> expected = reflective.fromJson(FEED, RECIPE_LIST);
+        List<Recipe> actual = handWritten.fromJson(FEED, RECIPE_LIST);
+
+        assertEquals(3, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameRecipe(expected.get(i), actual.get(i));
+        }
+
+        Recipe pancakes = actual.get(0);
+        assertEquals("Блины \"тонкие\"", pancakes.getTitle());
+        assertEquals(500, pancakes.getIngredients().get(1).getCount());
+        assertEquals("Завтрак", pancakes.getMealType());
+        assertEquals("Выпечка", pancakes.getFoodType());
+        assertEquals("Смешать\nвсе", pancakes.getSteps().get(0).getInstruction());
+        assertTrue(actual.get(2).getIngredients().isEmpty());
+        assertTrue(actual.get(2).getSteps().isEmpty());
+    }
+
+    @Test
+    public void handWrittenWritesTheSameJsonAsReflective() {
+        for (Recipe recipe : handWritten.<List<Recipe>>fromJson(FEED, RECIPE_LIST)) {
+            assertEquals(reflective.toJson(recipe), handWritten.toJson(recipe));
+        }
+    }
+
+    @Test
+    public void roundTripKeepsEmbeddedLists() {
+        List<Recipe> original = handWritten.fromJson(FEED, RECIPE_LIST);
+        String json = handWritten.toJson(original, RECIPE_LIST);
+
+        // Списки записываются массивами - оба пути читают их одинаково
+        List<Recipe> viaHandWritten = handWritten.fromJson(json, RECIPE_LIST);
+        List<Recipe> viaReflective = reflective.fromJson(json, RECIPE_LIST);
+        for (int i = 0; i < original.size(); i++) {
+            assertSameRecipe(original.get(i), viaHandWritten.get(i));
+            assertSameRecipe(original.get(i), viaReflective.get(i));
+        }
+    }
+
+    @Test
+    public void placeholderColorIsWrittenAsHex() {
+        Recipe recipe = handWritten.fromJson("{\"id\":1,\"placeholder_color\":\"#a0522d\"}", Recipe.class);
+        assertEquals(Integer.valueOf(0xFFA0522D), recipe.getPlaceholderColor());
+
+        Recipe copy = handWritten.fromJson(handWritten.toJson(recipe), Recipe.class);
+        assertEquals(recipe.getPlaceholderColor(), copy.getPlaceholderColor());
+
+        Recipe broken = handWritten.fromJson("{\"id\":1,\"placeholder_color\":\"brown\"}", Recipe.class);
+        assertNull(broken.getPlaceholderColor());
+    }
+
+    static void assertSameRecipe(Recipe expected, Recipe actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getCreated_at(), actual.getCreated_at());
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.isLiked(), actual.isLiked());
+        assertEquals(expected.getMealType(), actual.getMealType());
+        assertEquals(expected.getFoodType(), actual.getFoodType());
+        assertEquals(expected.getPhoto_url(), actual.getPhoto_url());
+        assertEquals(expected.getIngredients(), actual.getIngredients());
+        assertEquals(expected.getSteps(), actual.getSteps());
+    }
+
+    /**
+     * Gson, который разбирает модели рефлексией в обход @JsonAdapter - так, как
+     * это было до потоковых адаптеров. Списки, пришедшие строкой, разбираются
+     * повторным fromJson, как делали прежние адаптеры полей.
+     */
+    static Gson reflectiveGson() {
+        // Не зарегистрирована: getDelegateAdapter с ней пропускает фабрику @JsonAdapter
+        TypeAdapterFactory skipJsonAdapter = new TypeAdapterFactory() {
+            @Override
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                return null;
+            }
+        };
+        return new GsonBuilder().registerTypeAdapterFactory(new TypeAdapterFactory() {
+            @Override
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                Class<?> raw = type.getRawType();
+                if (raw == Recipe.class || raw == Ingredient.class || raw == Step.class) {
+                    return gson.getDelegateAdapter(skipJsonAdapter, type);
+                }
+                if (raw == ArrayList.class && isModelList(type.getType())) {
+                    return embeddedList(gson.getDelegateAdapter(this, type));
+                }
+                return null;
+            }
+        }).create();
+    }
+
+    private static boolean isModelList(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+        return element == Ingredient.class || element == Step.class;
+    }
+
+    private static <T> TypeAdapter<T> embeddedList(TypeAdapter<T> array) {
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                array.write(out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                switch (in.peek()) {
+                    case STRING:
+                        String json = in.nextString();
+                        return json.isEmpty() ? array.fromJson("[]") : array.fromJson(json);
+                    case NULL:
+                        in.nextNull();
+                        return array.fromJson("[]");
+                    default:
+                        return array.read(in);
+                }
+            }
+        };
+    }
+}
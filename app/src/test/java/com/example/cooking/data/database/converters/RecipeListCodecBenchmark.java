@@ -0,0 +1,120 @@
+package com.example.cooking.data.database.converters;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Step;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Замер колонок ingredients и instructions: JSON-текст прежних версий базы
+ * против RecipeListCodec - размер колонки и время разбора одной строки.
+ * Обычный прогон тестов его пропускает; запуск:
+ * BENCHMARK=1 ./gradlew :app:testDebugUnitTest --tests "*RecipeListCodecBenchmark"
+ * Результат печатается в stdout (build/test-results).
+ */
+public class RecipeListCodecBenchmark {
+    private static final int ROWS = 1000;
+    private static final int WARMUP = 50;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void decodeRows() {
+        Assume.assumeNotNull(System.getenv("BENCHMARK"));
+
+        String[] ingredientsJson = new String[ROWS];
+        String[] stepsJson = new String[ROWS];
+        byte[][] ingredientsBlob = new byte[ROWS][];
+        byte[][] stepsBlob = new byte[ROWS][];
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        for (int i = 0; i < ROWS; i++) {
+            ingredientsJson[i] = ingredientsJson(i);
+            stepsJson[i] = stepsJson(i);
+            // Строки перекодируются так же, как в MIGRATION_7_8
+            ingredientsBlob[i] = RecipeListCodec.encodeIngredients(RecipeListCodec.ingredientsFromJson(ingredientsJson[i]));
+            stepsBlob[i] = RecipeListCodec.encodeSteps(RecipeListCodec.stepsFromJson(stepsJson[i]));
+            jsonBytes += ingredientsJson[i].getBytes(StandardCharsets.UTF_8).length
+                    + stepsJson[i].getBytes(StandardCharsets.UTF_8).length;
+            binaryBytes += ingredientsBlob[i].length + stepsBlob[i].length;
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            decodeJson(ingredientsJson, stepsJson);
+            decodeBinary(ingredientsBlob, stepsBlob);
+        }
+
+        // Варианты чередуются, берется лучший раунд - меньше влияние JIT и GC
+        long bestJson = Long.MAX_VALUE;
+        long bestBinary = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            bestJson = Math.min(bestJson, decodeJson(ingredientsJson, stepsJson));
+            bestBinary = Math.min(bestBinary, decodeBinary(ingredientsBlob, stepsBlob));
+        }
+        report("JSON", jsonBytes, bestJson);
+        report("RecipeListCodec", binaryBytes, bestBinary);
+    }
+
+    private static long decodeJson(String[] ingredients, String[] steps) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            check(RecipeListCodec.ingredientsFromJson(ingredients[i]), RecipeListCodec.stepsFromJson(steps[i]));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long decodeBinary(byte[][] ingredients, byte[][] steps) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            check(RecipeListCodec.decodeIngredients(ingredients[i]), RecipeListCodec.decodeSteps(steps[i]));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void check(List<Ingredient> ingredients, List<Step> steps) {
+        assertEquals(8, ingredients.size());
+        assertEquals(6, steps.size());
+    }
+
+    private static void report(String name, long bytes, long nanos) {
+        System.out.printf("%s: %d байт на строку, %.2f мкс на разбор строки (%d строк)%n",
+                name, bytes / ROWS, nanos / 1000.0 / ROWS, ROWS);
+    }
+
+    private static String ingredientsJson(int row) {
+        StringBuilder json = new StringBuilder("[");
+        for (int j = 0; j < 8; j++) {
+            if (j > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"Ингредиент ").append(row % 50).append('-').append(j)
+                    .append("\",\"count\":").append(j * 50)
+                    .append(",\"type\":\"г\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Шаги разной длины: короткие списки хранятся как есть, длинные сжимаются
+     */
+    private static String stepsJson(int row) {
+        StringBuilder json = new StringBuilder("[");
+        for (int j = 0; j < 6; j++) {
+            if (j > 0) {
+                json.append(',');
+            }
+            json.append("{\"number\":").append(j + 1)
+                    .append(",\"instruction\":\"Шаг ").append(j + 1).append(": перемешать");
+            for (int k = 0; k < row % 4; k++) {
+                json.append(", подогреть сковороду и обжарить до золотистой корочки");
+            }
+            json.append("\"}");
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.cooking.data.database.converters;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Step;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Бинарный формат колонок ingredients и instructions
+ */
+public class RecipeListCodecTest {
+    private static final int FLAG_DEFLATE = 0x80;
+
+    @Test
+    public void shortListIsStoredWithoutCompression() {
+        List<Ingredient> ingredients = Arrays.asList(
+                ingredient("Мука", 200, "г"),
+                ingredient("Яйцо", 2, "шт"));
+
+        byte[] value = RecipeListCodec.encodeIngredients(ingredients);
+
+        assertEquals(RecipeListCodec.FORMAT_VERSION, value[0]);
+        assertEquals(ingredients, RecipeListCodec.decodeIngredients(value));
+    }
+
+    @Test
+    public void deflateStartsAtThreshold() {
+        // count(1) + длина имени(2) + имя + count(1) + type(1): 255 байт данных при имени в 250
+        byte[] below = RecipeListCodec.encodeIngredients(
+                Collections.singletonList(ingredient(repeat('a', 250), 1, null)));
+        byte[] above = RecipeListCodec.encodeIngredients(
+                Collections.singletonList(ingredient(repeat('a', 251), 1, null)));
+
+        assertEquals(256, below.length);
+        assertEquals(RecipeListCodec.FORMAT_VERSION, below[0]);
+        assertEquals(RecipeListCodec.FORMAT_VERSION | FLAG_DEFLATE, above[0] & 0xFF);
+        assertTrue(above.length < 257);
+        assertEquals(repeat('a', 251), RecipeListCodec.decodeIngredients(above).get(0).getName());
+    }
+
+    @Test
+    public void longStepsAreDeflatedAndRoundTrip() {
+        List<Step> steps = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            steps.add(step(i, "Шаг " + i + ": перемешать тесто и оставить на 10 минут", null));
+        }
+
+        byte[] value = RecipeListCodec.encodeSteps(steps);
+
+        assertEquals(RecipeListCodec.FORMAT_VERSION | FLAG_DEFLATE, value[0] & 0xFF);
+        assertEquals(steps, RecipeListCodec.decodeSteps(value));
+    }
+
+    @Test
+    public void nullStringsStayNullAndEmptyStaysEmpty() {
+        List<Ingredient> ingredients = Arrays.asList(ingredient(null, 1, null), ingredient("", 2, ""));
+        List<Step> steps = Collections.singletonList(step(1, null, null));
+
+        List<Ingredient> decoded = RecipeListCodec.decodeIngredients(RecipeListCodec.encodeIngredients(ingredients));
+        List<Step> decodedSteps = RecipeListCodec.decodeSteps(RecipeListCodec.encodeSteps(steps));
+
+        assertNull(decoded.get(0).getName());
+        assertNull(decoded.get(0).getType());
+        assertEquals("", decoded.get(1).getName());
+        assertEquals("", decoded.get(1).getType());
+        assertNull(decodedSteps.get(0).getInstruction());
+        assertNull(decodedSteps.get(0).getUrl());
+    }
+
+    @Test
+    public void negativeCountsRoundTripThroughZigzag() {
+        List<Ingredient> ingredients = Arrays.asList(
+                ingredient("a", -1, null),
+                ingredient("b", Integer.MIN_VALUE, null),
+                ingredient("c", Integer.MAX_VALUE, null),
+                ingredient("d", 0, null));
+
+        assertEquals(ingredients, RecipeListCodec.decodeIngredients(RecipeListCodec.encodeIngredients(ingredients)));
+        // Небольшое отрицательное число занимает один байт, а не пять
+        byte[] single = RecipeListCodec.encodeIngredients(Collections.singletonList(ingredient(null, -1, null)));
+        assertEquals(5, single.length);
+    }
+
+    @Test
+    public void stepsWithoutNumberAreNumberedInOrder() {
+        List<Step> decoded = RecipeListCodec.decodeSteps(RecipeListCodec.encodeSteps(Arrays.asList(
+                step(0, "Смешать", null),
+                step(-5, "Жарить", null))));
+
+        assertEquals(1, decoded.get(0).getNumber());
+        assertEquals(2, decoded.get(1).getNumber());
+    }
+
+    @Test
+    public void truncatedValueDecodesToEmptyList() {
+        byte[] value = RecipeListCodec.encodeIngredients(Arrays.asList(
+                ingredient("Мука", 200, "г"),
+                ingredient("Яйцо", 2, "шт")));
+
+        assertTrue(RecipeListCodec.decodeIngredients(Arrays.copyOf(value, value.length - 3)).isEmpty());
+        assertTrue(RecipeListCodec.decodeIngredients(Arrays.copyOf(value, 1)).isEmpty());
+    }
+
+    @Test
+    public void corruptedCountDecodesToEmptyList() {
+        // Заявлено 100 элементов, данных на один
+        byte[] value = {RecipeListCodec.FORMAT_VERSION, 100, 0, 2, 0};
+        assertTrue(RecipeListCodec.decodeIngredients(value).isEmpty());
+
+        // varint без завершающего байта
+        byte[] endless = {RecipeListCodec.FORMAT_VERSION, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 1};
+        assertTrue(RecipeListCodec.decodeSteps(endless).isEmpty());
+    }
+
+    @Test
+    public void corruptedDeflateHeaderDecodesToEmptyList() {
+        List<Step> steps = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            steps.add(step(i, "Перемешать тесто и оставить на 10 минут", null));
+        }
+        byte[] value = RecipeListCodec.encodeSteps(steps);
+
+        // Длина несжатых данных больше допустимой
+        byte[] hugeLength = {(byte) (RecipeListCodec.FORMAT_VERSION | FLAG_DEFLATE),
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x7F, 0};
+        assertTrue(RecipeListCodec.decodeSteps(hugeLength).isEmpty());
+
+        // Сжатые данные обрываются
+        assertTrue(RecipeListCodec.decodeSteps(Arrays.copyOf(value, value.length / 2)).isEmpty());
+
+        // Мусор вместо deflate потока
+        byte[] garbage = value.clone();
+        for (int i = 3; i < garbage.length; i++) {
+            garbage[i] = (byte) 0xFF;
+        }
+        assertTrue(RecipeListCodec.decodeSteps(garbage).isEmpty());
+    }
+
+    @Test
+    public void legacyJsonIsDecoded() {
+        byte[] ingredientsJson = "[{\"name\":\"Мука\",\"count\":200,\"type\":\"г\"}]".getBytes(StandardCharsets.UTF_8);
+        byte[] stepsJson = "[{\"instruction\":\"Смешать\"},{\"number\":5,\"instruction\":\"Жарить\"}]"
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Collections.singletonList(ingredient("Мука", 200, "г")),
+                RecipeListCodec.decodeIngredients(ingredientsJson));
+
+        List<Step> steps = RecipeListCodec.decodeSteps(stepsJson);
+        assertEquals(2, steps.size());
+        assertEquals(1, steps.get(0).getNumber());
+        assertEquals(5, steps.get(1).getNumber());
+        assertEquals("Жарить", steps.get(1).getInstruction());
+    }
+
+    @Test
+    public void brokenLegacyJsonAndEmptyValuesDecodeToEmptyList() {
+        assertTrue(RecipeListCodec.decodeIngredients("[{\"name\":".getBytes(StandardCharsets.UTF_8)).isEmpty());
+        assertTrue(RecipeListCodec.decodeSteps("null".getBytes(StandardCharsets.UTF_8)).isEmpty());
+        assertTrue(RecipeListCodec.decodeIngredients(null).isEmpty());
+        assertTrue(RecipeListCodec.decodeSteps(new byte[0]).isEmpty());
+    }
+
+    private static Ingredient ingredient(String name, int count, String type) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        ingredient.setCount(count);
+        ingredient.setType(type);
+        return ingredient;
+    }
+
+    private static Step step(int number, String instruction, String url) {
+        Step step = new Step();
+        step.setNumber(number);
+        step.setInstruction(instruction);
+        step.setUrl(url);
+        return step;
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.cooking.data.database.converters;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Step;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Эталонные значения колонок: те же примеры сверяет задача сборки seed базы
+ * (app/build.gradle.kts), так что ее копия кодировщика не расходится с RecipeListCodec
+ */
+public class RecipeListCodecVectorsTest {
+    private static final String VECTORS = "/seed/list_column_vectors.json";
+
+    @Test
+    public void codecMatchesSeedVectors() throws IOException {
+        JsonArray vectors = readVectors();
+        assertTrue(vectors.size() > 0);
+
+        for (int i = 0; i < vectors.size(); i++) {
+            JsonObject vector = vectors.get(i).getAsJsonObject();
+            JsonElement value = vector.get("value");
+            // Сервер отдает списки и массивом, и JSON-строкой
+            String json = value.isJsonPrimitive() ? value.getAsString() : value.toString();
+            byte[] expected = fromHex(vector.get("hex").getAsString());
+            String message = "пример " + i;
+
+            if ("steps".equals(vector.get("kind").getAsString())) {
+                List<Step> steps = RecipeListCodec.stepsFromJson(json);
+                assertEquals(message, toHex(expected), toHex(RecipeListCodec.encodeSteps(steps)));
+                assertEquals(message, steps, RecipeListCodec.decodeSteps(expected));
+            } else {
+                List<Ingredient> ingredients = RecipeListCodec.ingredientsFromJson(json);
+                assertEquals(message, toHex(expected), toHex(RecipeListCodec.encodeIngredients(ingredients)));
+                assertEquals(message, ingredients, RecipeListCodec.decodeIngredients(expected));
+            }
+        }
+    }
+
+    private static JsonArray readVectors() throws IOException {
+        InputStream in = RecipeListCodecVectorsTest.class.getResourceAsStream(VECTORS);
+        assertNotNull(VECTORS, in);
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonArray();
+        }
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b & 0xFF));
+        }
+        return sb.toString();
+    }
+}
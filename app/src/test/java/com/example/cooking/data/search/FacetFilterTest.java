@@ -0,0 +1,87 @@
+package com.example.cooking.data.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Выбор фасетов: пустой фильтр, переключение значений и сочетание обоих фасетов
+ */
+public class FacetFilterTest {
+
+    @Test
+    public void emptyFilterHasNoValues() {
+        assertTrue(FacetFilter.EMPTY.isEmpty());
+        assertTrue(FacetFilter.EMPTY.getMealTypeList().isEmpty());
+        assertTrue(FacetFilter.EMPTY.getFoodTypeList().isEmpty());
+        // null не выбирает значение
+        assertEquals(FacetFilter.EMPTY, FacetFilter.EMPTY.toggleMealType(null));
+        assertTrue(FacetFilter.EMPTY.toggleFoodType(null).isEmpty());
+    }
+
+    @Test
+    public void toggleTwiceReturnsToEmpty() {
+        FacetFilter selected = FacetFilter.EMPTY.toggleMealType("Завтрак");
+
+        assertFalse(selected.isEmpty());
+        assertEquals(Collections.singletonList("Завтрак"), selected.getMealTypeList());
+        assertTrue(selected.getFoodTypes().isEmpty());
+
+        FacetFilter cleared = selected.toggleMealType("Завтрак");
+        assertTrue(cleared.isEmpty());
+        assertEquals(FacetFilter.EMPTY, cleared);
+        assertEquals(FacetFilter.EMPTY.hashCode(), cleared.hashCode());
+    }
+
+    @Test
+    public void mixedFacetsKeepBothSelections() {
+        FacetFilter filter = FacetFilter.EMPTY
+                .toggleMealType("Обед")
+                .toggleFoodType("Суп")
+                .toggleMealType("Ужин")
+                .toggleFoodType("Салат");
+
+        assertFalse(filter.isEmpty());
+        // Порядок выбора сохраняется
+        assertEquals(Arrays.asList("Обед", "Ужин"), filter.getMealTypeList());
+        assertEquals(Arrays.asList("Суп", "Салат"), filter.getFoodTypeList());
+
+        // Снятие одного фасета не трогает другой
+        FacetFilter foodOnly = filter.toggleMealType("Обед").toggleMealType("Ужин");
+        assertTrue(foodOnly.getMealTypes().isEmpty());
+        assertEquals(Arrays.asList("Суп", "Салат"), foodOnly.getFoodTypeList());
+        assertFalse(foodOnly.isEmpty());
+    }
+
+    @Test
+    public void sameValueInDifferentFacetsIsDistinct() {
+        FacetFilter meal = FacetFilter.EMPTY.toggleMealType("Десерт");
+        FacetFilter food = FacetFilter.EMPTY.toggleFoodType("Десерт");
+
+        assertNotEquals(meal, food);
+        assertEquals(meal, FacetFilter.EMPTY.toggleMealType("Десерт"));
+    }
+
+    @Test
+    public void toggleDoesNotChangeOriginal() {
+        FacetFilter original = FacetFilter.EMPTY.toggleMealType("Обед");
+
+        original.toggleMealType("Ужин").toggleFoodType("Суп");
+
+        assertEquals(Collections.singletonList("Обед"), original.getMealTypeList());
+        assertTrue(original.getFoodTypes().isEmpty());
+        try {
+            original.getMealTypes().add("Ужин");
+            fail("Ожидалась UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // Фильтр меняется только через toggle
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.cooking.data.search;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Recipe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Индекс ингредиентов: пересечение нескольких ингредиентов, удаления и
+ * изменения во время построения
+ */
+public class IngredientIndexTest {
+
+    private IngredientIndex index;
+
+    @Before
+    public void setUp() {
+        index = new IngredientIndex();
+    }
+
+    @Test
+    public void recipeWithAllIngredientsRanksFirst() {
+        index.rebuild(Arrays.asList(
+                recipe(1, "Яйца", "Молоко", "Мука"),
+                recipe(2, "Яйца", "Сыр"),
+                recipe(3, "Молоко", "Сахар")));
+
+        List<IngredientIndex.Match> matches = index.match(Arrays.asList("яйца", "молоко", "мука"), 10);
+
+        assertEquals(3, matches.size());
+        assertEquals(1, matches.get(0).getRecipeId());
+        assertEquals(3, matches.get(0).getMatchedCount());
+        assertEquals(0, matches.get(0).getMissingCount());
+        assertEquals(1f, matches.get(0).getCoverage(), 0f);
+        assertEquals(1, matches.get(1).getMatchedCount());
+    }
+
+    @Test
+    public void removedRecipeNoLongerMatches() {
+        index.rebuild(Arrays.asList(
+                recipe(1, "Яйца", "Молоко"),
+                recipe(2, "Яйца", "Молоко", "Соль")));
+
+        index.remove(1);
+        List<IngredientIndex.Match> matches = index.match(Arrays.asList("яйца", "молоко"), 10);
+
+        assertEquals(1, matches.size());
+        assertEquals(2, matches.get(0).getRecipeId());
+        assertEquals(2, matches.get(0).getMatchedCount());
+        assertEquals(3, matches.get(0).getTotalCount());
+    }
+
+    @Test
+    public void updateReplacesIngredientsOfExistingRecipe() {
+        index.rebuild(Collections.singletonList(recipe(1, "Яйца", "Молоко")));
+
+        index.update(Collections.singletonList(recipe(1, "Рис")));
+
+        assertTrue(index.match(Collections.singletonList("яйца"), 10).isEmpty());
+        assertEquals(1, index.match(Collections.singletonList("рис"), 10).get(0).getRecipeId());
+    }
+
+    @Test
+    public void matchesWordPrefixAndIgnoresEmptyQuery() {
+        index.rebuild(Collections.singletonList(recipe(1, "Помидоры черри", "Ёжевика")));
+
+        assertEquals(1, index.match(Collections.singletonList("черри"), 10).size());
+        assertEquals(1, index.match(Collections.singletonList("ежевик"), 10).size());
+        assertTrue(index.match(Collections.singletonList(" , "), 10).isEmpty());
+        assertTrue(index.match(Collections.emptyList(), 10).isEmpty());
+    }
+
+    @Test
+    public void updateBeforeBuildIsIgnored() {
+        index.update(Collections.singletonList(recipe(1, "Яйца")));
+
+        index.ensureBuilt(() -> Collections.singletonList(recipe(2, "Яйца")));
+
+        List<IngredientIndex.Match> matches = index.match(Collections.singletonList("яйца"), 10);
+        assertEquals(1, matches.size());
+        assertEquals(2, matches.get(0).getRecipeId());
+    }
+
+    @Test
+    public void changesDuringBuildAreAppliedAfterIt() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        Thread builder = new Thread(() -> index.ensureBuilt(() -> {
+            loading.countDown();
+            await(changed);
+            // Снимок прочитан до изменений
+            return Arrays.asList(recipe(1, "Яйца"), recipe(2, "Яйца"));
+        }));
+        builder.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        index.update(Collections.singletonList(recipe(3, "Яйца", "Мука")));
+        index.remove(2);
+        changed.countDown();
+        builder.join(5000);
+
+        List<Integer> ids = new ArrayList<>();
+        for (IngredientIndex.Match match : index.match(Collections.singletonList("яйца"), 10)) {
+            ids.add(match.getRecipeId());
+        }
+        Collections.sort(ids);
+        assertEquals(Arrays.asList(1, 3), ids);
+    }
+
+    @Test
+    public void concurrentCallersLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> index.ensureBuilt(() -> {
+                loads.incrementAndGet();
+                return Collections.singletonList(recipe(1, "Яйца"));
+            }));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(1, loads.get());
+        assertSame(index, index.ensureBuilt(() -> {
+            throw new AssertionError("Индекс уже построен");
+        }));
+    }
+
+    @Test
+    public void clearDuringBuildReloads() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch cleared = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Thread builder = new Thread(() -> index.ensureBuilt(() -> {
+            if (loads.incrementAndGet() == 1) {
+                loading.countDown();
+                await(cleared);
+                return Collections.singletonList(recipe(1, "Яйца"));
+            }
+            return Collections.singletonList(recipe(2, "Яйца"));
+        }));
+        builder.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        index.clear();
+        cleared.countDown();
+        builder.join(5000);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, index.match(Collections.singletonList("яйца"), 10).get(0).getRecipeId());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Recipe recipe(int id, String... ingredients) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        ArrayList<Ingredient> list = new ArrayList<>();
+        for (String name : ingredients) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(name);
+            list.add(ingredient);
+        }
+        recipe.setIngredients(list);
+        return recipe;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.cooking.data.search;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Подсказки по префиксу: пустой ввод, границы отсортированного массива и очистка
+ */
+public class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @Before
+    public void setUp() {
+        // Задачи выполняются сразу в потоке теста
+        index = new SuggestionIndex(null, Runnable::run);
+        index.addTitleTexts(Arrays.asList("Блины", "Салат Цезарь", "Борщ", "Яичница"));
+    }
+
+    @Test
+    public void emptyPrefixGivesNothing() {
+        assertTrue(index.suggest("", 10).isEmpty());
+        assertTrue(index.suggest("  ,", 10).isEmpty());
+        assertTrue(index.suggest(null, 10).isEmpty());
+        assertTrue(index.suggest("б", 0).isEmpty());
+    }
+
+    @Test
+    public void prefixAtEndOfArray() {
+        // "яичница" - последний ключ массива
+        assertEquals(Collections.singletonList("Яичница"), index.suggest("яич", 10));
+        // Префикс больше всех ключей: нижняя граница за концом массива
+        assertTrue(index.suggest("яя", 10).isEmpty());
+    }
+
+    @Test
+    public void prefixBeforeFirstKeyAndWordInside() {
+        assertTrue(index.suggest("а", 10).isEmpty());
+        assertEquals(Collections.singletonList("Салат Цезарь"), index.suggest("цез", 10));
+        assertEquals(Arrays.asList("Блины", "Борщ"), sorted(index.suggest("б", 10)));
+    }
+
+    @Test
+    public void limitKeepsBestMatches() {
+        assertEquals(1, index.suggest("б", 1).size());
+    }
+
+    @Test
+    public void clearRemovesTitles() {
+        index.clear();
+
+        assertTrue(index.suggest("б", 10).isEmpty());
+        assertTrue(index.suggest("цез", 10).isEmpty());
+
+        index.addTitleTexts(Collections.singletonList("Борщ"));
+        assertEquals(Collections.singletonList("Борщ"), index.suggest("бор", 10));
+    }
+
+    private static List<String> sorted(List<String> list) {
+        List<String> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.cooking.network.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Отслеживание запросов, возвращенных репозиторием: еще не начатые остаются
+ * в scope, завершенные не отменяются
+ */
+public class CallScopeTest {
+
+    interface PingApi {
+        @GET("ping")
+        Call<ResponseBody> ping();
+    }
+
+    private MockWebServer server;
+    private PingApi api;
+    private CallScope scope;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        // Монитор подключен так же, как к клиентам AppContainer
+        OkHttpClient client = new OkHttpClient.Builder()
+                .eventListenerFactory(NetworkUsageMonitor.getInstance().factory())
+                .addNetworkInterceptor(NetworkUsageMonitor.getInstance())
+                .build();
+        api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .build()
+                .create(PingApi.class);
+        scope = new CallScope("test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void notStartedCallStaysInScope() {
+        Call<ResponseBody> call = api.ping();
+
+        scope.track(call);
+        scope.cancelAll();
+
+        assertTrue(call.isCanceled());
+    }
+
+    @Test
+    public void finishedCallIsNotCancelled() throws IOException {
+        server.enqueue(new MockResponse().setBody("ok"));
+        Call<ResponseBody> call = api.ping();
+        call.execute().body().close();
+
+        scope.track(call);
+        scope.cancelAll();
+
+        assertFalse(call.isCanceled());
+    }
+
+    @Test
+    public void callFinishedAfterTrackingIsNotCancelled() throws IOException {
+        server.enqueue(new MockResponse().setBody("ok"));
+        Call<ResponseBody> call = api.ping();
+
+        scope.track(call);
+        call.execute().body().close();
+        scope.track(api.ping());
+        scope.cancelAll();
+
+        assertFalse(call.isCanceled());
+    }
+}
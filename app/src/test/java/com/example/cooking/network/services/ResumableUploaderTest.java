@@ -0,0 +1,343 @@
+package com.example.cooking.network.services;
+
+import android.content.SharedPreferences;
+
+import com.example.cooking.network.api.UploadApi;
+import com.example.cooking.network.json.Json;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Докачка через MockWebServer вместо сервера загрузок
+ */
+public class ResumableUploaderTest {
+    private static final MediaType JPEG = MediaType.get("image/jpeg");
+    private static final String CONTENT = "0123456789";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private InMemoryPreferences preferences;
+    private ResumableUploader uploader;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        // Без автоматических повторов OkHttp: повторы - забота загрузчика
+        OkHttpClient client = new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .build();
+        UploadApi api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create(Json.gson()))
+                .build()
+                .create(UploadApi.class);
+        preferences = new InMemoryPreferences();
+        uploader = new ResumableUploader(preferences, api, 1);
+        file = folder.newFile("photo.jpg");
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void resumesFromServerOffsetAfterDroppedChunk() throws Exception {
+        server.enqueue(session("u1"));
+        server.enqueue(accepted(4));
+        // Связь рвется после отправки второй части, сервер успел принять 2 байта из нее
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(new MockResponse().setHeader(UploadApi.HEADER_UPLOAD_OFFSET, 6));
+        server.enqueue(accepted(10));
+
+        assertEquals("u1", uploader.upload(file, JPEG, null));
+
+        assertEquals("POST", server.takeRequest().getMethod());
+        assertChunk(server.takeRequest(), "u1", 0, "0123");
+        assertChunk(server.takeRequest(), "u1", 4, "4567");
+        assertEquals("HEAD", server.takeRequest().getMethod());
+        assertChunk(server.takeRequest(), "u1", 6, "6789");
+        // Идентификатор хранится, пока сервер не принял рецепт с ним
+        assertTrue(preferences.values.containsValue("u1"));
+
+        uploader.forget(file);
+        assertTrue(preferences.values.isEmpty());
+    }
+
+    @Test
+    public void reusesCompletedUploadUntilForgotten() throws Exception {
+        server.enqueue(session("u1"));
+        server.enqueue(accepted(4));
+        server.enqueue(accepted(8));
+        server.enqueue(accepted(10));
+        assertEquals("u1", uploader.upload(file, JPEG, null));
+
+        // Запрос с загрузкой не дошел до сервера - повтор не отправляет файл снова
+        server.enqueue(new MockResponse().setHeader(UploadApi.HEADER_UPLOAD_OFFSET, 10));
+        assertEquals("u1", uploader.upload(file, JPEG, null));
+        assertEquals(5, server.getRequestCount());
+
+        uploader.forget(file);
+        server.enqueue(session("u2"));
+        server.enqueue(accepted(4));
+        server.enqueue(accepted(8));
+        server.enqueue(accepted(10));
+        assertEquals("u2", uploader.upload(file, JPEG, null));
+        assertEquals(9, server.getRequestCount());
+    }
+
+    @Test
+    public void uploadsAgainWhenServerDroppedCompletedUpload() throws Exception {
+        server.enqueue(session("u1"));
+        server.enqueue(accepted(4));
+        server.enqueue(accepted(8));
+        server.enqueue(accepted(10));
+        assertEquals("u1", uploader.upload(file, JPEG, null));
+
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(session("u2"));
+        server.enqueue(accepted(4));
+        server.enqueue(accepted(8));
+        server.enqueue(accepted(10));
+        assertEquals("u2", uploader.upload(file, JPEG, null));
+
+        for (int i = 0; i < 4; i++) {
+            server.takeRequest();
+        }
+        assertEquals("HEAD", server.takeRequest().getMethod());
+        assertEquals("POST", server.takeRequest().getMethod());
+        assertChunk(server.takeRequest(), "u2", 0, "0123");
+    }
+
+    @Test
+    public void startsNewSessionWhenServerForgetsIt() throws Exception {
+        server.enqueue(session("u1"));
+        server.enqueue(new MockResponse().setResponseCode(410));
+        server.enqueue(session("u2"));
+        server.enqueue(accepted(4));
+        server.enqueue(accepted(8));
+        server.enqueue(accepted(10));
+
+        assertEquals("u2", uploader.upload(file, JPEG, null));
+
+        assertEquals("POST", server.takeRequest().getMethod());
+        assertChunk(server.takeRequest(), "u1", 0, "0123");
+        assertEquals("POST", server.takeRequest().getMethod());
+        assertChunk(server.takeRequest(), "u2", 0, "0123");
+        assertEquals(6, server.getRequestCount());
+    }
+
+    @Test
+    public void givesUpWhenEverySessionExpires() {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(session("u" + i));
+            server.enqueue(new MockResponse().setResponseCode(404));
+        }
+
+        try {
+            uploader.upload(file, JPEG, null);
+            fail("Ожидалась IOException");
+        } catch (IOException expected) {
+            // Три сессии и ни одной лишней попытки
+        }
+        assertEquals(6, server.getRequestCount());
+        assertTrue(preferences.values.isEmpty());
+    }
+
+    @Test
+    public void resumesStoredSessionOnNextCall() throws Exception {
+        server.enqueue(session("u1"));
+        server.enqueue(accepted(4));
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        try {
+            uploader.upload(file, JPEG, null);
+            fail("Ожидалась IOException");
+        } catch (IOException expected) {
+            // Сессия остается в настройках для следующей попытки
+        }
+
+        server.enqueue(new MockResponse().setHeader(UploadApi.HEADER_UPLOAD_OFFSET, 4));
+        server.enqueue(accepted(8));
+        server.enqueue(accepted(10));
+        assertEquals("u1", uploader.upload(file, JPEG, null));
+
+        server.takeRequest();
+        server.takeRequest();
+        server.takeRequest();
+        assertEquals("HEAD", server.takeRequest().getMethod());
+        assertChunk(server.takeRequest(), "u1", 4, "4567");
+    }
+
+    private static MockResponse session(String uploadId) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"success\":true,\"upload_id\":\"" + uploadId + "\",\"chunk_size\":4}");
+    }
+
+    private static MockResponse accepted(long offset) {
+        return new MockResponse().setResponseCode(204).setHeader(UploadApi.HEADER_UPLOAD_OFFSET, offset);
+    }
+
+    private static void assertChunk(RecordedRequest request, String uploadId, long offset, String body) {
+        assertEquals("PATCH", request.getMethod());
+        assertEquals("/uploads/" + uploadId, request.getPath());
+        assertEquals(Long.toString(offset), request.getHeader(UploadApi.HEADER_UPLOAD_OFFSET));
+        assertEquals(body, request.getBody().readUtf8());
+    }
+
+    /**
+     * SharedPreferences в памяти; изменения применяются сразу
+     */
+    static final class InMemoryPreferences implements SharedPreferences {
+        final Map<String, Object> values = new HashMap<>();
+
+        @Override
+        public Map<String, ?> getAll() {
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public String getString(String key, String defValue) {
+            Object value = values.get(key);
+            return value != null ? (String) value : defValue;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<String> getStringSet(String key, Set<String> defValues) {
+            Object value = values.get(key);
+            return value != null ? (Set<String>) value : defValues;
+        }
+
+        @Override
+        public int getInt(String key, int defValue) {
+            Object value = values.get(key);
+            return value != null ? (Integer) value : defValue;
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            Object value = values.get(key);
+            return value != null ? (Long) value : defValue;
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+            Object value = values.get(key);
+            return value != null ? (Float) value : defValue;
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            Object value = values.get(key);
+            return value != null ? (Boolean) value : defValue;
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public Editor edit() {
+            return new Editor() {
+                @Override
+                public Editor putString(String key, String value) {
+                    values.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putStringSet(String key, Set<String> value) {
+                    values.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putInt(String key, int value) {
+                    values.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putLong(String key, long value) {
+                    values.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putFloat(String key, float value) {
+                    values.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putBoolean(String key, boolean value) {
+                    values.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor remove(String key) {
+                    values.remove(key);
+                    return this;
+                }
+
+                @Override
+                public Editor clear() {
+                    values.clear();
+                    return this;
+                }
+
+                @Override
+                public boolean commit() {
+                    return true;
+                }
+
+                @Override
+                public void apply() {
+                }
+            };
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.cooking.network.wire;
+
+import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.network.responses.RecipesResponse;
+import com.example.cooking.network.wire.CborReaderTest.CborWriter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Потоковый разбор каталога: рецепты отказа не доходят до получателя
+ */
+public class CatalogStreamReaderTest {
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final MediaType CBOR = MediaType.get("application/cbor");
+
+    @Test
+    public void streamsJsonRecipes() throws IOException {
+        List<Recipe> received = new ArrayList<>();
+
+        RecipesResponse envelope = CatalogStreamReader.read(ResponseBody.create(
+                "{\"success\":true,\"recipes\":[{\"id\":1},{\"id\":2}],\"count\":2}", JSON), received::add);
+
+        assertTrue(envelope.isSuccess());
+        assertEquals(2, received.size());
+        assertEquals(2, received.get(1).getId());
+    }
+
+    @Test
+    public void jsonRejectionBeforeListSkipsRecipes() throws IOException {
+        List<Recipe> received = new ArrayList<>();
+
+        RecipesResponse envelope = CatalogStreamReader.read(ResponseBody.create(
+                "{\"success\":false,\"message\":\"maintenance\",\"recipes\":[{\"id\":1}]}", JSON), received::add);
+
+        assertFalse(envelope.isSuccess());
+        assertEquals("maintenance", envelope.getMessage());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void cborRejectionBeforeListSkipsRecipes() throws IOException {
+        List<Recipe> received = new ArrayList<>();
+        CborWriter out = new CborWriter()
+                .map(2)
+                .text("success").bool(false)
+                .text("recipes").array(1).map(1).text("id").number(1);
+
+        RecipesResponse envelope = CatalogStreamReader.read(
+                ResponseBody.create(out.buffer.readByteString(), CBOR), received::add);
+
+        assertFalse(envelope.isSuccess());
+        assertTrue(received.isEmpty());
+    }
+}
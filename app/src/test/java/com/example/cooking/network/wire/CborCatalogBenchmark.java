@@ -0,0 +1,161 @@
+package com.example.cooking.network.wire;
+
+import com.example.cooking.network.json.Json;
+import com.example.cooking.network.responses.RecipesResponse;
+import com.example.cooking.network.wire.CborReaderTest.CborWriter;
+import com.google.gson.Gson;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Замер разбора каталога: один и тот же ответ GET recipes в CBOR
+ * (CborRecipeDecoder) и в JSON (Gson из AppContainer) - размер тела и время разбора.
+ * Обычный прогон тестов его пропускает; запуск:
+ * BENCHMARK=1 ./gradlew :app:testDebugUnitTest --tests "*CborCatalogBenchmark"
+ * Результат печатается в stdout (build/test-results).
+ */
+public class CborCatalogBenchmark {
+    private static final int RECIPES = 2000;
+    private static final int WARMUP = 30;
+    private static final int ROUNDS = 10;
+    private static final int PARSES_PER_ROUND = 10;
+
+    @Test
+    public void decodeCatalog() throws IOException {
+        Assume.assumeNotNull(System.getenv("BENCHMARK"));
+
+        Buffer cbor = cborCatalog();
+        String json = jsonCatalog();
+        Gson gson = Json.gson();
+        for (int i = 0; i < WARMUP; i++) {
+            decodeCbor(cbor);
+            decodeJson(gson, json);
+        }
+
+        // Варианты чередуются, берется лучший раунд - меньше влияние JIT и GC
+        long bestCbor = Long.MAX_VALUE;
+        long bestJson = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            bestJson = Math.min(bestJson, measureJson(gson, json));
+            bestCbor = Math.min(bestCbor, measureCbor(cbor));
+        }
+        report("JSON", json.getBytes(StandardCharsets.UTF_8).length, bestJson);
+        report("CBOR", cbor.size(), bestCbor);
+    }
+
+    private static long measureCbor(Buffer cbor) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < PARSES_PER_ROUND; i++) {
+            decodeCbor(cbor);
+        }
+        return (System.nanoTime() - start) / PARSES_PER_ROUND;
+    }
+
+    private static long measureJson(Gson gson, String json) {
+        long start = System.nanoTime();
+        for (int i = 0; i < PARSES_PER_ROUND; i++) {
+            decodeJson(gson, json);
+        }
+        return (System.nanoTime() - start) / PARSES_PER_ROUND;
+    }
+
+    private static void decodeCbor(Buffer cbor) throws IOException {
+        // Копия буфера разделяет сегменты с оригиналом, байты не копируются
+        check(CborRecipeDecoder.readRecipesResponse(new CborReader(cbor.clone())));
+    }
+
+    private static void decodeJson(Gson gson, String json) {
+        check(gson.fromJson(json, RecipesResponse.class));
+    }
+
+    private static void check(RecipesResponse response) {
+        assertEquals(RECIPES, response.getRecipes().size());
+        assertEquals(8, response.getRecipes().get(RECIPES - 1).getIngredients().size());
+        assertEquals(6, response.getRecipes().get(RECIPES - 1).getSteps().size());
+    }
+
+    private static void report(String name, long bytes, long nanosPerCatalog) {
+        System.out.printf("%s: %d КБ, %.1f мс на каталог из %d рецептов, %.2f мкс на рецепт%n",
+                name, bytes / 1024, nanosPerCatalog / 1_000_000.0, RECIPES, nanosPerCatalog / 1000.0 / RECIPES);
+    }
+
+    /**
+     * Тот же каталог, что и {@link #jsonCatalog()}, в CBOR
+     */
+    private static Buffer cborCatalog() {
+        CborWriter out = new CborWriter()
+                .map(3)
+                .text("success").bool(true)
+                .text("count").number(RECIPES)
+                .text("recipes").array(RECIPES);
+        for (int i = 0; i < RECIPES; i++) {
+            out.map(10)
+                    .text("id").number(i)
+                    .text("title").text("Рецепт " + i)
+                    .text("created_at").text("2024-05-01 12:00:00")
+                    .text("userId").text("42")
+                    .text("isLiked").bool(i % 3 == 0)
+                    .text("meal_type").text("Обед")
+                    .text("food_type").text("Суп")
+                    .text("photo").text("http://example.com/" + i + ".jpg")
+                    .text("ingredients").array(8);
+            for (int j = 0; j < 8; j++) {
+                out.map(3)
+                        .text("name").text("Ингредиент " + j)
+                        .text("count").number(j * 50)
+                        .text("type").text("г");
+            }
+            out.text("instructions").array(6);
+            for (int j = 0; j < 6; j++) {
+                out.map(2)
+                        .text("number").number(j + 1)
+                        .text("instruction").text("Шаг " + (j + 1) + ": перемешать и оставить на 10 минут");
+            }
+        }
+        return out.buffer;
+    }
+
+    private static String jsonCatalog() {
+        StringBuilder json = new StringBuilder("{\"success\":true,\"count\":").append(RECIPES)
+                .append(",\"recipes\":[");
+        for (int i = 0; i < RECIPES; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"title\":\"Рецепт ").append(i)
+                    .append("\",\"created_at\":\"2024-05-01 12:00:00\",\"userId\":\"42\",\"isLiked\":")
+                    .append(i % 3 == 0)
+                    .append(",\"meal_type\":\"Обед\",\"food_type\":\"Суп\",")
+                    .append("\"photo\":\"http://example.com/").append(i).append(".jpg\",")
+                    .append("\"ingredients\":[");
+            for (int j = 0; j < 8; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append("{\"name\":\"Ингредиент ").append(j)
+                        .append("\",\"count\":").append(j * 50)
+                        .append(",\"type\":\"г\"}");
+            }
+            json.append("],\"instructions\":[");
+            for (int j = 0; j < 6; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append("{\"number\":").append(j + 1)
+                        .append(",\"instruction\":\"Шаг ").append(j + 1)
+                        .append(": перемешать и оставить на 10 минут\"}");
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.cooking.network.wire;
+
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Чтение CBOR: контейнеры неопределенной длины, вложенность, пропуск значений
+ * и оборванный поток
+ */
+public class CborReaderTest {
+
+    @Test
+    public void readsIndefiniteArrayAndMap() throws IOException {
+        CborReader in = reader(new CborWriter()
+                .indefiniteArray().number(1).number(-2).number(1000).end()
+                .indefiniteMap().text("a").bool(true).text("b").nul().end());
+
+        in.beginArray();
+        assertEquals(1, in.nextLong());
+        assertEquals(-2, in.nextLong());
+        assertEquals(1000, in.nextLong());
+        assertFalse(in.hasNext());
+        in.endArray();
+
+        in.beginMap();
+        assertEquals("a", in.nextString());
+        assertTrue(in.nextBoolean());
+        assertEquals("b", in.nextString());
+        assertTrue(in.isNull());
+        assertNull(in.nextString());
+        assertFalse(in.hasNext());
+        in.endMap();
+    }
+
+    @Test
+    public void joinsIndefiniteTextChunks() throws IOException {
+        CborWriter out = new CborWriter().indefiniteText().text("Бли").text("ны").text("").end();
+
+        assertEquals("Блины", reader(out).nextString());
+    }
+
+    @Test
+    public void rejectsNestedIndefiniteTextChunk() throws IOException {
+        CborWriter out = new CborWriter().indefiniteText().indefiniteText().text("a").end().end();
+
+        try {
+            reader(out).nextString();
+            fail("Ожидалась ProtocolException");
+        } catch (ProtocolException expected) {
+            // Фрагменты строки не могут быть неопределенной длины
+        }
+    }
+
+    @Test
+    public void readsNestedMapsOfMixedLength() throws IOException {
+        CborReader in = reader(new CborWriter()
+                .map(2)
+                .text("outer").indefiniteMap()
+                .text("inner").map(1).text("value").number(42)
+                .text("list").array(2).indefiniteArray().end().map(0)
+                .end()
+                .text("after").text("ok"));
+
+        in.beginMap();
+        assertEquals("outer", in.nextString());
+        assertTrue(in.isMap());
+        in.beginMap();
+        assertEquals("inner", in.nextString());
+        in.beginMap();
+        assertEquals("value", in.nextString());
+        assertEquals(42, in.nextLong());
+        assertFalse(in.hasNext());
+        in.endMap();
+        assertEquals("list", in.nextString());
+        in.beginArray();
+        in.beginArray();
+        assertFalse(in.hasNext());
+        in.endArray();
+        in.beginMap();
+        assertFalse(in.hasNext());
+        in.endMap();
+        assertFalse(in.hasNext());
+        in.endArray();
+        assertFalse(in.hasNext());
+        in.endMap();
+        // Счетчик внешнего словаря не сбит вложенными контейнерами
+        assertTrue(in.hasNext());
+        assertEquals("after", in.nextString());
+        assertEquals("ok", in.nextString());
+        assertFalse(in.hasNext());
+        in.endMap();
+    }
+
+    @Test
+    public void skipsValuesOfEveryKind() throws IOException {
+        CborReader in = reader(new CborWriter()
+                .map(8)
+                .text("nested").indefiniteMap().text("x").array(2).number(1).indefiniteText().text("y").end().end()
+                .text("bytes").bytes(new byte[]{1, 2, 3})
+                .text("chunks").raw(0x5F).bytes(new byte[]{4}).bytes(new byte[]{5, 6}).end()
+                .text("tagged").raw(0xC1).number(1714550400)
+                .text("half").raw(0xF9, 0x3E, 0x00)
+                .text("double").raw(0xFB, 0x40, 0x09, 0x21, 0xFB, 0x54, 0x44, 0x2D, 0x18)
+                .text("big").number(1L << 40)
+                .text("last").text("done"));
+
+        in.beginMap();
+        for (int i = 0; i < 7; i++) {
+            in.nextString();
+            in.skipValue();
+        }
+        assertEquals("last", in.nextString());
+        assertEquals("done", in.nextString());
+        assertFalse(in.hasNext());
+        in.endMap();
+    }
+
+    @Test
+    public void convertsNumbersAndSkipsTags() throws IOException {
+        CborReader in = reader(new CborWriter()
+                .array(7)
+                .raw(0xF9, 0x3E, 0x00)
+                .raw(0xFA, 0x40, 0x20, 0x00, 0x00)
+                .raw(0xFB, 0x40, 0x09, 0x21, 0xFB, 0x54, 0x44, 0x2D, 0x18)
+                .raw(0xC0).text("12")
+                .number(7)
+                .raw(0xF9, 0x40, 0x00)
+                .number(0));
+
+        in.beginArray();
+        assertEquals(1.5, in.nextDouble(), 0);
+        assertEquals(2.5, in.nextDouble(), 0);
+        assertEquals(Math.PI, in.nextDouble(), 1e-15);
+        assertEquals(12, in.nextLong());
+        assertEquals("7", in.nextString());
+        assertEquals("2", in.nextString());
+        assertFalse(in.nextBoolean());
+        in.endArray();
+    }
+
+    @Test
+    public void truncatedInputFailsWithEof() throws IOException {
+        // Строка обещает 5 байт, пришло 2
+        assertEof(new Buffer().writeByte(0x65).writeUtf8("ab"), CborReaderTest::readString);
+        // Аргумент длины обрезан
+        assertEof(new Buffer().writeByte(0x79).writeByte(0x01), CborReaderTest::readString);
+        // Словарь на 2 пары, пришла одна
+        assertEof(new CborWriter().map(2).text("a").number(1).buffer, CborReaderTest::readMap);
+        // Массив неопределенной длины без BREAK
+        assertEof(new CborWriter().indefiniteArray().number(1).number(2).buffer, in -> {
+            in.beginArray();
+            while (in.hasNext()) {
+                in.nextLong();
+            }
+        });
+        // float64 без последних байт
+        assertEof(new Buffer().writeByte(0xFB).writeByte(0x40), CborReader::nextDouble);
+        // Обрыв внутри пропускаемого значения
+        assertEof(new CborWriter().map(1).text("skip").array(3).number(1).buffer, in -> {
+            in.beginMap();
+            in.nextString();
+            in.skipValue();
+        });
+        // Пустой ответ
+        assertEof(new Buffer(), CborReaderTest::readMap);
+    }
+
+    @Test
+    public void closingUnfinishedContainerFails() throws IOException {
+        CborReader in = reader(new CborWriter().map(2).text("a").number(1).text("b").number(2));
+        in.beginMap();
+        in.nextString();
+        in.nextLong();
+
+        try {
+            in.endMap();
+            fail("Ожидалась ProtocolException");
+        } catch (ProtocolException expected) {
+            // Одна пара осталась непрочитанной
+        }
+    }
+
+    @Test
+    public void rejectsWrongTypeAndTooDeepNesting() throws IOException {
+        try {
+            reader(new CborWriter().array(0)).beginMap();
+            fail("Ожидалась ProtocolException");
+        } catch (ProtocolException expected) {
+            // Массив вместо словаря
+        }
+
+        CborWriter deep = new CborWriter();
+        for (int i = 0; i < 40; i++) {
+            deep.array(1);
+        }
+        CborReader in = reader(deep.number(0));
+        try {
+            for (int i = 0; i < 40; i++) {
+                in.beginArray();
+            }
+            fail("Ожидалась ProtocolException");
+        } catch (ProtocolException expected) {
+            // Испорченный поток не переполняет стек контейнеров
+        }
+    }
+
+    private static void readString(CborReader in) throws IOException {
+        in.nextString();
+    }
+
+    private static void readMap(CborReader in) throws IOException {
+        in.beginMap();
+        while (in.hasNext()) {
+            in.nextString();
+            in.skipValue();
+        }
+        in.endMap();
+    }
+
+    private static void assertEof(Buffer data, Read read) throws IOException {
+        try {
+            read.run(new CborReader(data));
+            fail("Ожидалась EOFException");
+        } catch (EOFException expected) {
+            // Обрыв потока - IOException, а не зависание или мусор
+        }
+    }
+
+    private static CborReader reader(CborWriter out) {
+        return new CborReader(out.buffer);
+    }
+
+    private interface Read {
+        void run(CborReader in) throws IOException;
+    }
+
+    /**
+     * Минимальный кодировщик CBOR для тестов; контейнеры неопределенной длины
+     * закрываются {@link #end()}
+     */
+    static final class CborWriter {
+        final Buffer buffer = new Buffer();
+
+        CborWriter map(int pairs) {
+            return head(5, pairs);
+        }
+
+        CborWriter indefiniteMap() {
+            return raw(0xBF);
+        }
+
+        CborWriter array(int size) {
+            return head(4, size);
+        }
+
+        CborWriter indefiniteArray() {
+            return raw(0x9F);
+        }
+
+        CborWriter indefiniteText() {
+            return raw(0x7F);
+        }
+
+        CborWriter end() {
+            return raw(0xFF);
+        }
+
+        CborWriter text(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            head(3, bytes.length);
+            buffer.write(bytes);
+            return this;
+        }
+
+        CborWriter bytes(byte[] value) {
+            head(2, value.length);
+            buffer.write(value);
+            return this;
+        }
+
+        CborWriter number(long value) {
+            return value >= 0 ? head(0, value) : head(1, -1 - value);
+        }
+
+        CborWriter bool(boolean value) {
+            return raw(value ? 0xF5 : 0xF4);
+        }
+
+        CborWriter nul() {
+            return raw(0xF6);
+        }
+
+        CborWriter raw(int... bytes) {
+            for (int b : bytes) {
+                buffer.writeByte(b);
+            }
+            return this;
+        }
+
+        private CborWriter head(int major, long argument) {
+            int type = major << 5;
+            if (argument < 24) {
+                buffer.writeByte(type | (int) argument);
+            } else if (argument <= 0xFF) {
+                buffer.writeByte(type | 24).writeByte((int) argument);
+            } else if (argument <= 0xFFFF) {
+                buffer.writeByte(type | 25).writeShort((int) argument);
+            } else if (argument <= 0xFFFFFFFFL) {
+                buffer.writeByte(type | 26).writeInt((int) argument);
+            } else {
+                buffer.writeByte(type | 27).writeLong(argument);
+            }
+            return this;
+        }
+    }
+}
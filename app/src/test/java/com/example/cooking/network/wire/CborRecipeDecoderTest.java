@@ -0,0 +1,167 @@
+package com.example.cooking.network.wire;
+
+import com.example.cooking.Recipe.Ingredient;
+import com.example.cooking.Recipe.Recipe;
+import com.example.cooking.Recipe.Step;
+import com.example.cooking.network.responses.RecipesResponse;
+import com.example.cooking.network.responses.SearchResponse;
+import com.example.cooking.network.wire.CborReaderTest.CborWriter;
+
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Разбор ответов каталога и поиска из CBOR в модели
+ */
+public class CborRecipeDecoderTest {
+
+    @Test
+    public void readsCatalogAndSkipsUnknownKeys() throws IOException {
+        RecipesResponse response = CborRecipeDecoder.readRecipesResponse(new CborReader(catalog().buffer));
+
+        assertTrue(response.isSuccess());
+        assertEquals(2, response.getCount());
+        assertNull(response.getMessage());
+        List<Recipe> recipes = response.getRecipes();
+        assertEquals(2, recipes.size());
+
+        Recipe pancakes = recipes.get(0);
+        assertEquals(17, pancakes.getId());
+        assertEquals("Блины", pancakes.getTitle());
+        assertEquals("42", pancakes.getUserId());
+        assertTrue(pancakes.isLiked());
+        assertEquals("Завтрак", pancakes.getMealType());
+        assertEquals("Выпечка", pancakes.getFoodType());
+        assertEquals(Integer.valueOf(0xFFA0522D), pancakes.getPlaceholderColor());
+        assertEquals(2, pancakes.getIngredients().size());
+        assertEquals(ingredient("Мука", 200, "г"), pancakes.getIngredients().get(0));
+        assertEquals(ingredient("Молоко", 500, "мл"), pancakes.getIngredients().get(1));
+        assertEquals(1, pancakes.getSteps().size());
+        assertEquals("Смешать", pancakes.getSteps().get(0).getInstruction());
+        assertEquals("http://example.com/1.jpg", pancakes.getSteps().get(0).getUrl());
+
+        Recipe soup = recipes.get(1);
+        assertEquals(18, soup.getId());
+        assertNull(soup.getFoodType());
+        // Списки строкой с JSON внутри, как в старых ответах сервера
+        assertEquals(ingredient("Вода", 1, "л"), soup.getIngredients().get(0));
+        assertEquals(step(2, "Варить"), soup.getSteps().get(1));
+    }
+
+    @Test
+    public void streamsRecipesIntoSink() throws IOException {
+        List<Recipe> received = new ArrayList<>();
+
+        RecipesResponse response = CborRecipeDecoder.readRecipesResponse(
+                new CborReader(catalog().buffer), received::add);
+
+        assertEquals(2, received.size());
+        assertNull(response.getRecipes());
+        assertEquals(2, response.getCount());
+    }
+
+    @Test
+    public void readsSearchResultsInsideNestedData() throws IOException {
+        CborWriter out = new CborWriter()
+                .indefiniteMap()
+                .text("meta").map(1).text("took_ms").number(3)
+                .text("status").text("ok")
+                .text("data").map(3)
+                .text("page").number(1)
+                .text("results").indefiniteArray()
+                .map(2).text("id").number(5).text("title").text("Омлет")
+                .nul()
+                .end()
+                .text("facets").map(1).text("meal_type").array(1).text("Завтрак")
+                .end();
+
+        SearchResponse response = CborRecipeDecoder.readSearchResponse(new CborReader(out.buffer));
+
+        assertEquals("ok", response.getStatus());
+        List<Recipe> results = response.getData().getResults();
+        assertEquals(1, results.size());
+        assertEquals(5, results.get(0).getId());
+        assertEquals("Омлет", results.get(0).getTitle());
+    }
+
+    @Test
+    public void truncatedCatalogFails() throws IOException {
+        Buffer full = catalog().buffer;
+        long size = full.size();
+        for (long cut : new long[]{1, size / 3, size / 2, size - 1}) {
+            Buffer truncated = new Buffer();
+            full.copyTo(truncated, 0, cut);
+            try {
+                CborRecipeDecoder.readRecipesResponse(new CborReader(truncated));
+                fail("Ожидалась EOFException при обрыве на байте " + cut);
+            } catch (EOFException expected) {
+                // Частичный каталог не выдается за полный
+            }
+        }
+    }
+
+    /**
+     * Каталог из двух рецептов: списки массивами и строкой, неизвестные ключи
+     * всех видов и null
+     */
+    static CborWriter catalog() {
+        return new CborWriter()
+                .map(5)
+                .text("success").bool(true)
+                .text("server").indefiniteMap().text("version").text("2.1").text("regions").array(2)
+                .text("eu").text("us").end()
+                .text("recipes").array(2)
+                .indefiniteMap()
+                .text("id").number(17)
+                .text("title").text("Блины")
+                .text("userId").number(42)
+                .text("isLiked").bool(true)
+                .text("rating").raw(0xF9, 0x44, 0x80)
+                .text("meal_type").text("Завтрак")
+                .text("food_type").text("Выпечка")
+                .text("placeholder_color").text("#a0522d")
+                .text("tags").indefiniteArray().text("сладкое").map(1).text("weight").number(3).end()
+                .text("ingredients").array(2)
+                .map(3).text("name").text("Мука").text("count").number(200).text("type").text("г")
+                .map(4).text("name").text("Молоко").text("count").raw(0xF9, 0x5F, 0xD0)
+                .text("type").text("мл").text("brand").raw(0x5F).bytes(new byte[]{1}).end()
+                .text("instructions").array(1)
+                .map(3).text("number").number(1).text("instruction").text("Смешать")
+                .text("url").text("http://example.com/1.jpg")
+                .end()
+                .map(5)
+                .text("id").number(18)
+                .text("title").text("Суп")
+                .text("food_type").nul()
+                .text("ingredients").text("[{\"name\":\"Вода\",\"count\":1,\"type\":\"л\"}]")
+                .text("instructions").text("[{\"instruction\":\"Налить\"},{\"instruction\":\"Варить\"}]")
+                .text("count").number(2)
+                .text("message").nul();
+    }
+
+    private static Ingredient ingredient(String name, int count, String type) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        ingredient.setCount(count);
+        ingredient.setType(type);
+        return ingredient;
+    }
+
+    private static Step step(int number, String instruction) {
+        Step step = new Step();
+        step.setNumber(number);
+        step.setInstruction(instruction);
+        return step;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.cooking.network.wire;
+
+import com.example.cooking.network.api.RecipeApi;
+import com.example.cooking.network.api.SearchApi;
+import com.example.cooking.network.json.Json;
+import com.example.cooking.network.responses.RecipesResponse;
+import com.example.cooking.network.responses.SearchResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Согласование формата через MockWebServer: CBOR, если сервер его отдал,
+ * иначе JSON через Gson
+ */
+public class WireFormatConverterFactoryTest {
+    private static final String CATALOG_JSON = "{\"success\":true,\"count\":1,\"recipes\":[{\"id\":7,"
+            + "\"title\":\"Омлет\",\"ingredients\":[{\"name\":\"Яйцо\",\"count\":2,\"type\":\"шт\"}]}]}";
+
+    private MockWebServer server;
+    private RecipeApi recipeApi;
+    private SearchApi searchApi;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        // Порядок как в AppContainer: фабрика формата перед Gson
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(WireFormatConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(Json.gson()))
+                .build();
+        recipeApi = retrofit.create(RecipeApi.class);
+        searchApi = retrofit.create(SearchApi.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void fallsBackToJsonWhenServerAnswersJson() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json; charset=utf-8")
+                .setBody(CATALOG_JSON));
+
+        RecipesResponse response = recipeApi.getRecipes("42").execute().body();
+
+        assertTrue(response.isSuccess());
+        assertEquals(1, response.getRecipes().size());
+        assertEquals("Омлет", response.getRecipes().get(0).getTitle());
+        assertEquals(2, response.getRecipes().get(0).getIngredients().get(0).getCount());
+        String accept = server.takeRequest().getHeader("Accept");
+        assertTrue(accept, accept.startsWith("application/cbor"));
+        assertTrue(accept, accept.contains("application/json"));
+    }
+
+    @Test
+    public void fallsBackToJsonWithoutContentType() throws Exception {
+        server.enqueue(new MockResponse()
+                .setBody("{\"status\":\"ok\",\"data\":{\"results\":[{\"id\":3,\"title\":\"Суп\"}]}}")
+                .removeHeader("Content-Type"));
+
+        SearchResponse response = searchApi.searchRecipes("суп", "42", 1, 20).execute().body();
+
+        assertEquals("ok", response.getStatus());
+        assertEquals(3, response.getData().getResults().get(0).getId());
+    }
+
+    @Test
+    public void readsCborWhenServerAnswersCbor() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/cbor")
+                .setBody(CborRecipeDecoderTest.catalog().buffer));
+
+        Response<RecipesResponse> response = recipeApi.getRecipes("42").execute();
+
+        assertEquals(2, response.body().getRecipes().size());
+        assertEquals("Блины", response.body().getRecipes().get(0).getTitle());
+        assertEquals("Суп", response.body().getRecipes().get(1).getTitle());
+    }
+
+    @Test
+    public void truncatedCborFailsCall() throws Exception {
+        Buffer full = CborRecipeDecoderTest.catalog().buffer;
+        Buffer truncated = new Buffer();
+        full.copyTo(truncated, 0, full.size() / 2);
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/cbor")
+                .setBody(truncated));
+
+        try {
+            recipeApi.getRecipes("42").execute();
+            fail("Ожидалась IOException");
+        } catch (IOException expected) {
+            // Обрезанный каталог - ошибка сети, а не пустой ответ
+        }
+    }
+}
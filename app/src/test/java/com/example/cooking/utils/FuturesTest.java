@@ -0,0 +1,103 @@
+package com.example.cooking.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Futures.compose: значение, ошибка и отмена по цепочке; supply на месте
+ * и флаг прерывания вызывающего потока
+ */
+public class FuturesTest {
+
+    @Test
+    public void composePassesValueThrough() {
+        CompletableFuture<Integer> source = new CompletableFuture<>();
+        CompletableFuture<String> inner = new CompletableFuture<>();
+
+        CompletableFuture<String> result = Futures.compose(source, value -> inner);
+        source.complete(1);
+        inner.complete("готово");
+
+        assertEquals("готово", result.join());
+    }
+
+    @Test
+    public void composeSkipsNextWhenSourceFails() {
+        CompletableFuture<Integer> source = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = Futures.compose(source, value -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("лишний");
+        });
+        source.completeExceptionally(new IOException("нет БД"));
+
+        assertTrue(result.isCompletedExceptionally());
+        assertTrue(Futures.unwrap(result.handle((v, e) -> e).join()) instanceof IOException);
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void cancelBeforeSourceCancelsSourceAndSkipsNext() {
+        CompletableFuture<Integer> source = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = Futures.compose(source, value -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        result.cancel(true);
+
+        assertTrue(source.isCancelled());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void cancelAfterSourceCancelsInner() {
+        CompletableFuture<Integer> source = new CompletableFuture<>();
+        CompletableFuture<String> inner = new CompletableFuture<>();
+
+        CompletableFuture<String> result = Futures.compose(source, value -> inner);
+        source.complete(1);
+        result.cancel(true);
+
+        assertTrue(inner.isCancelled());
+    }
+
+    @Test
+    public void inlineSupplyKeepsCallerInterrupt() {
+        Thread.currentThread().interrupt();
+        try {
+            CompletableFuture<Integer> result = Futures.supply(Runnable::run, () -> 1);
+
+            assertEquals(Integer.valueOf(1), result.getNow(null));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void inlineSupplyClearsOwnCancelInterrupt() {
+        Runnable[] queued = new Runnable[1];
+        CompletableFuture<?>[] self = new CompletableFuture<?>[1];
+        CompletableFuture<Integer> result = Futures.supply(task -> queued[0] = task, () -> {
+            // Задача отменяется во время выполнения, как при cancelAll
+            self[0].cancel(true);
+            return 1;
+        });
+        self[0] = result;
+
+        queued[0].run();
+
+        assertTrue(result.isCancelled());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.cooking.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Кэш страниц поиска: срок жизни, вытеснение запросов и дальних страниц
+ */
+public class SearchPageCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    @Test
+    public void pagesExpireAfterTtl() {
+        SearchPageCache<String> cache = new SearchPageCache<>(8, 5, 100, now::get);
+        cache.putPage("Суп", 1, Arrays.asList("a", "b"), false);
+
+        now.addAndGet(100);
+        assertEquals(Arrays.asList("a", "b"), cache.getPage("суп ", 1));
+
+        now.addAndGet(1);
+        assertNull(cache.getPage("суп", 1));
+        assertEquals(0, cache.getContiguousPageCount("суп"));
+    }
+
+    @Test
+    public void ttlCountsFromFirstPage() {
+        SearchPageCache<String> cache = new SearchPageCache<>(8, 5, 100, now::get);
+        cache.putPage("суп", 1, Collections.singletonList("a"), false);
+        now.addAndGet(80);
+        cache.putPage("суп", 2, Collections.singletonList("b"), true);
+
+        now.addAndGet(30);
+        // Вторая страница моложе срока, но запрос отбрасывается целиком
+        assertNull(cache.getPage("суп", 2));
+        assertFalse(cache.isLastPage("суп", 2));
+    }
+
+    @Test
+    public void zeroTtlNeverExpires() {
+        SearchPageCache<String> cache = new SearchPageCache<>(8, 5, 0, now::get);
+        cache.putPage("суп", 1, Collections.singletonList("a"), true);
+
+        now.addAndGet(Long.MAX_VALUE / 2);
+        assertNotNull(cache.getPage("суп", 1));
+        assertTrue(cache.isLastPage("суп", 1));
+    }
+
+    @Test
+    public void leastRecentlyUsedQueryIsEvicted() {
+        SearchPageCache<String> cache = new SearchPageCache<>(2, 5, 0, now::get);
+        cache.putPage("суп", 1, Collections.singletonList("a"), false);
+        cache.putPage("борщ", 1, Collections.singletonList("b"), false);
+        // Обращение делает "суп" свежее "борща"
+        cache.getPage("суп", 1);
+
+        cache.putPage("блины", 1, Collections.singletonList("c"), false);
+
+        assertNotNull(cache.getPage("суп", 1));
+        assertNull(cache.getPage("борщ", 1));
+        assertNotNull(cache.getPage("блины", 1));
+    }
+
+    @Test
+    public void farPagesAreTrimmed() {
+        SearchPageCache<String> cache = new SearchPageCache<>(8, 2, 0, now::get);
+        for (int page = 1; page <= 5; page++) {
+            cache.putPage("суп", page, Collections.singletonList("p" + page), false);
+        }
+
+        assertNull(cache.getPage("суп", 1));
+        assertNull(cache.getPage("суп", 2));
+        assertEquals(Collections.singletonList("p3"), cache.getPage("суп", 3));
+        assertEquals(0, cache.getContiguousPageCount("суп"));
+    }
+
+    @Test
+    public void contiguousPagesAndClear() {
+        SearchPageCache<String> cache = new SearchPageCache<>(8, 5, 0, now::get);
+        cache.putPage("суп", 1, Collections.singletonList("a"), false);
+        cache.putPage("суп", 2, Collections.singletonList("b"), false);
+        cache.putPage("суп", 4, Collections.singletonList("d"), false);
+
+        assertEquals(2, cache.getContiguousPageCount("суп"));
+        assertEquals(Arrays.asList("a", "b"), cache.getPages("суп", 2));
+
+        cache.clear();
+        assertNull(cache.getPage("суп", 1));
+    }
+}
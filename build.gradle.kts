@@ -1,4 +1,14 @@
 // Top-level build file where you can add configuration options common to all sub-projects/modules.
+buildscript {
+    repositories {
+        mavenCentral()
+    }
+    dependencies {
+        // SQLite JDBC для сборки предзаполненной базы (:app:buildSeedDatabase)
+        classpath("org.xerial:sqlite-jdbc:3.46.1.3")
+    }
+}
+
 plugins {
     id("com.google.gms.google-services") version "4.4.2" apply false
     alias(libs.plugins.android.application) apply false